@@ -30,6 +30,7 @@ import com.spotify.heroic.grammar.*
 @JsonTypeInfo(use = JsonTypeInfo.Id.NAME, include = JsonTypeInfo.As.PROPERTY, property = "type")
 @JsonSubTypes(
     JsonSubTypes.Type(CardinalityMethod.HyperLogLogCardinalityMethod::class),
+    JsonSubTypes.Type(CardinalityMethod.HyperLogLogPlusCardinalityMethod::class),
     JsonSubTypes.Type(CardinalityMethod.ExactCardinalityMethod::class)
 )
 interface CardinalityMethod {
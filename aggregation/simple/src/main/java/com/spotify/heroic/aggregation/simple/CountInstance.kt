@@ -45,4 +45,11 @@ data class CountInstance(
     override fun reducer(): AggregationInstance {
         return SumInstance(size, extent)
     }
+
+    /**
+     * Buckets count every rollup as a single sample.
+     */
+    override fun acceptsRollups(resolution: Long): Boolean {
+        return false
+    }
 }
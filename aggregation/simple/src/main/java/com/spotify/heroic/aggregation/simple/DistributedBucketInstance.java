@@ -46,4 +46,13 @@ public abstract class DistributedBucketInstance<B extends Bucket>
     public AggregationInstance distributed() {
         return new SpreadInstance(getSize(), getExtent());
     }
+
+    /**
+     * Rollups can be fed to the buckets in place of points if every rollup interval ends up in
+     * the same buckets as the points it was built from.
+     */
+    @Override
+    public boolean acceptsRollups(final long resolution) {
+        return getSize() % resolution == 0 && getExtent() % resolution == 0;
+    }
 }
@@ -48,8 +48,12 @@ abstract class FilterAggregation(
         return INNER
     }
 
+    /**
+     * The filter has to be applied when reducing, since nothing is filtered by the distributed
+     * aggregation.
+     */
     override fun reducer(): AggregationInstance {
-        return INNER
+        return this
     }
 
     /**
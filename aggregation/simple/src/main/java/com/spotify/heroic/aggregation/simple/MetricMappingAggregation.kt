@@ -48,8 +48,12 @@ abstract class MetricMappingAggregation(
         return Session(INNER.session(range, quotaWatcher, bucketStrategy))
     }
 
+    /**
+     * Mappings are applied to each point independently, so they can be applied both by the data
+     * nodes and when reducing.
+     */
     override fun distributed(): AggregationInstance {
-        return INNER
+        return this
     }
 
     override fun hashTo(hasher: ObjectHasher) {
@@ -118,6 +118,9 @@ public class Module implements HeroicModule {
                     }
                 });
 
+            c.registerInstance(DistributedQuantileInstance.NAME,
+                DistributedQuantileInstance.class);
+
             c.register(Delta.NAME, Delta.class, DeltaInstance.class, args -> Delta.INSTANCE);
 
             c.register(DeltaPerSecond.NAME, DeltaPerSecond.class,
@@ -38,7 +38,9 @@
 package com.spotify.heroic.aggregation.simple
 
 import com.spotify.heroic.aggregation.AbstractBucket
+import com.spotify.heroic.metric.Payload
 import com.spotify.heroic.metric.Point
+import java.nio.ByteBuffer
 import java.util.Arrays
 import java.util.LinkedList
 
@@ -83,6 +85,9 @@ data class QuantileBucket(
     val sampleSize: Int
         @Synchronized get() = samples.size
 
+    val isEmpty: Boolean
+        @Synchronized get() = count == 0L
+
     /**
      * Add a new data point from the stream.
      *
@@ -99,6 +104,67 @@ data class QuantileBucket(
         }
     }
 
+    /**
+     * Merge the serialized summary of another bucket, as produced by [state].
+     *
+     * Merged items keep their own rank uncertainty, so the error of the result is bounded by the
+     * sum of the errors of the merged summaries.
+     */
+    @Synchronized
+    override fun updatePayload(key: Map<String, String>, sample: Payload) {
+        val buffer = ByteBuffer.wrap(sample.state)
+        val otherCount = buffer.long
+        val size = buffer.int
+
+        if (size == 0) {
+            return
+        }
+
+        insertBatch()
+
+        val it = samples.listIterator()
+
+        for (i in 0 until size) {
+            val value = buffer.double
+            val g = buffer.int
+            val delta = buffer.int
+
+            while (it.hasNext()) {
+                if (it.next().value > value) {
+                    it.previous()
+                    break
+                }
+            }
+
+            it.add(SampleItem(value, delta, g))
+        }
+
+        count += otherCount
+        compressSamples()
+    }
+
+    /**
+     * Serialize the summary of this bucket, so that it can be merged into another bucket.
+     */
+    @Synchronized
+    fun state(): ByteArray {
+        if (index > 0) {
+            compact()
+        }
+
+        val buffer = ByteBuffer.allocate(HEADER_SIZE + samples.size * ITEM_SIZE)
+        buffer.putLong(count)
+        buffer.putInt(samples.size)
+
+        for (item in samples) {
+            buffer.putDouble(item.value)
+            buffer.putInt(item.g)
+            buffer.putInt(item.delta)
+        }
+
+        return buffer.array()
+    }
+
     @Synchronized
     fun value(): Double {
         if (index > 0) {
@@ -266,4 +332,9 @@ data class QuantileBucket(
     }
 
     private data class SampleItem(val value: Double, val delta: Int, var g: Int)
+
+    companion object {
+        private const val HEADER_SIZE = java.lang.Long.BYTES + Integer.BYTES
+        private const val ITEM_SIZE = java.lang.Double.BYTES + 2 * Integer.BYTES
+    }
 }
@@ -23,6 +23,7 @@ package com.spotify.heroic.aggregation.simple
 
 import com.google.common.collect.ImmutableSet
 import com.spotify.heroic.ObjectHasher
+import com.spotify.heroic.aggregation.AggregationInstance
 import com.spotify.heroic.aggregation.BucketAggregationInstance
 import com.spotify.heroic.metric.Metric
 import com.spotify.heroic.metric.MetricType
@@ -39,7 +40,19 @@ data class QuantileInstance(
         return QuantileBucket(timestamp, q, error)
     }
 
+    override fun distributed(): AggregationInstance {
+        return DistributedQuantileInstance(size, extent, q, error)
+    }
+
+    override fun reducer(): AggregationInstance {
+        return ReduceQuantileInstance(size, extent, q, error)
+    }
+
     override fun build(bucket: QuantileBucket): Metric {
+        if (bucket.isEmpty) {
+            return Metric.invalid()
+        }
+
         val value = bucket.value()
 
         return if (java.lang.Double.isNaN(value)) {
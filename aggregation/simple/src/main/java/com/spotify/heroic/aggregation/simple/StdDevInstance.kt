@@ -22,7 +22,6 @@
 package com.spotify.heroic.aggregation.simple
 
 import com.google.common.collect.ImmutableSet
-import com.spotify.heroic.aggregation.BucketAggregationInstance
 import com.spotify.heroic.metric.Metric
 import com.spotify.heroic.metric.MetricType
 import com.spotify.heroic.metric.Point
@@ -30,7 +29,7 @@ import com.spotify.heroic.metric.Point
 data class StdDevInstance(
     override val size: Long,
     override val extent: Long
-) : BucketAggregationInstance<StripedStdDevBucket>(size, extent, ImmutableSet.of(MetricType.POINT, MetricType.SPREAD), MetricType.POINT) {
+) : DistributedBucketInstance<StripedStdDevBucket>(size, extent, ImmutableSet.of(MetricType.POINT, MetricType.SPREAD), MetricType.POINT) {
 
     override fun buildBucket(timestamp: Long): StripedStdDevBucket {
         return StripedStdDevBucket(timestamp)
@@ -1,5 +1,6 @@
 package com.spotify.heroic.aggregation.simple;
 
+import com.spotify.heroic.metric.Payload;
 import com.spotify.heroic.metric.Point;
 import org.junit.Assert;
 import org.junit.Test;
@@ -40,4 +41,27 @@ public class QuantileBucketTest {
 
         Assert.assertEquals(1000.0, b.value(), 10000 * ERROR);
     }
+
+    @Test
+    public void testMergeStates() throws IOException {
+        final QuantileBucket a = new QuantileBucket(0, 0.5, ERROR);
+        final QuantileBucket b = new QuantileBucket(0, 0.5, ERROR);
+
+        for (int i = 1; i <= 10000; i++) {
+            (i % 3 == 0 ? a : b).updatePoint(TAGS, new Point(0, i));
+        }
+
+        final QuantileBucket reduced = new QuantileBucket(0, 0.5, ERROR);
+        reduced.updatePayload(TAGS, new Payload(0, a.state()));
+        reduced.updatePayload(TAGS, new Payload(0, b.state()));
+
+        Assert.assertEquals(5000.0, reduced.value(), 2 * 10000 * ERROR);
+    }
+
+    @Test
+    public void testEmptyState() throws IOException {
+        final QuantileBucket reduced = new QuantileBucket(0, 0.5, ERROR);
+        reduced.updatePayload(TAGS, new Payload(0, new QuantileBucket(0, 0.5, ERROR).state()));
+        Assert.assertTrue(reduced.isEmpty());
+    }
 }
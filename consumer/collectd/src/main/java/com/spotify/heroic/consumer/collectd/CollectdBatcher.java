@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.heroic.consumer.collectd;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.spotify.heroic.common.Series;
+import com.spotify.heroic.ingestion.Ingestion;
+import com.spotify.heroic.ingestion.IngestionGroup;
+import com.spotify.heroic.ingestion.Request;
+import com.spotify.heroic.metric.Metric;
+import com.spotify.heroic.metric.MetricCollection;
+import com.spotify.heroic.metric.Point;
+import com.spotify.heroic.statistics.ConsumerReporter;
+import eu.toolchain.async.AsyncFramework;
+import eu.toolchain.async.AsyncFuture;
+import io.netty.buffer.ByteBuf;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import org.slf4j.Logger;
+
+/**
+ * Decodes collectd packets off the event loop threads.
+ * <p>
+ * Received packets are put in a bounded backlog, which is drained in batches by a set of decoder
+ * threads. All samples in a batch that belong to the same series are coalesced into a single
+ * ingestion write.
+ */
+public class CollectdBatcher {
+    private static final Logger log = org.slf4j.LoggerFactory.getLogger(CollectdBatcher.class);
+
+    private final AsyncFramework async;
+    private final IngestionGroup ingestion;
+    private final CollectdDecoder decoder;
+    private final ConsumerReporter reporter;
+    private final int batchSize;
+    private final BlockingQueue<ByteBuf> backlog;
+    private final List<Thread> threads;
+
+    private volatile boolean stopped = false;
+
+    public CollectdBatcher(
+        final AsyncFramework async, final IngestionGroup ingestion,
+        final CollectdDecoder decoder, final ConsumerReporter reporter, final int threads,
+        final int batchSize, final int backlog
+    ) {
+        this.async = async;
+        this.ingestion = ingestion;
+        this.decoder = decoder;
+        this.reporter = reporter;
+        this.batchSize = batchSize;
+        this.backlog = new ArrayBlockingQueue<>(backlog);
+
+        final ThreadFactory factory = new ThreadFactoryBuilder()
+            .setNameFormat("heroic-collectd-decoder-%d")
+            .setDaemon(true)
+            .build();
+
+        final List<Thread> decoders = new ArrayList<>();
+
+        for (int i = 0; i < threads; i++) {
+            decoders.add(factory.newThread(this::run));
+        }
+
+        this.threads = decoders;
+    }
+
+    public void start() {
+        for (final Thread thread : threads) {
+            thread.start();
+        }
+    }
+
+    public void stop() {
+        stopped = true;
+
+        for (final Thread thread : threads) {
+            thread.interrupt();
+        }
+
+        for (final Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        final List<ByteBuf> remaining = new ArrayList<>();
+        backlog.drainTo(remaining);
+        remaining.forEach(ByteBuf::release);
+    }
+
+    /**
+     * Offer a packet to the backlog.
+     *
+     * @return {@code true} if the packet was accepted, {@code false} if the backlog is full and
+     * the packet should be dropped.
+     */
+    public boolean offer(final ByteBuf packet) {
+        return !stopped && backlog.offer(packet);
+    }
+
+    private void run() {
+        final List<ByteBuf> batch = new ArrayList<>(batchSize);
+
+        while (!stopped) {
+            try {
+                batch.add(backlog.take());
+            } catch (final InterruptedException e) {
+                break;
+            }
+
+            backlog.drainTo(batch, batchSize - 1);
+            reporter.reportMessageBacklog(backlog.size());
+
+            try {
+                process(batch);
+            } catch (final Exception e) {
+                log.error("Failed to process batch of {} packet(s)", batch.size(), e);
+            } finally {
+                batch.forEach(ByteBuf::release);
+                batch.clear();
+            }
+        }
+    }
+
+    void process(final List<ByteBuf> batch) {
+        final Map<Series, List<Point>> series = new HashMap<>();
+        int metrics = 0;
+
+        for (final ByteBuf packet : batch) {
+            final List<Request> requests;
+
+            try {
+                requests = decoder.decode(packet);
+            } catch (final Exception e) {
+                log.debug("Failed to decode packet", e);
+                reporter.reportMessageError();
+                continue;
+            }
+
+            for (final Request request : requests) {
+                series
+                    .computeIfAbsent(request.getSeries(), s -> new ArrayList<>())
+                    .addAll(request.getData().getDataAs(Point.class));
+            }
+
+            metrics += requests.size();
+        }
+
+        final List<AsyncFuture<Ingestion>> futures = new ArrayList<>(series.size());
+
+        for (final Map.Entry<Series, List<Point>> e : series.entrySet()) {
+            final List<Point> points = e.getValue();
+            points.sort(Metric.comparator);
+            futures.add(ingestion.write(new Request(e.getKey(), MetricCollection.points(points))));
+        }
+
+        reporter.reportMetricsIn(metrics);
+        async.collectAndDiscard(futures);
+    }
+}
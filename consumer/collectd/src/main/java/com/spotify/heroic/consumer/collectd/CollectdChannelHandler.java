@@ -21,73 +21,69 @@
 
 package com.spotify.heroic.consumer.collectd;
 
-import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Iterables;
-import com.spotify.heroic.common.GrokProcessor;
 import com.spotify.heroic.ingestion.Ingestion;
 import com.spotify.heroic.ingestion.IngestionGroup;
 import com.spotify.heroic.ingestion.Request;
+import com.spotify.heroic.statistics.ConsumerReporter;
 import eu.toolchain.async.AsyncFramework;
 import eu.toolchain.async.AsyncFuture;
+import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.channel.socket.DatagramPacket;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
-import org.apache.commons.lang3.tuple.Pair;
 
+/**
+ * Receives collectd packets.
+ * <p>
+ * Packets are either decoded and written directly on the event loop, or handed off to a
+ * {@link CollectdBatcher} which decodes them on its own threads.
+ */
+@ChannelHandler.Sharable
 public class CollectdChannelHandler extends SimpleChannelInboundHandler<DatagramPacket> {
     private final AsyncFramework async;
     private final IngestionGroup ingestion;
-    private final Optional<GrokProcessor> hostProcessor;
-    private final CollectdTypes types;
+    private final CollectdDecoder decoder;
+    private final ConsumerReporter reporter;
+    private final Optional<CollectdBatcher> batcher;
 
-    @java.beans.ConstructorProperties({ "async", "ingestion", "hostProcessor", "types" })
-    public CollectdChannelHandler(final AsyncFramework async, final IngestionGroup ingestion,
-                                  final Optional<GrokProcessor> hostProcessor,
-                                  final CollectdTypes types) {
+    @java.beans.ConstructorProperties({ "async", "ingestion", "decoder", "reporter", "batcher" })
+    public CollectdChannelHandler(
+        final AsyncFramework async, final IngestionGroup ingestion,
+        final CollectdDecoder decoder, final ConsumerReporter reporter,
+        final Optional<CollectdBatcher> batcher
+    ) {
         this.async = async;
         this.ingestion = ingestion;
-        this.hostProcessor = hostProcessor;
-        this.types = types;
+        this.decoder = decoder;
+        this.reporter = reporter;
+        this.batcher = batcher;
     }
 
     @Override
     protected void channelRead0(final ChannelHandlerContext ctx, final DatagramPacket msg) {
-        final Iterator<CollectdSample> samples = CollectdParser.parse(msg.content());
-
-        while (samples.hasNext()) {
-            final CollectdSample s = samples.next();
-
-            final Set<Map.Entry<String, String>> base =
-                ImmutableMap.of("host", s.getHost(), "plugin", s.getPlugin()).entrySet();
-
-            final List<Request> ingestions;
-
-            if (hostProcessor.isPresent()) {
-                final Map<String, Object> parts = hostProcessor.get().parse(s.getHost());
+        reporter.reportMessageSize(msg.content().readableBytes());
 
-                final Set<Map.Entry<String, String>> tags = ImmutableSet.copyOf(
-                    Iterables.transform(parts.entrySet(),
-                        e -> Pair.of(e.getKey(), e.getValue().toString())));
-
-                ingestions = types.convert(s, Iterables.concat(base, tags));
-            } else {
-                ingestions = types.convert(s, base);
+        if (batcher.isPresent()) {
+            // released by the batcher once decoded
+            if (!batcher.get().offer(msg.content().retain())) {
+                msg.content().release();
+                reporter.reportMessageDrop();
             }
 
-            final List<AsyncFuture<Ingestion>> futures = new ArrayList<>();
+            return;
+        }
 
-            for (final Request w : ingestions) {
-                futures.add(ingestion.write(w));
-            }
+        final List<Request> requests = decoder.decode(msg.content());
+        final List<AsyncFuture<Ingestion>> futures = new ArrayList<>();
 
-            async.collectAndDiscard(futures);
+        for (final Request w : requests) {
+            futures.add(ingestion.write(w));
         }
+
+        reporter.reportMetricsIn(requests.size());
+        async.collectAndDiscard(futures);
     }
 }
@@ -25,12 +25,14 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.spotify.heroic.common.GrokProcessor;
 import com.spotify.heroic.consumer.ConsumerModule;
+import com.spotify.heroic.consumer.SeriesCache;
 import com.spotify.heroic.dagger.PrimaryComponent;
 import com.spotify.heroic.ingestion.IngestionComponent;
 import com.spotify.heroic.ingestion.IngestionGroup;
 import com.spotify.heroic.ingestion.IngestionManager;
 import com.spotify.heroic.lifecycle.LifeCycle;
 import com.spotify.heroic.lifecycle.LifeCycleManager;
+import com.spotify.heroic.statistics.ConsumerReporter;
 import dagger.Component;
 import dagger.Module;
 import dagger.Provides;
@@ -48,6 +50,10 @@ import org.slf4j.Logger;
 
 public class CollectdConsumerModule implements ConsumerModule {
     private static final int DEFAULT_PORT = 25826;
+    private static final int DEFAULT_THREADS = 1;
+    private static final int DEFAULT_DECODER_THREADS = 0;
+    private static final int DEFAULT_BATCH_SIZE = 64;
+    private static final int DEFAULT_BACKLOG = 8192;
     private static final Logger log =
       org.slf4j.LoggerFactory.getLogger(CollectdConsumerModule.class);
 
@@ -56,19 +62,31 @@ public class CollectdConsumerModule implements ConsumerModule {
     private final Optional<Integer> port;
     private final Optional<GrokProcessor> hostProcessor;
     private final CollectdTypes types;
+    private final int threads;
+    private final int decoderThreads;
+    private final int batchSize;
+    private final int backlog;
 
     private CollectdConsumerModule(
         Optional<String> id,
         Optional<String> host,
         Optional<Integer> port,
         Optional<GrokProcessor> hostProcessor,
-        CollectdTypes types
+        CollectdTypes types,
+        int threads,
+        int decoderThreads,
+        int batchSize,
+        int backlog
     ) {
         this.id = id;
         this.host = host;
         this.port = port;
         this.hostProcessor = hostProcessor;
         this.types = types;
+        this.threads = threads;
+        this.decoderThreads = decoderThreads;
+        this.batchSize = batchSize;
+        this.backlog = backlog;
     }
 
     @Override
@@ -149,7 +167,8 @@ public class CollectdConsumerModule implements ConsumerModule {
         @Provides
         @CollectdScope
         Managed<Server> connection(
-            final AsyncFramework async, final IngestionManager ingestionManager
+            final AsyncFramework async, final IngestionManager ingestionManager,
+            final ConsumerReporter reporter
         ) {
             return async.managed(new ManagedSetup<Server>() {
                 @Override
@@ -160,8 +179,21 @@ public class CollectdConsumerModule implements ConsumerModule {
                         log.warn("No backends are part of the selected ingestion group");
                     }
 
+                    final CollectdDecoder decoder =
+                        new CollectdDecoder(hostProcessor, types, new SeriesCache(reporter));
+
+                    final Optional<CollectdBatcher> batcher;
+
+                    if (decoderThreads > 0) {
+                        batcher = Optional.of(
+                            new CollectdBatcher(async, ingestion, decoder, reporter,
+                                decoderThreads, batchSize, backlog));
+                    } else {
+                        batcher = Optional.empty();
+                    }
+
                     final CollectdChannelHandler handler =
-                        new CollectdChannelHandler(async, ingestion, hostProcessor, types);
+                        new CollectdChannelHandler(async, ingestion, decoder, reporter, batcher);
 
                     final InetAddress h = host.map(host -> {
                         try {
@@ -173,8 +205,9 @@ public class CollectdConsumerModule implements ConsumerModule {
 
                     final int p = port.orElse(DEFAULT_PORT);
 
-                    log.info("Setting up on {}:{}", h, p);
-                    return Server.setup(async, handler, h, p);
+                    log.info("Setting up on {}:{} ({} thread(s), {} decoder thread(s))", h, p,
+                        threads, decoderThreads);
+                    return Server.setup(async, handler, h, p, threads, batcher);
                 }
 
                 @Override
@@ -192,6 +225,10 @@ public class CollectdConsumerModule implements ConsumerModule {
         private Optional<Integer> port = Optional.empty();
         private Optional<GrokProcessor> hostProcessor = Optional.empty();
         private Optional<CollectdTypes> types = Optional.empty();
+        private Optional<Integer> threads = Optional.empty();
+        private Optional<Integer> decoderThreads = Optional.empty();
+        private Optional<Integer> batchSize = Optional.empty();
+        private Optional<Integer> backlog = Optional.empty();
 
         @JsonCreator
         public Builder(
@@ -199,13 +236,21 @@ public class CollectdConsumerModule implements ConsumerModule {
             @JsonProperty("host") Optional<String> host,
             @JsonProperty("port") Optional<Integer> port,
             @JsonProperty("hostPattern") Optional<GrokProcessor> hostPattern,
-            @JsonProperty("types") Optional<CollectdTypes> types
+            @JsonProperty("types") Optional<CollectdTypes> types,
+            @JsonProperty("threads") Optional<Integer> threads,
+            @JsonProperty("decoderThreads") Optional<Integer> decoderThreads,
+            @JsonProperty("batchSize") Optional<Integer> batchSize,
+            @JsonProperty("backlog") Optional<Integer> backlog
         ) {
             this.id = id;
             this.host = host;
             this.port = port;
             this.hostProcessor = hostPattern;
             this.types = types;
+            this.threads = threads;
+            this.decoderThreads = decoderThreads;
+            this.batchSize = batchSize;
+            this.backlog = backlog;
         }
 
         private Builder() {
@@ -236,6 +281,26 @@ public class CollectdConsumerModule implements ConsumerModule {
             return this;
         }
 
+        public Builder threads(int threads) {
+            this.threads = Optional.of(threads);
+            return this;
+        }
+
+        public Builder decoderThreads(int decoderThreads) {
+            this.decoderThreads = Optional.of(decoderThreads);
+            return this;
+        }
+
+        public Builder batchSize(int batchSize) {
+            this.batchSize = Optional.of(batchSize);
+            return this;
+        }
+
+        public Builder backlog(int backlog) {
+            this.backlog = Optional.of(backlog);
+            return this;
+        }
+
         @Override
         public ConsumerModule build() {
             // @formatter:off
@@ -244,7 +309,11 @@ public class CollectdConsumerModule implements ConsumerModule {
                 host,
                 port,
                 hostProcessor,
-                types.orElseGet(CollectdTypes::supplyDefault)
+                types.orElseGet(CollectdTypes::supplyDefault),
+                threads.orElse(DEFAULT_THREADS),
+                decoderThreads.orElse(DEFAULT_DECODER_THREADS),
+                batchSize.orElse(DEFAULT_BATCH_SIZE),
+                backlog.orElse(DEFAULT_BACKLOG)
             );
             // @formatter:on
         }
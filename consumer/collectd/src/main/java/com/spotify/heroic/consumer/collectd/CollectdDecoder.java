@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.heroic.consumer.collectd;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.spotify.heroic.common.GrokProcessor;
+import com.spotify.heroic.consumer.SeriesCache;
+import com.spotify.heroic.ingestion.Request;
+import io.netty.buffer.ByteBuf;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.apache.commons.lang3.tuple.Pair;
+
+/**
+ * Decodes collectd packets into ingestion requests.
+ */
+public class CollectdDecoder {
+    private final Optional<GrokProcessor> hostProcessor;
+    private final CollectdTypes types;
+    private final SeriesCache seriesCache;
+
+    @java.beans.ConstructorProperties({ "hostProcessor", "types", "seriesCache" })
+    public CollectdDecoder(
+        final Optional<GrokProcessor> hostProcessor, final CollectdTypes types,
+        final SeriesCache seriesCache
+    ) {
+        this.hostProcessor = hostProcessor;
+        this.types = types;
+        this.seriesCache = seriesCache;
+    }
+
+    public List<Request> decode(final ByteBuf packet) {
+        final Iterator<CollectdSample> samples = CollectdParser.parse(packet);
+        final ImmutableList.Builder<Request> requests = ImmutableList.builder();
+
+        while (samples.hasNext()) {
+            requests.addAll(convert(samples.next()));
+        }
+
+        return requests.build();
+    }
+
+    private List<Request> convert(final CollectdSample s) {
+        final Set<Map.Entry<String, String>> base =
+            ImmutableMap.of("host", s.getHost(), "plugin", s.getPlugin()).entrySet();
+
+        if (!hostProcessor.isPresent()) {
+            return types.convert(s, base, seriesCache);
+        }
+
+        final Map<String, Object> parts = hostProcessor.get().parse(s.getHost());
+
+        final Set<Map.Entry<String, String>> tags = ImmutableSet.copyOf(
+            Iterables.transform(parts.entrySet(),
+                e -> Pair.of(e.getKey(), e.getValue().toString())));
+
+        return types.convert(s, Iterables.concat(base, tags), seriesCache);
+    }
+}
@@ -27,9 +27,11 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
 import com.spotify.heroic.common.Series;
+import com.spotify.heroic.consumer.SeriesCache;
 import com.spotify.heroic.ingestion.Request;
 import com.spotify.heroic.metric.MetricCollection;
 import com.spotify.heroic.metric.Point;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -119,23 +121,25 @@ public class CollectdTypes {
     }
 
     public List<Request> convert(
-        final CollectdSample sample, final Iterable<Map.Entry<String, String>> tags
+        final CollectdSample sample, final Iterable<Map.Entry<String, String>> tags,
+        final SeriesCache seriesCache
     ) {
         final Mapper mapping = mappings.get(sample.getType());
 
         if (mapping == null) {
             log.info("No mapping found for sample {} {}", sample, tags);
-            return convertDefault(sample, tags);
+            return convertDefault(sample, tags, seriesCache);
         }
 
-        return mapping.convert(sample, tags);
+        return mapping.convert(sample, tags, seriesCache);
     }
 
     /**
      * Default conversion of collectd samples.
      */
     private List<Request> convertDefault(
-        final CollectdSample sample, final Iterable<Map.Entry<String, String>> tags
+        final CollectdSample sample, final Iterable<Map.Entry<String, String>> tags,
+        final SeriesCache seriesCache
     ) {
         final long time = sample.getTime() * 1000;
 
@@ -146,7 +150,7 @@ public class CollectdTypes {
         while (values.hasNext()) {
             final CollectdValue value = values.next();
 
-            final Series series = Series.of(key, Iterables.concat(tags, sampleTags).iterator());
+            final Series series = series(seriesCache, key, Iterables.concat(tags, sampleTags));
             final Point point = new Point(time, value.toDouble());
 
             final MetricCollection data = MetricCollection.points(ImmutableList.of(point));
@@ -157,6 +161,22 @@ public class CollectdTypes {
         return ingestions.build();
     }
 
+    /**
+     * Build a series through the cache, later tags take precedence over earlier ones.
+     */
+    static Series series(
+        final SeriesCache seriesCache, final String key,
+        final Iterable<Map.Entry<String, String>> tags
+    ) {
+        final Map<String, String> map = new HashMap<>();
+
+        for (final Map.Entry<String, String> tag : tags) {
+            map.put(tag.getKey(), tag.getValue());
+        }
+
+        return seriesCache.intern(key, map, Collections.emptyMap());
+    }
+
     private Iterable<Map.Entry<String, String>> defaultTags(final CollectdSample sample) {
         final ImmutableMap.Builder<String, String> builder = ImmutableMap.builder();
 
@@ -201,7 +221,8 @@ public class CollectdTypes {
 
     interface Mapper {
         List<Request> convert(
-            final CollectdSample sample, final Iterable<Map.Entry<String, String>> tags
+            final CollectdSample sample, final Iterable<Map.Entry<String, String>> tags,
+            final SeriesCache seriesCache
         );
     }
 
@@ -215,7 +236,7 @@ public class CollectdTypes {
         }
 
         public Mapper setup(CollectdTypes types) {
-            return (sample, tags) -> {
+            return (sample, tags, seriesCache) -> {
                 final long time = sample.getTime() * 1000;
 
                 final Iterator<Field> fields = this.fields.iterator();
@@ -233,9 +254,8 @@ public class CollectdTypes {
                     final Field field = fields.next();
                     final CollectdValue value = values.next();
 
-                    final Series series = Series.of(types.key, Iterables
-                        .concat(tags, base.entrySet(), field.tags(sample, value).entrySet())
-                        .iterator());
+                    final Series series = series(seriesCache, types.key, Iterables.concat(tags,
+                        base.entrySet(), field.tags(sample, value).entrySet()));
                     final Point point = new Point(time, value.convert(field));
 
                     final MetricCollection data = MetricCollection.points(ImmutableList.of(point));
@@ -21,56 +21,150 @@
 
 package com.spotify.heroic.consumer.collectd;
 
+import com.google.common.collect.ImmutableList;
 import eu.toolchain.async.AsyncFramework;
 import eu.toolchain.async.AsyncFuture;
 import eu.toolchain.async.ResolvableFuture;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollDatagramChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.nio.NioDatagramChannel;
 import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
 
 public class Server {
+    private static final Logger log = org.slf4j.LoggerFactory.getLogger(Server.class);
+
     private final AsyncFramework async;
+    private final EventLoopGroup group;
+    private final List<Channel> channels;
+    private final Optional<CollectdBatcher> batcher;
 
-    private Server(AsyncFramework async, @Deprecated Channel channel) {
+    private Server(
+        final AsyncFramework async, final EventLoopGroup group, final List<Channel> channels,
+        final Optional<CollectdBatcher> batcher
+    ) {
         this.async = async;
+        this.group = group;
+        this.channels = channels;
+        this.batcher = batcher;
     }
 
     public AsyncFuture<Void> start() {
         return async.resolved();
     }
 
+    /**
+     * The sockets that this server is bound to.
+     */
+    List<Channel> channels() {
+        return channels;
+    }
+
     public AsyncFuture<Void> shutdown() {
-        return async.resolved();
+        final ResolvableFuture<Void> future = async.future();
+
+        for (final Channel channel : channels) {
+            channel.close();
+        }
+
+        group.shutdownGracefully().addListener(f -> {
+            batcher.ifPresent(CollectdBatcher::stop);
+
+            if (f.isSuccess()) {
+                future.resolve(null);
+            } else {
+                future.fail(f.cause());
+            }
+        });
+
+        return future;
     }
 
+    /**
+     * Setup the collectd receiver.
+     * <p>
+     * When native epoll is available, {@code threads} sockets are bound to the same address using
+     * {@code SO_REUSEPORT}, each served by its own event loop so that the kernel spreads incoming
+     * packets across them. Otherwise a single NIO socket is bound.
+     */
     static AsyncFuture<Server> setup(
         final AsyncFramework async, final CollectdChannelHandler handler, final InetAddress host,
-        final int port
+        final int port, final int threads, final Optional<CollectdBatcher> batcher
     ) {
-        final EventLoopGroup group = new NioEventLoopGroup();
+        final EventLoopGroup group;
         final Bootstrap b = new Bootstrap();
+        final int sockets;
 
-        b
-            .group(group)
-            .channel(NioDatagramChannel.class)
-            .option(ChannelOption.SO_BROADCAST, true)
-            .handler(handler);
+        if (Epoll.isAvailable()) {
+            group = new EpollEventLoopGroup(threads);
+            sockets = threads;
+
+            b
+                .group(group)
+                .channel(EpollDatagramChannel.class)
+                .option(ChannelOption.SO_BROADCAST, true)
+                .option(EpollChannelOption.SO_REUSEPORT, true)
+                .handler(handler);
+        } else {
+            if (threads > 1) {
+                log.warn("Native epoll is not available, binding a single socket ({})",
+                    Epoll.unavailabilityCause().toString());
+            }
+
+            group = new NioEventLoopGroup(1);
+            sockets = 1;
+
+            b
+                .group(group)
+                .channel(NioDatagramChannel.class)
+                .option(ChannelOption.SO_BROADCAST, true)
+                .handler(handler);
+        }
+
+        final List<ChannelFuture> binds = new ArrayList<>();
+
+        for (int i = 0; i < sockets; i++) {
+            binds.add(b.bind(host, port));
+        }
 
         final ResolvableFuture<Server> future = async.future();
+        final AtomicInteger pending = new AtomicInteger(binds.size());
 
-        b.bind(host, port).addListener((ChannelFutureListener) f -> {
-            if (f.isSuccess()) {
-                future.resolve(new Server(async, f.channel()));
-            } else {
+        final ChannelFutureListener listener = f -> {
+            if (!f.isSuccess()) {
+                group.shutdownGracefully();
                 future.fail(
                     f.cause() != null ? f.cause() : new RuntimeException("Failed to bind"));
+                return;
             }
-        });
+
+            if (pending.decrementAndGet() != 0) {
+                return;
+            }
+
+            final List<Channel> channels =
+                ImmutableList.copyOf(binds.stream().map(ChannelFuture::channel).iterator());
+
+            batcher.ifPresent(CollectdBatcher::start);
+            future.resolve(new Server(async, group, channels, batcher));
+        };
+
+        for (final ChannelFuture bind : binds) {
+            bind.addListener(listener);
+        }
 
         return future;
     }
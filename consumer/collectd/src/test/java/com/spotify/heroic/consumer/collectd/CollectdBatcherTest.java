@@ -0,0 +1,137 @@
+package com.spotify.heroic.consumer.collectd;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.spotify.heroic.common.Series;
+import com.spotify.heroic.ingestion.IngestionGroup;
+import com.spotify.heroic.ingestion.Request;
+import com.spotify.heroic.metric.MetricCollection;
+import com.spotify.heroic.metric.Point;
+import com.spotify.heroic.statistics.ConsumerReporter;
+import eu.toolchain.async.AsyncFramework;
+import eu.toolchain.async.TinyAsync;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class CollectdBatcherTest {
+    private static final Series A = Series.of("a", ImmutableMap.of("host", "h1"));
+    private static final Series B = Series.of("b", ImmutableMap.of("host", "h1"));
+
+    private final AsyncFramework async = TinyAsync.builder().build();
+
+    private IngestionGroup ingestion;
+    private CollectdDecoder decoder;
+    private ConsumerReporter reporter;
+    private CollectdBatcher batcher;
+
+    /* the requests that each packet decodes to, by packet id */
+    private final Map<Integer, List<Request>> packets = new ConcurrentHashMap<>();
+
+    @Before
+    public void setup() {
+        ingestion = mock(IngestionGroup.class);
+        doReturn(async.resolved()).when(ingestion).write(any());
+
+        decoder = mock(CollectdDecoder.class);
+        doAnswer(invocation -> packets.get(invocation.<ByteBuf>getArgument(0).getInt(0)))
+            .when(decoder)
+            .decode(any());
+
+        reporter = mock(ConsumerReporter.class);
+    }
+
+    @After
+    public void teardown() {
+        if (batcher != null) {
+            batcher.stop();
+        }
+    }
+
+    @Test
+    public void testCoalescePerSeries() {
+        batcher = batcher(10);
+
+        final ByteBuf first = packet(1, request(A, 20), request(B, 1));
+        final ByteBuf second = packet(2, request(A, 10), request(A, 30));
+
+        batcher.process(ImmutableList.of(first, second));
+
+        /* all points of a series are written at once, in timestamp order */
+        assertEquals(ImmutableList.of(request(A, 10, 20, 30), request(B, 1)), written(2));
+    }
+
+    @Test
+    public void testFlushBySize() {
+        batcher = batcher(2);
+
+        /* queued before the decoder threads start, so that they are drained as full batches */
+        batcher.offer(packet(1, request(A, 1)));
+        batcher.offer(packet(2, request(A, 2)));
+        batcher.offer(packet(3, request(A, 3)));
+        batcher.start();
+
+        final ArgumentCaptor<Request> requests = ArgumentCaptor.forClass(Request.class);
+        verify(ingestion, timeout(5000).times(2)).write(requests.capture());
+
+        assertEquals(ImmutableList.of(request(A, 1, 2), request(A, 3)), requests.getAllValues());
+    }
+
+    @Test
+    public void testFlushPartialBatch() {
+        batcher = batcher(100);
+        batcher.start();
+
+        /* a partial batch is written as soon as the backlog is empty, instead of waiting for the
+         * batch to fill up */
+        final ByteBuf packet = packet(1, request(A, 1));
+        batcher.offer(packet);
+
+        verify(ingestion, timeout(5000)).write(request(A, 1));
+        verify(reporter, timeout(5000)).reportMetricsIn(1);
+        assertEquals(0, packet.refCnt());
+    }
+
+    private CollectdBatcher batcher(final int batchSize) {
+        return new CollectdBatcher(async, ingestion, decoder, reporter, 1, batchSize, 10);
+    }
+
+    private List<Request> written(final int count) {
+        final ArgumentCaptor<Request> requests = ArgumentCaptor.forClass(Request.class);
+        verify(ingestion, timeout(5000).times(count)).write(requests.capture());
+
+        final List<Request> sorted = new ArrayList<>(requests.getAllValues());
+        sorted.sort((a, b) -> a.getSeries().getKey().compareTo(b.getSeries().getKey()));
+        return sorted;
+    }
+
+    private ByteBuf packet(final int id, final Request... requests) {
+        packets.put(id, ImmutableList.copyOf(requests));
+        return Unpooled.buffer(4).writeInt(id);
+    }
+
+    private static Request request(final Series series, final long... timestamps) {
+        final List<Point> points = new ArrayList<>();
+
+        for (final long timestamp : timestamps) {
+            points.add(new Point(timestamp, timestamp));
+        }
+
+        return new Request(series, MetricCollection.points(points));
+    }
+}
@@ -0,0 +1,49 @@
+package com.spotify.heroic.consumer.collectd;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+import static org.mockito.Mockito.mock;
+
+import com.spotify.heroic.ingestion.IngestionGroup;
+import com.spotify.heroic.statistics.ConsumerReporter;
+import eu.toolchain.async.AsyncFramework;
+import eu.toolchain.async.TinyAsync;
+import io.netty.channel.Channel;
+import io.netty.channel.epoll.Epoll;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Optional;
+import org.junit.Test;
+
+public class ServerTest {
+    private final AsyncFramework async = TinyAsync.builder().build();
+
+    @Test
+    public void testBindMultipleSockets() throws Exception {
+        assumeTrue("requires native epoll", Epoll.isAvailable());
+
+        final InetAddress host = InetAddress.getLoopbackAddress();
+        final int port;
+
+        try (DatagramSocket socket = new DatagramSocket(0, host)) {
+            port = socket.getLocalPort();
+        }
+
+        final CollectdChannelHandler handler =
+            new CollectdChannelHandler(async, mock(IngestionGroup.class),
+                mock(CollectdDecoder.class), mock(ConsumerReporter.class), Optional.empty());
+
+        final Server server = Server.setup(async, handler, host, port, 3, Optional.empty()).get();
+
+        try {
+            assertEquals(3, server.channels().size());
+
+            for (final Channel channel : server.channels()) {
+                assertEquals(port, ((InetSocketAddress) channel.localAddress()).getPort());
+            }
+        } finally {
+            server.shutdown().get();
+        }
+    }
+}
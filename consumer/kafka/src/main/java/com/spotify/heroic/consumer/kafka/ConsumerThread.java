@@ -23,6 +23,7 @@ package com.spotify.heroic.consumer.kafka;
 
 import com.spotify.heroic.consumer.ConsumerSchema;
 import com.spotify.heroic.consumer.ConsumerSchemaValidationException;
+import com.spotify.heroic.ingestion.IngestionRejectedException;
 import com.spotify.heroic.statistics.ConsumerReporter;
 import com.spotify.heroic.statistics.FutureReporter;
 import com.spotify.heroic.time.Clock;
@@ -40,6 +41,8 @@ import org.slf4j.Logger;
 public final class ConsumerThread extends Thread {
     private static final long RETRY_INITIAL_SLEEP = 5;
     private static final long RETRY_MAX_SLEEP = 40;
+    private static final long REJECTED_INITIAL_SLEEP = 10;
+    private static final long REJECTED_MAX_SLEEP = 1000;
     private static final Logger log = org.slf4j.LoggerFactory.getLogger(ConsumerThread.class);
 
     private final AsyncFramework async;
@@ -208,22 +211,32 @@ public final class ConsumerThread extends Thread {
 
     private void consumeOneWithRetry(final byte[] body) throws InterruptedException {
         long sleep = RETRY_INITIAL_SLEEP;
+        long rejectedSleep = REJECTED_INITIAL_SLEEP;
 
         while (shouldStop.getCount() > 0) {
-            final boolean retry = consumeOne(body);
+            final Outcome outcome = consumeOne(body);
 
-            if (retry) {
+            if (outcome == Outcome.RETRY) {
                 handleRetry(sleep);
                 sleep = Math.min(sleep * 2, RETRY_MAX_SLEEP);
                 reporter.reportMessageRetry();
                 continue;
             }
 
+            if (outcome == Outcome.REJECTED) {
+                /* the write was shed by the write limiter, back off for a short while to let
+                 * in-flight writes complete before trying the same message again. */
+                shouldStop.await(rejectedSleep, TimeUnit.MILLISECONDS);
+                rejectedSleep = Math.min(rejectedSleep * 2, REJECTED_MAX_SLEEP);
+                reporter.reportMessageRetry();
+                continue;
+            }
+
             break;
         }
     }
 
-    private boolean consumeOne(final byte[] body) {
+    private Outcome consumeOne(final byte[] body) {
         try {
             /* We have read something. This is a good time to check if we should prepare to commit.
              * Why is it a good time? Because if we pause now, then send off one more consumption
@@ -236,6 +249,13 @@ public final class ConsumerThread extends Thread {
             // Actually consume
             final AsyncFuture<Void> future = schema.consume(body);
 
+            /* writes are rejected immediately when the write limiter is saturated, the message has
+             * not been written and must be retried before the offset moves past it. */
+            if (future.isFailed() && future.cause() instanceof IngestionRejectedException) {
+                future.onDone(consumptionContext);
+                return Outcome.REJECTED;
+            }
+
             if (enablePeriodicCommit) {
                 outstandingConsumptionRequests.incrementAndGet();
 
@@ -253,16 +273,16 @@ public final class ConsumerThread extends Thread {
             reporter.reportMessageSize(body.length);
             consumed.increment();
 
-            return false;
+            return Outcome.CONSUMED;
         } catch (final ConsumerSchemaValidationException e) {
             /* these messages should be ignored */
             reporter.reportConsumerSchemaError();
-            return false;
+            return Outcome.CONSUMED;
         } catch (final Exception e) {
             errors.incrementAndGet();
             log.error("{}: Failed to consume", name, e);
             reporter.reportMessageError();
-            return true;
+            return Outcome.RETRY;
         }
     }
 
@@ -318,4 +338,8 @@ public final class ConsumerThread extends Thread {
     public void setCoordinator(ConsumerThreadCoordinator coordinator) {
         this.coordinator = coordinator;
     }
+
+    private enum Outcome {
+        CONSUMED, RETRY, REJECTED
+    }
 }
@@ -0,0 +1,100 @@
+package com.spotify.heroic.consumer.kafka;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.spotify.heroic.consumer.ConsumerSchema;
+import com.spotify.heroic.ingestion.AdaptiveWriteLimiter;
+import com.spotify.heroic.statistics.noop.NoopConsumerReporter;
+import com.spotify.heroic.statistics.noop.NoopIngestionManagerReporter;
+import com.spotify.heroic.time.Clock;
+import eu.toolchain.async.AsyncFramework;
+import eu.toolchain.async.AsyncFuture;
+import eu.toolchain.async.ResolvableFuture;
+import eu.toolchain.async.TinyAsync;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ConsumerThreadTest {
+    private static final int MESSAGES = 20;
+
+    private ExecutorService executor;
+    private AsyncFramework async;
+    private AdaptiveWriteLimiter limiter;
+    private LinkedBlockingQueue<ResolvableFuture<Void>> writes;
+    private List<String> written;
+
+    @Before
+    public void setup() {
+        executor = Executors.newSingleThreadExecutor();
+        async = TinyAsync.builder().executor(executor).build();
+        // a single write in flight and a single deferred write, anything else is rejected
+        limiter =
+            new AdaptiveWriteLimiter(async, NoopIngestionManagerReporter.get(), 1, 1, 1, 60000,
+                0.5);
+        writes = new LinkedBlockingQueue<>();
+        written = Collections.synchronizedList(new ArrayList<>());
+    }
+
+    @After
+    public void teardown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testRetryRejectedWrites() throws Exception {
+        final List<byte[]> messages = new ArrayList<>();
+        final List<String> expected = new ArrayList<>();
+
+        for (int i = 0; i < MESSAGES; i++) {
+            messages.add(Integer.toString(i).getBytes());
+            expected.add(Integer.toString(i));
+        }
+
+        // kafka sends a null message when the stream is closing
+        messages.add(null);
+
+        final ConsumerSchema.Consumer schema = body -> limiter.submit(() -> {
+            final ResolvableFuture<Void> write = async.future();
+            writes.add(write);
+            written.add(new String(body));
+            return write;
+        });
+
+        final LongAdder consumed = new LongAdder();
+
+        final ConsumerThread thread =
+            new ConsumerThread(async, Clock.system(), "test", NoopConsumerReporter.get(),
+                () -> messages, schema, new AtomicInteger(), new AtomicLong(), consumed, false, 0,
+                new AtomicLong());
+
+        thread.start();
+
+        // slow backend, completes one write at a time
+        while (written.size() < MESSAGES || !writes.isEmpty()) {
+            final ResolvableFuture<Void> write = writes.poll(1, TimeUnit.SECONDS);
+
+            if (write != null) {
+                Thread.sleep(1);
+                write.resolve(null);
+            }
+        }
+
+        thread.hasStopped.get(10, TimeUnit.SECONDS);
+
+        assertEquals(expected, written);
+        assertEquals(MESSAGES, consumed.sum());
+        assertTrue(limiter.getInFlight() == 0 && limiter.getPending() == 0);
+    }
+}
@@ -29,8 +29,10 @@ import com.google.protobuf.ByteString;
 import com.google.pubsub.v1.PubsubMessage;
 import com.spotify.heroic.consumer.ConsumerSchema;
 import com.spotify.heroic.consumer.ConsumerSchemaValidationException;
+import com.spotify.heroic.ingestion.IngestionRejectedException;
 import com.spotify.heroic.statistics.ConsumerReporter;
 import com.spotify.heroic.statistics.FutureReporter;
+import eu.toolchain.async.AsyncFuture;
 import io.opencensus.common.Scope;
 import io.opencensus.trace.Span;
 import io.opencensus.trace.Status;
@@ -76,7 +78,18 @@ class Receiver implements MessageReceiver {
 
         // process the data
         try (Scope ws = tracer.withSpan(span)) {
-            consumer.consume(bytes).onDone(consumptionContext).onFinished(() -> {
+            final AsyncFuture<Void> future = consumer.consume(bytes).onDone(consumptionContext);
+
+            /* the write limiter is saturated and the message was not written, have it redelivered
+             * instead of acking it. */
+            if (future.isFailed() && future.cause() instanceof IngestionRejectedException) {
+                reporter.reportMessageRetry();
+                replyConsumer.nack();
+                span.end();
+                return;
+            }
+
+            future.onFinished(() -> {
                 reporter.reportMessageSize(bytes.length);
                 replyConsumer.ack();
                 span.end();
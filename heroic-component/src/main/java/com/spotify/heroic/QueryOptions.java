@@ -41,10 +41,12 @@ public abstract class QueryOptions {
         @JsonProperty("aggregationLimit") OptionalLimit aggregationLimit,
         @JsonProperty("groupLimit") OptionalLimit groupLimit,
         @JsonProperty("seriesLimit") OptionalLimit seriesLimit,
-        @JsonProperty("failOnLimits") Optional<Boolean> failOnLimits
+        @JsonProperty("failOnLimits") Optional<Boolean> failOnLimits,
+        @JsonProperty("latencyBudget") Optional<Long> latencyBudget
     ) {
         return new AutoValue_QueryOptions(bucketStrategy, tracing.orElse(Tracing.DEFAULT),
-            fetchSize, dataLimit, aggregationLimit, groupLimit, seriesLimit, failOnLimits);
+            fetchSize, dataLimit, aggregationLimit, groupLimit, seriesLimit, failOnLimits,
+            latencyBudget);
     }
 
     /**
@@ -100,10 +102,19 @@ public abstract class QueryOptions {
     @JsonProperty
     public abstract Optional<Boolean> failOnLimits();
 
+    /**
+     * Maximum time in milliseconds to wait for shards.
+     * <p>
+     * Shards which have not responded when the budget is spent are cancelled and reported as
+     * errors, and the result combined from the remaining shards is returned.
+     */
+    @JsonProperty
+    public abstract Optional<Long> latencyBudget();
+
     public static QueryOptions defaults() {
         return QueryOptions.create(Optional.empty(), Optional.empty(), Optional.empty(),
             OptionalLimit.empty(), OptionalLimit.empty(), OptionalLimit.empty(),
-            OptionalLimit.empty(), Optional.empty());
+            OptionalLimit.empty(), Optional.empty(), Optional.empty());
     }
 
     public static Builder builder() {
@@ -120,6 +131,8 @@ public abstract class QueryOptions {
             hasher.putField("groupLimit", groupLimit(), hasher.with(OptionalLimit::hashTo));
             hasher.putField("seriesLimit", seriesLimit(), hasher.with(OptionalLimit::hashTo));
             hasher.putField("failOnLimits", failOnLimits(), hasher.optional(hasher.bool()));
+            hasher.putField("latencyBudget", latencyBudget(),
+                hasher.optional(hasher.longValue()));
         });
     }
 
@@ -132,6 +145,7 @@ public abstract class QueryOptions {
         private OptionalLimit groupLimit = OptionalLimit.empty();
         private OptionalLimit seriesLimit = OptionalLimit.empty();
         private Optional<Boolean> failOnLimits = Optional.empty();
+        private Optional<Long> latencyBudget = Optional.empty();
 
         public Builder bucketStrategy(BucketStrategy bucketStrategy) {
             this.bucketStrategy = Optional.of(bucketStrategy);
@@ -173,9 +187,14 @@ public abstract class QueryOptions {
             return this;
         }
 
+        public Builder latencyBudget(long latencyBudget) {
+            this.latencyBudget = Optional.of(latencyBudget);
+            return this;
+        }
+
         public QueryOptions build() {
             return QueryOptions.create(bucketStrategy, tracing, fetchSize, dataLimit,
-                aggregationLimit, groupLimit, seriesLimit, failOnLimits);
+                aggregationLimit, groupLimit, seriesLimit, failOnLimits, latencyBudget);
         }
     }
 }
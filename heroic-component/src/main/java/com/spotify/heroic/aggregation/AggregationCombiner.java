@@ -27,20 +27,57 @@ import com.spotify.heroic.metric.ShardedResultGroup;
 import java.util.List;
 
 public interface AggregationCombiner {
-    List<ShardedResultGroup> combine(List<List<ShardedResultGroup>> all);
+    /**
+     * Combine the result groups of all shards at once.
+     */
+    default List<ShardedResultGroup> combine(List<List<ShardedResultGroup>> all) {
+        final Session session = session();
+
+        for (final List<ShardedResultGroup> groups : all) {
+            session.add(groups);
+        }
+
+        return session.result();
+    }
+
+    /**
+     * Start an incremental combination, to which the result groups of each shard are added as
+     * they arrive.
+     */
+    Session session();
+
+    /**
+     * An incremental combination. Implementations are not thread-safe.
+     */
+    interface Session {
+        /**
+         * Add the result groups of a single shard. The groups are not retained unless the
+         * combiner has to return them as they are.
+         */
+        void add(List<ShardedResultGroup> groups);
+
+        /**
+         * Build the combined result.
+         */
+        List<ShardedResultGroup> result();
+    }
 
     AggregationCombiner DEFAULT = new AggregationCombiner() {
         @Override
-        public List<ShardedResultGroup> combine(
-            final List<List<ShardedResultGroup>> all
-        ) {
+        public Session session() {
             final ImmutableList.Builder<ShardedResultGroup> combined = ImmutableList.builder();
 
-            for (final List<ShardedResultGroup> groups : all) {
-                combined.addAll(groups);
-            }
+            return new Session() {
+                @Override
+                public void add(final List<ShardedResultGroup> groups) {
+                    combined.addAll(groups);
+                }
 
-            return combined.build();
+                @Override
+                public List<ShardedResultGroup> result() {
+                    return combined.build();
+                }
+            };
         }
 
         @Override
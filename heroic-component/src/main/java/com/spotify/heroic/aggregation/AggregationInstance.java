@@ -120,6 +120,20 @@ public interface AggregationInstance {
         return true;
     }
 
+    /**
+     * Indicates if the aggregation produces the same result when it is fed rollups of its input
+     * instead of the points themselves.
+     * <p>
+     * A rollup is a {@link com.spotify.heroic.metric.Spread} of all the points of a series in the
+     * interval {@code (t - resolution, t]}, timestamped with {@code t}, where {@code t} is a
+     * multiple of the resolution.
+     *
+     * @param resolution The resolution of the rollups in milliseconds.
+     */
+    default boolean acceptsRollups(long resolution) {
+        return false;
+    }
+
     /**
      * Hash the aggregation to generate a key suitable for caching.
      */
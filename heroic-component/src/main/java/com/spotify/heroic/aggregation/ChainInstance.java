@@ -161,6 +161,14 @@ public class ChainInstance implements AggregationInstance {
         return chain.iterator().next().requiredTags();
     }
 
+    /**
+     * The first aggregation in the chain is fed the input.
+     */
+    @Override
+    public boolean acceptsRollups(final long resolution) {
+        return chain.iterator().next().acceptsRollups(resolution);
+    }
+
     @Override
     public void hashTo(final ObjectHasher hasher) {
         hasher.putObject(getClass(), () -> {
@@ -59,29 +59,34 @@ public class DistributedAggregationCombiner implements AggregationCombiner {
     }
 
     @Override
-    public List<ShardedResultGroup> combine(
-        final List<List<ShardedResultGroup>> all
-    ) {
+    public Session session() {
         final AggregationSession session =
             reducer.session(range, RetainQuotaWatcher.NO_QUOTA, bucketStrategy);
 
-        /* iterate through all groups and setup, and feed a reducer session for every group */
-        for (List<ShardedResultGroup> groups : all) {
-            for (final ShardedResultGroup g : groups) {
-                g.getMetrics().updateAggregation(session, g.getKey(), g.getSeries());
+        return new Session() {
+            @Override
+            public void add(final List<ShardedResultGroup> groups) {
+                /* feed the reducer session for every group, after which the groups can be
+                 * released */
+                for (final ShardedResultGroup g : groups) {
+                    g.getMetrics().updateAggregation(session, g.getKey(), g.getSeries());
+                }
             }
-        }
 
-        /* build results from every reducer group into a final result */
-        final ImmutableList.Builder<ShardedResultGroup> groups = ImmutableList.builder();
+            @Override
+            public List<ShardedResultGroup> result() {
+                /* build results from every reducer group into a final result */
+                final ImmutableList.Builder<ShardedResultGroup> groups = ImmutableList.builder();
 
-        final AggregationResult result = session.result();
+                final AggregationResult result = session.result();
 
-        for (final AggregationOutput out : result.getResult()) {
-            groups.add(new ShardedResultGroup(ImmutableMap.of(), out.getKey(), out.getSeries(),
-                out.getMetrics(), cadence));
-        }
+                for (final AggregationOutput out : result.getResult()) {
+                    groups.add(new ShardedResultGroup(ImmutableMap.of(), out.getKey(),
+                        out.getSeries(), out.getMetrics(), cadence));
+                }
 
-        return groups.build();
+                return groups.build();
+            }
+        };
     }
 }
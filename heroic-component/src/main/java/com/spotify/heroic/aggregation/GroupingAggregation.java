@@ -98,6 +98,11 @@ public abstract class GroupingAggregation implements AggregationInstance {
         return newInstance(of, each.distributed());
     }
 
+    @Override
+    public boolean acceptsRollups(final long resolution) {
+        return each.acceptsRollups(resolution);
+    }
+
     @Override
     public AggregationInstance reducer() {
         return newInstance(of, each.reducer());
@@ -40,7 +40,14 @@ import java.util.function.Predicate
  * @author udoprog
  */
 interface ClusterManager: UsableGroupManager<MutableList<ClusterShard>> {
-    data class Statistics(val onlineNodes: Int, val offlineNodes: Int)
+    data class Statistics(
+        val onlineNodes: Int,
+        val offlineNodes: Int,
+        /* number of times that a node has been looked up in the routing table */
+        val routingLookups: Long = 0,
+        /* average time spent looking up a node in the routing table */
+        val averageRoutingLookupNanos: Long = 0
+    )
 
     /**
      * Get the list of static nodes.
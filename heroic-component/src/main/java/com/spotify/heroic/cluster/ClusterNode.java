@@ -21,6 +21,7 @@
 
 package com.spotify.heroic.cluster;
 
+import com.google.common.collect.ImmutableList;
 import com.spotify.heroic.common.UsableGroupManager;
 import com.spotify.heroic.metadata.CountSeries;
 import com.spotify.heroic.metadata.DeleteSeries;
@@ -29,6 +30,7 @@ import com.spotify.heroic.metadata.FindSeries;
 import com.spotify.heroic.metadata.FindTags;
 import com.spotify.heroic.metadata.WriteMetadata;
 import com.spotify.heroic.metric.FullQuery;
+import com.spotify.heroic.metric.ResultGroup;
 import com.spotify.heroic.metric.WriteMetric;
 import com.spotify.heroic.suggest.KeySuggest;
 import com.spotify.heroic.suggest.TagKeyCount;
@@ -37,6 +39,7 @@ import com.spotify.heroic.suggest.TagValueSuggest;
 import com.spotify.heroic.suggest.TagValuesSuggest;
 import eu.toolchain.async.AsyncFuture;
 import io.opencensus.trace.Span;
+import java.util.function.Consumer;
 
 public interface ClusterNode extends UsableGroupManager<ClusterNode.Group> {
     NodeMetadata metadata();
@@ -64,6 +67,22 @@ public interface ClusterNode extends UsableGroupManager<ClusterNode.Group> {
 
         AsyncFuture<FullQuery> query(FullQuery.Request request, Span span);
 
+        /**
+         * Perform a query, passing every result group to the given consumer as it is received
+         * instead of collecting them into the result.
+         * <p>
+         * The returned result holds everything but the groups.
+         */
+        default AsyncFuture<FullQuery> query(
+            FullQuery.Request request, Span span, Consumer<ResultGroup> groups
+        ) {
+            return query(request, span).directTransform(result -> {
+                result.groups().forEach(groups);
+                return FullQuery.create(result.trace(), result.errors(), ImmutableList.of(),
+                    result.statistics(), result.limits(), result.dataDensity());
+            });
+        }
+
         AsyncFuture<FindTags> findTags(FindTags.Request request);
 
         AsyncFuture<FindKeys> findKeys(FindKeys.Request request);
@@ -23,9 +23,12 @@ package com.spotify.heroic.cluster;
 
 import com.spotify.heroic.metric.QueryTrace;
 import com.spotify.heroic.metric.RuntimeNodeException;
+import com.spotify.heroic.scheduler.Scheduler;
 import com.spotify.heroic.statistics.QueryReporter;
 import eu.toolchain.async.AsyncFramework;
 import eu.toolchain.async.AsyncFuture;
+import eu.toolchain.async.FutureDone;
+import eu.toolchain.async.ResolvableFuture;
 import eu.toolchain.async.RetryException;
 import eu.toolchain.async.RetryPolicy;
 import java.util.ArrayList;
@@ -34,7 +37,11 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -48,17 +55,26 @@ public class ClusterShard {
     private final Map<String, String> shard;
     private final QueryReporter reporter;
     private final ClusterManager cluster;
+    private final NodeLatencyTracker latencies;
+    private final HedgingConfig hedging;
+    private final Scheduler scheduler;
 
     public ClusterShard(
         AsyncFramework async,
         Map<String, String> shard,
         QueryReporter reporter,
-        ClusterManager cluster
+        ClusterManager cluster,
+        NodeLatencyTracker latencies,
+        HedgingConfig hedging,
+        Scheduler scheduler
     ) {
         this.async = async;
         this.shard = shard;
         this.reporter = reporter;
         this.cluster = cluster;
+        this.latencies = latencies;
+        this.hedging = hedging;
+        this.scheduler = scheduler;
     }
 
     public Map<String, String> getShard() {
@@ -69,20 +85,84 @@ public class ClusterShard {
         Function<ClusterNode.Group, AsyncFuture<T>> function,
         BiFunction<T, List<QueryTrace>, T> handleRetryTraceFn
     ) {
+        return apply(Optional.empty(), function, handleRetryTraceFn,
+            Collections.synchronizedList(new ArrayList<>()), new AtomicBoolean());
+    }
+
+    /**
+     * Apply a function on a node in the shard, and if enabled, hedge it by applying it on another
+     * node if it takes longer than the configured percentile of recent latencies for the
+     * endpoint. The first successful response wins, and the other request is cancelled.
+     * <p>
+     * Must only be used for requests which are safe to perform more than once.
+     *
+     * @param endpoint name of the endpoint, used to track latencies
+     */
+    public <T> AsyncFuture<T> applyHedged(
+        String endpoint,
+        Function<ClusterNode.Group, AsyncFuture<T>> function,
+        BiFunction<T, List<QueryTrace>, T> handleRetryTraceFn
+    ) {
+        /* shared, so that the hedged request never goes to a node that the first one tried */
         final List<ClusterNode> nodesTried = Collections.synchronizedList(new ArrayList<>());
+        /* set once a request has won, so that the others record their latency as losers */
+        final AtomicBoolean won = new AtomicBoolean();
+
+        final AsyncFuture<T> first =
+            apply(Optional.of(endpoint), function, handleRetryTraceFn, nodesTried, won);
+
+        if (!hedging.getEnabled()) {
+            return first;
+        }
+
+        final Optional<Long> delay = latencies
+            .percentile(shard, endpoint, hedging.getPercentile())
+            .map(d -> Math.max(d, hedging.getMinDelayMs()));
+
+        if (!delay.isPresent()) {
+            return first;
+        }
+
+        final Race<T> race = new Race<>(async.future(), won);
+        race.add(first, false);
+
+        scheduler.schedule("hedge", delay.get(), TimeUnit.MILLISECONDS, () -> {
+            if (!cluster.hasNextButNotWithId(shard, nodesTried::contains) || !race.join()) {
+                return;
+            }
+
+            reporter.reportHedgeFired();
+            race.add(
+                apply(Optional.of(endpoint), function, handleRetryTraceFn, nodesTried, won), true);
+        });
+
+        return race.future;
+    }
 
+    private <T> AsyncFuture<T> apply(
+        Optional<String> endpoint,
+        Function<ClusterNode.Group, AsyncFuture<T>> function,
+        BiFunction<T, List<QueryTrace>, T> handleRetryTraceFn,
+        List<ClusterNode> nodesTried,
+        AtomicBoolean won
+    ) {
         if (!cluster.hasNextButNotWithId(shard, nodesTried::contains)) {
             return async.failed(new RuntimeException("No groups available"));
         }
 
         final RetryPolicy parent = RetryPolicy.timed(30000, RetryPolicy.exponential(100, 5000));
 
+        /* the request currently in flight, cancelled together with the returned future */
+        final AtomicReference<AsyncFuture<T>> current = new AtomicReference<>();
+        final AtomicBoolean cancelled = new AtomicBoolean();
+
         /* a policy that is valid as long as there are more nodes available to try */
         final RetryPolicy iteratorPolicy = clockSource -> {
             final RetryPolicy.Instance p = parent.apply(clockSource);
 
             return () -> {
-                if (cluster.hasNextButNotWithId(shard, nodesTried::contains)) {
+                if (!cancelled.get() &&
+                    cluster.hasNextButNotWithId(shard, nodesTried::contains)) {
                     return p.next();
                 }
 
@@ -90,7 +170,7 @@ public class ClusterShard {
             };
         };
 
-        return async
+        final AsyncFuture<T> future = async
             .retryUntilResolved(() -> {
                 Optional<ClusterManager.NodeResult<AsyncFuture<T>>> ret =
                     cluster.withNodeInShardButNotWithId(shard, nodesTried::contains,
@@ -100,14 +180,40 @@ public class ClusterShard {
                 }
                 ClusterManager.NodeResult<AsyncFuture<T>> result = ret.get();
 
-                return result.getReturnValue().catchFailed(throwable -> {
+                final NodeLatencyTracker.Request tracked =
+                    latencies.start(result.getNode(), shard, endpoint);
+                current.set(result.getReturnValue());
+
+                return result.getReturnValue().onDone(new FutureDone<T>() {
+                    @Override
+                    public void failed(final Throwable cause) {
+                        tracked.finish(false);
+                    }
+
+                    @Override
+                    public void resolved(final T value) {
+                        tracked.finish(true);
+                    }
+
+                    @Override
+                    public void cancelled() {
+                        if (won.get()) {
+                            tracked.lost();
+                        } else {
+                            tracked.finish(false);
+                        }
+                    }
+                }).catchFailed(throwable -> {
                     reporter.reportClusterNodeRpcError();
                     /* Actually never return;s, instead throws a new exception with added info.
                      * The point is to get Node identifying information into the exception */
                     throw new RuntimeNodeException(result.getNode().toString(),
                         throwable.getMessage(), throwable);
                 }).catchCancelled(ignore -> {
-                    reporter.reportClusterNodeRpcCancellation();
+                    if (!cancelled.get()) {
+                        reporter.reportClusterNodeRpcCancellation();
+                    }
+
                     /* In case of the future being cancelled, we should note it as a node exception
                      * and try with the next node in the shard.
                      * It seems like we can get cancellations when there are network issues. */
@@ -117,6 +223,15 @@ public class ClusterShard {
             }, iteratorPolicy)
             .directTransform(retryResult -> handleRetryTraceFn.apply(retryResult.getResult(),
                 queryTracesFromRetries(retryResult.getErrors(), retryResult.getBackoffTimings())));
+
+        return future.onCancelled(() -> {
+            cancelled.set(true);
+            final AsyncFuture<T> request = current.get();
+
+            if (request != null) {
+                request.cancel();
+            }
+        });
     }
 
     public List<String> getNodesAsStringList() {
@@ -161,6 +276,89 @@ public class ClusterShard {
         return traces;
     }
 
+    /**
+     * Races a request against its hedge. The first request to resolve wins, and the result only
+     * fails once every request has failed.
+     */
+    private class Race<T> {
+        private final ResolvableFuture<T> future;
+        /* number of requests which have not finished, no more can join once it reaches zero */
+        private final AtomicInteger pending = new AtomicInteger(1);
+        private final List<AsyncFuture<T>> requests = new CopyOnWriteArrayList<>();
+        private final AtomicBoolean won;
+
+        Race(final ResolvableFuture<T> future, final AtomicBoolean won) {
+            this.future = future;
+            this.won = won;
+        }
+
+        /**
+         * Reserve a spot for another request.
+         *
+         * @return {@code false} if the race is already over
+         */
+        boolean join() {
+            while (true) {
+                final int current = pending.get();
+
+                if (current == 0 || future.isDone()) {
+                    return false;
+                }
+
+                if (pending.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        void add(final AsyncFuture<T> request, final boolean hedge) {
+            requests.add(request);
+            future.bind(request);
+
+            /* the race might have been won while this request was being set up */
+            if (future.isDone()) {
+                request.cancel();
+            }
+
+            request.onDone(new FutureDone<T>() {
+                @Override
+                public void failed(final Throwable cause) {
+                    if (pending.decrementAndGet() == 0) {
+                        future.fail(cause);
+                    }
+                }
+
+                @Override
+                public void resolved(final T result) {
+                    pending.decrementAndGet();
+
+                    if (!future.resolve(result)) {
+                        return;
+                    }
+
+                    if (hedge) {
+                        reporter.reportHedgeWon();
+                    }
+
+                    won.set(true);
+
+                    for (final AsyncFuture<T> other : requests) {
+                        if (other != request) {
+                            other.cancel();
+                        }
+                    }
+                }
+
+                @Override
+                public void cancelled() {
+                    if (pending.decrementAndGet() == 0) {
+                        future.cancel();
+                    }
+                }
+            });
+        }
+    }
+
     private String getMessageFrom(final Throwable throwable) {
         final Throwable cause = throwable.getCause();
         if (cause instanceof RuntimeNodeException) {
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2020 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.heroic.cluster
+
+/**
+ * Configuration for hedged requests across the nodes of a shard.
+ *
+ * When enabled, a query which has not finished after the given percentile of recent query
+ * latencies in its shard is sent to a second node in the same shard. The first response wins, and
+ * the other request is cancelled.
+ */
+data class HedgingConfig(
+    val enabled: Boolean = false,
+    /* percentile of recent latencies after which the hedged request is sent, between 0 and 1 */
+    val percentile: Double = 0.95,
+    /* lower bound for the delay before the hedged request is sent */
+    val minDelayMs: Long = 50
+)
@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2020 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.heroic.cluster;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Tracks the latencies of requests sent to cluster nodes.
+ * <p>
+ * Every node has an exponentially weighted moving average of its latency, and a count of
+ * outstanding requests, which together give a score used to pick the least loaded node in a shard.
+ * Every endpoint in a shard also keeps a window of recent latencies, used to decide when to send a
+ * hedged request. Windows are kept per shard, since shards differ in size and load.
+ */
+public class NodeLatencyTracker {
+    /**
+     * Weight of a new sample in the moving average.
+     */
+    static final double ALPHA = 0.2D;
+
+    /**
+     * Number of recent latencies kept per endpoint and shard.
+     */
+    static final int WINDOW_SIZE = 1024;
+
+    /**
+     * Minimum number of latencies needed before percentiles are provided.
+     */
+    static final int MIN_SAMPLES = 100;
+
+    /**
+     * Number of latencies recorded in a window before its percentiles are computed again.
+     */
+    static final int REFRESH_INTERVAL = 32;
+
+    private final LongSupplier clock;
+
+    /* weak keys, since nodes are replaced when the cluster is refreshed */
+    private final LoadingCache<ClusterNode, Node> nodes =
+        CacheBuilder.newBuilder().weakKeys().build(CacheLoader.from(Node::new));
+
+    private final LoadingCache<WindowKey, Window> windows =
+        CacheBuilder.newBuilder().build(CacheLoader.from(Window::new));
+
+    public NodeLatencyTracker() {
+        this(System::nanoTime);
+    }
+
+    NodeLatencyTracker(final LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Start tracking a request to the given node.
+     *
+     * @param node node that the request is sent to
+     * @param shard shard that the node belongs to
+     * @param endpoint endpoint that the request is for, if its latencies should be recorded
+     * @return a request which must be finished when a response is received
+     */
+    public Request start(
+        final ClusterNode node, final Map<String, String> shard, final Optional<String> endpoint
+    ) {
+        final Node n = nodes.getUnchecked(node);
+        n.outstanding.incrementAndGet();
+        final Optional<Window> window =
+            endpoint.map(e -> windows.getUnchecked(new WindowKey(shard, e)));
+        return new Request(n, window, clock.getAsLong());
+    }
+
+    /**
+     * Score of the given node, lower is better.
+     * <p>
+     * Nodes without any recorded latency score zero, so that they are tried at least once.
+     */
+    public double score(final ClusterNode node) {
+        final Node n = nodes.getIfPresent(node);
+
+        if (n == null) {
+            return 0D;
+        }
+
+        return n.average() * (n.outstanding.get() + 1);
+    }
+
+    /**
+     * Get the given percentile of recent latencies for an endpoint in a shard, in milliseconds.
+     *
+     * @return the percentile, or empty if not enough requests have been recorded
+     */
+    public Optional<Long> percentile(
+        final Map<String, String> shard, final String endpoint, final double percentile
+    ) {
+        final Window window = windows.getIfPresent(new WindowKey(shard, endpoint));
+
+        if (window == null) {
+            return Optional.empty();
+        }
+
+        return window.percentile(percentile);
+    }
+
+    public class Request {
+        private final Node node;
+        private final Optional<Window> window;
+        private final long start;
+
+        Request(final Node node, final Optional<Window> window, final long start) {
+            this.node = node;
+            this.window = window;
+            this.start = start;
+        }
+
+        /**
+         * Finish the request.
+         *
+         * @param success if the request was successful, only successful requests have their
+         * latency recorded since failures tend to be fast
+         */
+        public void finish(final boolean success) {
+            node.outstanding.decrementAndGet();
+
+            if (!success) {
+                return;
+            }
+
+            record();
+        }
+
+        /**
+         * Finish a request which was cancelled since another request for the same thing won a
+         * race against it.
+         * <p>
+         * The elapsed time is recorded as a lower bound of its latency. Leaving out the requests
+         * which lose would bias the recorded latencies towards the fast ones.
+         */
+        public void lost() {
+            node.outstanding.decrementAndGet();
+            record();
+        }
+
+        private void record() {
+            final long elapsed = clock.getAsLong() - start;
+            node.update(elapsed);
+            window.ifPresent(w -> w.add(elapsed));
+        }
+    }
+
+    static class WindowKey {
+        private final Map<String, String> shard;
+        private final String endpoint;
+
+        WindowKey(final Map<String, String> shard, final String endpoint) {
+            this.shard = shard;
+            this.endpoint = endpoint;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof WindowKey)) {
+                return false;
+            }
+
+            final WindowKey other = (WindowKey) o;
+            return shard.equals(other.shard) && endpoint.equals(other.endpoint);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(shard, endpoint);
+        }
+    }
+
+    static class Node {
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private double average = 0D;
+        private boolean initialized = false;
+
+        synchronized void update(final long elapsed) {
+            if (!initialized) {
+                average = elapsed;
+                initialized = true;
+                return;
+            }
+
+            average += ALPHA * (elapsed - average);
+        }
+
+        synchronized double average() {
+            return average;
+        }
+    }
+
+    static class Window {
+        private final long[] samples = new long[WINDOW_SIZE];
+        private int next = 0;
+        private int size = 0;
+        /* sorted copy of the samples, shared by percentile lookups until it is refreshed */
+        private long[] sorted = null;
+        private int added = 0;
+
+        synchronized void add(final long elapsed) {
+            samples[next] = elapsed;
+            next = (next + 1) % samples.length;
+            size = Math.min(size + 1, samples.length);
+            added++;
+        }
+
+        Optional<Long> percentile(final double percentile) {
+            final long[] sorted = sorted();
+
+            if (sorted == null) {
+                return Optional.empty();
+            }
+
+            final int index = (int) Math.min(sorted.length - 1, Math.floor(
+                percentile * sorted.length));
+            return Optional.of(TimeUnit.NANOSECONDS.toMillis(sorted[index]));
+        }
+
+        private synchronized long[] sorted() {
+            if (size < MIN_SAMPLES) {
+                return null;
+            }
+
+            if (sorted == null || added >= REFRESH_INTERVAL) {
+                final long[] copy = Arrays.copyOf(samples, size);
+                Arrays.sort(copy);
+                sorted = copy;
+                added = 0;
+            }
+
+            return sorted;
+        }
+    }
+}
@@ -24,11 +24,16 @@ package com.spotify.heroic.cluster
 import com.spotify.heroic.common.ServiceInfo
 import java.util.*
 
-data class NodeMetadata(
+data class NodeMetadata @JvmOverloads constructor(
     val version: Int,
     val id: UUID?,
     val tags: Map<String, String?>?,
-    val service: ServiceInfo?
+    val service: ServiceInfo?,
+    /**
+     * Codecs supported by the node for internal requests, in addition to JSON.
+     * Absent for nodes that only support JSON.
+     */
+    val codecs: List<String>? = null
 ) {
     /**
      * Checks if both the given tags and capability matches.
@@ -38,4 +43,10 @@ data class NodeMetadata(
         if (tags == null) return false
         return this.tags == tags
     }
+
+    fun supportsCodec(codec: String): Boolean = codecs?.contains(codec) ?: false
+
+    companion object {
+        const val CODEC_SMILE = "smile"
+    }
 }
\ No newline at end of file
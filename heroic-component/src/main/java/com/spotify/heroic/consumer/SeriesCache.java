@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.heroic.consumer;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.spotify.heroic.common.Series;
+import com.spotify.heroic.statistics.ConsumerReporter;
+import java.util.Map;
+import java.util.Objects;
+import javax.inject.Inject;
+
+/**
+ * Bounded, concurrent cache which interns the {@link Series} built by consumers.
+ * <p>
+ * The vast majority of consumed messages belong to a small set of already seen series. Building
+ * a series copies the tags and resource into sorted maps and computes its hashes, so looking up
+ * the raw key, tags and resource first allows consumers to skip that work for known series.
+ */
+public class SeriesCache {
+    public static final long DEFAULT_MAX_SIZE = 100000L;
+
+    private final ConsumerReporter reporter;
+    private final Cache<Key, Series> cache;
+
+    @Inject
+    public SeriesCache(final ConsumerReporter reporter) {
+        this(reporter, DEFAULT_MAX_SIZE);
+    }
+
+    public SeriesCache(final ConsumerReporter reporter, final long maxSize) {
+        this.reporter = reporter;
+        this.cache = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+    }
+
+    /**
+     * Get the canonical series for the given key, tags and resource, building it if needed.
+     * <p>
+     * The provided maps are only used for the lookup and are never retained by the cache.
+     */
+    public Series intern(
+        final String key, final Map<String, String> tags, final Map<String, String> resource
+    ) {
+        final Series cached = cache.getIfPresent(new Key(key, tags, resource));
+
+        if (cached != null) {
+            reporter.reportSeriesCacheHit();
+            return cached;
+        }
+
+        reporter.reportSeriesCacheMiss();
+
+        final Series series = Series.of(key, tags, resource);
+        cache.put(new Key(series.getKey(), series.getTags(), series.getResource()), series);
+        return series;
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    /**
+     * Lookup key based on the raw series components.
+     * <p>
+     * Relies on {@link Map#hashCode()} and {@link Map#equals(Object)} being defined over the
+     * entries, so that a raw map provided by a consumer matches the sorted maps of a cached
+     * series.
+     */
+    static class Key {
+        private final String key;
+        private final Map<String, String> tags;
+        private final Map<String, String> resource;
+        private final int hashCode;
+
+        Key(
+            final String key, final Map<String, String> tags, final Map<String, String> resource
+        ) {
+            this.key = key;
+            this.tags = tags;
+            this.resource = resource;
+            this.hashCode = 31 * (31 * Objects.hashCode(key) + tags.hashCode()) +
+                resource.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+
+            final Key o = (Key) obj;
+
+            return hashCode == o.hashCode && Objects.equals(key, o.key) && tags.equals(o.tags) &&
+                resource.equals(o.resource);
+        }
+    }
+}
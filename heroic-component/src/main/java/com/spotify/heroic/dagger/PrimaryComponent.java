@@ -48,6 +48,9 @@ public interface PrimaryComponent extends EarlyComponent {
     @Named("application/json")
     ObjectMapper jsonMapper();
 
+    @Named("application/x-jackson-smile+internal")
+    ObjectMapper smileInternalMapper();
+
     QueryParser queryParser();
 
     ShellTasks tasks();
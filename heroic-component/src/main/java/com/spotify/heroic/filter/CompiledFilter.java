@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.heroic.filter;
+
+import com.spotify.heroic.common.Series;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * A filter compiled into a tree of predicates, intended for filters that are applied to a large
+ * number of series.
+ * <p>
+ * Compiling a filter optimizes it, pre-compiles any regular expressions, and orders the terms of
+ * every and/or statement by their estimated cost so that cheap terms get a chance to short-circuit
+ * the evaluation before expensive ones are evaluated.
+ */
+public class CompiledFilter {
+    private static final int COST_CONSTANT = 0;
+    private static final int COST_KEY = 1;
+    private static final int COST_TAG = 2;
+    private static final int COST_PREFIX = 3;
+    private static final int COST_REGEX = 20;
+
+    private static final Comparator<Node> BY_COST = Comparator.comparingInt(n -> n.cost);
+
+    private final Filter filter;
+    private final Predicate root;
+
+    private CompiledFilter(final Filter filter, final Predicate root) {
+        this.filter = filter;
+        this.root = root;
+    }
+
+    /**
+     * Compile the given filter.
+     */
+    public static CompiledFilter compile(final Filter filter) {
+        return new CompiledFilter(filter, filter.optimize().visit(new Compiler()).predicate);
+    }
+
+    /**
+     * The filter that was compiled.
+     */
+    public Filter filter() {
+        return filter;
+    }
+
+    /**
+     * Apply the compiled filter to the given series.
+     *
+     * @param series Series to apply to.
+     * @return {@code true} if filter matches the given series, {@code false} otherwise.
+     * @see Filter#apply(Series)
+     */
+    public boolean apply(final Series series) {
+        return root.apply(series);
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledFilter(" + filter + ")";
+    }
+
+    @FunctionalInterface
+    interface Predicate {
+        boolean apply(Series series);
+    }
+
+    /**
+     * A compiled predicate, and the estimated cost of evaluating it.
+     */
+    static class Node {
+        private final int cost;
+        private final Predicate predicate;
+
+        Node(final int cost, final Predicate predicate) {
+            this.cost = cost;
+            this.predicate = predicate;
+        }
+    }
+
+    static class Compiler implements Filter.Visitor<Node> {
+        @Override
+        public Node visitTrue(final TrueFilter t) {
+            return constant(true);
+        }
+
+        @Override
+        public Node visitFalse(final FalseFilter f) {
+            return constant(false);
+        }
+
+        @Override
+        public Node visitMatchKey(final MatchKeyFilter matchKey) {
+            final String key = matchKey.key();
+            return new Node(COST_KEY, series -> key.equals(series.getKey()));
+        }
+
+        @Override
+        public Node visitHasTag(final HasTagFilter hasTag) {
+            final String tag = hasTag.tag();
+            return new Node(COST_TAG, series -> series.getTags().containsKey(tag));
+        }
+
+        @Override
+        public Node visitMatchTag(final MatchTagFilter matchTag) {
+            final String tag = matchTag.tag();
+            final String value = matchTag.value();
+            return new Node(COST_TAG, series -> value.equals(series.getTags().get(tag)));
+        }
+
+        @Override
+        public Node visitStartsWith(final StartsWithFilter startsWith) {
+            final String tag = startsWith.tag();
+            final String value = startsWith.value();
+
+            return new Node(COST_PREFIX, series -> {
+                final String tagValue = series.getTags().get(tag);
+                return tagValue != null && tagValue.startsWith(value);
+            });
+        }
+
+        @Override
+        public Node visitRegex(final RegexFilter regex) {
+            final String tag = regex.tag();
+            final Pattern pattern = regex.pattern();
+
+            return new Node(COST_REGEX, series -> {
+                final String tagValue = series.getTags().get(tag);
+                return tagValue != null && pattern.matcher(tagValue).matches();
+            });
+        }
+
+        @Override
+        public Node visitNot(final NotFilter not) {
+            final Node inner = not.filter().visit(this);
+            final Predicate predicate = inner.predicate;
+            return new Node(inner.cost, series -> !predicate.apply(series));
+        }
+
+        @Override
+        public Node visitAnd(final AndFilter and) {
+            final Node[] nodes = sorted(and.terms());
+            final Predicate[] terms = predicates(nodes);
+
+            return new Node(cost(nodes), series -> {
+                for (final Predicate term : terms) {
+                    if (!term.apply(series)) {
+                        return false;
+                    }
+                }
+
+                return true;
+            });
+        }
+
+        @Override
+        public Node visitOr(final OrFilter or) {
+            final Node[] nodes = sorted(or.terms());
+            final Predicate[] terms = predicates(nodes);
+
+            return new Node(cost(nodes), series -> {
+                for (final Predicate term : terms) {
+                    if (term.apply(series)) {
+                        return true;
+                    }
+                }
+
+                return false;
+            });
+        }
+
+        @Override
+        public Node defaultAction(final Filter filter) {
+            // fall back to the uncompiled filter, this is for example how raw filters fail.
+            return new Node(COST_REGEX, filter::apply);
+        }
+
+        private Node[] sorted(final List<Filter> filters) {
+            final Node[] nodes = filters.stream().map(f -> f.visit(this)).toArray(Node[]::new);
+            Arrays.sort(nodes, BY_COST);
+            return nodes;
+        }
+
+        private Predicate[] predicates(final Node[] nodes) {
+            return Arrays.stream(nodes).map(n -> n.predicate).toArray(Predicate[]::new);
+        }
+
+        private int cost(final Node[] nodes) {
+            int cost = 0;
+
+            for (final Node node : nodes) {
+                cost += node.cost;
+            }
+
+            return cost;
+        }
+
+        private Node constant(final boolean value) {
+            return new Node(COST_CONSTANT, series -> value);
+        }
+    }
+}
@@ -43,10 +43,26 @@ public abstract class RegexFilter implements Filter {
     abstract String tag();
     abstract String value();
 
+    private volatile Pattern pattern;
+
     @Override
     public boolean apply(Series series) {
         final String tagValue = series.getTags().get(tag());
-        return tagValue != null && Pattern.compile(value()).matcher(tagValue).matches();
+        return tagValue != null && pattern().matcher(tagValue).matches();
+    }
+
+    /**
+     * The compiled pattern of this filter, which is compiled once on first use.
+     */
+    Pattern pattern() {
+        Pattern p = pattern;
+
+        if (p == null) {
+            p = Pattern.compile(value());
+            pattern = p;
+        }
+
+        return p;
     }
 
     @Override
@@ -29,6 +29,8 @@ import eu.toolchain.async.AsyncFuture;
 public interface IngestionManager extends UsableGroupManager<IngestionGroup> {
     String INGESTED = "ingested";
     String AVAILABLE_WRITE_PERMITS = "available-write-permits";
+    String CONCURRENT_WRITES_LIMIT = "concurrent-writes-limit";
+    String PENDING_WRITES = "pending-writes";
 
     Statistics getStatistics();
 
@@ -26,6 +26,9 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.auto.value.AutoValue;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import com.spotify.heroic.ObjectHasher;
 import com.spotify.heroic.QueryOptions;
 import com.spotify.heroic.aggregation.AggregationInstance;
@@ -126,6 +129,11 @@ public abstract class FullQuery {
             dataDensity());
     }
 
+    public FullQuery withStatistics(Statistics newStatistics) {
+        return FullQuery.create(trace(), errors(), groups(), newStatistics, limits(),
+            dataDensity());
+    }
+
     public Summary summarize() {
         return Summary.create(trace(), errors(), ResultGroup.summarize(groups()), statistics(),
             limits(), dataDensity().orElse(Histogram.empty()));
@@ -156,6 +164,8 @@ public abstract class FullQuery {
 
     @AutoValue
     public abstract static class Request {
+        private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
         @JsonCreator
         public static Request create(
             @JsonProperty("source") MetricType source,
@@ -189,6 +199,16 @@ public abstract class FullQuery {
             return Summary.create(source(), filter(), range(), aggregation(), options());
         }
 
+        /**
+         * Hash of everything in the request that affects its result, suitable as a key when
+         * caching or de-duplicating requests.
+         */
+        public String hash() {
+            final Hasher hasher = HASH_FUNCTION.newHasher();
+            hashTo(new ObjectHasher(hasher));
+            return hasher.hash().toString();
+        }
+
         public void hashTo(final ObjectHasher hasher) {
             hasher.putObject(getClass(), () -> {
                 hasher.putField("source", source(), hasher.enumValue());
@@ -21,8 +21,10 @@
 
 package com.spotify.heroic.metric;
 
+import com.google.common.collect.ImmutableList;
 import eu.toolchain.async.AsyncFuture;
 import io.opencensus.trace.Span;
+import java.util.function.Consumer;
 
 public interface MetricBackendGroup extends MetricBackend {
     /**
@@ -31,4 +33,20 @@ public interface MetricBackendGroup extends MetricBackend {
     AsyncFuture<FullQuery> query(FullQuery.Request request);
 
     AsyncFuture<FullQuery> query(FullQuery.Request request, Span span);
+
+    /**
+     * Perform a local query for metrics, passing every result group to the given consumer as it
+     * is produced instead of collecting them into the result.
+     * <p>
+     * The returned result holds everything but the groups.
+     */
+    default AsyncFuture<FullQuery> query(
+        FullQuery.Request request, Consumer<ResultGroup> groups
+    ) {
+        return query(request).directTransform(result -> {
+            result.groups().forEach(groups);
+            return FullQuery.create(result.trace(), result.errors(), ImmutableList.of(),
+                result.statistics(), result.limits(), result.dataDensity());
+        });
+    }
 }
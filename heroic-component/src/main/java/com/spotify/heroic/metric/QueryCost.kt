@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.heroic.metric
+
+import com.spotify.heroic.common.Statistics
+import java.util.*
+
+/**
+ * Cost of a query as estimated before any data is fetched.
+ */
+data class QueryCost(
+    /**
+     * Number of series matched by the query.
+     */
+    val series: Long,
+
+    /**
+     * Number of points that the query is expected to read.
+     */
+    val points: Long,
+
+    /**
+     * Number of points that the aggregation is expected to retain, or -1 if not known.
+     */
+    val retained: Long
+) {
+    operator fun plus(other: QueryCost): QueryCost {
+        val retained = if (retained < 0 || other.retained < 0) -1 else retained + other.retained
+        return QueryCost(series + other.series, points + other.points, retained)
+    }
+
+    /**
+     * Statistics through which the cost is passed along with the result of a shard.
+     */
+    fun toStatistics(): Statistics {
+        val counters = mutableMapOf(SERIES to series, POINTS to points)
+
+        if (retained >= 0) {
+            counters[RETAINED] = retained
+        }
+
+        return Statistics(counters.toMap())
+    }
+
+    companion object {
+        const val SERIES = "estimatedSeries"
+        const val POINTS = "estimatedPoints"
+        const val RETAINED = "estimatedRetained"
+
+        @JvmStatic
+        fun fromStatistics(statistics: Statistics): Optional<QueryCost> {
+            return statistics.getCounterValue(POINTS).map { points ->
+                QueryCost(statistics.get(SERIES, 0), points, statistics.get(RETAINED, -1))
+            }
+        }
+    }
+}
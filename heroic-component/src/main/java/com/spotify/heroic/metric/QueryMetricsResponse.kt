@@ -36,11 +36,12 @@ data class QueryMetricsResponse @JvmOverloads constructor(
     val trace: QueryTrace,
     val limits: ResultLimits,
     val preAggregationSampleSize: Optional<Long>,
-    val cache: Optional<CacheInfo>
+    val cache: Optional<CacheInfo>,
+    val cost: Optional<QueryCost> = Optional.empty()
 ) {
     fun summarize(): Summary =
         Summary(range, ShardedResultGroup.summarize(result), statistics, errors, trace, limits,
-            preAggregationSampleSize, cache)
+            preAggregationSampleSize, cache, cost)
 
     // Only include data suitable to log to query log
     data class Summary(
@@ -51,6 +52,7 @@ data class QueryMetricsResponse @JvmOverloads constructor(
         val trace: QueryTrace,
         val limits: ResultLimits,
         val preAggregationSampleSize: Optional<Long>,
-        val cache: Optional<CacheInfo>
+        val cache: Optional<CacheInfo>,
+        val cost: Optional<QueryCost>
     )
 }
@@ -68,6 +68,10 @@ class QueryMetricsResponseSerializer extends JsonSerializer<QueryMetricsResponse
 
         g.writeObjectField("preAggregationSampleSize", response.getPreAggregationSampleSize());
 
+        if (response.getCost().isPresent()) {
+            g.writeObjectField("cost", response.getCost().get());
+        }
+
         g.writeFieldName("errors");
         serializeErrors(g, response.getErrors());
 
@@ -21,13 +21,10 @@
 
 package com.spotify.heroic.metric
 
-import com.spotify.heroic.aggregation.AggregationCombiner
 import com.spotify.heroic.common.DateRange
-import com.spotify.heroic.common.OptionalLimit
-import eu.toolchain.async.Collector
 import java.util.*
 
-data class QueryResult(
+data class QueryResult @JvmOverloads constructor(
     /**
      * The range in which all result groups metric's should be contained in.
      */
@@ -60,7 +57,12 @@ data class QueryResult(
     /**
      * Extra information about caching.
      */
-    val cache: Optional<CacheInfo>
+    val cache: Optional<CacheInfo>,
+
+    /**
+     * Cost of the query as estimated by the shards, if it was estimated.
+     */
+    val cost: Optional<QueryCost> = Optional.empty()
 ) {
     /**
      * Add cache info to the result.
@@ -69,57 +71,10 @@ data class QueryResult(
      */
     fun withCache(cache: CacheInfo): QueryResult {
         return QueryResult(range, groups, errors, trace, limits, preAggregationSampleSize,
-            Optional.of(cache))
+            Optional.of(cache), cost)
     }
 
     companion object {
-        /**
-         * Collect result parts into a complete result.
-         *
-         * @param range The range which the result represents.
-         * @return A complete QueryResult.
-         */
-        @JvmStatic
-        fun collectParts(
-            what: QueryTrace.Identifier,
-            range: DateRange,
-            combiner: AggregationCombiner,
-            groupLimit: OptionalLimit
-        ): Collector<QueryResultPart, QueryResult> {
-            val w = QueryTrace.watch(what)
-            return Collector { parts: Collection<QueryResultPart> ->
-                val all = mutableListOf<List<ShardedResultGroup>>()
-                val errors = mutableListOf<RequestError>()
-                val queryTraces = mutableListOf<QueryTrace>()
-                val limits = mutableListOf<ResultLimit>()
-                var preAggregationSampleSize: Long = 0
-
-                parts.asSequence().map {
-                    errors.addAll(it.errors)
-                    queryTraces.add(it.queryTrace)
-                    limits.addAll(it.limits.limits)
-                    preAggregationSampleSize += it.preAggregationSampleSize
-                    it
-                }.filterNot { it.isEmpty() }.forEach { all.add(it.groups) }
-
-                val groups = combiner.combine(all)
-                val trace = w.end(queryTraces.toList())
-                if (groupLimit.isGreaterOrEqual(groups.size.toLong())) {
-                    limits.add(ResultLimit.GROUP)
-                }
-
-                QueryResult(
-                    range,
-                    groupLimit.limitList(groups),
-                    errors,
-                    trace,
-                    ResultLimits(limits.toSet()),
-                    preAggregationSampleSize,
-                    Optional.empty()
-                )
-            }
-        }
-
         @JvmStatic
         fun error(range: DateRange, errorMessage: String, trace: QueryTrace): QueryResult =
             QueryResult(range, emptyList(), listOf(QueryError(errorMessage)), trace,
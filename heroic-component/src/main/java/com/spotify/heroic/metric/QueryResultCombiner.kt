@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2020 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.heroic.metric
+
+import com.spotify.heroic.aggregation.AggregationCombiner
+import com.spotify.heroic.common.DateRange
+import com.spotify.heroic.common.OptionalLimit
+import java.util.*
+
+/**
+ * Incrementally combines the parts of a query result as they arrive from each shard.
+ *
+ * Every part is folded into the session of the [AggregationCombiner] when it is added, so that
+ * only the state of the session is held in memory instead of all the parts, and building the
+ * final result does not have to wait for the slowest shard to start combining.
+ *
+ * Parts arrive in the order that shards respond, so the combined groups are sorted by their shard
+ * and key before they are limited and returned. This keeps results, and the groups which are kept
+ * when the group limit is reached, independent of the timing of the shards.
+ */
+class QueryResultCombiner(
+    what: QueryTrace.Identifier,
+    private val range: DateRange,
+    combiner: AggregationCombiner,
+    private val groupLimit: OptionalLimit
+) {
+    private val watch = QueryTrace.watch(what)
+    private val session = combiner.session()
+    private val errors = mutableListOf<RequestError>()
+    private val queryTraces = mutableListOf<QueryTrace>()
+    private val limits = mutableSetOf<ResultLimit>()
+    private var preAggregationSampleSize: Long = 0
+    private var cost: QueryCost? = null
+
+    @Synchronized
+    fun add(part: QueryResultPart) {
+        errors.addAll(part.errors)
+        queryTraces.add(part.queryTrace)
+        limits.addAll(part.limits.limits)
+        preAggregationSampleSize += part.preAggregationSampleSize
+        part.cost.ifPresent { cost = cost?.plus(it) ?: it }
+
+        if (!part.isEmpty()) {
+            session.add(part.groups)
+        }
+    }
+
+    /**
+     * Add groups which are received ahead of the rest of their part, which is added once the
+     * shard has responded.
+     */
+    @Synchronized
+    fun addGroups(groups: List<ShardedResultGroup>) {
+        session.add(groups)
+    }
+
+    @Synchronized
+    fun result(): QueryResult {
+        val groups = sorted(session.result())
+        val trace = watch.end(queryTraces.toList())
+
+        if (groupLimit.isGreaterOrEqual(groups.size.toLong())) {
+            limits.add(ResultLimit.GROUP)
+        }
+
+        return QueryResult(
+            range,
+            groupLimit.limitList(groups),
+            errors.toList(),
+            trace,
+            ResultLimits(limits.toSet()),
+            preAggregationSampleSize,
+            Optional.empty(),
+            Optional.ofNullable(cost)
+        )
+    }
+
+    private fun sorted(groups: List<ShardedResultGroup>): List<ShardedResultGroup> {
+        return groups
+            .map { Pair(it.shard.toSortedMap(), it.key.toSortedMap()) to it }
+            .sortedWith(compareBy(GROUP_ORDER) { it.first })
+            .map { it.second }
+    }
+
+    companion object {
+        private val GROUP_ORDER =
+            Comparator<Pair<SortedMap<String, String>, SortedMap<String, String>>> { a, b ->
+                compareMaps(a.first, b.first).takeIf { it != 0 } ?: compareMaps(a.second, b.second)
+            }
+
+        private fun compareMaps(a: SortedMap<String, String>, b: SortedMap<String, String>): Int {
+            val left = a.entries.iterator()
+            val right = b.entries.iterator()
+
+            while (left.hasNext() && right.hasNext()) {
+                val l = left.next()
+                val r = right.next()
+                val c = l.key.compareTo(r.key).takeIf { it != 0 } ?: l.value.compareTo(r.value)
+
+                if (c != 0) {
+                    return c
+                }
+            }
+
+            return left.hasNext().compareTo(right.hasNext())
+        }
+    }
+}
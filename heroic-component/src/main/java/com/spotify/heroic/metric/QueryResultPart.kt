@@ -24,8 +24,9 @@ package com.spotify.heroic.metric
 import com.spotify.heroic.aggregation.AggregationInstance
 import com.spotify.heroic.cluster.ClusterShard
 import eu.toolchain.async.Transform
+import java.util.*
 
-data class QueryResultPart(
+data class QueryResultPart @JvmOverloads constructor(
     /**
      * Groups of results.
      * <p>
@@ -48,7 +49,12 @@ data class QueryResultPart(
     /**
      * Number of raw data points before any aggregations are applied.
      */
-    val preAggregationSampleSize: Long
+    val preAggregationSampleSize: Long,
+
+    /**
+     * Cost of the query as estimated by the shard, if it was estimated.
+     */
+    val cost: Optional<QueryCost> = Optional.empty()
 ) {
     fun isEmpty() = groups.all { it.isEmpty() }
 
@@ -69,7 +75,7 @@ data class QueryResultPart(
                     }
 
                 QueryResultPart(groups, result.errors(), result.trace(), result.limits(),
-                    preAggregationSampleSize)
+                    preAggregationSampleSize, QueryCost.fromStatistics(result.statistics()))
             }
         }
     }
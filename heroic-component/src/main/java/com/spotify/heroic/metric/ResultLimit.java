@@ -44,5 +44,15 @@ public enum ResultLimit {
     /**
      * The number of samples retained in Aggregations was higher than the allowed quota.
      */
-    AGGREGATION
+    AGGREGATION,
+
+    /**
+     * Not all shards responded within the latency budget of the query.
+     */
+    LATENCY_BUDGET,
+
+    /**
+     * The estimated cost of the query was higher than the allowed limit.
+     */
+    COST
 }
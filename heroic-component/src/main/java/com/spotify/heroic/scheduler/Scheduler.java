@@ -21,6 +21,7 @@
 
 package com.spotify.heroic.scheduler;
 
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 public interface Scheduler {
@@ -45,7 +46,7 @@ public interface Scheduler {
      */
     void periodically(String name, long value, TimeUnit unit, Task task);
 
-    void schedule(long value, TimeUnit unit, Task task);
+    ScheduledFuture<?> schedule(long value, TimeUnit unit, Task task);
 
     /**
      * Schedule a task to be executed after the given timeout.
@@ -54,6 +55,7 @@ public interface Scheduler {
      * @param value Time interval that the task should execute.
      * @param unit Unit of the time interval.
      * @param task Task to execute.
+     * @return A future which can be cancelled to prevent the task from being executed.
      */
-    void schedule(String name, long value, TimeUnit unit, Task task);
+    ScheduledFuture<?> schedule(String name, long value, TimeUnit unit, Task task);
 }
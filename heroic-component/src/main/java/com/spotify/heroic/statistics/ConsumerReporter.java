@@ -30,6 +30,10 @@ public interface ConsumerReporter {
 
     void reportMessageRetry();
 
+    void reportMessageDrop();
+
+    void reportMessageBacklog(int size);
+
     void reportConsumerSchemaError();
 
     void reportConsumerThreadsWanted(final long count);
@@ -40,6 +44,10 @@ public interface ConsumerReporter {
 
     void reportMessageDrift(final long ms);
 
+    void reportSeriesCacheHit();
+
+    void reportSeriesCacheMiss();
+
     FutureReporter.Context reportConsumption();
 
     HeroicTimer.Context reportConsumerCommitOperation();
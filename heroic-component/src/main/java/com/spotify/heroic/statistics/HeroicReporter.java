@@ -42,6 +42,8 @@ public interface HeroicReporter {
 
     MemcachedReporter newMemcachedReporter(final String consumerType);
 
+    RpcReporter newRpcReporter(String protocol);
+
     void registerShards(Set<Map<String, String>> knownShards);
 
     /**
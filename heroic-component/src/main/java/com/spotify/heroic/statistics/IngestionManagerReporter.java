@@ -28,4 +28,15 @@ public interface IngestionManagerReporter {
     void incrementConcurrentWrites();
 
     void decrementConcurrentWrites();
+
+    void incrementPendingWrites();
+
+    void decrementPendingWrites();
+
+    void reportWriteRejected();
+
+    /**
+     * Report the current adaptive limit of concurrent writes.
+     */
+    void reportWriteLimit(int limit);
 }
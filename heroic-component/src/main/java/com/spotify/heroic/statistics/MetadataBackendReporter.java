@@ -30,6 +30,10 @@ public interface MetadataBackendReporter {
 
     void failedShards(final long errors);
 
+    void reportFindSeriesCacheHit();
+
+    void reportFindSeriesCacheMiss();
+
     FutureReporter.Context setupBackendWriteReporter();
 
     MetadataBackend decorate(MetadataBackend backend);
@@ -41,4 +41,25 @@ public interface QueryReporter {
     void reportClusterNodeRpcError();
 
     void reportClusterNodeRpcCancellation();
+
+    /**
+     * Report that a hedged request was sent to another node in a shard.
+     */
+    void reportHedgeFired();
+
+    /**
+     * Report that a hedged request finished before the request that it hedged.
+     */
+    void reportHedgeWon();
+
+    /**
+     * Report that a query shared the result of an identical query that was already in flight.
+     */
+    void reportQueryCoalesced();
+
+    /**
+     * Report that a query returned without the shards which did not respond within its latency
+     * budget.
+     */
+    void reportLatencyBudgetExceeded();
 }
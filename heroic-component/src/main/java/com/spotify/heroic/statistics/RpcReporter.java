@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.heroic.statistics;
+
+public interface RpcReporter {
+    /**
+     * Report that a set of channels was opened to a new address.
+     */
+    void reportChannelOpened();
+
+    /**
+     * Report that a node reused the channels of an already known address, e.g. when it was
+     * reconnected during a cluster refresh.
+     */
+    void reportChannelReused();
+
+    /**
+     * Report that the channels to an address were closed, since no node uses them anymore.
+     */
+    void reportChannelClosed();
+
+    /**
+     * Report that warming up the channels to a node failed.
+     */
+    void reportWarmupFailed();
+
+    /**
+     * Build a reporter for the requests to a single node.
+     *
+     * @param node The address of the node.
+     */
+    NodeReporter newNode(String node);
+
+    interface NodeReporter {
+        void reportStreamStarted();
+
+        void reportStreamFinished();
+
+        /**
+         * Stop reporting for the node.
+         */
+        void close();
+    }
+}
@@ -45,6 +45,14 @@ public class NoopConsumerReporter implements ConsumerReporter {
     public void reportMessageRetry() {
     }
 
+    @Override
+    public void reportMessageDrop() {
+    }
+
+    @Override
+    public void reportMessageBacklog(int size) {
+    }
+
     @Override
     public void reportConsumerSchemaError() {
     }
@@ -65,6 +73,14 @@ public class NoopConsumerReporter implements ConsumerReporter {
     public void reportMessageDrift(final long ms) {
     }
 
+    @Override
+    public void reportSeriesCacheHit() {
+    }
+
+    @Override
+    public void reportSeriesCacheMiss() {
+    }
+
     @Override
     public FutureReporter.Context reportConsumption() {
         return NoopFutureReporterContext.get();
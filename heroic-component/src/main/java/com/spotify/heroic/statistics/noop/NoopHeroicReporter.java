@@ -29,6 +29,7 @@ import com.spotify.heroic.statistics.HeroicReporter;
 import com.spotify.heroic.statistics.IngestionManagerReporter;
 import com.spotify.heroic.statistics.MetadataBackendReporter;
 import com.spotify.heroic.statistics.MetricBackendReporter;
+import com.spotify.heroic.statistics.RpcReporter;
 import com.spotify.heroic.statistics.SuggestBackendReporter;
 
 import java.util.Map;
@@ -76,6 +77,11 @@ public class NoopHeroicReporter implements HeroicReporter {
         return NoopMemcachedReporter.get();
     }
 
+    @Override
+    public RpcReporter newRpcReporter(final String protocol) {
+        return NoopRpcReporter.get();
+    }
+
     @Override
     public void registerShards(Set<Map<String, String>> knownShards) {
     }
@@ -41,6 +41,22 @@ public class NoopIngestionManagerReporter implements IngestionManagerReporter {
 
     }
 
+    @Override
+    public void incrementPendingWrites() {
+    }
+
+    @Override
+    public void decrementPendingWrites() {
+    }
+
+    @Override
+    public void reportWriteRejected() {
+    }
+
+    @Override
+    public void reportWriteLimit(final int limit) {
+    }
+
     private static final NoopIngestionManagerReporter instance = new NoopIngestionManagerReporter();
 
     public static NoopIngestionManagerReporter get() {
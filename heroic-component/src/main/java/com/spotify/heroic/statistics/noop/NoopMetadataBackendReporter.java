@@ -47,6 +47,14 @@ public class NoopMetadataBackendReporter implements MetadataBackendReporter {
     @Override
     public void failedShards(final long errors) { }
 
+    @Override
+    public void reportFindSeriesCacheHit() {
+    }
+
+    @Override
+    public void reportFindSeriesCacheMiss() {
+    }
+
     @Override
     public FutureReporter.Context setupBackendWriteReporter() {
         return NoopFutureReporterContext.get();
@@ -51,4 +51,20 @@ public class NoopQueryReporter implements QueryReporter {
     @Override
     public void reportClusterNodeRpcCancellation() {
     }
+
+    @Override
+    public void reportHedgeFired() {
+    }
+
+    @Override
+    public void reportHedgeWon() {
+    }
+
+    @Override
+    public void reportQueryCoalesced() {
+    }
+
+    @Override
+    public void reportLatencyBudgetExceeded() {
+    }
 }
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.heroic.statistics.noop;
+
+import com.spotify.heroic.statistics.RpcReporter;
+
+public class NoopRpcReporter implements RpcReporter {
+    private NoopRpcReporter() {
+    }
+
+    @Override
+    public void reportChannelOpened() {
+    }
+
+    @Override
+    public void reportChannelReused() {
+    }
+
+    @Override
+    public void reportChannelClosed() {
+    }
+
+    @Override
+    public void reportWarmupFailed() {
+    }
+
+    @Override
+    public NodeReporter newNode(final String node) {
+        return NODE;
+    }
+
+    private static final NodeReporter NODE = new NodeReporter() {
+        @Override
+        public void reportStreamStarted() {
+        }
+
+        @Override
+        public void reportStreamFinished() {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    private static final NoopRpcReporter instance = new NoopRpcReporter();
+
+    public static NoopRpcReporter get() {
+        return instance;
+    }
+}
@@ -106,10 +106,12 @@ data class TagKeyCount(
         fun count(): Long = exactValues.map { it.size.toLong() }.orElse(count)
     }
 
-    data class Request(
+    data class Request @JvmOverloads constructor(
         val filter: Filter,
         val range: DateRange,
         val limit: OptionalLimit,
-        val exactLimit: OptionalLimit
+        val exactLimit: OptionalLimit,
+        // Count by searching the backends, instead of from tag sketches when available.
+        val exact: Boolean = false
     )
 }
\ No newline at end of file
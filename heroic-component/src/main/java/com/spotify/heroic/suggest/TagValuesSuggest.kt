@@ -113,11 +113,13 @@ data class TagValuesSuggest(
         var limited: Boolean = false
     )
 
-    data class Request(
+    data class Request @JvmOverloads constructor(
         val filter: Filter,
         val range: DateRange,
         val limit: OptionalLimit,
         val groupLimit: OptionalLimit,
-        val exclude: List<String>
+        val exclude: List<String>,
+        // Suggest by searching the backends, instead of from tag sketches when available.
+        val exact: Boolean = false
     )
 }
\ No newline at end of file
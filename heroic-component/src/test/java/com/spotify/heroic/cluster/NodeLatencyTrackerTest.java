@@ -0,0 +1,123 @@
+package com.spotify.heroic.cluster;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NodeLatencyTrackerTest {
+    private static final Map<String, String> SHARD = ImmutableMap.of("shard", "a");
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private NodeLatencyTracker tracker;
+    private ClusterNode a;
+    private ClusterNode b;
+
+    @Before
+    public void setup() {
+        tracker = new NodeLatencyTracker(clock::get);
+        a = mock(ClusterNode.class);
+        b = mock(ClusterNode.class);
+    }
+
+    @Test
+    public void testScore() {
+        assertEquals(0D, tracker.score(a), 0D);
+
+        request(a, Optional.empty(), 100L, true);
+        request(b, Optional.empty(), 200L, true);
+
+        assertEquals(100D, tracker.score(a), 0D);
+        assertEquals(200D, tracker.score(b), 0D);
+
+        /* moving average */
+        request(a, Optional.empty(), 600L, true);
+        assertEquals(200D, tracker.score(a), 0.001D);
+
+        /* failures are not recorded */
+        request(b, Optional.empty(), 10L, false);
+        assertEquals(200D, tracker.score(b), 0D);
+
+        /* outstanding requests are penalized */
+        final NodeLatencyTracker.Request outstanding =
+            tracker.start(b, SHARD, Optional.empty());
+        assertEquals(400D, tracker.score(b), 0D);
+        outstanding.finish(false);
+        assertEquals(200D, tracker.score(b), 0D);
+    }
+
+    @Test
+    public void testPercentile() {
+        final Optional<String> endpoint = Optional.of("query");
+
+        for (int i = 1; i < NodeLatencyTracker.MIN_SAMPLES; i++) {
+            request(a, endpoint, TimeUnit.MILLISECONDS.toNanos(i), true);
+        }
+
+        assertEquals(Optional.empty(), tracker.percentile(SHARD, "query", 0.5D));
+
+        request(a, endpoint, TimeUnit.MILLISECONDS.toNanos(NodeLatencyTracker.MIN_SAMPLES), true);
+
+        assertEquals(Optional.of(51L), tracker.percentile(SHARD, "query", 0.5D));
+        assertEquals(Optional.of(96L), tracker.percentile(SHARD, "query", 0.95D));
+        assertEquals(Optional.of(100L), tracker.percentile(SHARD, "query", 1D));
+        assertEquals(Optional.empty(), tracker.percentile(SHARD, "other", 0.5D));
+        /* windows are kept per shard */
+        assertEquals(Optional.empty(),
+            tracker.percentile(ImmutableMap.of("shard", "b"), "query", 0.5D));
+    }
+
+    @Test
+    public void testPercentileRefresh() {
+        final Optional<String> endpoint = Optional.of("query");
+
+        for (int i = 0; i < NodeLatencyTracker.MIN_SAMPLES; i++) {
+            request(a, endpoint, TimeUnit.MILLISECONDS.toNanos(1), true);
+        }
+
+        assertEquals(Optional.of(1L), tracker.percentile(SHARD, "query", 1D));
+
+        /* percentiles are reused until enough new latencies have been recorded */
+        for (int i = 1; i < NodeLatencyTracker.REFRESH_INTERVAL; i++) {
+            request(a, endpoint, TimeUnit.MILLISECONDS.toNanos(500), true);
+        }
+
+        assertEquals(Optional.of(1L), tracker.percentile(SHARD, "query", 1D));
+
+        request(a, endpoint, TimeUnit.MILLISECONDS.toNanos(500), true);
+        assertEquals(Optional.of(500L), tracker.percentile(SHARD, "query", 1D));
+    }
+
+    @Test
+    public void testLost() {
+        final Optional<String> endpoint = Optional.of("query");
+
+        for (int i = 1; i < NodeLatencyTracker.MIN_SAMPLES; i++) {
+            request(a, endpoint, TimeUnit.MILLISECONDS.toNanos(1), true);
+        }
+
+        /* the request which lost a race is recorded with its elapsed time as a lower bound */
+        final NodeLatencyTracker.Request lost = tracker.start(b, SHARD, endpoint);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        lost.lost();
+
+        assertEquals(Optional.of(500L), tracker.percentile(SHARD, "query", 1D));
+        assertEquals((double) TimeUnit.MILLISECONDS.toNanos(500), tracker.score(b), 0D);
+    }
+
+    private void request(
+        final ClusterNode node, final Optional<String> endpoint, final long elapsed,
+        final boolean success
+    ) {
+        final NodeLatencyTracker.Request request = tracker.start(node, SHARD, endpoint);
+        clock.addAndGet(elapsed);
+        request.finish(success);
+    }
+}
@@ -0,0 +1,72 @@
+package com.spotify.heroic.consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.google.common.collect.ImmutableMap;
+import com.spotify.heroic.common.Series;
+import com.spotify.heroic.statistics.ConsumerReporter;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SeriesCacheTest {
+    @Mock
+    private ConsumerReporter reporter;
+
+    private SeriesCache cache;
+
+    @Before
+    public void setup() {
+        cache = new SeriesCache(reporter, 2);
+    }
+
+    @Test
+    public void testIntern() {
+        final Map<String, String> tags = new HashMap<>();
+        tags.put("b", "2");
+        tags.put("a", "1");
+
+        final Series a = cache.intern("foo", tags, ImmutableMap.of("r", "x"));
+        final Series b =
+            cache.intern("foo", ImmutableMap.of("a", "1", "b", "2"), ImmutableMap.of("r", "x"));
+
+        assertSame(a, b);
+        assertEquals(Series.of("foo", tags, ImmutableMap.of("r", "x")), a);
+        assertEquals(1, cache.size());
+
+        verify(reporter).reportSeriesCacheMiss();
+        verify(reporter).reportSeriesCacheHit();
+    }
+
+    @Test
+    public void testDistinctSeries() {
+        final Series a = cache.intern("foo", ImmutableMap.of("a", "1"), ImmutableMap.of());
+        final Series b = cache.intern("foo", ImmutableMap.of("a", "2"), ImmutableMap.of());
+        final Series c = cache.intern("foo", ImmutableMap.of("a", "1"), ImmutableMap.of("a", "1"));
+
+        assertNotSame(a, b);
+        assertNotSame(a, c);
+        verify(reporter, times(3)).reportSeriesCacheMiss();
+    }
+
+    @Test
+    public void testNotRetainingInput() {
+        final Map<String, String> tags = new HashMap<>();
+        tags.put("a", "1");
+
+        final Series a = cache.intern("foo", tags, ImmutableMap.of());
+        tags.put("a", "2");
+
+        assertEquals(ImmutableMap.of("a", "1"), a.getTags());
+        assertNotSame(a, cache.intern("foo", tags, ImmutableMap.of()));
+    }
+}
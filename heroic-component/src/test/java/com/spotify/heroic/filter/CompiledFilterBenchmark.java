@@ -0,0 +1,121 @@
+package com.spotify.heroic.filter;
+
+import static com.spotify.heroic.filter.Filter.and;
+import static com.spotify.heroic.filter.Filter.hasTag;
+import static com.spotify.heroic.filter.Filter.matchKey;
+import static com.spotify.heroic.filter.Filter.matchTag;
+import static com.spotify.heroic.filter.Filter.not;
+import static com.spotify.heroic.filter.Filter.or;
+import static com.spotify.heroic.filter.Filter.regex;
+import static com.spotify.heroic.filter.Filter.startsWith;
+
+import com.google.common.collect.ImmutableMap;
+import com.spotify.heroic.common.Series;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Compares the time it takes to evaluate filters interpreted with {@link Filter#apply(Series)},
+ * and compiled with {@link CompiledFilter}, over 100000 series.
+ * <p>
+ * Not run with the tests, remove the {@code @Ignore} to run it.
+ */
+@Ignore
+public class CompiledFilterBenchmark {
+    private static final int SERIES = 100000;
+    private static final int WARMUP = 20;
+    private static final int ITERATIONS = 50;
+
+    private final List<Series> series = series();
+
+    @Test
+    public void testMatchTag() {
+        run("matchTag", and(matchKey("cpu"), matchTag("role", "database")));
+    }
+
+    @Test
+    public void testRegexLast() {
+        run("regexLast",
+            and(regex("host", ".*\\.example\\.com"), matchKey("memory"), hasTag("canary")));
+    }
+
+    @Test
+    public void testNested() {
+        run("nested", or(and(startsWith("host", "database1"), not(matchTag("role", "web"))),
+            and(regex("host", "database[0-4]\\..*"), matchKey("cpu"))));
+    }
+
+    private void run(final String name, final Filter filter) {
+        final CompiledFilter compiled = CompiledFilter.compile(filter);
+
+        int interpreted = 0;
+        int matched = 0;
+
+        for (int i = 0; i < WARMUP; i++) {
+            interpreted = interpreted(filter);
+            matched = compiled(compiled);
+        }
+
+        final long start = System.nanoTime();
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            interpreted(filter);
+        }
+
+        final long middle = System.nanoTime();
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            compiled(compiled);
+        }
+
+        final long end = System.nanoTime();
+
+        System.out.printf("%s: interpreted %d matches in %d us, compiled %d matches in %d us%n",
+            name, interpreted, (middle - start) / ITERATIONS / 1000, matched,
+            (end - middle) / ITERATIONS / 1000);
+    }
+
+    private int interpreted(final Filter filter) {
+        int matches = 0;
+
+        for (final Series s : series) {
+            if (filter.apply(s)) {
+                matches++;
+            }
+        }
+
+        return matches;
+    }
+
+    private int compiled(final CompiledFilter filter) {
+        int matches = 0;
+
+        for (final Series s : series) {
+            if (filter.apply(s)) {
+                matches++;
+            }
+        }
+
+        return matches;
+    }
+
+    private static List<Series> series() {
+        final List<Series> series = new ArrayList<>();
+
+        for (int i = 0; i < SERIES; i++) {
+            final ImmutableMap.Builder<String, String> tags = ImmutableMap.builder();
+            tags.put("host", "database" + (i % 200) + ".example.com");
+            tags.put("role", i % 3 == 0 ? "database" : "web");
+
+            if (i % 7 == 0) {
+                tags.put("canary", "true");
+            }
+
+            series.add(Series.of(i % 2 == 0 ? "cpu" : "memory", tags.build()));
+        }
+
+        return series;
+    }
+}
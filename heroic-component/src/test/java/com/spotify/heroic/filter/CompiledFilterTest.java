@@ -0,0 +1,81 @@
+package com.spotify.heroic.filter;
+
+import static com.spotify.heroic.filter.Filter.and;
+import static com.spotify.heroic.filter.Filter.hasTag;
+import static com.spotify.heroic.filter.Filter.matchKey;
+import static com.spotify.heroic.filter.Filter.matchTag;
+import static com.spotify.heroic.filter.Filter.not;
+import static com.spotify.heroic.filter.Filter.or;
+import static com.spotify.heroic.filter.Filter.regex;
+import static com.spotify.heroic.filter.Filter.startsWith;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.spotify.heroic.common.Series;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class CompiledFilterTest {
+    private static final List<Series> SERIES = new ArrayList<>();
+
+    static {
+        for (int i = 0; i < 200; i++) {
+            final ImmutableMap.Builder<String, String> tags = ImmutableMap.builder();
+            tags.put("host", "database" + (i % 20) + ".example.com");
+            tags.put("role", i % 3 == 0 ? "database" : "web");
+
+            if (i % 7 == 0) {
+                tags.put("canary", "true");
+            }
+
+            SERIES.add(Series.of(i % 2 == 0 ? "cpu" : "memory", tags.build()));
+        }
+    }
+
+    private static final List<Filter> FILTERS = ImmutableList.of(
+        TrueFilter.get(),
+        FalseFilter.get(),
+        matchKey("cpu"),
+        hasTag("canary"),
+        matchTag("role", "database"),
+        startsWith("host", "database1"),
+        regex("host", "database[0-4]\\..*"),
+        not(regex("host", "database[0-4]\\..*")),
+        and(regex("host", ".*\\.example\\.com"), matchKey("memory"), hasTag("canary")),
+        or(regex("host", "database1.*"), matchTag("role", "web")),
+        and(or(matchKey("cpu"), not(hasTag("canary"))), not(matchTag("role", "web"))),
+        not(or(matchKey("cpu"), startsWith("host", "database2"))));
+
+    @Test
+    public void testSameAsFilter() {
+        for (final Filter filter : FILTERS) {
+            final CompiledFilter compiled = CompiledFilter.compile(filter);
+
+            for (final Series s : SERIES) {
+                assertEquals(filter.toString(), filter.apply(s), compiled.apply(s));
+            }
+        }
+    }
+
+    @Test
+    public void testCheapTermsFirst() {
+        // raw filters can't be applied, so this only works if the key is matched first.
+        final CompiledFilter compiled =
+            CompiledFilter.compile(and(RawFilter.create("foo"), matchKey("cpu")));
+
+        assertFalse(compiled.apply(Series.of("memory")));
+    }
+
+    @Test
+    public void testFilter() {
+        final Filter filter = and(hasTag("a"), hasTag("a"));
+        final CompiledFilter compiled = CompiledFilter.compile(filter);
+
+        assertEquals(filter, compiled.filter());
+        assertTrue(compiled.apply(Series.of("foo", ImmutableMap.of("a", "b"))));
+    }
+}
@@ -0,0 +1,89 @@
+package com.spotify.heroic.metric;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.spotify.heroic.aggregation.AggregationCombiner;
+import com.spotify.heroic.common.DateRange;
+import com.spotify.heroic.common.OptionalLimit;
+import java.util.List;
+import org.junit.Test;
+
+public class QueryResultCombinerTest {
+    private final QueryTrace.Identifier what = QueryTrace.identifier("test");
+    private final DateRange range = new DateRange(0L, 100L);
+
+    @Test
+    public void testCombine() {
+        final QueryResultCombiner combiner =
+            new QueryResultCombiner(what, range, AggregationCombiner.DEFAULT, OptionalLimit.empty());
+
+        combiner.add(part(ImmutableList.of(group("a")), ImmutableList.of(), 10L));
+        combiner.add(part(ImmutableList.of(), ImmutableList.of(new QueryError("error")), 0L));
+        combiner.add(part(ImmutableList.of(group("b")), ImmutableList.of(), 20L));
+
+        final QueryResult result = combiner.result();
+
+        assertEquals(range, result.getRange());
+        assertEquals(ImmutableList.of(group("a"), group("b")), result.getGroups());
+        assertEquals(ImmutableList.of(new QueryError("error")), result.getErrors());
+        assertEquals(ResultLimits.of(), result.getLimits());
+        assertEquals(30L, result.getPreAggregationSampleSize());
+    }
+
+    @Test
+    public void testGroupLimit() {
+        final QueryResultCombiner combiner =
+            new QueryResultCombiner(what, range, AggregationCombiner.DEFAULT, OptionalLimit.of(1L));
+
+        combiner.add(part(ImmutableList.of(group("a")), ImmutableList.of(), 0L));
+        combiner.add(part(ImmutableList.of(group("b")), ImmutableList.of(), 0L));
+
+        final QueryResult result = combiner.result();
+
+        assertEquals(ImmutableList.of(group("a")), result.getGroups());
+        assertEquals(ResultLimits.of(ResultLimit.GROUP), result.getLimits());
+    }
+
+    @Test
+    public void testOrderIndependentOfArrival() {
+        final QueryResultCombiner first =
+            new QueryResultCombiner(what, range, AggregationCombiner.DEFAULT, OptionalLimit.of(2L));
+        final QueryResultCombiner second =
+            new QueryResultCombiner(what, range, AggregationCombiner.DEFAULT, OptionalLimit.of(2L));
+
+        final QueryResultPart a = part(ImmutableList.of(group("a", "c"), group("a", "a")),
+            ImmutableList.of(), 0L);
+        final QueryResultPart b = part(ImmutableList.of(group("b", "b")), ImmutableList.of(), 0L);
+
+        first.add(a);
+        first.add(b);
+        second.add(b);
+        second.add(a);
+
+        final List<ShardedResultGroup> expected = ImmutableList.of(group("a", "a"), group("a", "c"));
+        assertEquals(expected, first.result().getGroups());
+        assertEquals(expected, second.result().getGroups());
+    }
+
+    private QueryResultPart part(
+        final ImmutableList<ShardedResultGroup> groups, final ImmutableList<RequestError> errors,
+        final long sampleSize
+    ) {
+        return new QueryResultPart(groups, errors, QueryTrace.PASSIVE, ResultLimits.of(),
+            sampleSize);
+    }
+
+    private ShardedResultGroup group(final String key) {
+        return new ShardedResultGroup(ImmutableMap.of(), ImmutableMap.of("key", key),
+            ImmutableSet.of(), MetricCollection.points(ImmutableList.of(new Point(1L, 1D))), 0L);
+    }
+
+    private ShardedResultGroup group(final String shard, final String key) {
+        return new ShardedResultGroup(ImmutableMap.of("shard", shard),
+            ImmutableMap.of("key", key), ImmutableSet.of(),
+            MetricCollection.points(ImmutableList.of(new Point(1L, 1D))), 0L);
+    }
+}
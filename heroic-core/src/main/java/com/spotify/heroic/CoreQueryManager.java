@@ -64,6 +64,7 @@ import com.spotify.heroic.metadata.WriteMetadata;
 import com.spotify.heroic.metric.FullQuery;
 import com.spotify.heroic.metric.MetricType;
 import com.spotify.heroic.metric.QueryResult;
+import com.spotify.heroic.metric.QueryResultCombiner;
 import com.spotify.heroic.metric.QueryResultPart;
 import com.spotify.heroic.metric.QueryTrace;
 import com.spotify.heroic.metric.Tracing;
@@ -71,6 +72,7 @@ import com.spotify.heroic.metric.WriteMetric;
 import com.spotify.heroic.querylogging.QueryContext;
 import com.spotify.heroic.querylogging.QueryLogger;
 import com.spotify.heroic.querylogging.QueryLoggerFactory;
+import com.spotify.heroic.scheduler.Scheduler;
 import com.spotify.heroic.statistics.QueryReporter;
 import com.spotify.heroic.suggest.KeySuggest;
 import com.spotify.heroic.suggest.TagKeyCount;
@@ -92,6 +94,7 @@ import java.util.SortedSet;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -101,6 +104,8 @@ import org.slf4j.LoggerFactory;
 public class CoreQueryManager implements QueryManager {
     private static final Logger log = LoggerFactory.getLogger(CoreQueryManager.class);
     public static final long SHIFT_TOLERANCE = TimeUnit.MILLISECONDS.convert(10, TimeUnit.SECONDS);
+    private static final String HEDGED_QUERY = "query";
+
     public static final QueryTrace.Identifier QUERY_SHARD =
         QueryTrace.identifier(CoreQueryManager.class, "query_shard");
     public static final QueryTrace.Identifier QUERY =
@@ -112,9 +117,11 @@ public class CoreQueryManager implements QueryManager {
     private final Features features;
     private final AsyncFramework async;
     private final Clock clock;
+    private final Scheduler scheduler;
     private final ClusterManager cluster;
     private final QueryParser parser;
     private final QueryCache queryCache;
+    private final QueryCoalescer coalescer;
     private final AggregationFactory aggregations;
     private final OptionalLimit groupLimit;
     private final QueryReporter reporter;
@@ -128,9 +135,11 @@ public class CoreQueryManager implements QueryManager {
         @Named("features") final Features features,
         final AsyncFramework async,
         final Clock clock,
+        final Scheduler scheduler,
         final ClusterManager cluster,
         final QueryParser parser,
         final QueryCache queryCache,
+        final QueryCoalescer coalescer,
         final AggregationFactory aggregations,
         @Named("groupLimit") final OptionalLimit groupLimit,
         @Named("smallQueryThreshold") final long smallQueryThreshold,
@@ -141,9 +150,11 @@ public class CoreQueryManager implements QueryManager {
         this.features = features;
         this.async = async;
         this.clock = clock;
+        this.scheduler = scheduler;
         this.cluster = cluster;
         this.parser = parser;
         this.queryCache = queryCache;
+        this.coalescer = coalescer;
         this.aggregations = aggregations;
         this.groupLimit = groupLimit;
         this.reporter = reporter;
@@ -234,8 +245,6 @@ public class CoreQueryManager implements QueryManager {
 
             queryLogger.logQuery(queryContext, q);
 
-            final List<AsyncFuture<QueryResultPart>> futures = new ArrayList<>();
-
             final MetricType source = q.getSource().orElse(MetricType.POINT);
 
             final Aggregation aggregation = q.getAggregation().orElse(Empty.INSTANCE);
@@ -292,7 +301,16 @@ public class CoreQueryManager implements QueryManager {
             final Span queryManagerSpan = tracer.spanBuilderWithExplicitParent(
                 "coreQueryManager.query", parentSpan).startSpan();
 
-            final AsyncFuture<QueryResult> query = queryCache.load(request, () -> {
+            final Supplier<AsyncFuture<QueryResult>> loader = () -> {
+                final OptionalLimit limit = options.groupLimit().orElse(groupLimit);
+
+                // Parts are folded into the combiner as they arrive, and are not retained by the
+                // futures below.
+                final QueryResultCombiner combined =
+                    new QueryResultCombiner(QUERY, range, combiner, limit);
+                final List<AsyncFuture<Void>> futures = new ArrayList<>();
+                final Optional<LatencyBudget> budget = options.latencyBudget().map(
+                    b -> new LatencyBudget(async, scheduler, reporter, combined, b));
 
                 for (final ClusterShard shard : shards) {
                     final Span shardSpan = tracer.spanBuilderWithExplicitParent(
@@ -303,29 +321,56 @@ public class CoreQueryManager implements QueryManager {
                     final QueryTrace.NamedWatch shardLocalWatch = shardWatch.extendIdentifier(
                         shard.getShard().toString());
 
+                    final Function<ClusterNode.Group, AsyncFuture<FullQuery>> query;
+                    final Transform<FullQuery, QueryResultPart> toPart;
+
+                    /* groups are combined as they are received, unless the shard is not
+                     * combined, or only combined if it responds within the budget */
+                    if (shard.isDarkload() || budget.isPresent()) {
+                        query = g -> g.query(request, shardSpan);
+                        toPart = QueryResultPart.fromResultGroup(shard);
+                    } else {
+                        final ShardGroupStream stream = new ShardGroupStream(shard, combined);
+                        query = g -> stream.query(g, request, shardSpan);
+                        toPart = stream::part;
+                    }
+
                     final AsyncFuture<QueryResultPart> queryPart = shard
-                        .apply(g ->
-                            g.query(request, shardSpan), getStoreTracesTransform(shardLocalWatch))
+                        .applyHedged(HEDGED_QUERY, query, getStoreTracesTransform(shardLocalWatch))
                         .catchFailed(FullQuery.shardError(shardLocalWatch, shard))
                         .directTransform(fullQuery -> {
                             queryLogger.logIncomingResponseFromShard(queryContext, fullQuery);
                             return fullQuery;
                         })
-                        .directTransform(QueryResultPart.fromResultGroup(shard))
+                        .directTransform(toPart)
                         .onDone(new EndSpanFutureReporter(shardSpan));
 
-                    if (!shard.isDarkload()) {
-                        // Stash the future to be able to gather result from all shards.
-                        // Except if this shard is a darkload shard, then we will just fire & forget
-                        futures.add(queryPart);
+                    if (shard.isDarkload()) {
+                        // Darkload shards are fire & forget
+                        continue;
+                    }
+
+                    // Stash the future to be able to gather result from all shards.
+                    if (budget.isPresent()) {
+                        budget.get().add(shard, shardLocalWatch, queryPart);
+                    } else {
+                        futures.add(queryPart.directTransform(part -> {
+                            combined.add(part);
+                            return null;
+                        }));
                     }
                 }
 
-                final OptionalLimit limit = options.groupLimit().orElse(groupLimit);
+                if (budget.isPresent()) {
+                    return budget.get().start();
+                }
+
+                return async.collectAndDiscard(futures).directTransform(v -> combined.result());
+            };
 
-                return async.collect(futures,
-                    QueryResult.collectParts(QUERY, range, combiner, limit));
-            });
+            /* identical queries on this node share one fan-out to the shards */
+            final AsyncFuture<QueryResult> query =
+                coalescer.load(request.hash(), () -> queryCache.load(request, loader));
 
 
           return query
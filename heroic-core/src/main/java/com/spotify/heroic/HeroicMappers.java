@@ -26,6 +26,8 @@ import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.fasterxml.jackson.module.kotlin.KotlinModule;
@@ -53,6 +55,7 @@ import com.spotify.heroic.metric.MetricModule;
 import com.spotify.heroic.metric.MetricType;
 import com.spotify.heroic.metric.MetricTypeSerialization;
 import com.spotify.heroic.metric.Point;
+import com.spotify.heroic.metric.PointColumnsSerialization;
 import com.spotify.heroic.metric.PointSerialization;
 import com.spotify.heroic.metric.Spread;
 import com.spotify.heroic.metric.SpreadSerialization;
@@ -69,6 +72,7 @@ import com.spotify.heroic.usagetracking.UsageTrackingModule;
  */
 public final class HeroicMappers {
     public static final String APPLICATION_JSON_INTERNAL = "application/json+internal";
+    public static final String APPLICATION_SMILE_INTERNAL = "application/x-jackson-smile+internal";
     public static final String APPLICATION_JSON = "application/json";
     public static final String APPLICATION_HEROIC_CONFIG = "application/heroic-config";
 
@@ -108,8 +112,26 @@ public final class HeroicMappers {
     }
 
     public static ObjectMapper json(final QueryParser parser) {
-        final ObjectMapper mapper = new ObjectMapper();
+        return internal(new ObjectMapper(), parser);
+    }
+
+    /**
+     * Setup the ObjectMapper used for the binary encoding of internal requests.
+     * <p>
+     * This uses the Smile format, where repeated field names and short strings (like tags) are
+     * written once and back-referenced. Points are encoded in columns.
+     */
+    public static ObjectMapper smile(final QueryParser parser) {
+        final SmileFactory factory = new SmileFactory();
+        factory.enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES);
+        factory.disable(SmileGenerator.Feature.ENCODE_BINARY_AS_7BIT);
+
+        final ObjectMapper mapper = internal(new ObjectMapper(factory), parser);
+        mapper.registerModule(PointColumnsSerialization.module());
+        return mapper;
+    }
 
+    private static ObjectMapper internal(final ObjectMapper mapper, final QueryParser parser) {
         mapper.addMixIn(AggregationInstance.class, TypeNameMixin.class);
         mapper.addMixIn(Aggregation.class, TypeNameMixin.class);
 
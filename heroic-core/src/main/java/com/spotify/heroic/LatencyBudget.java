@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.heroic;
+
+import com.google.common.collect.ImmutableList;
+import com.spotify.heroic.cluster.ClusterShard;
+import com.spotify.heroic.metric.QueryResult;
+import com.spotify.heroic.metric.QueryResultCombiner;
+import com.spotify.heroic.metric.QueryResultPart;
+import com.spotify.heroic.metric.QueryTrace;
+import com.spotify.heroic.metric.ResultLimit;
+import com.spotify.heroic.metric.ResultLimits;
+import com.spotify.heroic.metric.ShardError;
+import com.spotify.heroic.scheduler.Scheduler;
+import com.spotify.heroic.statistics.QueryReporter;
+import eu.toolchain.async.AsyncFramework;
+import eu.toolchain.async.AsyncFuture;
+import eu.toolchain.async.FutureDone;
+import eu.toolchain.async.ResolvableFuture;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Collects the parts of a query from its shards, but only for as long as its latency budget.
+ * <p>
+ * Once the budget is spent, shards which have not responded are cancelled and reported as shard
+ * errors together with {@link ResultLimit#LATENCY_BUDGET}, and the result combined from the shards
+ * which did respond is returned.
+ */
+class LatencyBudget {
+    private final AsyncFramework async;
+    private final Scheduler scheduler;
+    private final QueryReporter reporter;
+    private final QueryResultCombiner combined;
+    private final long budget;
+
+    private final List<Pending> pending = new ArrayList<>();
+    private final ResolvableFuture<QueryResult> result;
+
+    /* guarded by this, starts at one to not complete before all parts have been added */
+    private int remaining = 1;
+    private boolean done = false;
+
+    LatencyBudget(
+        final AsyncFramework async, final Scheduler scheduler, final QueryReporter reporter,
+        final QueryResultCombiner combined, final long budget
+    ) {
+        this.async = async;
+        this.scheduler = scheduler;
+        this.reporter = reporter;
+        this.combined = combined;
+        this.budget = budget;
+        this.result = async.future();
+    }
+
+    /**
+     * Add the part expected from the given shard.
+     * <p>
+     * Must be called before {@link #start()}.
+     */
+    void add(
+        final ClusterShard shard, final QueryTrace.NamedWatch watch,
+        final AsyncFuture<QueryResultPart> part
+    ) {
+        final Pending p = new Pending(shard, watch, part);
+        pending.add(p);
+
+        synchronized (this) {
+            remaining++;
+        }
+
+        part.onDone(new FutureDone<QueryResultPart>() {
+            @Override
+            public void failed(final Throwable cause) {
+                if (finish()) {
+                    cancelPending();
+                    result.fail(cause);
+                }
+            }
+
+            @Override
+            public void resolved(final QueryResultPart part) {
+                arrived(p, part);
+            }
+
+            @Override
+            public void cancelled() {
+                if (finish()) {
+                    cancelPending();
+                    result.cancel();
+                }
+            }
+        });
+    }
+
+    /**
+     * Start the budget, and get the combined result.
+     */
+    AsyncFuture<QueryResult> start() {
+        result.onCancelled(this::cancelPending);
+
+        final boolean complete;
+
+        synchronized (this) {
+            // every part might have arrived while they were being added
+            complete = --remaining == 0 && !done;
+            done = done || complete;
+        }
+
+        if (complete) {
+            result.resolve(combined.result());
+            return result;
+        }
+
+        scheduler.schedule("latency-budget", budget, TimeUnit.MILLISECONDS, this::expire);
+        return result;
+    }
+
+    private void arrived(final Pending p, final QueryResultPart part) {
+        synchronized (this) {
+            if (done) {
+                return;
+            }
+
+            p.arrived = true;
+            combined.add(part);
+
+            if (--remaining > 0) {
+                return;
+            }
+
+            done = true;
+        }
+
+        result.resolve(combined.result());
+    }
+
+    private void expire() {
+        final List<Pending> stragglers = new ArrayList<>();
+
+        synchronized (this) {
+            if (done) {
+                return;
+            }
+
+            done = true;
+
+            for (final Pending p : pending) {
+                if (!p.arrived) {
+                    stragglers.add(p);
+                    combined.add(p.timedOut(budget));
+                }
+            }
+        }
+
+        reporter.reportLatencyBudgetExceeded();
+
+        for (final Pending p : stragglers) {
+            p.part.cancel();
+        }
+
+        result.resolve(combined.result());
+    }
+
+    private synchronized boolean finish() {
+        if (done) {
+            return false;
+        }
+
+        done = true;
+        return true;
+    }
+
+    private void cancelPending() {
+        for (final Pending p : pending) {
+            p.part.cancel();
+        }
+    }
+
+    private static class Pending {
+        private final ClusterShard shard;
+        private final QueryTrace.NamedWatch watch;
+        private final AsyncFuture<QueryResultPart> part;
+
+        /* guarded by the budget */
+        private boolean arrived = false;
+
+        Pending(
+            final ClusterShard shard, final QueryTrace.NamedWatch watch,
+            final AsyncFuture<QueryResultPart> part
+        ) {
+            this.shard = shard;
+            this.watch = watch;
+            this.part = part;
+        }
+
+        QueryResultPart timedOut(final long budget) {
+            final TimeoutException e = new TimeoutException(
+                "Shard did not respond within the latency budget of " + budget + "ms");
+
+            return new QueryResultPart(ImmutableList.of(), ImmutableList.of(
+                ShardError.fromThrowable(shard, e)), watch.end(),
+                ResultLimits.of(ResultLimit.LATENCY_BUDGET), 0L);
+        }
+    }
+}
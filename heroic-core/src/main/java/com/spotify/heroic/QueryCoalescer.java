@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.heroic;
+
+import com.spotify.heroic.metric.QueryResult;
+import com.spotify.heroic.statistics.QueryReporter;
+import eu.toolchain.async.AsyncFramework;
+import eu.toolchain.async.AsyncFuture;
+import eu.toolchain.async.FutureDone;
+import eu.toolchain.async.ResolvableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import javax.inject.Inject;
+
+/**
+ * Coalesces identical queries which are in flight at the same time.
+ * <p>
+ * The first query for a key performs the fan-out to the shards, and identical queries that arrive
+ * before it completes share its result. This is common when many dashboards open the same view,
+ * and happens before the query cache has a result to serve.
+ * <p>
+ * Each query gets its own future, so cancelling one does not affect the others. The shared
+ * fan-out is only cancelled once every query waiting for it has been cancelled.
+ */
+@QueryScope
+public class QueryCoalescer {
+    private final AsyncFramework async;
+    private final QueryReporter reporter;
+
+    private final ConcurrentMap<String, Flight> flights = new ConcurrentHashMap<>();
+
+    @Inject
+    public QueryCoalescer(final AsyncFramework async, final QueryReporter reporter) {
+        this.async = async;
+        this.reporter = reporter;
+    }
+
+    /**
+     * Load the result of a query, or share the result of an identical query in flight.
+     *
+     * @param key key identifying identical queries
+     * @param loader performs the query if no identical query is in flight
+     */
+    public AsyncFuture<QueryResult> load(
+        final String key, final Supplier<AsyncFuture<QueryResult>> loader
+    ) {
+        final Flight candidate = new Flight(key);
+
+        final Flight flight = flights.compute(key,
+            (k, existing) -> existing != null && existing.join() ? existing : candidate);
+
+        if (flight != candidate) {
+            reporter.reportQueryCoalesced();
+            return flight.follow();
+        }
+
+        candidate.start(loader);
+        return candidate.follow();
+    }
+
+    /**
+     * Number of distinct queries currently in flight.
+     */
+    public int size() {
+        return flights.size();
+    }
+
+    private class Flight {
+        private final String key;
+        private final ResolvableFuture<QueryResult> result = async.future();
+
+        /* guarded by this */
+        private int waiters = 1;
+        /* guarded by this */
+        private boolean abandoned = false;
+
+        Flight(final String key) {
+            this.key = key;
+        }
+
+        /**
+         * Join the flight, unless it has already completed or been abandoned.
+         */
+        synchronized boolean join() {
+            if (abandoned || result.isDone()) {
+                return false;
+            }
+
+            waiters += 1;
+            return true;
+        }
+
+        void start(final Supplier<AsyncFuture<QueryResult>> loader) {
+            result.onFinished(() -> flights.remove(key, this));
+
+            final AsyncFuture<QueryResult> future;
+
+            try {
+                future = loader.get();
+            } catch (final Exception e) {
+                result.fail(e);
+                return;
+            }
+
+            result.bind(future);
+            future.onDone(new Forward(result));
+        }
+
+        AsyncFuture<QueryResult> follow() {
+            final ResolvableFuture<QueryResult> future = async.future();
+            result.onDone(new Forward(future));
+            future.onCancelled(this::leave);
+            return future;
+        }
+
+        private void leave() {
+            synchronized (this) {
+                waiters -= 1;
+
+                if (waiters > 0) {
+                    return;
+                }
+
+                abandoned = true;
+            }
+
+            result.cancel();
+        }
+    }
+
+    private static class Forward implements FutureDone<QueryResult> {
+        private final ResolvableFuture<QueryResult> target;
+
+        Forward(final ResolvableFuture<QueryResult> target) {
+            this.target = target;
+        }
+
+        @Override
+        public void failed(final Throwable cause) {
+            target.fail(cause);
+        }
+
+        @Override
+        public void resolved(final QueryResult result) {
+            target.resolve(result);
+        }
+
+        @Override
+        public void cancelled() {
+            target.cancel();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.heroic;
+
+import com.google.common.collect.ImmutableList;
+import com.spotify.heroic.aggregation.AggregationInstance;
+import com.spotify.heroic.cluster.ClusterNode;
+import com.spotify.heroic.cluster.ClusterShard;
+import com.spotify.heroic.metric.FullQuery;
+import com.spotify.heroic.metric.QueryResultCombiner;
+import com.spotify.heroic.metric.QueryResultPart;
+import com.spotify.heroic.metric.ShardedResultGroup;
+import eu.toolchain.async.AsyncFuture;
+import io.opencensus.trace.Span;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Passes the result groups of a shard to a {@link QueryResultCombiner} as they are received,
+ * instead of once the shard has responded.
+ * <p>
+ * A shard might be queried on more than one node, when a request is retried or hedged. The first
+ * request which passes on a group, or resolves, claims the shard and only its groups are combined.
+ * Other requests for the shard fail as soon as they pass on a group or resolve, so that they can't
+ * win over the claiming request. If the claiming request fails after passing on groups, they are
+ * kept in the result together with the error of the shard.
+ * <p>
+ * Like parts which are combined at once, empty groups are only combined if the shard also returns
+ * a group which is not empty.
+ */
+class ShardGroupStream {
+    private final ClusterShard shard;
+    private final QueryResultCombiner combined;
+
+    private final AtomicReference<Object> owner = new AtomicReference<>();
+    private final AtomicLong samples = new AtomicLong();
+
+    /* guarded by this, empty groups held until a group which is not empty is received */
+    private final List<ShardedResultGroup> empty = new ArrayList<>();
+    private boolean received = false;
+
+    ShardGroupStream(final ClusterShard shard, final QueryResultCombiner combined) {
+        this.shard = shard;
+        this.combined = combined;
+    }
+
+    /**
+     * Query a node of the shard.
+     */
+    AsyncFuture<FullQuery> query(
+        final ClusterNode.Group group, final FullQuery.Request request, final Span span
+    ) {
+        final Object attempt = new Object();
+
+        return group.query(request, span, g -> {
+            claim(attempt);
+            samples.addAndGet(g.getGroup().size());
+            add(new ShardedResultGroup(shard.getShard(), g.getKey(), g.getSeries(), g.getGroup(),
+                g.getCadence()));
+        }).directTransform(result -> {
+            claim(attempt);
+            return result;
+        });
+    }
+
+    /**
+     * Build the part of the shard from its result, whose groups have already been combined.
+     */
+    QueryResultPart part(final FullQuery result) throws Exception {
+        final QueryResultPart part = QueryResultPart.fromResultGroup(shard).transform(result);
+
+        if (result.statistics().getCounterValue(AggregationInstance.SAMPLE_SIZE).isPresent()) {
+            return part;
+        }
+
+        return new QueryResultPart(part.getGroups(), part.getErrors(), part.getQueryTrace(),
+            part.getLimits(), part.getPreAggregationSampleSize() + samples.get(), part.getCost());
+    }
+
+    private synchronized void add(final ShardedResultGroup group) {
+        if (group.isEmpty() && !received) {
+            empty.add(group);
+            return;
+        }
+
+        if (!received) {
+            received = true;
+            combined.addGroups(ImmutableList.copyOf(empty));
+            empty.clear();
+        }
+
+        combined.addGroups(ImmutableList.of(group));
+    }
+
+    private void claim(final Object attempt) {
+        if (!owner.compareAndSet(null, attempt) && owner.get() != attempt) {
+            throw new IllegalStateException("Result of shard is received by another request");
+        }
+    }
+}
@@ -23,12 +23,8 @@ package com.spotify.heroic.cache.memcached;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableList;
-import com.google.common.hash.HashFunction;
-import com.google.common.hash.Hasher;
-import com.google.common.hash.Hashing;
 import com.spotify.folsom.MemcacheClient;
 import com.spotify.heroic.HeroicMappers;
-import com.spotify.heroic.ObjectHasher;
 import com.spotify.heroic.cache.CacheScope;
 import com.spotify.heroic.cache.QueryCache;
 import com.spotify.heroic.common.Duration;
@@ -63,7 +59,6 @@ public class MemcachedQueryCache implements QueryCache {
     private static final QueryTrace.Identifier IDENTIFIER =
         QueryTrace.identifier(MemcachedQueryCache.class);
 
-    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
     private static final Logger log = org.slf4j.LoggerFactory.getLogger(MemcachedQueryCache.class);
 
     private final Managed<MemcacheClient<byte[]>> client;
@@ -244,8 +239,6 @@ public class MemcachedQueryCache implements QueryCache {
     }
 
     private String buildCacheKey(final FullQuery.Request request) {
-        final Hasher hasher = HASH_FUNCTION.newHasher();
-        request.hashTo(new ObjectHasher(hasher));
-        return PREFIX + hasher.hash().toString();
+        return PREFIX + request.hash();
     }
 }
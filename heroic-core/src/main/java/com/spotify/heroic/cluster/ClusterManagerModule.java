@@ -65,6 +65,7 @@ public class ClusterManagerModule {
     private final List<RpcProtocolModule> protocols;
     private final Set<Map<String, String>> topology;
     private final Optional<NodeMetadataFactory> metadataFactory;
+    private final HedgingConfig hedging;
 
     public ClusterManagerModule(
         UUID id,
@@ -73,7 +74,8 @@ public class ClusterManagerModule {
         ClusterDiscoveryModule discovery,
         List<RpcProtocolModule> protocols,
         Set<Map<String, String>> topology,
-        Optional<NodeMetadataFactory> metadataFactory
+        Optional<NodeMetadataFactory> metadataFactory,
+        HedgingConfig hedging
     ) {
         this.id = id;
         this.tags = tags;
@@ -82,6 +84,7 @@ public class ClusterManagerModule {
         this.protocols = protocols;
         this.topology = topology;
         this.metadataFactory = metadataFactory;
+        this.hedging = hedging;
     }
 
     public ClusterDiscoveryModule getDiscovery() {
@@ -98,7 +101,7 @@ public class ClusterManagerModule {
     @Provides
     @ClusterScope
     public NodeMetadata localMetadata(final ServiceInfo service) {
-        return new NodeMetadata(0, id, tags, service);
+        return new NodeMetadata(0, id, tags, service, ImmutableList.of(NodeMetadata.CODEC_SMILE));
     }
 
     @Provides
@@ -123,6 +126,18 @@ public class ClusterManagerModule {
         return topology;
     }
 
+    @Provides
+    @ClusterScope
+    public HedgingConfig hedging() {
+        return hedging;
+    }
+
+    @Provides
+    @ClusterScope
+    public NodeLatencyTracker latencies() {
+        return new NodeLatencyTracker();
+    }
+
     @Provides
     @ClusterScope
     public QueryReporter queryReporter(HeroicReporter heroicReporter) {
@@ -208,6 +223,7 @@ public class ClusterManagerModule {
         private Optional<List<RpcProtocolModule>> protocols = empty();
         private Optional<Set<Map<String, String>>> topology = empty();
         private Optional<NodeMetadataFactory> metadataFactory = empty();
+        private Optional<HedgingConfig> hedging = empty();
 
         @JsonCreator
         public Builder(
@@ -216,7 +232,8 @@ public class ClusterManagerModule {
             @JsonProperty("useLocal") Optional<Boolean> useLocal,
             @JsonProperty("discovery") Optional<ClusterDiscoveryModule> discovery,
             @JsonProperty("protocols") Optional<List<RpcProtocolModule>> protocols,
-            @JsonProperty("topology") Optional<Set<Map<String, String>>> topology
+            @JsonProperty("topology") Optional<Set<Map<String, String>>> topology,
+            @JsonProperty("hedging") Optional<HedgingConfig> hedging
         ) {
             this.id = id;
             this.tags = tags;
@@ -224,6 +241,7 @@ public class ClusterManagerModule {
             this.discovery = discovery;
             this.protocols = protocols;
             this.topology = topology;
+            this.hedging = hedging;
         }
 
         private Builder(
@@ -233,7 +251,8 @@ public class ClusterManagerModule {
             final Optional<ClusterDiscoveryModule> discovery,
             final Optional<List<RpcProtocolModule>> protocols,
             final Optional<Set<Map<String, String>>> topology,
-            final Optional<NodeMetadataFactory> metadataFactory
+            final Optional<NodeMetadataFactory> metadataFactory,
+            final Optional<HedgingConfig> hedging
         ) {
             this.id = id;
             this.tags = tags;
@@ -242,6 +261,7 @@ public class ClusterManagerModule {
             this.protocols = protocols;
             this.topology = topology;
             this.metadataFactory = metadataFactory;
+            this.hedging = hedging;
         }
 
         private Builder() {
@@ -277,6 +297,11 @@ public class ClusterManagerModule {
             return this;
         }
 
+        public Builder hedging(HedgingConfig hedging) {
+            this.hedging = of(hedging);
+            return this;
+        }
+
         /**
          * Set the metadata factory.
          *
@@ -299,7 +324,8 @@ public class ClusterManagerModule {
                 pickOptional(discovery, o.discovery),
                 pickOptional(protocols, o.protocols),
                 pickOptional(topology, o.topology),
-                pickOptional(metadataFactory, o.metadataFactory)
+                pickOptional(metadataFactory, o.metadataFactory),
+                pickOptional(hedging, o.hedging)
             );
             // @formatter:on
         }
@@ -313,7 +339,8 @@ public class ClusterManagerModule {
                 discovery.orElseGet(ClusterDiscoveryModule::nullModule),
                 protocols.orElseGet(ImmutableList::of),
                 topology.orElseGet(ImmutableSet::of),
-                metadataFactory
+                metadataFactory,
+                hedging.orElseGet(HedgingConfig::new)
             );
             // @formatter:on
         }
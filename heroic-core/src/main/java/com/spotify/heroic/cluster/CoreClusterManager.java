@@ -48,6 +48,7 @@ import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -82,12 +83,16 @@ public class CoreClusterManager implements ClusterManager, LifeCycles {
     private final Set<Map<String, String>> expectedTopology;
     private final QueryReporter reporter;
     private final UsageTracking usageTracking;
+    private final NodeLatencyTracker latencies;
+    private final HedgingConfig hedging;
 
     private final AtomicReference<Set<URI>> staticNodes = new AtomicReference<>(new HashSet<>());
     private final AtomicReference<NodeRegistry> registry = new AtomicReference<>();
     private final AtomicReference<Map<URI, ClusterNode>> clients =
         new AtomicReference<>(Collections.emptyMap());
     private final AtomicLong refreshId = new AtomicLong();
+    private final LongAdder routingLookups = new LongAdder();
+    private final LongAdder routingLookupNanos = new LongAdder();
 
     private final Object updateRegistryLock = new Object();
 
@@ -104,7 +109,9 @@ public class CoreClusterManager implements ClusterManager, LifeCycles {
       HeroicContext context,
       @Named("topology") Set<Map<String, String>> expectedTopology,
       final QueryReporter reporter,
-      UsageTracking usageTracking
+      UsageTracking usageTracking,
+      NodeLatencyTracker latencies,
+      HedgingConfig hedging
   ) {
         this.async = async;
         this.discovery = discovery;
@@ -118,6 +125,8 @@ public class CoreClusterManager implements ClusterManager, LifeCycles {
         this.expectedTopology = expectedTopology;
         this.reporter = reporter;
         this.usageTracking = usageTracking;
+        this.latencies = latencies;
+        this.hedging = hedging;
     }
 
     @Override
@@ -235,7 +244,11 @@ public class CoreClusterManager implements ClusterManager, LifeCycles {
             return null;
         }
 
-        return new ClusterManager.Statistics(registry.getOnlineNodes(), registry.getOfflineNodes());
+        final long lookups = routingLookups.sum();
+        final long averageLookupNanos = lookups == 0 ? 0 : routingLookupNanos.sum() / lookups;
+
+        return new ClusterManager.Statistics(registry.getOnlineNodes(), registry.getOfflineNodes(),
+            lookups, averageLookupNanos);
     }
 
     /**
@@ -246,7 +259,8 @@ public class CoreClusterManager implements ClusterManager, LifeCycles {
         final ImmutableList.Builder<ClusterShard> shards = ImmutableList.builder();
 
         for (final Map<String, String> shardTags : allShards()) {
-            shards.add(new ClusterShard(async, shardTags, reporter, this));
+            shards.add(new ClusterShard(async, shardTags, reporter, this, latencies, hedging,
+                scheduler));
         }
 
         return shards.build();
@@ -258,9 +272,15 @@ public class CoreClusterManager implements ClusterManager, LifeCycles {
         final Map<String, String> shard, final Predicate<ClusterNode> exclude,
         final Consumer<ClusterNode> registerNodeUse, final Function<ClusterNode.Group, T> fn
     ) {
+        /* the request is issued while holding the lock, so that a refresh can not close the
+         * node before the request has been sent */
         synchronized (this.updateRegistryLock) {
+            final long start = System.nanoTime();
             final Optional<ClusterNode> n =
-                registry.get().getNodeInShardButNotWithId(shard, exclude);
+                registry.get().getNodeInShardButNotWithId(shard, exclude, latencies::score);
+            routingLookups.increment();
+            routingLookupNanos.add(System.nanoTime() - start);
+
             if (!n.isPresent()) {
                 return Optional.empty();
             }
@@ -278,11 +298,7 @@ public class CoreClusterManager implements ClusterManager, LifeCycles {
     public boolean hasNextButNotWithId(
         final Map<String, String> shard, final Predicate<ClusterNode> exclude
     ) {
-        synchronized (this.updateRegistryLock) {
-            final Optional<ClusterNode> n =
-                registry.get().getNodeInShardButNotWithId(shard, exclude);
-            return n.isPresent();
-        }
+        return registry.get().getNodeInShardButNotWithId(shard, exclude).isPresent();
     }
 
     /**
@@ -290,9 +306,7 @@ public class CoreClusterManager implements ClusterManager, LifeCycles {
      */
     @Override
     public List<ClusterNode> getNodesForShard(Map<String, String> shard) {
-        synchronized (this.updateRegistryLock) {
-            return registry.get().getNodesInShard(shard);
-        }
+        return registry.get().getNodesInShard(shard);
     }
 
     @NotNull
@@ -561,7 +575,7 @@ public class CoreClusterManager implements ClusterManager, LifeCycles {
     ) {
         if (this.clients.compareAndSet(oldClients, newClients)) {
             synchronized (this.updateRegistryLock) {
-                registry.getAndSet(new NodeRegistry(new ArrayList<>(okNodes), okNodes.size()));
+                registry.set(new NodeRegistry(new ArrayList<>(okNodes), okNodes.size()));
             }
 
             // Close removed nodes
@@ -22,43 +22,57 @@
 package com.spotify.heroic.cluster;
 
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.LinkedListMultimap;
-import com.google.common.collect.Lists;
-import com.google.common.collect.Multimap;
-import java.util.Collection;
-import java.util.Collections;
+import com.google.common.collect.ImmutableMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
+import java.util.function.ToDoubleFunction;
 
+/**
+ * An immutable view of the nodes in the cluster.
+ * <p>
+ * The routing table from shards to nodes is built once when the registry is created, which
+ * happens on every cluster refresh, so that looking up a node for a request does not allocate.
+ */
 public class NodeRegistry {
-    private static final Random random = new Random();
+    private static final ClusterNode[] EMPTY = new ClusterNode[0];
+
     private final List<ClusterNode> entries;
     private final int totalNodes;
+    private final Map<Map<String, String>, ClusterNode[]> shards;
 
     NodeRegistry(List<ClusterNode> entries, int totalNodes) {
-        this.entries = entries;
+        this.entries = ImmutableList.copyOf(entries);
         this.totalNodes = totalNodes;
+        this.shards = buildShards(entries);
     }
 
-    private Multimap<Map<String, String>, ClusterNode> buildShards(
+    private static Map<Map<String, String>, ClusterNode[]> buildShards(
         List<ClusterNode> entries
     ) {
-        final Multimap<Map<String, String>, ClusterNode> shards = LinkedListMultimap.create();
+        final Map<Map<String, String>, List<ClusterNode>> shards = new LinkedHashMap<>();
 
         for (final ClusterNode e : entries) {
-            shards.put(e.metadata().getTags(), e);
+            shards.computeIfAbsent(e.metadata().getTags(), k -> new ArrayList<>()).add(e);
         }
 
-        return shards;
+        final ImmutableMap.Builder<Map<String, String>, ClusterNode[]> builder =
+            ImmutableMap.builder();
+
+        for (final Map.Entry<Map<String, String>, List<ClusterNode>> e : shards.entrySet()) {
+            builder.put(e.getKey(), e.getValue().toArray(EMPTY));
+        }
+
+        return builder.build();
     }
 
     public List<ClusterNode> getEntries() {
-        return ImmutableList.copyOf(entries);
+        return entries;
     }
 
     public int getTotalNodes() {
@@ -74,37 +88,76 @@ public class NodeRegistry {
     }
 
     public Set<Map<String, String>> getShards() {
-        return buildShards(entries).keySet();
+        return shards.keySet();
     }
 
     public List<ClusterNode> getNodesInShard(final Map<String, String> shard) {
-        final Multimap<Map<String, String>, ClusterNode> shardToNode = buildShards(entries);
-
-        final Collection<ClusterNode> nodesInShard = shardToNode.get(shard);
-        final List<ClusterNode> result = Lists.newArrayList();
-        result.addAll(nodesInShard);
-
-        return result;
+        return ImmutableList.copyOf(shards.getOrDefault(shard, EMPTY));
     }
 
     public Optional<ClusterNode> getNodeInShardButNotWithId(
         final Map<String, String> shard, final Predicate<ClusterNode> exclude
     ) {
-        final Multimap<Map<String, String>, ClusterNode> shardToNode = buildShards(entries);
+        return getNodeInShardButNotWithId(shard, exclude, node -> 0D);
+    }
 
-        final Collection<ClusterNode> nodesInShard = shardToNode.get(shard);
+    /**
+     * Pick a node in the given shard, preferring nodes with a lower score.
+     * <p>
+     * Two candidates are sampled uniformly among the eligible nodes, and the one with the lowest
+     * score is picked. This steers requests away from slow nodes, without sending every request
+     * to the single fastest node in a shard.
+     */
+    public Optional<ClusterNode> getNodeInShardButNotWithId(
+        final Map<String, String> shard, final Predicate<ClusterNode> exclude,
+        final ToDoubleFunction<ClusterNode> score
+    ) {
+        final ClusterNode[] nodes = shards.getOrDefault(shard, EMPTY);
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
 
-        final List<ClusterNode> randomizedList =
-            nodesInShard.stream().filter(ClusterNode::isAlive).collect(Collectors.toList());
-        Collections.shuffle(randomizedList, random);
+        /* reservoir sampling of two eligible nodes, which does not favor any position */
+        ClusterNode first = null;
+        ClusterNode second = null;
+        int eligible = 0;
 
-        for (final ClusterNode n : randomizedList) {
-            if (exclude.test(n)) {
+        for (final ClusterNode n : nodes) {
+            if (!n.isAlive() || exclude.test(n)) {
                 continue;
             }
-            return Optional.of(n);
+
+            eligible++;
+
+            if (eligible == 1) {
+                first = n;
+                continue;
+            }
+
+            if (eligible == 2) {
+                second = n;
+                continue;
+            }
+
+            final int slot = random.nextInt(eligible);
+
+            if (slot == 0) {
+                first = n;
+            } else if (slot == 1) {
+                second = n;
+            }
+        }
+
+        if (second == null) {
+            return Optional.ofNullable(first);
+        }
+
+        /* the order of the sample follows the shard, so ties must be broken at random */
+        final double firstScore = score.applyAsDouble(first);
+        final double secondScore = score.applyAsDouble(second);
+
+        if (firstScore == secondScore) {
+            return Optional.of(random.nextBoolean() ? first : second);
         }
 
-        return Optional.empty();
+        return Optional.of(firstScore < secondScore ? first : second);
     }
 }
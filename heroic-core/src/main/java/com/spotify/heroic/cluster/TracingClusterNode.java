@@ -29,6 +29,7 @@ import com.spotify.heroic.metadata.FindTags;
 import com.spotify.heroic.metadata.WriteMetadata;
 import com.spotify.heroic.metric.FullQuery;
 import com.spotify.heroic.metric.QueryTrace;
+import com.spotify.heroic.metric.ResultGroup;
 import com.spotify.heroic.metric.WriteMetric;
 import com.spotify.heroic.suggest.KeySuggest;
 import com.spotify.heroic.suggest.TagKeyCount;
@@ -38,6 +39,7 @@ import com.spotify.heroic.suggest.TagValuesSuggest;
 import eu.toolchain.async.AsyncFuture;
 import io.opencensus.trace.Span;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public class TracingClusterNode implements ClusterNode {
     private final ClusterNode delegateNode;
@@ -95,6 +97,15 @@ public class TracingClusterNode implements ClusterNode {
                 request, span).directTransform(FullQuery.trace(queryIdentifier));
         }
 
+        @Override
+        public AsyncFuture<FullQuery> query(
+            FullQuery.Request request, Span span, Consumer<ResultGroup> groups
+        ) {
+            return delegateGroup
+                .query(request, span, groups)
+                .directTransform(FullQuery.trace(queryIdentifier));
+        }
+
         @Override
         public AsyncFuture<FindTags> findTags(FindTags.Request request) {
             return delegateGroup.findTags(request);
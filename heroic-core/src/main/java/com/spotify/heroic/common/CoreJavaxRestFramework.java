@@ -27,6 +27,7 @@ import eu.toolchain.async.FutureDone;
 import javax.ws.rs.container.AsyncResponse;
 import javax.ws.rs.container.CompletionCallback;
 import javax.ws.rs.container.ConnectionCallback;
+import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import org.slf4j.Logger;
 
@@ -59,6 +60,7 @@ public final class CoreJavaxRestFramework implements JavaxRestFramework {
                     .status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity(new InternalErrorMessage(e.getMessage(),
                         Response.Status.INTERNAL_SERVER_ERROR))
+                    .type(MediaType.APPLICATION_JSON)
                     .build());
             }
 
@@ -79,6 +81,7 @@ public final class CoreJavaxRestFramework implements JavaxRestFramework {
                     .status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity(new InternalErrorMessage("request cancelled",
                         Response.Status.INTERNAL_SERVER_ERROR))
+                    .type(MediaType.APPLICATION_JSON)
                     .build());
             }
         });
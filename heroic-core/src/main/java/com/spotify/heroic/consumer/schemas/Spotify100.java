@@ -36,6 +36,7 @@ import com.spotify.heroic.consumer.ConsumerSchema;
 import com.spotify.heroic.consumer.ConsumerSchemaException;
 import com.spotify.heroic.consumer.ConsumerSchemaValidationException;
 import com.spotify.heroic.consumer.SchemaScope;
+import com.spotify.heroic.consumer.SeriesCache;
 import com.spotify.heroic.consumer.schemas.spotify100.JsonMetric;
 import com.spotify.heroic.consumer.schemas.spotify100.Version;
 import com.spotify.heroic.ingestion.Ingestion;
@@ -72,12 +73,17 @@ public class Spotify100 implements ConsumerSchema {
         private final Clock clock;
         private final IngestionGroup ingestion;
         private final ConsumerReporter reporter;
+        private final SeriesCache seriesCache;
 
         @Inject
-        public Consumer(Clock clock, IngestionGroup ingestion, ConsumerReporter reporter) {
+        public Consumer(
+            Clock clock, IngestionGroup ingestion, ConsumerReporter reporter,
+            SeriesCache seriesCache
+        ) {
             this.clock = clock;
             this.ingestion = ingestion;
             this.reporter = reporter;
+            this.seriesCache = seriesCache;
         }
 
         @Override
@@ -168,9 +174,7 @@ public class Spotify100 implements ConsumerSchema {
                 tags.put(HOST_TAG, metric.getHost());
             }
 
-            final Map<String, String> resource = new HashMap<>(metric.getResource());
-
-            final Series series = Series.of(metric.getKey(), tags, resource);
+            final Series series = seriesCache.intern(metric.getKey(), tags, metric.getResource());
             final Point p = new Point(metric.getTime(), metric.getValue());
             final List<Point> points = ImmutableList.of(p);
 
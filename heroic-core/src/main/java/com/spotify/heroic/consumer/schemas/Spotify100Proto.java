@@ -27,6 +27,7 @@ import com.spotify.heroic.consumer.ConsumerSchema;
 import com.spotify.heroic.consumer.ConsumerSchemaException;
 import com.spotify.heroic.consumer.ConsumerSchemaValidationException;
 import com.spotify.heroic.consumer.SchemaScope;
+import com.spotify.heroic.consumer.SeriesCache;
 import com.spotify.heroic.ingestion.Ingestion;
 import com.spotify.heroic.ingestion.IngestionGroup;
 import com.spotify.heroic.ingestion.Request;
@@ -60,18 +61,21 @@ public class Spotify100Proto implements ConsumerSchema {
     private final IngestionGroup ingestion;
     private final ConsumerReporter reporter;
     private final AsyncFramework async;
+    private final SeriesCache seriesCache;
 
     @Inject
     public Consumer(
       Clock clock,
       IngestionGroup ingestion,
       ConsumerReporter reporter,
-      AsyncFramework async
+      AsyncFramework async,
+      SeriesCache seriesCache
     ) {
       this.clock = clock;
       this.ingestion = ingestion;
       this.reporter = reporter;
       this.async = async;
+      this.seriesCache = seriesCache;
     }
 
     @Override
@@ -91,7 +95,8 @@ public class Spotify100Proto implements ConsumerSchema {
             "time: field must be a positive number: " + metric.toString());
         }
 
-        final Series s = Series.of(metric.getKey(), metric.getTagsMap(), metric.getResourceMap());
+        final Series s =
+          seriesCache.intern(metric.getKey(), metric.getTagsMap(), metric.getResourceMap());
         final Point p = new Point(metric.getTime(), metric.getValue());
         final List<Point> points = ImmutableList.of(p);
 
@@ -130,6 +130,17 @@ public class PrimaryModule {
         return m;
     }
 
+    @Provides
+    @Named(HeroicMappers.APPLICATION_SMILE_INTERNAL)
+    @PrimaryScope
+    ObjectMapper smileInternalMapper(
+        QueryParser parser, AggregationRegistry aggregation
+    ) {
+        final ObjectMapper m = HeroicMappers.smile(parser);
+        m.registerModule(aggregation.module());
+        return m;
+    }
+
     @Provides
     @Named(HeroicMappers.APPLICATION_JSON)
     @PrimaryScope
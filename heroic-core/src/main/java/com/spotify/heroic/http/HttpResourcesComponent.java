@@ -25,6 +25,7 @@ import com.spotify.heroic.dagger.CoreComponent;
 import com.spotify.heroic.http.cluster.ClusterResource;
 import com.spotify.heroic.http.metadata.MetadataResource;
 import com.spotify.heroic.http.parser.ParserResource;
+import com.spotify.heroic.http.query.ColumnarResponseWriter;
 import com.spotify.heroic.http.query.QueryResource;
 import com.spotify.heroic.http.render.RenderResource;
 import com.spotify.heroic.http.status.StatusResource;
@@ -49,6 +50,8 @@ public interface HttpResourcesComponent {
 
     QueryResource queryResource();
 
+    ColumnarResponseWriter columnarResponseWriter();
+
     MetadataResource metadataResource();
 
     ClusterResource clusterResource();
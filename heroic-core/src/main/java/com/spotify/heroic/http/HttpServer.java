@@ -208,6 +208,9 @@ public class HttpServer implements LifeCycles {
         gzip.setIncludedMethods("POST");
         gzip.setMinGzipSize(860);
         gzip.setIncludedMimeTypes("application/json");
+        /* flush compressed data when the application flushes, so streamed responses such as
+         * batch queries reach the client as they are written */
+        gzip.setSyncFlush(true);
         context.setGzipHandler(gzip);
 
         context.addServlet(jerseyServlet, "/*");
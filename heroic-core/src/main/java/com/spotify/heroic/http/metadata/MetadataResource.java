@@ -64,6 +64,11 @@ import javax.ws.rs.core.MediaType;
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
 public class MetadataResource {
+    /**
+     * Range of requests which do not specify one, ending now.
+     */
+    public static final long DEFAULT_RANGE_MS = TimeUnit.DAYS.toMillis(7);
+
     private final Clock clock;
     private final JavaxRestFramework httpAsync;
     private final QueryManager query;
@@ -156,7 +161,7 @@ public class MetadataResource {
         httpAsync.bind(response, query
             .useDefaultGroup()
             .tagKeyCount(new TagKeyCount.Request(c.getFilter(), c.getRange(), c.getLimit(),
-                OptionalLimit.of(10))));
+                OptionalLimit.of(10), request.getExact().orElse(false))));
     }
 
     @POST
@@ -230,7 +235,7 @@ public class MetadataResource {
             .useDefaultGroup()
             .tagValuesSuggest(
                 new TagValuesSuggest.Request(c.getFilter(), c.getRange(), c.getLimit(), groupLimit,
-                    exclude)));
+                    exclude, request.getExact().orElse(false))));
     }
 
     private RequestCriteria toCriteria(
@@ -250,7 +255,7 @@ public class MetadataResource {
             .get()
             .map(r -> r.buildDateRange(now))
             .orElseGet(
-                () -> new DateRange(now - TimeUnit.MILLISECONDS.convert(7, TimeUnit.DAYS), now));
+                () -> new DateRange(now - DEFAULT_RANGE_MS, now));
 
         return new RequestCriteria(c, range, limit.get());
     }
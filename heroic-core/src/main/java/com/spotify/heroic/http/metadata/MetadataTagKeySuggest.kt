@@ -28,7 +28,9 @@ import java.util.*
 data class MetadataTagKeySuggest(
     val filter: Optional<Filter>,
     val range: Optional<QueryDateRange>,
-    val limit: Optional<Int>
+    val limit: Optional<Int>,
+    // Count by searching the backends, instead of from tag sketches when available.
+    val exact: Optional<Boolean>
 ) {
     companion object {
         const val DEFAULT_LIMIT = 10
@@ -35,7 +35,9 @@ data class MetadataTagValuesSuggest(
     // Exclude the given tags from the result.
     val exclude: Optional<List<String>>,
     // Limit the number of values a single suggestion group may contain.
-    val groupLimit: Optional<Long>
+    val groupLimit: Optional<Long>,
+    // Suggest by searching the backends, instead of from tag sketches when available.
+    val exact: Optional<Boolean>
 ) {
     companion object {
         const val DEFAULT_LIMIT: Long = 10
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.heroic.http.query;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spotify.heroic.metric.MetricCollection;
+import com.spotify.heroic.metric.MetricType;
+import com.spotify.heroic.metric.Point;
+import com.spotify.heroic.metric.QueryMetricsResponse;
+import com.spotify.heroic.metric.ShardedResultGroup;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyWriter;
+
+/**
+ * Writes query responses in a columnar binary format, selected by requesting the
+ * {@value #MEDIA_TYPE} media type.
+ * <p>
+ * The format is the magic {@code HCOL} followed by a version byte and a big-endian int holding
+ * the length of a JSON header. The header is the regular JSON response, except that the values of
+ * all point groups are empty. The header is followed by the columns of each point group, in the
+ * order that the groups appear in the header, as encoded by {@link PointColumns}. Groups of other
+ * types keep their values in the header.
+ */
+@Produces(ColumnarResponseWriter.MEDIA_TYPE)
+public class ColumnarResponseWriter implements MessageBodyWriter<QueryMetricsResponse> {
+    public static final String MEDIA_TYPE = "application/x-heroic-columnar";
+    public static final MediaType MEDIA_TYPE_TYPE = MediaType.valueOf(MEDIA_TYPE);
+
+    static final byte[] MAGIC = {'H', 'C', 'O', 'L'};
+    static final int VERSION = 1;
+
+    private final ObjectMapper mapper;
+
+    @Inject
+    public ColumnarResponseWriter(@Named(MediaType.APPLICATION_JSON) ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    @Override
+    public boolean isWriteable(
+        final Class<?> type, final Type genericType, final Annotation[] annotations,
+        final MediaType mediaType
+    ) {
+        return QueryMetricsResponse.class.isAssignableFrom(type) &&
+            mediaType.isCompatible(MEDIA_TYPE_TYPE);
+    }
+
+    @Override
+    public long getSize(
+        final QueryMetricsResponse response, final Class<?> type, final Type genericType,
+        final Annotation[] annotations, final MediaType mediaType
+    ) {
+        return -1;
+    }
+
+    @Override
+    public void writeTo(
+        final QueryMetricsResponse response, final Class<?> type, final Type genericType,
+        final Annotation[] annotations, final MediaType mediaType,
+        final MultivaluedMap<String, Object> httpHeaders, final OutputStream out
+    ) throws IOException {
+        write(response, out);
+    }
+
+    void write(final QueryMetricsResponse response, final OutputStream out) throws IOException {
+        final List<ShardedResultGroup> groups = new ArrayList<>();
+        final List<List<Point>> columns = new ArrayList<>();
+
+        for (final ShardedResultGroup g : response.getResult()) {
+            final MetricCollection metrics = g.getMetrics();
+
+            if (metrics.getType() != MetricType.POINT) {
+                groups.add(g);
+                continue;
+            }
+
+            columns.add(metrics.getDataAs(Point.class));
+            groups.add(new ShardedResultGroup(g.getShard(), g.getKey(), g.getSeries(),
+                MetricCollection.points(new ArrayList<>()), g.getCadence()));
+        }
+
+        final byte[] header = mapper.writeValueAsBytes(
+            new QueryMetricsResponse(response.getQueryId(), response.getRange(), groups,
+                response.getStatistics(), response.getErrors(), response.getTrace(),
+                response.getLimits(), response.getPreAggregationSampleSize(),
+                response.getCache(), response.getCost()));
+
+        final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(out));
+        output.write(MAGIC);
+        output.writeByte(VERSION);
+        output.writeInt(header.length);
+        output.write(header);
+
+        for (final List<Point> column : columns) {
+            PointColumns.encode(column, output);
+        }
+
+        output.flush();
+    }
+}
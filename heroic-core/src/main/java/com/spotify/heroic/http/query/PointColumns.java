@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.heroic.http.query;
+
+import static com.spotify.heroic.common.VarInts.readVarLong;
+import static com.spotify.heroic.common.VarInts.unZigZag;
+import static com.spotify.heroic.common.VarInts.writeVarLong;
+import static com.spotify.heroic.common.VarInts.zigZag;
+
+import com.spotify.heroic.metric.Point;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Columnar encoding of points, used by the columnar query response format.
+ * <p>
+ * Timestamps are encoded as zig-zag varint delta-of-deltas, which takes a single byte per point
+ * for a series with a regular cadence. Values are encoded as the XOR against the previous value
+ * using the scheme from Facebook's Gorilla paper, which takes a few bits per point for series that
+ * change slowly.
+ */
+final class PointColumns {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private PointColumns() {
+    }
+
+    static void encode(final List<Point> points, final DataOutput out) throws IOException {
+        writeVarLong(out, points.size());
+
+        if (points.isEmpty()) {
+            return;
+        }
+
+        long previous = points.get(0).getTimestamp();
+        long delta = 0;
+        out.writeLong(previous);
+
+        for (int i = 1; i < points.size(); i++) {
+            final long timestamp = points.get(i).getTimestamp();
+            final long next = timestamp - previous;
+            writeVarLong(out, zigZag(next - delta));
+            previous = timestamp;
+            delta = next;
+        }
+
+        final BitWriter bits = new BitWriter(out);
+
+        long value = Double.doubleToRawLongBits(points.get(0).getValue());
+        int leading = -1;
+        int trailing = 0;
+        bits.write(value, 64);
+
+        for (int i = 1; i < points.size(); i++) {
+            final long next = Double.doubleToRawLongBits(points.get(i).getValue());
+            final long xor = value ^ next;
+            value = next;
+
+            if (xor == 0) {
+                bits.write(0, 1);
+                continue;
+            }
+
+            final int l = Math.min(Long.numberOfLeadingZeros(xor), 31);
+            final int t = Long.numberOfTrailingZeros(xor);
+
+            if (leading >= 0 && l >= leading && t >= trailing) {
+                /* the meaningful bits fit in the previous window */
+                bits.write(0b10, 2);
+                bits.write(xor >>> trailing, 64 - leading - trailing);
+                continue;
+            }
+
+            final int meaningful = 64 - l - t;
+            bits.write(0b11, 2);
+            bits.write(l, 5);
+            bits.write(meaningful - 1, 6);
+            bits.write(xor >>> t, meaningful);
+            leading = l;
+            trailing = t;
+        }
+
+        bits.flush();
+    }
+
+    /**
+     * Decode points written by {@link #encode(List, DataOutput)}.
+     * <p>
+     * The declared number of points is not trusted for allocations, buffers are grown as points
+     * are read so that a corrupt size fails with an {@link java.io.EOFException} once the input
+     * runs out instead of allocating up front.
+     */
+    static List<Point> decode(final DataInput in) throws IOException {
+        final long declared = readVarLong(in);
+
+        if (declared < 0 || declared > Integer.MAX_VALUE) {
+            throw new IOException("Invalid point columns, bad size: " + declared);
+        }
+
+        final int size = (int) declared;
+
+        if (size == 0) {
+            return new ArrayList<>();
+        }
+
+        long[] timestamps = new long[Math.min(size, INITIAL_CAPACITY)];
+
+        long delta = 0;
+        timestamps[0] = in.readLong();
+
+        for (int i = 1; i < size; i++) {
+            if (i == timestamps.length) {
+                timestamps = Arrays.copyOf(timestamps, (int) Math.min(size, 2L * i));
+            }
+
+            delta += unZigZag(readVarLong(in));
+            timestamps[i] = timestamps[i - 1] + delta;
+        }
+
+        final BitReader bits = new BitReader(in);
+        final List<Point> points = new ArrayList<>(size);
+
+        long value = bits.read(64);
+        int leading = 0;
+        int trailing = 0;
+        points.add(new Point(timestamps[0], Double.longBitsToDouble(value)));
+
+        for (int i = 1; i < size; i++) {
+            if (bits.read(1) != 0) {
+                if (bits.read(1) != 0) {
+                    leading = (int) bits.read(5);
+                    trailing = 64 - leading - ((int) bits.read(6) + 1);
+                }
+
+                value ^= bits.read(64 - leading - trailing) << trailing;
+            }
+
+            points.add(new Point(timestamps[i], Double.longBitsToDouble(value)));
+        }
+
+        return points;
+    }
+
+    /**
+     * Writes bits most significant first, padding the last byte with zeros.
+     */
+    private static class BitWriter {
+        private final DataOutput out;
+        private long buffer = 0;
+        private int count = 0;
+
+        private BitWriter(final DataOutput out) {
+            this.out = out;
+        }
+
+        void write(final long value, final int bits) throws IOException {
+            if (bits > 32) {
+                write(value >>> 32, bits - 32);
+                write(value, 32);
+                return;
+            }
+
+            buffer = (buffer << bits) | (value & ((1L << bits) - 1));
+            count += bits;
+
+            while (count >= 8) {
+                count -= 8;
+                out.writeByte((int) (buffer >>> count));
+            }
+        }
+
+        void flush() throws IOException {
+            if (count > 0) {
+                out.writeByte((int) (buffer << (8 - count)));
+                buffer = 0;
+                count = 0;
+            }
+        }
+    }
+
+    private static class BitReader {
+        private final DataInput in;
+        private int buffer = 0;
+        private int count = 0;
+
+        private BitReader(final DataInput in) {
+            this.in = in;
+        }
+
+        long read(final int bits) throws IOException {
+            long value = 0;
+
+            for (int i = 0; i < bits; i++) {
+                if (count == 0) {
+                    buffer = in.readUnsignedByte();
+                    count = 8;
+                }
+
+                value = (value << 1) | ((buffer >>> --count) & 1);
+            }
+
+            return value;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.heroic.http.query;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.spotify.heroic.metric.QueryMetricsResponse;
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * A fragment of a streamed {@link QueryBatchResponse}.
+ * <p>
+ * Each chunk is serialized separately, the concatenation of all chunks of a batch forms a document
+ * identical in shape to a {@link QueryBatchResponse}.
+ */
+@JsonSerialize(using = QueryBatchChunk.Serializer.class)
+class QueryBatchChunk {
+    private final boolean first;
+    private final Optional<Entry> entry;
+    private final boolean last;
+
+    private QueryBatchChunk(
+        final boolean first, final Optional<Entry> entry, final boolean last
+    ) {
+        this.first = first;
+        this.entry = entry;
+        this.last = last;
+    }
+
+    /**
+     * A chunk containing the response of a single query.
+     */
+    static QueryBatchChunk entry(
+        final boolean first, final String key, final QueryMetricsResponse response,
+        final boolean last
+    ) {
+        return new QueryBatchChunk(first, Optional.of(new Entry(key, response)), last);
+    }
+
+    /**
+     * A chunk containing a complete, empty batch.
+     */
+    static QueryBatchChunk empty() {
+        return new QueryBatchChunk(true, Optional.empty(), true);
+    }
+
+    private static class Entry {
+        private final String key;
+        private final QueryMetricsResponse response;
+
+        private Entry(final String key, final QueryMetricsResponse response) {
+            this.key = key;
+            this.response = response;
+        }
+    }
+
+    static class Serializer extends JsonSerializer<QueryBatchChunk> {
+        @Override
+        public void serialize(
+            final QueryBatchChunk chunk, final JsonGenerator g, final SerializerProvider provider
+        ) throws IOException {
+            g.writeRaw(chunk.first ? "{\"results\":{" : ",");
+
+            if (chunk.entry.isPresent()) {
+                final Entry entry = chunk.entry.get();
+                g.writeRaw('"');
+                g.writeRaw(new String(JsonStringEncoder.getInstance().quoteAsString(entry.key)));
+                g.writeRaw("\":");
+                provider.defaultSerializeValue(entry.response, g);
+            }
+
+            if (chunk.last) {
+                g.writeRaw("}}");
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.heroic.http.query;
+
+import com.spotify.heroic.common.DateRange;
+import com.spotify.heroic.common.Statistics;
+import com.spotify.heroic.metric.QueryMetricsResponse;
+import com.spotify.heroic.metric.QueryResult;
+import com.spotify.heroic.metric.QueryTrace;
+import eu.toolchain.async.AsyncFuture;
+import eu.toolchain.async.FutureDone;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.glassfish.jersey.server.ChunkedOutput;
+import org.slf4j.Logger;
+
+/**
+ * Streams the responses of a batch of queries, writing each response as soon as its query has
+ * completed instead of waiting for the slowest query in the batch.
+ * <p>
+ * The response status has already been sent when a query fails, so failures are reported as
+ * a response carrying the error under the key of the failed query. The same goes for queries
+ * which have not completed when the batch expires, see {@link #expire()}.
+ */
+class QueryBatchStream {
+    private static final Logger log = org.slf4j.LoggerFactory.getLogger(QueryBatchStream.class);
+
+    private final ChunkedOutput<QueryBatchChunk> output;
+    private final List<Entry> entries = new ArrayList<>();
+
+    /* guarded by this */
+    private int written = 0;
+    private boolean closed = false;
+    private Runnable onClose = null;
+
+    QueryBatchStream(final ChunkedOutput<QueryBatchChunk> output) {
+        this.output = output;
+    }
+
+    /**
+     * Add a query to the batch, must be called before {@link #start()}.
+     */
+    void add(
+        final String key, final UUID queryId, final AsyncFuture<QueryMetricsResponse> response
+    ) {
+        entries.add(new Entry(key, queryId, response));
+    }
+
+    /**
+     * Start writing responses as the queries in the batch complete.
+     */
+    void start() {
+        if (entries.isEmpty()) {
+            write(QueryBatchChunk.empty(), true);
+            return;
+        }
+
+        for (final Entry e : entries) {
+            final String key = e.key;
+
+            e.response.onDone(new FutureDone<QueryMetricsResponse>() {
+                @Override
+                public void failed(final Throwable cause) {
+                    log.error("Query {} in batch failed", key, cause);
+                    write(e, error(e.queryId, cause.toString()));
+                }
+
+                @Override
+                public void resolved(final QueryMetricsResponse result) {
+                    write(e, result);
+                }
+
+                @Override
+                public void cancelled() {
+                    write(e, error(e.queryId, "Query cancelled"));
+                }
+            });
+        }
+    }
+
+    /**
+     * Run the given callback once the output is closed, immediately if it already is.
+     */
+    synchronized void onClose(final Runnable callback) {
+        if (closed) {
+            callback.run();
+            return;
+        }
+
+        onClose = callback;
+    }
+
+    /**
+     * Expire the batch, writing an error for every query which has not completed yet, closing the
+     * output and cancelling the queries.
+     */
+    void expire() {
+        synchronized (this) {
+            for (final Entry e : entries) {
+                write(e, error(e.queryId, "Query timed out"));
+            }
+        }
+
+        entries.forEach(entry -> entry.response.cancel());
+    }
+
+    private synchronized void write(final Entry entry, final QueryMetricsResponse response) {
+        if (entry.written) {
+            return;
+        }
+
+        entry.written = true;
+
+        final boolean first = written == 0;
+        final boolean last = ++written == entries.size();
+        write(QueryBatchChunk.entry(first, entry.key, response, last), last);
+    }
+
+    private synchronized void write(final QueryBatchChunk chunk, final boolean last) {
+        if (closed) {
+            return;
+        }
+
+        try {
+            output.write(chunk);
+
+            if (last) {
+                close();
+                output.close();
+            }
+        } catch (final IOException e) {
+            log.debug("Failed to write batch response, cancelling remaining queries", e);
+            close();
+            entries.forEach(entry -> entry.response.cancel());
+        }
+    }
+
+    private synchronized void close() {
+        closed = true;
+
+        if (onClose != null) {
+            onClose.run();
+            onClose = null;
+        }
+    }
+
+    private static QueryMetricsResponse error(final UUID queryId, final String message) {
+        final QueryResult r =
+            QueryResult.error(new DateRange(0, 0), message, QueryTrace.PASSIVE);
+
+        return new QueryMetricsResponse(queryId, r.getRange(), r.getGroups(),
+            Statistics.empty(), r.getErrors(), r.getTrace(), r.getLimits(), Optional.empty(),
+            r.getCache());
+    }
+
+    private static class Entry {
+        private final String key;
+        private final UUID queryId;
+        private final AsyncFuture<QueryMetricsResponse> response;
+
+        /* guarded by the stream */
+        private boolean written = false;
+
+        private Entry(
+            final String key, final UUID queryId, final AsyncFuture<QueryMetricsResponse> response
+        ) {
+            this.key = key;
+            this.queryId = queryId;
+            this.response = response;
+        }
+    }
+}
@@ -21,10 +21,10 @@
 
 package com.spotify.heroic.http.query;
 
-import com.google.common.collect.ImmutableMap;
 import com.spotify.heroic.Query;
 import com.spotify.heroic.QueryManager;
 import com.spotify.heroic.common.JavaxRestFramework;
+import com.spotify.heroic.common.Statistics;
 import com.spotify.heroic.http.CoreHttpContextFactory;
 import com.spotify.heroic.metric.QueryMetrics;
 import com.spotify.heroic.metric.QueryMetricsResponse;
@@ -33,15 +33,15 @@ import com.spotify.heroic.querylogging.HttpContext;
 import com.spotify.heroic.querylogging.QueryContext;
 import com.spotify.heroic.querylogging.QueryLogger;
 import com.spotify.heroic.querylogging.QueryLoggerFactory;
+import com.spotify.heroic.scheduler.Scheduler;
 import eu.toolchain.async.AsyncFramework;
 import eu.toolchain.async.AsyncFuture;
 import io.opencensus.trace.Span;
 import io.opencensus.trace.Tracer;
 import io.opencensus.trace.Tracing;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import javax.inject.Inject;
 import javax.servlet.http.HttpServletRequest;
@@ -54,7 +54,7 @@ import javax.ws.rs.container.AsyncResponse;
 import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
-import org.apache.commons.lang3.tuple.Triple;
+import org.glassfish.jersey.server.ChunkedOutput;
 
 @Path("query")
 @Produces(MediaType.APPLICATION_JSON)
@@ -64,6 +64,7 @@ public class QueryResource {
     private final QueryManager query;
     private final AsyncFramework async;
     private final QueryLogger queryLogger;
+    private final Scheduler scheduler;
     private static final Tracer tracer = Tracing.getTracer();
 
 
@@ -72,17 +73,20 @@ public class QueryResource {
         final JavaxRestFramework httpAsync,
         final QueryManager query,
         final AsyncFramework async,
-        final QueryLoggerFactory queryLoggerFactory
+        final QueryLoggerFactory queryLoggerFactory,
+        final Scheduler scheduler
     ) {
         this.httpAsync = httpAsync;
         this.query = query;
         this.async = async;
         this.queryLogger = queryLoggerFactory.create("QueryResource");
+        this.scheduler = scheduler;
     }
 
     @POST
     @Path("metrics")
     @Consumes(MediaType.TEXT_PLAIN)
+    @Produces({MediaType.APPLICATION_JSON, ColumnarResponseWriter.MEDIA_TYPE})
     public void metricsText(
         @Suspended final AsyncResponse response, @QueryParam("group") String group,
         @Context final HttpServletRequest servletReq, final String query
@@ -101,6 +105,7 @@ public class QueryResource {
 
     @POST
     @Path("metrics")
+    @Produces({MediaType.APPLICATION_JSON, ColumnarResponseWriter.MEDIA_TYPE})
     @Consumes(MediaType.APPLICATION_JSON)
     public void metrics(
         @Suspended final AsyncResponse response,
@@ -131,8 +136,8 @@ public class QueryResource {
         final HttpContext httpContext = CoreHttpContextFactory.create(servletReq);
         final QueryManager.Group g = this.query.useOptionalGroup(Optional.ofNullable(group));
 
-        final List<AsyncFuture<Triple<String, QueryContext, QueryResult>>> futures =
-            new ArrayList<>();
+        final ChunkedOutput<QueryBatchChunk> output = new ChunkedOutput<>(QueryBatchChunk.class);
+        final QueryBatchStream stream = new QueryBatchStream(output);
 
         final Span currentSpan = tracer.getCurrentSpan();
 
@@ -149,37 +154,28 @@ public class QueryResource {
                     QueryContext.create(qm.clientContext(), httpContext);
                 queryLogger.logHttpQueryJson(queryContext, qm);
 
-                futures.add(g
+                stream.add(queryKey, queryContext.queryId(), g
                     .query(q, queryContext, currentSpan)
-                    .directTransform(r -> Triple.of(queryKey, queryContext, r)));
+                    .directTransform(r -> {
+                        final QueryMetricsResponse qmr =
+                            new QueryMetricsResponse(queryContext.queryId(), r.getRange(),
+                                r.getGroups(), Statistics.empty(), r.getErrors(), r.getTrace(),
+                                r.getLimits(), Optional.of(r.getPreAggregationSampleSize()),
+                                r.getCache(), r.getCost());
+
+                        queryLogger.logFinalResponse(queryContext, qmr);
+                        return qmr;
+                    }));
             }
         });
 
-        final AsyncFuture<QueryBatchResponse> future =
-            async.collect(futures).directTransform(entries -> {
-                final ImmutableMap.Builder<String, QueryMetricsResponse> results =
-                    ImmutableMap.builder();
+        /* responses are written to the client as the queries in the batch complete */
+        response.resume(output);
+        stream.start();
 
-                for (final Triple<String, QueryContext, QueryResult> e : entries) {
-                    final String queryKey = e.getLeft();
-                    final QueryContext queryContext = e.getMiddle();
-                    final QueryResult r = e.getRight();
-                    final QueryMetricsResponse qmr =
-                        new QueryMetricsResponse(queryContext.queryId(), r.getRange(),
-                            r.getGroups(), r.getErrors(), r.getTrace(), r.getLimits(),
-                            Optional.of(r.getPreAggregationSampleSize()), r.getCache());
-
-                    queryLogger.logFinalResponse(queryContext, qmr);
-
-                    results.put(queryKey, qmr);
-                }
-
-                return new QueryBatchResponse(results.build());
-            });
-
-        response.setTimeout(300, TimeUnit.SECONDS);
-
-        httpAsync.bind(response, future);
+        final ScheduledFuture<?> timeout =
+            scheduler.schedule("query-batch-timeout", 300, TimeUnit.SECONDS, stream::expire);
+        stream.onClose(() -> timeout.cancel(false));
     }
 
     private void bindMetricsResponse(
@@ -192,8 +188,8 @@ public class QueryResource {
         httpAsync.bind(response, callback, r -> {
             final QueryMetricsResponse qmr =
                 new QueryMetricsResponse(queryContext.queryId(), r.getRange(), r.getGroups(),
-                    r.getErrors(), r.getTrace(), r.getLimits(),
-                    Optional.of(r.getPreAggregationSampleSize()), r.getCache());
+                    Statistics.empty(), r.getErrors(), r.getTrace(), r.getLimits(),
+                    Optional.of(r.getPreAggregationSampleSize()), r.getCache(), r.getCost());
             queryLogger.logFinalResponse(queryContext, qmr);
             return qmr;
         });
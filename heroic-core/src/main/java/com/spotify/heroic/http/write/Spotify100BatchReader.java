@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.heroic.http.write;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.ExtensionRegistryLite;
+import com.google.protobuf.WireFormat;
+import com.spotify.proto.Spotify100;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * Incrementally reads the metrics of a serialized {@link Spotify100.Batch}.
+ * <p>
+ * Only a single metric is decoded at a time, which avoids buffering the complete batch in
+ * memory.
+ */
+public class Spotify100BatchReader {
+    private final CodedInputStream input;
+
+    public Spotify100BatchReader(final InputStream input) {
+        this.input = CodedInputStream.newInstance(input);
+    }
+
+    /**
+     * Read the next metric in the batch.
+     *
+     * @return the next metric, or empty if the end of the batch has been reached
+     * @throws IOException if the batch is not a valid batch of metrics
+     */
+    public Optional<Spotify100.Metric> next() throws IOException {
+        while (true) {
+            final int tag = input.readTag();
+
+            if (tag == 0) {
+                return Optional.empty();
+            }
+
+            if (WireFormat.getTagFieldNumber(tag) != Spotify100.Batch.METRIC_FIELD_NUMBER ||
+                WireFormat.getTagWireType(tag) != WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+                input.skipField(tag);
+                continue;
+            }
+
+            final Spotify100.Metric.Builder metric = Spotify100.Metric.newBuilder();
+            input.readMessage(metric, ExtensionRegistryLite.getEmptyRegistry());
+            // size limit applies to the total number of bytes read, not the size of the message.
+            input.resetSizeCounter();
+            return Optional.of(metric.build());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.heroic.http.write
+
+/**
+ * Response to a bulk write, with the number of accepted and rejected metrics.
+ *
+ * Errors are reported for bodies which could only partially be decoded, in which case the metrics
+ * decoded before the error have been written.
+ */
+data class WriteBatchResponse @JvmOverloads constructor(
+    val accepted: Long,
+    val rejected: Long,
+    val errors: List<String> = emptyList()
+) {
+    operator fun plus(other: WriteBatchResponse): WriteBatchResponse {
+        return WriteBatchResponse(accepted + other.accepted, rejected + other.rejected,
+            errors + other.errors)
+    }
+
+    companion object {
+        @JvmField val EMPTY = WriteBatchResponse(0, 0)
+    }
+}
@@ -22,13 +22,30 @@
 package com.spotify.heroic.http.write;
 
 import com.spotify.heroic.common.JavaxRestFramework;
+import com.spotify.heroic.common.Series;
+import com.spotify.heroic.consumer.SeriesCache;
 import com.spotify.heroic.ingestion.Ingestion;
 import com.spotify.heroic.ingestion.IngestionGroup;
 import com.spotify.heroic.ingestion.IngestionManager;
+import com.spotify.heroic.ingestion.Request;
+import com.spotify.heroic.metric.Metric;
+import com.spotify.heroic.metric.MetricCollection;
+import com.spotify.heroic.metric.Point;
+import com.spotify.heroic.statistics.HeroicReporter;
+import com.spotify.proto.Spotify100;
 import eu.toolchain.async.AsyncFramework;
 import eu.toolchain.async.AsyncFuture;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import javax.inject.Inject;
+import javax.ws.rs.BadRequestException;
 import javax.ws.rs.Consumes;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
@@ -36,23 +53,39 @@ import javax.ws.rs.QueryParam;
 import javax.ws.rs.container.AsyncResponse;
 import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.MediaType;
+import org.xerial.snappy.SnappyFramedInputStream;
 
 @Path("write")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
 public class WriteResource {
+    public static final String APPLICATION_PROTOBUF = "application/x-protobuf";
+    public static final String SNAPPY_ENCODING = "snappy";
+
+    /**
+     * Number of metrics decoded from a bulk write before they are handed to ingestion.
+     */
+    public static final int BATCH_SIZE = 1000;
+
+    /**
+     * Identifier used when reporting series cache statistics for bulk writes.
+     */
+    public static final String SERIES_CACHE_ID = "http-write";
+
     private final AsyncFramework async;
     private final IngestionManager ingestion;
     private final JavaxRestFramework httpAsync;
+    private final SeriesCache seriesCache;
 
     @Inject
     public WriteResource(
         final AsyncFramework async, final IngestionManager ingestion,
-        final JavaxRestFramework httpAsync
+        final JavaxRestFramework httpAsync, final HeroicReporter reporter
     ) {
         this.async = async;
         this.ingestion = ingestion;
         this.httpAsync = httpAsync;
+        this.seriesCache = new SeriesCache(reporter.newConsumer(SERIES_CACHE_ID));
     }
 
     @POST
@@ -70,4 +103,115 @@ public class WriteResource {
 
         httpAsync.bind(response, future);
     }
+
+    /**
+     * Bulk write of a serialized {@link Spotify100.Batch}.
+     * <p>
+     * The body is decoded incrementally, and written in batches of {@link #BATCH_SIZE} metrics
+     * where points belonging to the same series are grouped into a single write, ordered by
+     * timestamp. Series are interned through a {@link SeriesCache}. If the body is encoded as
+     * {@value #SNAPPY_ENCODING}, it is expected to use the framed snappy format which can be
+     * decompressed while streaming.
+     * <p>
+     * A body which can not be decoded is rejected as a bad request, unless metrics decoded before
+     * the error have already been written. Then all metrics decoded before the error are written,
+     * and the error is reported in the response together with their counts.
+     */
+    @POST
+    @Path("batch")
+    @Consumes(APPLICATION_PROTOBUF)
+    public void batch(
+        @Suspended final AsyncResponse response,
+        @QueryParam("group") String group,
+        @HeaderParam("Content-Encoding") String encoding,
+        final InputStream body
+    ) {
+        final IngestionGroup ingestionGroup = ingestion.useGroup(group);
+        final List<AsyncFuture<WriteBatchResponse>> writes = new ArrayList<>();
+        long invalid = 0;
+        final List<String> errors = new ArrayList<>();
+        final Map<Series, List<Point>> batch = new HashMap<>();
+
+        try {
+            final Spotify100BatchReader reader = new Spotify100BatchReader(decode(encoding, body));
+            int size = 0;
+
+            Optional<Spotify100.Metric> next;
+
+            while ((next = reader.next()).isPresent()) {
+                final Spotify100.Metric metric = next.get();
+
+                if (metric.getTime() <= 0) {
+                    invalid++;
+                    continue;
+                }
+
+                final Series series = seriesCache.intern(metric.getKey(), metric.getTagsMap(),
+                    metric.getResourceMap());
+
+                batch
+                    .computeIfAbsent(series, s -> new ArrayList<>())
+                    .add(new Point(metric.getTime(), metric.getValue()));
+
+                if (++size >= BATCH_SIZE) {
+                    flush(ingestionGroup, batch, writes);
+                    size = 0;
+                }
+            }
+
+            flush(ingestionGroup, batch, writes);
+        } catch (final IOException e) {
+            if (writes.isEmpty()) {
+                throw new BadRequestException("Invalid batch of metrics: " + e.getMessage(), e);
+            }
+
+            /* parts of the body have already been written, write the rest that was decoded */
+            flush(ingestionGroup, batch, writes);
+            errors.add("Invalid batch of metrics, only partially written: " + e.getMessage());
+        }
+
+        final WriteBatchResponse rejectedByValidation =
+            new WriteBatchResponse(0, invalid, errors);
+
+        httpAsync.bind(response, async.collect(writes, results -> {
+            WriteBatchResponse result = rejectedByValidation;
+
+            for (final WriteBatchResponse r : results) {
+                result = result.plus(r);
+            }
+
+            return result;
+        }));
+    }
+
+    private InputStream decode(final String encoding, final InputStream body)
+        throws IOException {
+        if (encoding == null || encoding.isEmpty()) {
+            return body;
+        }
+
+        if (SNAPPY_ENCODING.equals(encoding)) {
+            return new SnappyFramedInputStream(body);
+        }
+
+        throw new BadRequestException("Unsupported content encoding: " + encoding);
+    }
+
+    private void flush(
+        final IngestionGroup ingestionGroup, final Map<Series, List<Point>> batch,
+        final List<AsyncFuture<WriteBatchResponse>> writes
+    ) {
+        for (final Map.Entry<Series, List<Point>> e : batch.entrySet()) {
+            final List<Point> points = e.getValue();
+            final long size = points.size();
+            points.sort(Metric.comparator);
+
+            writes.add(ingestionGroup
+                .write(new Request(e.getKey(), MetricCollection.points(points)))
+                .directTransform(ingestion -> new WriteBatchResponse(size, 0))
+                .catchFailed(error -> new WriteBatchResponse(0, size)));
+        }
+
+        batch.clear();
+    }
 }
@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.heroic.ingestion;
+
+import com.spotify.heroic.statistics.IngestionManagerReporter;
+import eu.toolchain.async.AsyncFramework;
+import eu.toolchain.async.AsyncFuture;
+import eu.toolchain.async.FutureDone;
+import eu.toolchain.async.ResolvableFuture;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking, adaptive limit on the number of concurrent writes.
+ * <p>
+ * The limit is adjusted using additive increase, multiplicative decrease (AIMD) based on the
+ * outcome of each write. A write that fails or takes longer than the latency threshold causes the
+ * limit to be multiplied by the backoff ratio. A write that succeeds while at least half of the
+ * limit is in use increases the limit by one.
+ * <p>
+ * Writes which exceed the current limit are deferred in a bounded queue, and run as soon as
+ * other writes complete. If the queue is full, the write is rejected with an
+ * {@link IngestionRejectedException}. Callers are never blocked.
+ */
+public class AdaptiveWriteLimiter {
+    private final AsyncFramework async;
+    private final IngestionManagerReporter reporter;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxPending;
+    private final long latencyThreshold;
+    private final double backoffRatio;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<Boolean> draining = ThreadLocal.withInitial(() -> false);
+
+    private volatile double limit;
+
+    /**
+     * @param minLimit The lower bound of the limit.
+     * @param maxLimit The upper bound of the limit, this is also the initial limit.
+     * @param maxPending The maximum number of deferred writes.
+     * @param latencyThresholdMs Writes slower than this are treated as an overload signal.
+     * @param backoffRatio Ratio the limit is multiplied with on an overload signal.
+     */
+    public AdaptiveWriteLimiter(
+        final AsyncFramework async,
+        final IngestionManagerReporter reporter,
+        final int minLimit,
+        final int maxLimit,
+        final int maxPending,
+        final long latencyThresholdMs,
+        final double backoffRatio
+    ) {
+        this.async = async;
+        this.reporter = reporter;
+        this.minLimit = Math.max(1, Math.min(minLimit, maxLimit));
+        this.maxLimit = maxLimit;
+        this.maxPending = maxPending;
+        this.latencyThreshold = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMs);
+        this.backoffRatio = backoffRatio;
+        this.limit = maxLimit;
+
+        reporter.reportWriteLimit(maxLimit);
+    }
+
+    /**
+     * Run the given write when permitted by the current limit.
+     */
+    public <T> AsyncFuture<T> submit(final Supplier<AsyncFuture<T>> write) {
+        if (tryAcquire()) {
+            return run(write);
+        }
+
+        if (pendingCount.incrementAndGet() > maxPending) {
+            pendingCount.decrementAndGet();
+            reporter.reportWriteRejected();
+            return async.failed(new IngestionRejectedException(
+                "Too many pending writes (limit: " + getLimit() + ", pending: " + maxPending +
+                    ")"));
+        }
+
+        reporter.incrementPendingWrites();
+
+        final ResolvableFuture<T> future = async.future();
+
+        pending.add(() -> {
+            reporter.decrementPendingWrites();
+
+            if (future.isDone()) {
+                release(System.nanoTime(), false);
+                return;
+            }
+
+            run(write).onDone(new FutureDone<T>() {
+                @Override
+                public void failed(final Throwable cause) {
+                    future.fail(cause);
+                }
+
+                @Override
+                public void resolved(final T result) {
+                    future.resolve(result);
+                }
+
+                @Override
+                public void cancelled() {
+                    future.cancel();
+                }
+            });
+        });
+
+        // permits might have been released before the write was queued
+        drain();
+        return future;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getPending() {
+        return pendingCount.get();
+    }
+
+    private boolean tryAcquire() {
+        while (true) {
+            final int current = inFlight.get();
+
+            if (current >= (int) limit) {
+                return false;
+            }
+
+            if (inFlight.compareAndSet(current, current + 1)) {
+                reporter.incrementConcurrentWrites();
+                return true;
+            }
+        }
+    }
+
+    private <T> AsyncFuture<T> run(final Supplier<AsyncFuture<T>> write) {
+        final long start = System.nanoTime();
+        final AsyncFuture<T> future;
+
+        try {
+            future = write.get();
+        } catch (final Exception e) {
+            release(start, true);
+            return async.failed(e);
+        }
+
+        return future.onDone(new FutureDone<T>() {
+            @Override
+            public void failed(final Throwable cause) {
+                release(start, true);
+            }
+
+            @Override
+            public void resolved(final T result) {
+                release(start, false);
+            }
+
+            @Override
+            public void cancelled() {
+                release(start, false);
+            }
+        });
+    }
+
+    private void release(final long start, final boolean failed) {
+        inFlight.decrementAndGet();
+        reporter.decrementConcurrentWrites();
+        update(failed || System.nanoTime() - start > latencyThreshold);
+        drain();
+    }
+
+    private synchronized void update(final boolean overloaded) {
+        final double current = limit;
+        final double next;
+
+        if (overloaded) {
+            next = Math.max(minLimit, current * backoffRatio);
+        } else if (inFlight.get() * 2 >= current) {
+            next = Math.min(maxLimit, current + 1);
+        } else {
+            return;
+        }
+
+        limit = next;
+
+        if ((int) next != (int) current) {
+            reporter.reportWriteLimit((int) next);
+        }
+    }
+
+    /**
+     * Run deferred writes while there are permits available.
+     * <p>
+     * Writes that complete immediately call back into this method, which is guarded against to
+     * avoid unbounded recursion. The outermost call keeps draining instead.
+     */
+    private void drain() {
+        if (draining.get()) {
+            return;
+        }
+
+        draining.set(true);
+
+        try {
+            while (pendingCount.get() > 0 && tryAcquire()) {
+                final Runnable task = pending.poll();
+
+                if (task == null) {
+                    // a submitter is about to queue its write, and will drain on its own
+                    inFlight.decrementAndGet();
+                    reporter.decrementConcurrentWrites();
+                    return;
+                }
+
+                pendingCount.decrementAndGet();
+                task.run();
+            }
+        } finally {
+            draining.set(false);
+        }
+    }
+}
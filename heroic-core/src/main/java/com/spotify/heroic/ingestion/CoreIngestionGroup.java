@@ -26,7 +26,7 @@ import com.spotify.heroic.common.Collected;
 import com.spotify.heroic.common.DateRange;
 import com.spotify.heroic.common.Grouped;
 import com.spotify.heroic.common.Groups;
-import com.spotify.heroic.filter.Filter;
+import com.spotify.heroic.filter.CompiledFilter;
 import com.spotify.heroic.metadata.MetadataBackend;
 import com.spotify.heroic.metadata.WriteMetadata;
 import com.spotify.heroic.metric.Metric;
@@ -46,7 +46,6 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Supplier;
 
@@ -54,8 +53,8 @@ public class CoreIngestionGroup implements IngestionGroup {
     private final Tracer tracer = Tracing.getTracer();
 
     private final AsyncFramework async;
-    private final Supplier<Filter> filter;
-    private final Semaphore writePermits;
+    private final Supplier<CompiledFilter> filter;
+    private final AdaptiveWriteLimiter writeLimiter;
     private final IngestionManagerReporter reporter;
     private final LongAdder ingested;
 
@@ -65,8 +64,8 @@ public class CoreIngestionGroup implements IngestionGroup {
 
     public CoreIngestionGroup(
         final AsyncFramework async,
-        final Supplier<Filter> filter,
-        final Semaphore writePermits,
+        final Supplier<CompiledFilter> filter,
+        final AdaptiveWriteLimiter writeLimiter,
         final IngestionManagerReporter reporter,
         final LongAdder ingested,
         final Optional<MetricBackend> metric,
@@ -75,7 +74,7 @@ public class CoreIngestionGroup implements IngestionGroup {
     ) {
         this.async = async;
         this.filter = filter;
-        this.writePermits = writePermits;
+        this.writeLimiter = writeLimiter;
         this.reporter = reporter;
         this.ingested = ingested;
         this.metric = metric;
@@ -113,26 +112,15 @@ public class CoreIngestionGroup implements IngestionGroup {
             return async.resolved(Ingestion.of(ImmutableList.of()));
         }
 
-        try {
-            span.addAnnotation("Acquiring write lock");
-            writePermits.acquire();
-        } catch (final InterruptedException e) {
-            String error = "Failed to acquire semaphore for bounded request";
-            span.setStatus(Status.INTERNAL.withDescription(error));
-            span.end();
-            return async.failed(new Exception(error, e));
-        }
+        span.addAnnotation("Submitting write");
 
-        span.addAnnotation("Acquired write lock");
-        reporter.incrementConcurrentWrites();
+        return writeLimiter.submit(() -> {
+            span.addAnnotation("Acquired write permit");
 
-        try (Scope ws = tracer.withSpan(span)) {
-            return doWrite(request).onFinished(() -> {
-                writePermits.release();
-                reporter.decrementConcurrentWrites();
-                span.end();
-            });
-        }
+            try (Scope ws = tracer.withSpan(span)) {
+                return doWrite(request);
+            }
+        }).onFinished(span::end);
     }
 
     protected AsyncFuture<Ingestion> doWrite(final Request request) {
@@ -23,7 +23,9 @@ package com.spotify.heroic.ingestion;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import com.google.common.collect.ImmutableMap;
 import com.spotify.heroic.common.Statistics;
+import com.spotify.heroic.filter.CompiledFilter;
 import com.spotify.heroic.filter.Filter;
 import com.spotify.heroic.metadata.MetadataBackend;
 import com.spotify.heroic.metadata.MetadataManager;
@@ -35,7 +37,6 @@ import com.spotify.heroic.suggest.SuggestManager;
 import eu.toolchain.async.AsyncFramework;
 import eu.toolchain.async.AsyncFuture;
 import java.util.Optional;
-import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -43,6 +44,8 @@ import javax.inject.Inject;
 import javax.inject.Named;
 
 public class IngestionManagerImpl implements IngestionManager {
+    private static final double WRITE_LIMIT_BACKOFF_RATIO = 0.9;
+
     final AsyncFramework async;
     final MetadataManager metadata;
     final MetricManager metric;
@@ -53,9 +56,9 @@ public class IngestionManagerImpl implements IngestionManager {
     private final boolean updateMetadata;
     private final boolean updateSuggestions;
 
-    private volatile Filter filter;
+    private volatile CompiledFilter filter;
 
-    private final Semaphore writePermits;
+    private final AdaptiveWriteLimiter writeLimiter;
 
     private final LongAdder ingested = new LongAdder();
 
@@ -63,7 +66,11 @@ public class IngestionManagerImpl implements IngestionManager {
      * @param updateMetrics Ingested metrics will update metric backends.
      * @param updateMetadata Ingested metrics will update metadata backends.
      * @param updateSuggestions Ingested metrics will update suggest backends.
-     * @param maxConcurrentWrites Limit the number of concurrent writes, 0 means no limit at all
+     * @param maxConcurrentWrites Upper bound of the adaptive limit of concurrent writes.
+     * @param minConcurrentWrites Lower bound of the adaptive limit of concurrent writes.
+     * @param maxPendingWrites Number of writes that may be deferred while at the limit, before
+     * further writes are rejected.
+     * @param writeLatencyThreshold Writes slower than this (in milliseconds) will lower the limit.
      */
     @Inject
     public IngestionManagerImpl(
@@ -76,6 +83,9 @@ public class IngestionManagerImpl implements IngestionManager {
         @Named("updateMetadata") final boolean updateMetadata,
         @Named("updateSuggestions") final boolean updateSuggestions,
         @Named("maxConcurrentWrites") final int maxConcurrentWrites,
+        @Named("minConcurrentWrites") final int minConcurrentWrites,
+        @Named("maxPendingWrites") final int maxPendingWrites,
+        @Named("writeLatencyThreshold") final long writeLatencyThreshold,
         final Filter filter
     ) {
         this.async = async;
@@ -87,9 +97,11 @@ public class IngestionManagerImpl implements IngestionManager {
         this.updateMetrics = updateMetrics;
         this.updateMetadata = updateMetadata;
         this.updateSuggestions = updateSuggestions;
-        this.filter = filter;
+        this.filter = CompiledFilter.compile(filter);
 
-        this.writePermits = new Semaphore(maxConcurrentWrites);
+        this.writeLimiter =
+            new AdaptiveWriteLimiter(async, reporter, minConcurrentWrites, maxConcurrentWrites,
+                maxPendingWrites, writeLatencyThreshold, WRITE_LIMIT_BACKOFF_RATIO);
     }
 
     @Override
@@ -100,19 +112,23 @@ public class IngestionManagerImpl implements IngestionManager {
 
     @Override
     public AsyncFuture<Void> setFilter(Filter filter) {
-        this.filter = checkNotNull(filter, "filter");
+        this.filter = CompiledFilter.compile(checkNotNull(filter, "filter"));
         return async.resolved();
     }
 
     @Override
     public AsyncFuture<Filter> getFilter() {
-        return async.resolved(filter);
+        return async.resolved(filter.filter());
     }
 
     @Override
     public Statistics getStatistics() {
-        return new Statistics(INGESTED, ingested.sum(), AVAILABLE_WRITE_PERMITS,
-            writePermits.availablePermits());
+        final int inFlight = writeLimiter.getInFlight();
+        final int limit = writeLimiter.getLimit();
+
+        return new Statistics(ImmutableMap.of(INGESTED, ingested.sum(), AVAILABLE_WRITE_PERMITS,
+            (long) Math.max(0, limit - inFlight), CONCURRENT_WRITES_LIMIT, (long) limit,
+            PENDING_WRITES, (long) writeLimiter.getPending()));
     }
 
     private <I> IngestionGroup buildGroup(
@@ -125,7 +141,7 @@ public class IngestionManagerImpl implements IngestionManager {
         return new CoreIngestionGroup(
             async,
             () -> filter,
-            writePermits,
+            writeLimiter,
             reporter,
             ingested,
 
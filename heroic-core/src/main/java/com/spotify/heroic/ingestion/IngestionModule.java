@@ -51,11 +51,17 @@ public class IngestionModule {
     public static final boolean DEFAULT_UPDATE_METADATA = true;
     public static final boolean DEFAULT_UPDATE_SUGGESTIONS = true;
     public static final int DEFAULT_MAX_CONCURRENT_WRITES = 50000;
+    public static final int DEFAULT_MIN_CONCURRENT_WRITES = 100;
+    public static final int DEFAULT_MAX_PENDING_WRITES = 10000;
+    public static final long DEFAULT_WRITE_LATENCY_THRESHOLD = 5000;
 
     private final boolean updateMetrics;
     private final boolean updateMetadata;
     private final boolean updateSuggestions;
     private final int maxConcurrentWrites;
+    private final int minConcurrentWrites;
+    private final int maxPendingWrites;
+    private final long writeLatencyThreshold;
     private final Optional<String> filter;
 
     public IngestionModule(
@@ -63,12 +69,18 @@ public class IngestionModule {
         final boolean updateMetadata,
         final boolean updateSuggestions,
         final int maxConcurrentWrites,
+        final int minConcurrentWrites,
+        final int maxPendingWrites,
+        final long writeLatencyThreshold,
         final Optional<String> filter
     ) {
         this.updateMetrics = updateMetrics;
         this.updateMetadata = updateMetadata;
         this.updateSuggestions = updateSuggestions;
         this.maxConcurrentWrites = maxConcurrentWrites;
+        this.minConcurrentWrites = minConcurrentWrites;
+        this.maxPendingWrites = maxPendingWrites;
+        this.writeLatencyThreshold = writeLatencyThreshold;
         this.filter = filter;
     }
 
@@ -133,6 +145,27 @@ public class IngestionModule {
             return maxConcurrentWrites;
         }
 
+        @Provides
+        @Named("minConcurrentWrites")
+        @IngestionScope
+        public int minConcurrentWrites() {
+            return minConcurrentWrites;
+        }
+
+        @Provides
+        @Named("maxPendingWrites")
+        @IngestionScope
+        public int maxPendingWrites() {
+            return maxPendingWrites;
+        }
+
+        @Provides
+        @Named("writeLatencyThreshold")
+        @IngestionScope
+        public long writeLatencyThreshold() {
+            return writeLatencyThreshold;
+        }
+
         @Provides
         @IngestionScope
         public Filter filter(
@@ -154,6 +187,9 @@ public class IngestionModule {
         private Optional<Boolean> updateMetadata = empty();
         private Optional<Boolean> updateSuggestions = empty();
         private Optional<Integer> maxConcurrentWrites = empty();
+        private Optional<Integer> minConcurrentWrites = empty();
+        private Optional<Integer> maxPendingWrites = empty();
+        private Optional<Long> writeLatencyThreshold = empty();
         private Optional<String> filter = empty();
 
         private Builder() {
@@ -165,12 +201,18 @@ public class IngestionModule {
             @JsonProperty("updateMetadata") final Optional<Boolean> updateMetadata,
             @JsonProperty("updateSuggestions") final Optional<Boolean> updateSuggestions,
             @JsonProperty("maxConcurrentWrites") final Optional<Integer> maxConcurrentWrites,
+            @JsonProperty("minConcurrentWrites") final Optional<Integer> minConcurrentWrites,
+            @JsonProperty("maxPendingWrites") final Optional<Integer> maxPendingWrites,
+            @JsonProperty("writeLatencyThreshold") final Optional<Long> writeLatencyThreshold,
             @JsonProperty("filter") final Optional<String> filter
         ) {
             this.updateMetrics = updateMetrics;
             this.updateMetadata = updateMetadata;
             this.updateSuggestions = updateSuggestions;
             this.maxConcurrentWrites = maxConcurrentWrites;
+            this.minConcurrentWrites = minConcurrentWrites;
+            this.maxPendingWrites = maxPendingWrites;
+            this.writeLatencyThreshold = writeLatencyThreshold;
             this.filter = filter;
         }
 
@@ -201,6 +243,21 @@ public class IngestionModule {
             return this;
         }
 
+        public Builder minConcurrentWrites(int minConcurrentWrites) {
+            this.minConcurrentWrites = of(minConcurrentWrites);
+            return this;
+        }
+
+        public Builder maxPendingWrites(int maxPendingWrites) {
+            this.maxPendingWrites = of(maxPendingWrites);
+            return this;
+        }
+
+        public Builder writeLatencyThreshold(long writeLatencyThreshold) {
+            this.writeLatencyThreshold = of(writeLatencyThreshold);
+            return this;
+        }
+
         public Builder merge(final Builder o) {
             // @formatter:off
             return new Builder(
@@ -208,6 +265,9 @@ public class IngestionModule {
                 pickOptional(updateMetadata, o.updateMetadata),
                 pickOptional(updateSuggestions, o.updateSuggestions),
                 pickOptional(maxConcurrentWrites, o.maxConcurrentWrites),
+                pickOptional(minConcurrentWrites, o.minConcurrentWrites),
+                pickOptional(maxPendingWrites, o.maxPendingWrites),
+                pickOptional(writeLatencyThreshold, o.writeLatencyThreshold),
                 pickOptional(filter, o.filter)
             );
             // @formatter:on
@@ -220,6 +280,9 @@ public class IngestionModule {
                 updateMetadata.orElse(DEFAULT_UPDATE_METADATA),
                 updateSuggestions.orElse(DEFAULT_UPDATE_SUGGESTIONS),
                 maxConcurrentWrites.orElse(DEFAULT_MAX_CONCURRENT_WRITES),
+                minConcurrentWrites.orElse(DEFAULT_MIN_CONCURRENT_WRITES),
+                maxPendingWrites.orElse(DEFAULT_MAX_PENDING_WRITES),
+                writeLatencyThreshold.orElse(DEFAULT_WRITE_LATENCY_THRESHOLD),
                 filter
             );
             // @formatter:on
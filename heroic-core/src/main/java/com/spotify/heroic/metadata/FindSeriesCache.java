@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.heroic.metadata;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+import com.spotify.heroic.async.AsyncObservable;
+import com.spotify.heroic.async.AsyncObserver;
+import com.spotify.heroic.common.Series;
+import com.spotify.heroic.filter.Filter;
+import com.spotify.heroic.statistics.MetadataBackendReporter;
+import eu.toolchain.async.AsyncFramework;
+import eu.toolchain.async.AsyncFuture;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.inject.Inject;
+
+/**
+ * Short-lived cache of the series resolved by {@link FindSeries} requests.
+ * <p>
+ * Every query resolves its series with the metadata backend before fetching any data, and
+ * dashboards repeat identical queries. Requests for the same group, filter, limit and features
+ * share a result if their ranges round to the same bucket. Metadata backends select series by
+ * when they were written rather than by the range, so nearby ranges resolve to the same series.
+ * <p>
+ * Series created by a write through this node drop the cached results with a matching filter,
+ * including results which are still being loaded, so that new series usually show up without
+ * waiting for the results to expire. Only writes which create a document in a backend do this,
+ * which backends with a write cache already limit to series that they have not seen recently.
+ * <p>
+ * A new series can still be missing from a cached result for up to the ttl. Results loaded
+ * after the invalidation might not include the series yet if the backend makes writes
+ * searchable with a delay, like the refresh interval of Elasticsearch. Series created through
+ * other nodes are never signalled.
+ */
+@MetadataScope
+public class FindSeriesCache {
+    private final AsyncFramework async;
+    private final FindSeriesCacheConfig config;
+    private final MetadataBackendReporter reporter;
+
+    private final Cache<Key, FindSeries> cache;
+    private final Set<Loading> loading = ConcurrentHashMap.newKeySet();
+
+    @Inject
+    public FindSeriesCache(
+        final AsyncFramework async, final FindSeriesCacheConfig config,
+        final MetadataBackendReporter reporter
+    ) {
+        this.async = async;
+        this.config = config;
+        this.reporter = reporter;
+
+        this.cache = CacheBuilder
+            .newBuilder()
+            .expireAfterWrite(config.getTtlMs(), TimeUnit.MILLISECONDS)
+            .maximumWeight(config.getMaxSeries())
+            .<Key, FindSeries>weigher((k, v) -> v.getSeries().size() + 1)
+            .build();
+    }
+
+    /**
+     * Load the series for the given request, or use a cached result.
+     *
+     * @param group the group that the request is for
+     * @param request the request to load series for
+     * @param loader loads the series if no result is cached
+     */
+    public AsyncFuture<FindSeries> load(
+        final Optional<String> group, final FindSeries.Request request,
+        final Supplier<AsyncFuture<FindSeries>> loader
+    ) {
+        if (!config.getEnabled()) {
+            return loader.get();
+        }
+
+        final Key key = key(group, request, false);
+        final FindSeries cached = cache.getIfPresent(key);
+
+        if (cached != null) {
+            reporter.reportFindSeriesCacheHit();
+            return async.resolved(cached);
+        }
+
+        reporter.reportFindSeriesCacheMiss();
+
+        final Loading l = new Loading(request.getFilter());
+        loading.add(l);
+
+        return loader.get().onResolved(result -> {
+            if (!l.invalidated && result.getErrors().isEmpty()) {
+                cache.put(key, result);
+            }
+        }).onFinished(() -> loading.remove(l));
+    }
+
+    /**
+     * Stream the series for the given request, or use a cached result.
+     * <p>
+     * A cached result is emitted as a single page. Streamed results are only cached if the stream
+     * was consumed to its end. They are kept apart from the results of {@link #load}, since the
+     * pages of a stream are not limited as a whole.
+     *
+     * @param group the group that the request is for
+     * @param request the request to stream series for
+     * @param loader streams the series if no result is cached
+     */
+    public AsyncObservable<FindSeriesStream> stream(
+        final Optional<String> group, final FindSeries.Request request,
+        final Supplier<AsyncObservable<FindSeriesStream>> loader
+    ) {
+        if (!config.getEnabled()) {
+            return loader.get();
+        }
+
+        final Key key = key(group, request, true);
+        final FindSeries cached = cache.getIfPresent(key);
+
+        if (cached != null) {
+            reporter.reportFindSeriesCacheHit();
+            return observer -> observer
+                .observe(new FindSeriesStream(cached.getSeries()))
+                .onDone(observer.onDone());
+        }
+
+        reporter.reportFindSeriesCacheMiss();
+
+        return observer -> {
+            final Loading l = new Loading(request.getFilter());
+            final Set<Series> series = ConcurrentHashMap.newKeySet();
+            loading.add(l);
+
+            loader.get().observe(new AsyncObserver<FindSeriesStream>() {
+                @Override
+                public AsyncFuture<Void> observe(final FindSeriesStream value) {
+                    series.addAll(value.getSeries());
+                    return observer.observe(value);
+                }
+
+                @Override
+                public void cancel() {
+                    loading.remove(l);
+                    observer.cancel();
+                }
+
+                @Override
+                public void fail(final Throwable cause) {
+                    loading.remove(l);
+                    observer.fail(cause);
+                }
+
+                @Override
+                public void end() {
+                    if (!l.invalidated) {
+                        cache.put(key, new FindSeries(ImmutableSet.copyOf(series), false));
+                    }
+
+                    loading.remove(l);
+                    observer.end();
+                }
+            });
+        };
+    }
+
+    /**
+     * Drop the cached results which might be missing the given series, which was just created
+     * in a backend.
+     */
+    public void created(final Series series) {
+        if (!config.getEnabled() || !config.getInvalidateOnWrite()) {
+            return;
+        }
+
+        for (final Loading l : loading) {
+            if (l.filter.apply(series)) {
+                l.invalidated = true;
+            }
+        }
+
+        cache.asMap().keySet().removeIf(k -> k.request.getFilter().apply(series));
+    }
+
+    /**
+     * Drop every cached result.
+     */
+    public void invalidateAll() {
+        loading.forEach(l -> l.invalidated = true);
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    private Key key(
+        final Optional<String> group, final FindSeries.Request request, final boolean stream
+    ) {
+        return new Key(group, new FindSeries.Request(request.getFilter(),
+            request.getRange().rounded(config.getRangeBucketMs()), request.getLimit(),
+            request.getFeatures()), stream);
+    }
+
+    private static class Loading {
+        private final Filter filter;
+        private volatile boolean invalidated = false;
+
+        Loading(final Filter filter) {
+            this.filter = filter;
+        }
+    }
+
+    private static class Key {
+        private final Optional<String> group;
+        private final FindSeries.Request request;
+        private final boolean stream;
+
+        Key(final Optional<String> group, final FindSeries.Request request, final boolean stream) {
+            this.group = group;
+            this.request = request;
+            this.stream = stream;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * group.hashCode() + request.hashCode()) + Boolean.hashCode(stream);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+
+            final Key o = (Key) obj;
+            return group.equals(o.group) && request.equals(o.request) && stream == o.stream;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.heroic.metadata
+
+/**
+ * Configuration for caching the series resolved by queries, see [FindSeriesCache].
+ */
+data class FindSeriesCacheConfig(
+    val enabled: Boolean = false,
+    /* how long in milliseconds a result is served from the cache */
+    val ttlMs: Long = 30_000,
+    /* requests with ranges rounded to the same bucket, in milliseconds, share a result */
+    val rangeBucketMs: Long = 60_000,
+    /* maximum number of series held across all cached results */
+    val maxSeries: Long = 1_000_000,
+    /* drop cached results that match series created by writes through this node */
+    val invalidateOnWrite: Boolean = true
+)
@@ -29,16 +29,22 @@ import com.spotify.heroic.common.Statistics;
 import eu.toolchain.async.AsyncFramework;
 import eu.toolchain.async.AsyncFuture;
 import java.util.List;
+import java.util.Optional;
 
 public class MetadataBackendGroup implements MetadataBackend {
     private final SelectedGroup<MetadataBackend> backends;
     private final AsyncFramework async;
+    private final Optional<String> group;
+    private final FindSeriesCache seriesCache;
 
-    @java.beans.ConstructorProperties({ "backends", "async" })
+    @java.beans.ConstructorProperties({ "backends", "async", "group", "seriesCache" })
     public MetadataBackendGroup(final SelectedGroup<MetadataBackend> backends,
-                                final AsyncFramework async) {
+                                final AsyncFramework async, final Optional<String> group,
+                                final FindSeriesCache seriesCache) {
         this.backends = backends;
         this.async = async;
+        this.group = group;
+        this.seriesCache = seriesCache;
     }
 
     @Override
@@ -58,8 +64,9 @@ public class MetadataBackendGroup implements MetadataBackend {
 
     @Override
     public AsyncFuture<FindSeries> findSeries(final FindSeries.Request request) {
-        return async.collect(run(v -> v.findSeries(request)),
-            FindSeries.reduce(request.getLimit()));
+        return seriesCache.load(group, request,
+            () -> async.collect(run(v -> v.findSeries(request)),
+                FindSeries.reduce(request.getLimit())));
     }
 
     @Override
@@ -70,7 +77,8 @@ public class MetadataBackendGroup implements MetadataBackend {
 
     @Override
     public AsyncObservable<FindSeriesStream> findSeriesStream(final FindSeries.Request request) {
-        return AsyncObservable.chain(run(b -> b.findSeriesStream(request)));
+        return seriesCache.stream(group, request,
+            () -> AsyncObservable.chain(run(b -> b.findSeriesStream(request))));
     }
 
     @Override
@@ -82,6 +90,7 @@ public class MetadataBackendGroup implements MetadataBackend {
 
     @Override
     public AsyncFuture<DeleteSeries> deleteSeries(final DeleteSeries.Request request) {
+        seriesCache.invalidateAll();
         return async.collect(run(b -> b.deleteSeries(request)), DeleteSeries.reduce());
     }
 
@@ -92,7 +101,18 @@ public class MetadataBackendGroup implements MetadataBackend {
 
     @Override
     public AsyncFuture<WriteMetadata> write(final WriteMetadata.Request request) {
-        return async.collect(run(b -> b.write(request)), WriteMetadata.reduce());
+        /* backends only time the writes which actually created a document, writes of series
+         * which already exist are dropped or conflict. The cache is invalidated before the write
+         * completes, so that lookups made after it see the series. */
+        return async
+            .collect(run(b -> b.write(request)), WriteMetadata.reduce())
+            .directTransform(result -> {
+                if (!result.getTimes().isEmpty()) {
+                    seriesCache.created(request.getSeries());
+                }
+
+                return result;
+            });
     }
 
     @Override
@@ -22,6 +22,7 @@
 package com.spotify.heroic.metadata;
 
 import static com.spotify.heroic.common.Optionals.mergeOptionalList;
+import static com.spotify.heroic.common.Optionals.pickOptional;
 import static java.util.Optional.empty;
 import static java.util.Optional.of;
 
@@ -48,13 +49,22 @@ import javax.inject.Named;
 public class MetadataManagerModule {
     private final List<MetadataModule> backends;
     private final Optional<List<String>> defaultBackends;
+    private final FindSeriesCacheConfig seriesCache;
 
     public MetadataManagerModule(
         List<MetadataModule> backends,
-        Optional<List<String>> defaultBackends
+        Optional<List<String>> defaultBackends,
+        FindSeriesCacheConfig seriesCache
     ) {
         this.backends = backends;
         this.defaultBackends = defaultBackends;
+        this.seriesCache = seriesCache;
+    }
+
+    @Provides
+    @MetadataScope
+    public FindSeriesCacheConfig seriesCache() {
+        return seriesCache;
     }
 
     @Provides
@@ -111,6 +121,7 @@ public class MetadataManagerModule {
     public static class Builder {
         private Optional<List<MetadataModule>> backends = empty();
         private Optional<List<String>> defaultBackends = empty();
+        private Optional<FindSeriesCacheConfig> seriesCache = empty();
 
         private Builder() {
         }
@@ -118,10 +129,12 @@ public class MetadataManagerModule {
         @JsonCreator
         public Builder(
             @JsonProperty("backends") Optional<List<MetadataModule>> backends,
-            @JsonProperty("defaultBackends") Optional<List<String>> defaultBackends
+            @JsonProperty("defaultBackends") Optional<List<String>> defaultBackends,
+            @JsonProperty("seriesCache") Optional<FindSeriesCacheConfig> seriesCache
         ) {
             this.backends = backends;
             this.defaultBackends = defaultBackends;
+            this.seriesCache = seriesCache;
         }
 
         public Builder backends(List<MetadataModule> backends) {
@@ -134,11 +147,17 @@ public class MetadataManagerModule {
             return this;
         }
 
+        public Builder seriesCache(FindSeriesCacheConfig seriesCache) {
+            this.seriesCache = of(seriesCache);
+            return this;
+        }
+
         public Builder merge(final Builder o) {
             // @formatter:off
             return new Builder(
                 mergeOptionalList(o.backends, backends),
-                mergeOptionalList(o.defaultBackends, defaultBackends)
+                mergeOptionalList(o.defaultBackends, defaultBackends),
+                pickOptional(seriesCache, o.seriesCache)
             );
             // @formatter:on
         }
@@ -147,7 +166,8 @@ public class MetadataManagerModule {
             // @formatter:off
             return new MetadataManagerModule(
                 backends.orElseGet(ImmutableList::of),
-                defaultBackends
+                defaultBackends,
+                seriesCache.orElseGet(FindSeriesCacheConfig::new)
             );
             // @formatter:on
         }
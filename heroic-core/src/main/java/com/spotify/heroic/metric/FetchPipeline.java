@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.heroic.metric;
+
+import eu.toolchain.async.AsyncFramework;
+import eu.toolchain.async.AsyncFuture;
+import eu.toolchain.async.FutureDone;
+import eu.toolchain.async.ResolvableFuture;
+import eu.toolchain.async.StreamCollector;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs operations with bounded parallelism, while more operations are still being added.
+ * <p>
+ * This behaves like {@link AsyncFramework#eventuallyCollect(java.util.Collection,
+ * StreamCollector, int)}, except that the set of operations is not known up front. Operations are
+ * added as they become known, and the collector is ended once the pipeline has been closed and
+ * every added operation has finished.
+ *
+ * @param <T> type of the result of each operation
+ * @param <R> type of the collected result
+ */
+class FetchPipeline<T, R> {
+    private final AsyncFramework async;
+    private final StreamCollector<T, R> collector;
+    private final int parallelism;
+    private final ResolvableFuture<R> future;
+
+    private final Object lock = new Object();
+    private final Queue<Callable<AsyncFuture<T>>> queue = new ArrayDeque<>();
+    private final Set<AsyncFuture<T>> running = ConcurrentHashMap.newKeySet();
+
+    /* all fields below are guarded by lock */
+    private int active = 0;
+    private int resolved = 0;
+    private int failed = 0;
+    private int cancelled = 0;
+    private boolean closed = false;
+    private boolean done = false;
+    private boolean draining = false;
+
+    FetchPipeline(
+        final AsyncFramework async, final StreamCollector<T, R> collector, final int parallelism
+    ) {
+        this.async = async;
+        this.collector = collector;
+        this.parallelism = parallelism;
+        this.future = async.future();
+        this.future.onCancelled(() -> stop());
+    }
+
+    AsyncFuture<R> future() {
+        return future;
+    }
+
+    /**
+     * Add an operation, which is started as soon as the parallelism allows.
+     * <p>
+     * Operations added after the pipeline has been closed or completed are ignored.
+     */
+    void add(final Callable<AsyncFuture<T>> operation) {
+        synchronized (lock) {
+            if (done || closed) {
+                return;
+            }
+
+            queue.add(operation);
+        }
+
+        drain();
+    }
+
+    /**
+     * Signal that no more operations will be added.
+     */
+    void close() {
+        synchronized (lock) {
+            closed = true;
+        }
+
+        drain();
+    }
+
+    /**
+     * Complete the pipeline with the given result, cancelling any remaining operations.
+     */
+    void resolve(final R result) {
+        if (stop()) {
+            future.resolve(result);
+        }
+    }
+
+    /**
+     * Fail the pipeline, cancelling any remaining operations.
+     */
+    void fail(final Throwable cause) {
+        if (stop()) {
+            future.fail(cause);
+        }
+    }
+
+    /**
+     * Cancel the pipeline and any remaining operations.
+     */
+    void cancel() {
+        future.cancel();
+    }
+
+    private boolean stop() {
+        final List<AsyncFuture<T>> cancel;
+
+        synchronized (lock) {
+            if (done) {
+                return false;
+            }
+
+            done = true;
+            queue.clear();
+            cancel = new ArrayList<>(running);
+        }
+
+        cancel.forEach(AsyncFuture::cancel);
+        return true;
+    }
+
+    /**
+     * Start as many queued operations as the parallelism allows, and end the collector once
+     * everything has finished.
+     * <p>
+     * Operations that complete immediately call back into this method, so only one caller drains
+     * at a time to avoid growing the stack with every operation.
+     */
+    private void drain() {
+        synchronized (lock) {
+            if (draining) {
+                return;
+            }
+
+            draining = true;
+        }
+
+        int[] counts = null;
+
+        while (true) {
+            final Callable<AsyncFuture<T>> next;
+
+            synchronized (lock) {
+                if (!done && active < parallelism && !queue.isEmpty()) {
+                    next = queue.poll();
+                    active += 1;
+                } else {
+                    if (!done && closed && active == 0 && queue.isEmpty()) {
+                        done = true;
+                        counts = new int[]{resolved, failed, cancelled};
+                    }
+
+                    draining = false;
+                    break;
+                }
+            }
+
+            start(next);
+        }
+
+        if (counts != null) {
+            end(counts[0], counts[1], counts[2]);
+        }
+    }
+
+    private void start(final Callable<AsyncFuture<T>> operation) {
+        AsyncFuture<T> f;
+
+        try {
+            f = operation.call();
+        } catch (final Exception e) {
+            f = async.failed(e);
+        }
+
+        final AsyncFuture<T> op = f;
+        running.add(op);
+
+        op.onDone(new FutureDone<T>() {
+            @Override
+            public void failed(final Throwable cause) throws Exception {
+                try {
+                    collector.failed(cause);
+                } finally {
+                    finish(op, State.FAILED);
+                }
+            }
+
+            @Override
+            public void resolved(final T result) throws Exception {
+                try {
+                    collector.resolved(result);
+                } finally {
+                    finish(op, State.RESOLVED);
+                }
+            }
+
+            @Override
+            public void cancelled() throws Exception {
+                try {
+                    collector.cancelled();
+                } finally {
+                    finish(op, State.CANCELLED);
+                }
+            }
+        });
+    }
+
+    private void finish(final AsyncFuture<T> op, final State state) {
+        running.remove(op);
+
+        synchronized (lock) {
+            active -= 1;
+
+            switch (state) {
+                case RESOLVED:
+                    resolved += 1;
+                    break;
+                case FAILED:
+                    failed += 1;
+                    break;
+                default:
+                    cancelled += 1;
+                    break;
+            }
+        }
+
+        drain();
+    }
+
+    private void end(final int resolved, final int failed, final int cancelled) {
+        final R result;
+
+        try {
+            result = collector.end(resolved, failed, cancelled);
+        } catch (final Exception e) {
+            future.fail(e);
+            return;
+        }
+
+        future.resolve(result);
+    }
+
+    private enum State {
+        RESOLVED, FAILED, CANCELLED
+    }
+}
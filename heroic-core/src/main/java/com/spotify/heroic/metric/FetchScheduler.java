@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.heroic.metric;
+
+import com.spotify.heroic.common.OptionalLimit;
+import eu.toolchain.async.AsyncFramework;
+import eu.toolchain.async.AsyncFuture;
+import eu.toolchain.async.FutureDone;
+import eu.toolchain.async.ResolvableFuture;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+/**
+ * Node-wide scheduler for the fetches of all queries running on this node.
+ * <p>
+ * Without it, every query fetches with its own parallelism, so a single huge query can occupy
+ * every backend connection while small interactive queries queue up behind it. The scheduler
+ * owns the backend concurrency, and hands out free slots with start-time fair queuing.
+ * <p>
+ * Each client is a flow, and the queries of a client share its flow. Every fetch is tagged with
+ * the virtual time at which its query may start it, which advances by the number of concurrent
+ * queries of the client for every fetch. Fetches are started in tag order, so clients get an
+ * equal share of the slots regardless of how many fetches they have queued. Between fetches with
+ * the same tag, the one belonging to the query with the smaller size estimate is started first.
+ * <p>
+ * If no concurrency is configured, fetches are started immediately.
+ */
+@MetricScope
+public class FetchScheduler {
+    private static final Comparator<Task<?>> ORDER = Comparator
+        .<Task<?>>comparingDouble(t -> t.start)
+        .thenComparingLong(t -> t.lane.estimate)
+        .thenComparingLong(t -> t.sequence);
+
+    private final AsyncFramework async;
+    private final int concurrency;
+    private final boolean bounded;
+
+    private final Object lock = new Object();
+
+    /* all fields below are guarded by lock */
+    private final PriorityQueue<Task<?>> queue = new PriorityQueue<>(ORDER);
+    private final Map<String, Integer> clients = new HashMap<>();
+    private double virtualTime = 0D;
+    private long sequence = 0L;
+    private int active = 0;
+    private boolean dispatching = false;
+
+    @Inject
+    public FetchScheduler(
+        final AsyncFramework async,
+        @Named("fetchConcurrency") final OptionalLimit fetchConcurrency
+    ) {
+        this.async = async;
+        this.concurrency = fetchConcurrency.asMaxInteger(Integer.MAX_VALUE);
+        this.bounded = fetchConcurrency.asLong().isPresent();
+    }
+
+    /**
+     * Register a query with the scheduler.
+     *
+     * @param client the client that the query belongs to
+     * @param estimate estimated size of the query, or a negative value if not known
+     * @return a lane through which the fetches of the query are scheduled, which must be closed
+     * once the query is done
+     */
+    public Lane lane(final String client, final long estimate) {
+        synchronized (lock) {
+            clients.merge(client, 1, Integer::sum);
+        }
+
+        return new Lane(client, estimate < 0 ? Long.MAX_VALUE : estimate);
+    }
+
+    public boolean isBounded() {
+        return bounded;
+    }
+
+    int queued() {
+        synchronized (lock) {
+            return queue.size();
+        }
+    }
+
+    /**
+     * Start as many queued fetches as there are free slots.
+     * <p>
+     * Fetches that complete immediately call back into this method, so only one caller
+     * dispatches at a time to avoid growing the stack with every fetch.
+     */
+    private void dispatch() {
+        synchronized (lock) {
+            if (dispatching) {
+                return;
+            }
+
+            dispatching = true;
+        }
+
+        while (true) {
+            final Task<?> next;
+
+            synchronized (lock) {
+                next = queue.isEmpty() || active >= concurrency ? null : queue.poll();
+
+                if (next == null) {
+                    dispatching = false;
+                    return;
+                }
+
+                if (next.future.isDone()) {
+                    continue;
+                }
+
+                active += 1;
+                virtualTime = next.start;
+            }
+
+            next.run();
+        }
+    }
+
+    private void release() {
+        synchronized (lock) {
+            active -= 1;
+        }
+
+        dispatch();
+    }
+
+    /**
+     * The fetches of a single query.
+     */
+    public class Lane {
+        private final String client;
+        private final long estimate;
+        private final LongAdder queueWait = new LongAdder();
+
+        /* guarded by the scheduler lock */
+        private double finish = 0D;
+        private boolean closed = false;
+
+        private Lane(final String client, final long estimate) {
+            this.client = client;
+            this.estimate = estimate;
+        }
+
+        /**
+         * Schedule the given fetch.
+         *
+         * @return a future which completes with the fetch, and which cancels the fetch if it is
+         * cancelled
+         */
+        public <T> AsyncFuture<T> submit(final Callable<AsyncFuture<T>> fetch) {
+            if (!bounded) {
+                try {
+                    return fetch.call();
+                } catch (final Exception e) {
+                    return async.failed(e);
+                }
+            }
+
+            final Task<T> task = new Task<>(this, fetch, async.future());
+
+            synchronized (lock) {
+                task.start = Math.max(virtualTime, finish);
+                task.sequence = sequence++;
+                finish = task.start + clients.getOrDefault(client, 1);
+                queue.add(task);
+            }
+
+            dispatch();
+            return task.future;
+        }
+
+        /**
+         * Total time that the fetches of this query spent waiting for a free slot.
+         */
+        public long queueWait(final TimeUnit unit) {
+            return unit.convert(queueWait.sum(), TimeUnit.NANOSECONDS);
+        }
+
+        public void close() {
+            synchronized (lock) {
+                if (closed) {
+                    return;
+                }
+
+                closed = true;
+                clients.computeIfPresent(client, (k, v) -> v > 1 ? v - 1 : null);
+            }
+        }
+    }
+
+    private class Task<T> {
+        private final Lane lane;
+        private final Callable<AsyncFuture<T>> fetch;
+        private final ResolvableFuture<T> future;
+        private final long queued = System.nanoTime();
+
+        /* guarded by the scheduler lock */
+        private double start;
+        private long sequence;
+
+        private Task(
+            final Lane lane, final Callable<AsyncFuture<T>> fetch,
+            final ResolvableFuture<T> future
+        ) {
+            this.lane = lane;
+            this.fetch = fetch;
+            this.future = future;
+        }
+
+        private void run() {
+            lane.queueWait.add(System.nanoTime() - queued);
+
+            AsyncFuture<T> f;
+
+            try {
+                f = fetch.call();
+            } catch (final Exception e) {
+                f = async.failed(e);
+            }
+
+            final AsyncFuture<T> running = f;
+            future.onCancelled(running::cancel);
+            running.onDone(new FutureDone<T>() {
+                @Override
+                public void failed(final Throwable cause) {
+                    future.fail(cause);
+                }
+
+                @Override
+                public void resolved(final T result) {
+                    future.resolve(result);
+                }
+
+                @Override
+                public void cancelled() {
+                    future.cancel();
+                }
+            }).onFinished(FetchScheduler.this::release);
+        }
+    }
+}
@@ -37,6 +37,7 @@ import com.spotify.heroic.aggregation.AggregationSession;
 import com.spotify.heroic.aggregation.BucketStrategy;
 import com.spotify.heroic.aggregation.RetainQuotaWatcher;
 import com.spotify.heroic.async.AsyncObservable;
+import com.spotify.heroic.async.AsyncObserver;
 import com.spotify.heroic.common.DateRange;
 import com.spotify.heroic.common.Feature;
 import com.spotify.heroic.common.Features;
@@ -49,9 +50,12 @@ import com.spotify.heroic.common.QuotaViolationException;
 import com.spotify.heroic.common.SelectedGroup;
 import com.spotify.heroic.common.Series;
 import com.spotify.heroic.common.Statistics;
+import com.spotify.heroic.metadata.CountSeries;
 import com.spotify.heroic.metadata.FindSeries;
+import com.spotify.heroic.metadata.FindSeriesStream;
 import com.spotify.heroic.metadata.MetadataBackend;
 import com.spotify.heroic.metadata.MetadataManager;
+import com.spotify.heroic.querylogging.HttpContext;
 import com.spotify.heroic.querylogging.QueryContext;
 import com.spotify.heroic.querylogging.QueryLogger;
 import com.spotify.heroic.querylogging.QueryLoggerFactory;
@@ -60,7 +64,7 @@ import com.spotify.heroic.statistics.MetricBackendReporter;
 import com.spotify.heroic.tracing.EndSpanFutureReporter;
 import eu.toolchain.async.AsyncFramework;
 import eu.toolchain.async.AsyncFuture;
-import eu.toolchain.async.LazyTransform;
+import eu.toolchain.async.ResolvableFuture;
 import eu.toolchain.async.StreamCollector;
 import io.opencensus.trace.Span;
 import io.opencensus.trace.Tracer;
@@ -69,13 +73,16 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.Callable;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import javax.inject.Inject;
 import javax.inject.Named;
 import org.apache.commons.lang3.NotImplementedException;
@@ -88,12 +95,15 @@ public class LocalMetricManager implements MetricManager {
         QueryTrace.identifier(LocalMetricManager.class, "query");
     private static final QueryTrace.Identifier FETCH =
         QueryTrace.identifier(LocalMetricManager.class, "fetch");
+    private static final QueryTrace.Identifier FETCH_QUEUE =
+        QueryTrace.identifier(LocalMetricManager.class, "fetchQueueWait");
     private static final Logger log = org.slf4j.LoggerFactory.getLogger(LocalMetricManager.class);
 
     private final OptionalLimit groupLimit;
     private final OptionalLimit seriesLimit;
     private final OptionalLimit aggregationLimit;
     private final OptionalLimit dataLimit;
+    private final OptionalLimit costLimit;
     private final int concurrentQueriesBackoff;
     private final int fetchParallelism;
     private final boolean failOnLimits;
@@ -101,6 +111,9 @@ public class LocalMetricManager implements MetricManager {
     private final AsyncFramework async;
     private final GroupSet<MetricBackend> groupSet;
     private final MetadataManager metadata;
+    private final FetchScheduler scheduler;
+    private final MetricRollups rollups;
+    private final QueryCostEstimator estimator;
     private final MetricBackendReporter reporter;
     private final QueryLogger queryLogger;
     private final Semaphore concurrentQueries;
@@ -111,6 +124,8 @@ public class LocalMetricManager implements MetricManager {
      * @param aggregationLimit The maximum number of (estimated) data points a single aggregation
      * may produce.
      * @param dataLimit The maximum number of samples a single query is allowed to fetch.
+     * @param costLimit The maximum number of samples a single query may be estimated to fetch
+     * before it is rejected.
      * @param fetchParallelism How many fetches that are allowed to be performed in parallel.
      */
     @Inject
@@ -119,12 +134,16 @@ public class LocalMetricManager implements MetricManager {
         @Named("seriesLimit") final OptionalLimit seriesLimit,
         @Named("aggregationLimit") final OptionalLimit aggregationLimit,
         @Named("dataLimit") final OptionalLimit dataLimit,
+        @Named("costLimit") final OptionalLimit costLimit,
         @Named("concurrentQueriesBackoff") final OptionalLimit concurrentQueriesBackoff,
         @Named("fetchParallelism") final int fetchParallelism,
         @Named("failOnLimits") final boolean failOnLimits,
         final AsyncFramework async,
         final GroupSet<MetricBackend> groupSet,
         final MetadataManager metadata,
+        final FetchScheduler scheduler,
+        final MetricRollups rollups,
+        final QueryCostEstimator estimator,
         final MetricBackendReporter reporter,
         final QueryLoggerFactory queryLoggerFactory
     ) {
@@ -132,12 +151,16 @@ public class LocalMetricManager implements MetricManager {
         this.seriesLimit = seriesLimit;
         this.aggregationLimit = aggregationLimit;
         this.dataLimit = dataLimit;
+        this.costLimit = costLimit;
         this.concurrentQueriesBackoff = concurrentQueriesBackoff.asMaxInteger(Integer.MAX_VALUE);
         this.fetchParallelism = fetchParallelism;
         this.failOnLimits = failOnLimits;
         this.async = async;
         this.groupSet = groupSet;
         this.metadata = metadata;
+        this.scheduler = scheduler;
+        this.rollups = rollups;
+        this.estimator = estimator;
         this.reporter = reporter;
         this.queryLogger = queryLoggerFactory.create("LocalMetricManager");
         this.concurrentQueries = new Semaphore(this.concurrentQueriesBackoff);
@@ -183,8 +206,15 @@ public class LocalMetricManager implements MetricManager {
                    + ")";
         }
 
-        private class Transform implements LazyTransform<FindSeries, FullQuery> {
-
+        /**
+         * Fetches the series of a query while they are still being resolved by the metadata
+         * backend.
+         * <p>
+         * Every page of series is fetched as soon as it arrives, so that metadata and fetch
+         * latency overlap instead of adding up. The series limit and the data quotas are enforced
+         * as pages arrive, and the metadata stream is stopped once either is reached.
+         */
+        private class Fetch implements AsyncObserver<FindSeriesStream> {
             private final AggregationInstance aggregation;
             private final boolean failOnLimits;
             private final OptionalLimit seriesLimit;
@@ -197,15 +227,27 @@ public class LocalMetricManager implements MetricManager {
             private final DataInMemoryReporter dataInMemoryReporter;
             private final Span parentSpan;
             private final MetricType source;
+            private final FetchScheduler.Lane lane;
+            private final Optional<Consumer<ResultGroup>> groupSink;
+
+            /* series seen so far, the same series might be returned by more than one backend */
+            private final Set<Series> seen = ConcurrentHashMap.newKeySet();
 
-            private Transform(
+            private ResolvableFuture<Void> findSeries;
+            private Span fetchSpan;
+            private ResultCollector collector;
+            private FetchPipeline<FetchData.Result, FullQuery> pipeline;
+            private volatile boolean stopped = false;
+
+            private Fetch(
                 final FullQuery.Request request,
                 final boolean failOnLimits,
                 final OptionalLimit seriesLimit,
                 final OptionalLimit groupLimit,
                 final QuotaWatcher quotaWatcher,
                 final DataInMemoryReporter dataInMemoryReporter,
-                final Span parentSpan
+                final Span parentSpan,
+                final Optional<Consumer<ResultGroup>> groupSink
             ) {
                 this.aggregation = request.aggregation();
                 this.range = request.range();
@@ -221,44 +263,21 @@ public class LocalMetricManager implements MetricManager {
 
                 this.dataInMemoryReporter = dataInMemoryReporter;
                 this.parentSpan = parentSpan;
+                this.groupSink = groupSink;
+
+                this.lane = scheduler.lane(request
+                    .context()
+                    .httpContext()
+                    .flatMap(HttpContext::getClientId)
+                    .orElseGet(() -> request.context().queryId().toString()),
+                    aggregation.estimate(range));
 
-                final Features features = request.features();
-                this.bucketStrategy = options
-                    .bucketStrategy()
-                    .orElseGet(
-                        () -> features.withFeature(Feature.END_BUCKET, () -> BucketStrategy.END,
-                            () -> BucketStrategy.START));
+                this.bucketStrategy = bucketStrategy(request);
             }
 
-            @Override
-            public AsyncFuture<FullQuery> transform(final FindSeries result) throws Exception {
-                final Span fetchSpan = tracer.spanBuilderWithExplicitParent(
+            public AsyncFuture<FullQuery> fetch(final AsyncObservable<FindSeriesStream> series) {
+                fetchSpan = tracer.spanBuilderWithExplicitParent(
                     "localMetricsManager.fetch", parentSpan).startSpan();
-                final ResultLimits limits;
-
-                if (result.getLimited()) {
-                    if (failOnLimits) {
-                        final RequestError error = new QueryError(
-                            "The number of series requested is more than the allowed limit of " +
-                                seriesLimit);
-
-                        fetchSpan.addAnnotation(error.toString());
-                        fetchSpan.putAttribute("quotaViolation", booleanAttributeValue(true));
-                        fetchSpan.end();
-
-                        return async.resolved(FullQuery.limitsError(namedWatch.end(), error,
-                            ResultLimits.of(ResultLimit.SERIES)));
-                    }
-
-                    limits = ResultLimits.of(ResultLimit.SERIES);
-                } else {
-                    limits = ResultLimits.of();
-                }
-
-                /* if empty, there are not time series on this shard */
-                if (result.isEmpty()) {
-                    return async.resolved(FullQuery.empty(namedWatch.end(), limits));
-                }
 
                 final AggregationSession session;
                 try {
@@ -270,18 +289,17 @@ public class LocalMetricManager implements MetricManager {
                     fetchSpan.addAnnotation(error);
                     fetchSpan.putAttribute("quotaViolation", booleanAttributeValue(true));
                     fetchSpan.end();
+                    lane.close();
                     return async.resolved(FullQuery.limitsError(namedWatch.end(),
                         new QueryError(error),
                         ResultLimits.of(ResultLimit.AGGREGATION)));
                 }
 
                 /* setup collector */
-                final ResultCollector collector;
-
                 if (options.tracing().isEnabled(Tracing.DETAILED)) {
                     // tracing enabled, keeps track of each individual FetchData trace.
                     collector = new ResultCollector(quotaWatcher, dataInMemoryReporter, aggregation,
-                        session, limits, groupLimit, failOnLimits) {
+                        session, groupLimit, failOnLimits, groupSink) {
                         final ConcurrentLinkedQueue<QueryTrace> traces =
                             new ConcurrentLinkedQueue<>();
 
@@ -293,41 +311,157 @@ public class LocalMetricManager implements MetricManager {
 
                         @Override
                         public QueryTrace buildTrace() {
-                            return namedWatch.end(ImmutableList.copyOf(traces));
+                            return namedWatch.end(withQueueWait(ImmutableList.copyOf(traces)));
                         }
                     };
                 } else {
                     // very limited tracing, does not collected each individual FetchData trace.
                     collector = new ResultCollector(quotaWatcher, dataInMemoryReporter, aggregation,
-                        session, limits, groupLimit, failOnLimits) {
+                        session, groupLimit, failOnLimits, groupSink) {
                         @Override
                         public QueryTrace buildTrace() {
-                            return namedWatch.end();
+                            return namedWatch.end(withQueueWait(ImmutableList.of()));
                         }
                     };
                 }
 
-                final List<Callable<AsyncFuture<FetchData.Result>>> fetches = new ArrayList<>();
-                accept(metricBackend -> {
-                    for (final Series series : result.getSeries()) {
-                        // Requires the squashing exporter otherwise too many spans are produced.
-                        final Span fetchSeries =
-                            tracer.spanBuilderWithExplicitParent(
-                                "localMetricsManager.fetchSeries", fetchSpan).startSpan();
-
-                        fetchSeries.addAnnotation(series.toString());
-                        fetches.add(() -> metricBackend.fetch(
-                            new FetchData.Request(source, series, range, options),
-                            quotaWatcher,
-                            mcr -> collector.acceptMetricsCollection(series, mcr),
-                            fetchSeries
-                        ).onDone(new EndSpanFutureReporter(fetchSeries)));
-                    }
-                });
-                return async
-                    .eventuallyCollect(fetches, collector, fetchParallelism)
+                findSeries = async.future();
+                findSeries.onDone(reporter.reportFindSeries());
+                pipeline = new FetchPipeline<>(async, collector, fetchParallelism);
+                series.observe(this);
+
+                return pipeline
+                    .future()
+                    .onResolved(q -> q.dataDensity().ifPresent(estimator::record))
+                    .onCancelled(() -> stopped = true)
+                    .onFinished(lane::close)
                     .onDone(new EndSpanFutureReporter(fetchSpan));
             }
+
+            @Override
+            public AsyncFuture<Void> observe(final FindSeriesStream page) {
+                if (stopped) {
+                    return async.cancelled();
+                }
+
+                for (final Series series : page.getSeries()) {
+                    if (!seen.add(series)) {
+                        continue;
+                    }
+
+                    if (seriesLimit.isGreater(seen.size())) {
+                        seriesLimitReached();
+                        return async.cancelled();
+                    }
+
+                    final List<FetchData.Request> fetches = rollups.plan(
+                        new FetchData.Request(source, series, range, options), aggregation,
+                        bucketStrategy);
+
+                    accept(metricBackend -> {
+                        for (final FetchData.Request fetch : fetches) {
+                            pipeline.add(() -> lane.submit(
+                                () -> fetchSeries(metricBackend, series, fetch)));
+                        }
+                    });
+                }
+
+                /* no point in resolving more series if the fetched data is already over quota */
+                if (!quotaWatcher.mayReadData()) {
+                    stopped = true;
+                    return async.cancelled();
+                }
+
+                return async.resolved();
+            }
+
+            @Override
+            public void cancel() {
+                if (!stopped) {
+                    findSeries.cancel();
+                    pipeline.cancel();
+                    return;
+                }
+
+                /* the stream was stopped by us, the series seen so far are fetched */
+                end();
+            }
+
+            @Override
+            public void fail(final Throwable cause) {
+                findSeries.fail(cause);
+                pipeline.fail(cause);
+            }
+
+            @Override
+            public void end() {
+                findSeries.resolve(null);
+                parentSpan.putAttribute("seriesCount", longAttributeValue(seen.size()));
+
+                /* if empty, there are not time series on this shard */
+                if (seen.isEmpty()) {
+                    dataInMemoryReporter.reportOperationEnded();
+                    pipeline.resolve(FullQuery.empty(namedWatch.end(), collector.limits()));
+                    return;
+                }
+
+                pipeline.close();
+            }
+
+            private void seriesLimitReached() {
+                stopped = true;
+
+                if (!failOnLimits) {
+                    collector.limit(ResultLimit.SERIES);
+                    return;
+                }
+
+                final RequestError error = new QueryError(
+                    "The number of series requested is more than the allowed limit of " +
+                        seriesLimit);
+
+                fetchSpan.addAnnotation(error.toString());
+                fetchSpan.putAttribute("quotaViolation", booleanAttributeValue(true));
+
+                dataInMemoryReporter.reportOperationEnded();
+                pipeline.resolve(FullQuery.limitsError(namedWatch.end(), error,
+                    ResultLimits.of(ResultLimit.SERIES)));
+            }
+
+            /**
+             * Add how long the fetches of this query waited for the scheduler to the trace.
+             */
+            private List<QueryTrace> withQueueWait(final List<QueryTrace> children) {
+                if (!scheduler.isBounded()) {
+                    return children;
+                }
+
+                return ImmutableList.<QueryTrace>builder()
+                    .addAll(children)
+                    .add(QueryTrace.ActiveTrace.create(FETCH_QUEUE,
+                        lane.queueWait(TimeUnit.MICROSECONDS), ImmutableList.of()))
+                    .build();
+            }
+
+            /**
+             * Fetch the data of a series, the request might read the rollups of the series.
+             */
+            private AsyncFuture<FetchData.Result> fetchSeries(
+                final MetricBackend metricBackend, final Series series,
+                final FetchData.Request request
+            ) {
+                // Requires the squashing exporter otherwise too many spans are produced.
+                final Span fetchSeries = tracer.spanBuilderWithExplicitParent(
+                    "localMetricsManager.fetchSeries", fetchSpan).startSpan();
+
+                fetchSeries.addAnnotation(series.toString());
+                return metricBackend.fetch(
+                    request,
+                    quotaWatcher,
+                    mcr -> collector.acceptMetricsCollection(series, mcr),
+                    fetchSeries
+                ).onDone(new EndSpanFutureReporter(fetchSeries));
+            }
         }
 
         @Override
@@ -338,6 +472,20 @@ public class LocalMetricManager implements MetricManager {
         @Override
         public AsyncFuture<FullQuery> query(
             final FullQuery.Request request, final Span parentSpan) {
+            return query(request, parentSpan, Optional.empty());
+        }
+
+        @Override
+        public AsyncFuture<FullQuery> query(
+            final FullQuery.Request request, final Consumer<ResultGroup> groups
+        ) {
+            return query(request, tracer.getCurrentSpan(), Optional.of(groups));
+        }
+
+        private AsyncFuture<FullQuery> query(
+            final FullQuery.Request request, final Span parentSpan,
+            final Optional<Consumer<ResultGroup>> groupSink
+        ) {
             if (!concurrentQueries.tryAcquire()) {
                 // There's currently too many concurrent queries. Fail now so that the QueryManager
                 // gets an opportunity to try another node in the same shard instead.
@@ -350,7 +498,8 @@ public class LocalMetricManager implements MetricManager {
             }
 
             try {
-                return protectedQuery(request, parentSpan).onFinished(concurrentQueries::release);
+                return protectedQuery(request, parentSpan, groupSink)
+                    .onFinished(concurrentQueries::release);
             } catch (Exception e) {
                 concurrentQueries.release();
                 throw new RuntimeException(e);
@@ -358,7 +507,9 @@ public class LocalMetricManager implements MetricManager {
         }
 
         private AsyncFuture<FullQuery> protectedQuery(
-            final FullQuery.Request request, final Span parentSpan) {
+            final FullQuery.Request request, final Span parentSpan,
+            final Optional<Consumer<ResultGroup>> groupSink
+        ) {
             final QueryOptions options = request.options();
             final QueryContext queryContext = request.context();
 
@@ -384,22 +535,28 @@ public class LocalMetricManager implements MetricManager {
             final Span findSeriesSpan = tracer.spanBuilderWithExplicitParent(
                 "localMetricsManager.findSeries", parentSpan).startSpan();
 
-            // Transform that takes the result from ES metadata lookup to fetch from backend
-            final LazyTransform<FindSeries, FullQuery> transform =
-                new Transform(request,
-                    failOnLimits,
-                    seriesLimit,
-                    groupLimit,
-                    quotaWatcher,
-                    dataInMemoryReporter,
-                    findSeriesSpan);
+            // Fetches the series as they are streamed from the metadata lookup
+            final Supplier<AsyncFuture<FullQuery>> fetch = () -> new Fetch(request,
+                failOnLimits,
+                seriesLimit,
+                groupLimit,
+                quotaWatcher,
+                dataInMemoryReporter,
+                findSeriesSpan,
+                groupSink)
+                /* ask for one more series than the limit to tell if the limit was reached */
+                .fetch(metadata.findSeriesStream(
+                    FindSeries.Request.withLimit(request, seriesLimit.add(1))));
+
+            final AsyncFuture<FullQuery> query;
+
+            if (costLimit.asLong().isPresent()) {
+                query = admit(request, seriesLimit, dataInMemoryReporter, fetch);
+            } else {
+                query = fetch.get();
+            }
 
-            return metadata
-                .findSeries(FindSeries.Request.withLimit(request, seriesLimit))
-                .onDone(reporter.reportFindSeries())
-                .onResolved(t -> findSeriesSpan.putAttribute(
-                    "seriesCount", longAttributeValue(t.getSeries().size())))
-                .lazyTransform(transform)
+            return query
                 .directTransform(fullQuery -> {
                     queryLogger.logOutgoingResponseAtNode(queryContext, fullQuery);
                     return fullQuery;
@@ -408,6 +565,56 @@ public class LocalMetricManager implements MetricManager {
                 .onDone(new EndSpanFutureReporter(findSeriesSpan));
         }
 
+        /**
+         * Estimate the cost of the query before fetching anything, and reject it if it is
+         * estimated to read more samples than allowed.
+         * <p>
+         * The estimate is included in the statistics of the result.
+         */
+        private AsyncFuture<FullQuery> admit(
+            final FullQuery.Request request, final OptionalLimit seriesLimit,
+            final DataInMemoryReporter dataInMemoryReporter,
+            final Supplier<AsyncFuture<FullQuery>> fetch
+        ) {
+            final QueryTrace.NamedWatch watch = QueryTrace.watch(QUERY);
+
+            return metadata
+                .countSeries(
+                    new CountSeries.Request(request.filter(), request.range(), seriesLimit))
+                .lazyTransform(count -> {
+                    final QueryCost cost = estimator.estimate(count.getCount(), request.range(),
+                        request.aggregation(),
+                        rollups.cover(request.source(), request.range(), request.aggregation(),
+                            bucketStrategy(request)));
+
+                    if (costLimit.isGreater(cost.getPoints())) {
+                        dataInMemoryReporter.reportOperationEnded();
+
+                        final RequestError error = new QueryError(format(
+                            "Query is estimated to read %d samples, which is more than the " +
+                                "allowed limit of %s", cost.getPoints(), costLimit));
+
+                        return async.resolved(FullQuery
+                            .limitsError(watch.end(), error, ResultLimits.of(ResultLimit.COST))
+                            .withStatistics(cost.toStatistics()));
+                    }
+
+                    return fetch
+                        .get()
+                        .directTransform(
+                            q -> q.withStatistics(q.statistics().merge(cost.toStatistics())));
+                });
+        }
+
+        private BucketStrategy bucketStrategy(final FullQuery.Request request) {
+            final Features features = request.features();
+            return request
+                .options()
+                .bucketStrategy()
+                .orElseGet(
+                    () -> features.withFeature(Feature.END_BUCKET, () -> BucketStrategy.END,
+                        () -> BucketStrategy.START));
+        }
 
         @Override
         public Statistics getStatistics() {
@@ -441,6 +648,7 @@ public class LocalMetricManager implements MetricManager {
         public AsyncFuture<WriteMetric> write(
             final WriteMetric.Request request, final Span parentSpan
         ) {
+            rollups.track(request);
             return async.collect(map(b -> b.write(request, parentSpan)), WriteMetric.reduce());
         }
 
@@ -544,9 +752,10 @@ public class LocalMetricManager implements MetricManager {
         final DataInMemoryReporter dataInMemoryReporter;
         final AggregationInstance aggregation;
         final AggregationSession session;
-        final ResultLimits limits;
+        final Set<ResultLimit> limits = ConcurrentHashMap.newKeySet();
         final OptionalLimit groupLimit;
         final boolean failOnLimits;
+        final Optional<Consumer<ResultGroup>> groupSink;
 
         private final ConcurrentHashMultiset<Long> rowDensityData = ConcurrentHashMultiset.create();
 
@@ -555,17 +764,25 @@ public class LocalMetricManager implements MetricManager {
             final DataInMemoryReporter dataInMemoryReporter,
             final AggregationInstance aggregation,
             final AggregationSession session,
-            final ResultLimits limits,
             final OptionalLimit groupLimit,
-            final boolean failOnLimits
+            final boolean failOnLimits,
+            final Optional<Consumer<ResultGroup>> groupSink
         ) {
             this.watcher = watcher;
             this.dataInMemoryReporter = dataInMemoryReporter;
             this.aggregation = aggregation;
             this.session = session;
-            this.limits = limits;
             this.groupLimit = groupLimit;
             this.failOnLimits = failOnLimits;
+            this.groupSink = groupSink;
+        }
+
+        void limit(final ResultLimit limit) {
+            limits.add(limit);
+        }
+
+        ResultLimits limits() {
+            return new ResultLimits(ImmutableSet.copyOf(limits));
         }
 
         @Override
@@ -584,8 +801,12 @@ public class LocalMetricManager implements MetricManager {
             metrics.getAverageDistanceBetweenMetrics().ifPresent(msBetweenSamples -> {
                 final double metricsPerSecond = 1000.0 / msBetweenSamples;
                 dataInMemoryReporter.reportRowDensity(metricsPerSecond);
-                final long metricsPerMegaSecond = (long) (metricsPerSecond * 1_000_000);
-                rowDensityData.add(metricsPerMegaSecond);
+
+                /* rollups hold one spread per interval, which says nothing about the raw rows */
+                if (metrics.getType() == MetricType.POINT) {
+                    final long metricsPerMegaSecond = (long) (metricsPerSecond * 1_000_000);
+                    rowDensityData.add(metricsPerMegaSecond);
+                }
             });
         }
 
@@ -622,7 +843,7 @@ public class LocalMetricManager implements MetricManager {
             dataInMemoryReporter.reportOperationEnded();
 
             final ImmutableSet.Builder<ResultLimit> limitsBuilder =
-                ImmutableSet.<ResultLimit>builder().addAll(this.limits.getLimits());
+                ImmutableSet.<ResultLimit>builder().addAll(this.limits);
 
             if (watcher.isRetainQuotaViolated()) {
                 limitsBuilder.add(ResultLimit.AGGREGATION);
@@ -656,26 +877,34 @@ public class LocalMetricManager implements MetricManager {
             final Statistics baseStatistics =
                 new Statistics(ROWS_ACCESSED, watcher.getRowsAccessed());
 
+            final List<AggregationOutput> outputs = result.getResult();
+
+            /* checked up front, since groups might be passed on as they are produced below */
+            if (groupLimit.isGreater(outputs.size())) {
+                if (failOnLimits) {
+                    errorsBuilder.add(new QueryError(
+                        "The number of result groups is more than the allowed limit of " +
+                            groupLimit));
+                    return FullQuery.create(trace, errorsBuilder.build(), ImmutableList.of(),
+                        baseStatistics,
+                        new ResultLimits(limitsBuilder.add(ResultLimit.GROUP).build()),
+                        dataDensity);
+                }
+
+                limitsBuilder.add(ResultLimit.GROUP);
+            }
+
             final List<ResultGroup> groups = new ArrayList<>();
 
-            for (final AggregationOutput group : result.getResult()) {
-                if (groupLimit.isGreaterOrEqual(groups.size())) {
-                    if (failOnLimits) {
-                        errorsBuilder.add(new QueryError(
-                            "The number of result groups is more than the allowed limit of " +
-                                groupLimit));
-                        return FullQuery.create(trace, errorsBuilder.build(), ImmutableList.of(),
-                            baseStatistics,
-                            new ResultLimits(limitsBuilder.add(ResultLimit.GROUP).build()),
-                            dataDensity);
-                    }
+            for (final AggregationOutput group : groupLimit.limitList(outputs)) {
+                final ResultGroup resultGroup = new ResultGroup(group.getKey(), group.getSeries(),
+                    group.getMetrics(), aggregation.cadence());
 
-                    limitsBuilder.add(ResultLimit.GROUP);
-                    break;
+                if (groupSink.isPresent()) {
+                    groupSink.get().accept(resultGroup);
+                } else {
+                    groups.add(resultGroup);
                 }
-
-                groups.add(new ResultGroup(group.getKey(), group.getSeries(), group.getMetrics(),
-                    aggregation.cadence()));
             }
 
             return FullQuery.create(trace, errorsBuilder.build(), groups,
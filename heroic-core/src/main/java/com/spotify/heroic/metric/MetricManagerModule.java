@@ -36,6 +36,7 @@ import com.spotify.heroic.common.ModuleIdBuilder;
 import com.spotify.heroic.common.OptionalLimit;
 import com.spotify.heroic.dagger.CorePrimaryComponent;
 import com.spotify.heroic.lifecycle.LifeCycle;
+import com.spotify.heroic.lifecycle.LifeCycleManager;
 import com.spotify.heroic.statistics.HeroicReporter;
 import com.spotify.heroic.statistics.MetricBackendReporter;
 import dagger.Module;
@@ -44,6 +45,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
 import javax.inject.Named;
 
 @Module
@@ -75,6 +77,11 @@ public class MetricManagerModule {
      */
     private final OptionalLimit dataLimit;
 
+    /**
+     * Limit in how many datapoints a session may be estimated to fetch before it is rejected.
+     */
+    private final OptionalLimit costLimit;
+
     /**
      * Limit how many concurrent queries that the MetricManager will accept. When this level is
      * reached, the result will be back-off so that another node in the cluster can be used instead.
@@ -86,6 +93,11 @@ public class MetricManagerModule {
      */
     private final int fetchParallelism;
 
+    /**
+     * How many data fetches are performed in parallel across all queries on this node.
+     */
+    private final OptionalLimit fetchConcurrency;
+
     /**
      * If {@code true}, will cause any limits applied to be reported as a failure.
      */
@@ -96,6 +108,11 @@ public class MetricManagerModule {
      */
     private final long smallQueryThreshold;
 
+    /**
+     * Configuration for pre-aggregated rollups.
+     */
+    private final RollupConfig rollups;
+
     private MetricManagerModule(
         List<MetricModule> backends,
         Optional<List<String>> defaultBackends,
@@ -103,10 +120,13 @@ public class MetricManagerModule {
         OptionalLimit seriesLimit,
         OptionalLimit aggregationLimit,
         OptionalLimit dataLimit,
+        OptionalLimit costLimit,
         OptionalLimit concurrentQueriesBackoff,
         int fetchParallelism,
+        OptionalLimit fetchConcurrency,
         boolean failOnLimits,
-        long smallQueryThreshold
+        long smallQueryThreshold,
+        RollupConfig rollups
     ) {
         this.backends = backends;
         this.defaultBackends = defaultBackends;
@@ -114,10 +134,13 @@ public class MetricManagerModule {
         this.seriesLimit = seriesLimit;
         this.aggregationLimit = aggregationLimit;
         this.dataLimit = dataLimit;
+        this.costLimit = costLimit;
         this.concurrentQueriesBackoff = concurrentQueriesBackoff;
         this.fetchParallelism = fetchParallelism;
+        this.fetchConcurrency = fetchConcurrency;
         this.failOnLimits = failOnLimits;
         this.smallQueryThreshold = smallQueryThreshold;
+        this.rollups = rollups;
     }
 
     @Provides
@@ -170,8 +193,11 @@ public class MetricManagerModule {
     @Provides
     @MetricScope
     @Named("metric")
-    public LifeCycle metricLife(List<MetricModule.Exposed> components) {
-        return LifeCycle.combined(components.stream().map(MetricModule.Exposed::life));
+    public LifeCycle metricLife(
+        List<MetricModule.Exposed> components, LifeCycleManager manager, MetricRollups rollups
+    ) {
+        return LifeCycle.combined(Stream.concat(components.stream().map(MetricModule.Exposed::life),
+            Stream.of(manager.build(rollups))));
     }
 
     @Provides
@@ -202,6 +228,13 @@ public class MetricManagerModule {
         return dataLimit;
     }
 
+    @Provides
+    @MetricScope
+    @Named("costLimit")
+    public OptionalLimit costLimit() {
+        return costLimit;
+    }
+
     @Provides
     @MetricScope
     @Named("concurrentQueriesBackoff")
@@ -216,6 +249,13 @@ public class MetricManagerModule {
         return fetchParallelism;
     }
 
+    @Provides
+    @MetricScope
+    @Named("fetchConcurrency")
+    public OptionalLimit fetchConcurrency() {
+        return fetchConcurrency;
+    }
+
     @Provides
     @MetricScope
     @Named("failOnLimits")
@@ -230,6 +270,12 @@ public class MetricManagerModule {
         return smallQueryThreshold;
     }
 
+    @Provides
+    @MetricScope
+    public RollupConfig rollups() {
+        return rollups;
+    }
+
     public static Builder builder() {
         return new Builder();
     }
@@ -241,10 +287,13 @@ public class MetricManagerModule {
         private OptionalLimit seriesLimit = OptionalLimit.empty();
         private OptionalLimit aggregationLimit = OptionalLimit.empty();
         private OptionalLimit dataLimit = OptionalLimit.empty();
+        private OptionalLimit costLimit = OptionalLimit.empty();
         private OptionalLimit concurrentQueriesBackoff = OptionalLimit.empty();
         private Optional<Integer> fetchParallelism = empty();
+        private OptionalLimit fetchConcurrency = OptionalLimit.empty();
         private Optional<Boolean> failOnLimits = empty();
         private Optional<Long> smallQueryThreshold = empty();
+        private Optional<RollupConfig> rollups = empty();
 
         private Builder() {
         }
@@ -257,10 +306,13 @@ public class MetricManagerModule {
             @JsonProperty("seriesLimit") OptionalLimit seriesLimit,
             @JsonProperty("aggregationLimit") OptionalLimit aggregationLimit,
             @JsonProperty("dataLimit") OptionalLimit dataLimit,
+            @JsonProperty("costLimit") OptionalLimit costLimit,
             @JsonProperty("concurrentQueriesBackoff") OptionalLimit concurrentQueriesBackoff,
             @JsonProperty("fetchParallelism") Optional<Integer> fetchParallelism,
+            @JsonProperty("fetchConcurrency") OptionalLimit fetchConcurrency,
             @JsonProperty("failOnLimits") Optional<Boolean> failOnLimits,
-            @JsonProperty("smallQueryThreshold") Optional<Long> smallQueryThreshold
+            @JsonProperty("smallQueryThreshold") Optional<Long> smallQueryThreshold,
+            @JsonProperty("rollups") Optional<RollupConfig> rollups
         ) {
             this.backends = backends;
             this.defaultBackends = defaultBackends;
@@ -268,10 +320,13 @@ public class MetricManagerModule {
             this.seriesLimit = seriesLimit;
             this.aggregationLimit = aggregationLimit;
             this.dataLimit = dataLimit;
+            this.costLimit = costLimit;
             this.concurrentQueriesBackoff = concurrentQueriesBackoff;
             this.fetchParallelism = fetchParallelism;
+            this.fetchConcurrency = fetchConcurrency;
             this.failOnLimits = failOnLimits;
             this.smallQueryThreshold = smallQueryThreshold;
+            this.rollups = rollups;
         }
 
         public Builder backends(List<MetricModule> backends) {
@@ -304,6 +359,11 @@ public class MetricManagerModule {
             return this;
         }
 
+        public Builder costLimit(long costLimit) {
+            this.costLimit = OptionalLimit.of(costLimit);
+            return this;
+        }
+
         public Builder concurrentQueriesBackoff(int concurrentQueriesBackoff) {
             this.concurrentQueriesBackoff = OptionalLimit.of(concurrentQueriesBackoff);
             return this;
@@ -314,6 +374,11 @@ public class MetricManagerModule {
             return this;
         }
 
+        public Builder fetchConcurrency(int fetchConcurrency) {
+            this.fetchConcurrency = OptionalLimit.of(fetchConcurrency);
+            return this;
+        }
+
         public Builder failOnLimits(boolean failOnLimits) {
             this.failOnLimits = of(failOnLimits);
             return this;
@@ -324,6 +389,11 @@ public class MetricManagerModule {
             return this;
         }
 
+        public Builder rollups(RollupConfig rollups) {
+            this.rollups = of(rollups);
+            return this;
+        }
+
         public Builder merge(final Builder o) {
             // @formatter:off
             return new Builder(
@@ -333,10 +403,13 @@ public class MetricManagerModule {
                 seriesLimit.orElse(o.seriesLimit),
                 aggregationLimit.orElse(o.aggregationLimit),
                 dataLimit.orElse(o.dataLimit),
+                costLimit.orElse(o.costLimit),
                 concurrentQueriesBackoff.orElse(o.concurrentQueriesBackoff),
                 pickOptional(fetchParallelism, o.fetchParallelism),
+                fetchConcurrency.orElse(o.fetchConcurrency),
                 pickOptional(failOnLimits, o.failOnLimits),
-                pickOptional(smallQueryThreshold, o.smallQueryThreshold)
+                pickOptional(smallQueryThreshold, o.smallQueryThreshold),
+                pickOptional(rollups, o.rollups)
             );
             // @formatter:on
         }
@@ -350,10 +423,13 @@ public class MetricManagerModule {
                 seriesLimit,
                 aggregationLimit,
                 dataLimit,
+                costLimit,
                 concurrentQueriesBackoff,
                 fetchParallelism.orElse(DEFAULT_FETCH_PARALLELISM),
+                fetchConcurrency,
                 failOnLimits.orElse(DEFAULT_FAIL_ON_LIMITS),
-                smallQueryThreshold.orElse(DEFAULT_SMALL_QUERY_THRESHOLD)
+                smallQueryThreshold.orElse(DEFAULT_SMALL_QUERY_THRESHOLD),
+                rollups.orElseGet(RollupConfig::new)
             );
             // @formatter:on
         }
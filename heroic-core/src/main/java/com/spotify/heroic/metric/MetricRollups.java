@@ -0,0 +1,782 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.heroic.metric;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.spotify.heroic.HeroicContext;
+import com.spotify.heroic.QueryOptions;
+import com.spotify.heroic.aggregation.AggregationInstance;
+import com.spotify.heroic.aggregation.BucketStrategy;
+import com.spotify.heroic.async.AsyncObserver;
+import com.spotify.heroic.common.DateRange;
+import com.spotify.heroic.common.Features;
+import com.spotify.heroic.common.GroupSet;
+import com.spotify.heroic.common.OptionalLimit;
+import com.spotify.heroic.common.Series;
+import com.spotify.heroic.filter.TrueFilter;
+import com.spotify.heroic.lifecycle.LifeCycleRegistry;
+import com.spotify.heroic.lifecycle.LifeCycles;
+import com.spotify.heroic.metadata.FindSeries;
+import com.spotify.heroic.metadata.FindSeriesStream;
+import com.spotify.heroic.metadata.MetadataManager;
+import com.spotify.heroic.scheduler.Scheduler;
+import com.spotify.heroic.time.Clock;
+import eu.toolchain.async.AsyncFramework;
+import eu.toolchain.async.AsyncFuture;
+import eu.toolchain.async.ResolvableFuture;
+import eu.toolchain.async.StreamCollector;
+import io.opencensus.trace.BlankSpan;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import javax.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes pre-aggregated rollups of series, and plans which rollups queries can read.
+ * <p>
+ * A rollup of a series is a {@link Spread} of all the points of the series in an interval
+ * {@code (t - resolution, t]}, timestamped with {@code t}, where {@code t} is a multiple of the
+ * resolution. Rollups are written to the same backends as the points, as a separate series
+ * which is not indexed in metadata, see {@link #rollupSeries(Series, long)}.
+ * <p>
+ * A job on each node which writes rollups periodically rolls up the series written through the
+ * node for the intervals which have completed since its last run, and then advances the watermark
+ * of each resolution. The first run, and any run after more series were written than could be
+ * tracked, rolls up every series in metadata instead. The watermark is stored in the backends, see
+ * {@link #watermarkSeries(long)}, and covers the intervals that all series have been rolled up
+ * for. Queries only read rollups below the watermark and read points for the rest of their range.
+ * <p>
+ * Points which are written after their interval might have been rolled up are rolled up again by
+ * the next run on the node they were written through. Until then, rollups do not include them.
+ * Points are only rolled up if they are written through a node which writes rollups, and until
+ * every such node has run, rollups below a watermark advanced by another node miss them too.
+ */
+@MetricScope
+public class MetricRollups implements LifeCycles {
+    /**
+     * Tag which distinguishes the rollups of a series from the series, its value is the
+     * resolution of the rollups.
+     */
+    public static final String ROLLUP_TAG = "__rollup";
+
+    /**
+     * Key of the series which store the watermark of each resolution.
+     */
+    public static final String WATERMARK_KEY = "__rollup_watermark";
+
+    /* timestamps of the points of a watermark series which store the bounds of the watermark */
+    static final long WATERMARK_FROM = 1L;
+    static final long WATERMARK_UNTIL = 2L;
+
+    private static final DateRange WATERMARK_RANGE = new DateRange(0L, 3L);
+
+    private static final Logger log = LoggerFactory.getLogger(MetricRollups.class);
+
+    private final AsyncFramework async;
+    private final Scheduler scheduler;
+    private final Clock clock;
+    private final HeroicContext context;
+    private final MetadataManager metadata;
+    private final GroupSet<MetricBackend> backends;
+    private final RollupConfig config;
+
+    /* the configured resolutions, coarsest first */
+    private final List<Long> resolutions;
+
+    /* the earliest timestamp written to each series after it might have been rolled up */
+    private final Cache<Series, Long> late;
+
+    /* the earliest timestamp of late series that were evicted before being rolled up again */
+    private final AtomicLong lost = new AtomicLong(Long.MAX_VALUE);
+
+    /* the series written since the last run, by the sequence number of their last write */
+    private final Cache<Series, Long> written;
+    private final AtomicLong writes = new AtomicLong();
+
+    /* whether written holds every series written since the last run */
+    private final AtomicBoolean tracking = new AtomicBoolean();
+
+    /* the end of the intervals that this node has rolled up the written series for */
+    private final ConcurrentMap<Long, Long> progress = new ConcurrentHashMap<>();
+
+    /* the last known watermark of each resolution */
+    private final ConcurrentMap<Long, Watermark> watermarks = new ConcurrentHashMap<>();
+
+    @Inject
+    public MetricRollups(
+        final AsyncFramework async, final Scheduler scheduler, final Clock clock,
+        final HeroicContext context, final MetadataManager metadata,
+        final GroupSet<MetricBackend> backends, final RollupConfig config
+    ) {
+        this.async = async;
+        this.scheduler = scheduler;
+        this.clock = clock;
+        this.context = context;
+        this.metadata = metadata;
+        this.backends = backends;
+        this.config = config;
+
+        for (final long resolution : config.getResolutions()) {
+            if (resolution <= 0) {
+                throw new IllegalArgumentException(
+                    "rollup resolution must be positive: " + resolution);
+            }
+        }
+
+        this.resolutions = config
+            .getResolutions()
+            .stream()
+            .distinct()
+            .sorted(Comparator.reverseOrder())
+            .collect(Collectors.toList());
+
+        /* an evicted series rewinds the next run for all series to its late points */
+        this.late = CacheBuilder
+            .newBuilder()
+            .maximumSize(config.getMaxSeries())
+            .<Series, Long>removalListener(n -> {
+                if (n.wasEvicted()) {
+                    lost.accumulateAndGet(n.getValue(), Math::min);
+                }
+            })
+            .build();
+
+        /* an evicted series makes the next run roll up every series */
+        this.written = CacheBuilder
+            .newBuilder()
+            .maximumSize(config.getMaxSeries())
+            .<Series, Long>removalListener(n -> {
+                if (n.wasEvicted()) {
+                    tracking.set(false);
+                }
+            })
+            .build();
+    }
+
+    @Override
+    public void register(final LifeCycleRegistry registry) {
+        registry.start(this::start);
+    }
+
+    /**
+     * Track a write, so that the next run rolls up the series, and so that points written after
+     * their interval might have been rolled up are rolled up again.
+     */
+    public void track(final WriteMetric.Request request) {
+        /* only the job on nodes which write rollups rolls up the tracked series */
+        if (!config.getEnabled() || !config.getWrite() ||
+            request.getData().getType() != MetricType.POINT || request.getData().isEmpty()) {
+            return;
+        }
+
+        written.put(request.getSeries(), writes.incrementAndGet());
+
+        final long earliest = request
+            .getData()
+            .data()
+            .stream()
+            .mapToLong(Metric::getTimestamp)
+            .min()
+            .getAsLong();
+
+        if (earliest > clock.currentTimeMillis() - config.getDelayMs()) {
+            return;
+        }
+
+        late.asMap().merge(request.getSeries(), earliest, Math::min);
+    }
+
+    /**
+     * Plan the fetches required to read the given points, reading rollups where possible.
+     * <p>
+     * Rollups are only read when every rollup interval is contained in a single bucket of the
+     * aggregation, and only for the part of the range below the watermark of the resolution.
+     *
+     * @param request request for the points of a single series
+     * @param aggregation aggregation that is fed the fetched data
+     * @param bucketStrategy bucket strategy of the aggregation
+     * @return the requests to perform instead of the given request
+     */
+    public List<FetchData.Request> plan(
+        final FetchData.Request request, final AggregationInstance aggregation,
+        final BucketStrategy bucketStrategy
+    ) {
+        final Optional<Coverage> coverage =
+            cover(request.getType(), request.getRange(), aggregation, bucketStrategy);
+
+        if (!coverage.isPresent()) {
+            return ImmutableList.of(request);
+        }
+
+        final DateRange range = request.getRange();
+        final long resolution = coverage.get().getResolution();
+        final long start = coverage.get().getRange().start();
+        final long end = coverage.get().getRange().end();
+
+        final ImmutableList.Builder<FetchData.Request> requests = ImmutableList.builder();
+
+        if (start > range.start()) {
+            requests.add(request.copy(request.getType(), request.getSeries(),
+                new DateRange(range.start(), start), request.getOptions()));
+        }
+
+        requests.add(new FetchData.Request(MetricType.SPREAD,
+            rollupSeries(request.getSeries(), resolution), new DateRange(start, end),
+            request.getOptions()));
+
+        if (end < range.end()) {
+            requests.add(request.copy(request.getType(), request.getSeries(),
+                new DateRange(end, range.end()), request.getOptions()));
+        }
+
+        return requests.build();
+    }
+
+    /**
+     * Find the part of a range that {@link #plan} reads from rollups, and their resolution.
+     *
+     * @param type type of the data read
+     * @param range range of the data read
+     * @param aggregation aggregation that is fed the fetched data
+     * @param bucketStrategy bucket strategy of the aggregation
+     * @return the part of the range that is read from rollups, if any
+     */
+    public Optional<Coverage> cover(
+        final MetricType type, final DateRange range, final AggregationInstance aggregation,
+        final BucketStrategy bucketStrategy
+    ) {
+        /* rollup intervals only line up with end buckets, which also cover (end - size, end] */
+        if (!config.getEnabled() || type != MetricType.POINT ||
+            !(bucketStrategy instanceof BucketStrategy.End)) {
+            return Optional.empty();
+        }
+
+        for (final long resolution : resolutions) {
+            final Watermark watermark = watermarks.get(resolution);
+
+            if (watermark == null || range.start() % resolution != 0 ||
+                !aggregation.acceptsRollups(resolution)) {
+                continue;
+            }
+
+            final long start = Math.max(range.start(), watermark.from);
+            final long end = Math.min(floor(range.end(), resolution), watermark.until);
+
+            if (end - start < resolution) {
+                continue;
+            }
+
+            return Optional.of(new Coverage(resolution, new DateRange(start, end)));
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Load the watermarks from the backends, and roll up all intervals which have completed since
+     * the watermarks if this node writes rollups.
+     */
+    public AsyncFuture<Void> rollup() {
+        return loadWatermarks().lazyTransform(ignore -> {
+            if (!config.getWrite()) {
+                return async.resolved();
+            }
+
+            return rollup(clock.currentTimeMillis());
+        });
+    }
+
+    /**
+     * Load the watermark of each resolution, the lowest one if the backends differ.
+     */
+    AsyncFuture<Void> loadWatermarks() {
+        final List<AsyncFuture<Void>> loads = new ArrayList<>();
+
+        for (final long resolution : resolutions) {
+            final List<AsyncFuture<Optional<Watermark>>> reads = new ArrayList<>();
+
+            for (final MetricBackend backend : backends.useDefaultGroup()) {
+                reads.add(readWatermark(backend, resolution));
+            }
+
+            loads.add(async.collect(reads).directTransform(read -> {
+                final Optional<Watermark> watermark = read
+                    .stream()
+                    .reduce((a, b) -> a.flatMap(
+                        w -> b.map(o -> o.until < w.until ? o : w)))
+                    .flatMap(w -> w);
+
+                if (watermark.isPresent()) {
+                    watermarks.put(resolution, watermark.get());
+                } else {
+                    watermarks.remove(resolution);
+                }
+
+                return null;
+            }));
+        }
+
+        return async.collectAndDiscard(loads);
+    }
+
+    private AsyncFuture<Void> rollup(final long now) {
+        final long rewind = lost.getAndSet(Long.MAX_VALUE);
+        final Map<Series, Long> pending = ImmutableMap.copyOf(late.asMap());
+        final Map<Series, Long> recent = ImmutableMap.copyOf(written.asMap());
+
+        /* the written series are not known before the first run, or after some were evicted */
+        final boolean scan = !tracking.getAndSet(true) || rewind != Long.MAX_VALUE;
+
+        /* the range to roll up all series for, and the watermark once done, of each resolution */
+        final Map<Long, DateRange> ranges = new HashMap<>();
+        final Map<Long, Watermark> next = new HashMap<>();
+
+        for (final long resolution : resolutions) {
+            final long end = floor(now - config.getDelayMs(), resolution);
+            final Watermark current = watermarks.get(resolution);
+
+            final long from;
+            long start;
+
+            if (current != null) {
+                /* other nodes might have advanced the watermark past what this node rolled up */
+                from = current.from;
+                start = progress.getOrDefault(resolution, current.until);
+            } else if (config.getSinceMs() > 0) {
+                from = ceil(config.getSinceMs(), resolution);
+                start = from;
+            } else {
+                from = end - resolution;
+                start = from;
+            }
+
+            if (rewind < start) {
+                start = Math.max(from, ceil(rewind, resolution) - resolution);
+            }
+
+            if (end <= start || start < 0) {
+                continue;
+            }
+
+            ranges.put(resolution, new DateRange(start, end));
+            next.put(resolution, new Watermark(from, end));
+        }
+
+        final List<Callable<AsyncFuture<Void>>> again = new ArrayList<>();
+
+        for (final Map.Entry<Series, Long> e : pending.entrySet()) {
+            for (final long resolution : resolutions) {
+                final Watermark watermark = next.getOrDefault(resolution,
+                    watermarks.get(resolution));
+
+                if (watermark == null) {
+                    continue;
+                }
+
+                final long start =
+                    Math.max(watermark.from, ceil(e.getValue(), resolution) - resolution);
+
+                if (start < watermark.until) {
+                    again.addAll(rollups(ImmutableList.of(e.getKey()),
+                        ImmutableMap.of(resolution, new DateRange(start, watermark.until))));
+                }
+            }
+        }
+
+        final AsyncFuture<Long> lateFailed = rollupAll(again);
+        final AsyncFuture<Long> failed;
+
+        if (ranges.isEmpty()) {
+            failed = async.resolved(0L);
+        } else if (scan) {
+            failed = rollupAll(ranges);
+        } else {
+            failed = rollupAll(rollups(recent.keySet(), ranges));
+        }
+
+        return async.collect(ImmutableList.of(lateFailed, failed)).lazyTransform(results -> {
+            final long total = results.stream().mapToLong(Long::longValue).sum();
+
+            /* the same intervals are rolled up again on the next run */
+            if (total > 0) {
+                failed(scan, rewind);
+                log.warn("Failed to write {} rollups, not advancing the watermarks", total);
+                return async.resolved();
+            }
+
+            pending.forEach(late.asMap()::remove);
+            recent.forEach(written.asMap()::remove);
+            next.forEach((resolution, watermark) -> progress.put(resolution, watermark.until));
+            return writeWatermarks(next);
+        }).onFailed(cause -> failed(scan, rewind));
+    }
+
+    private void failed(final boolean scan, final long rewind) {
+        lost.accumulateAndGet(rewind, Math::min);
+
+        if (scan) {
+            tracking.set(false);
+        }
+    }
+
+    /**
+     * Roll up every series in metadata which might have been written in the given ranges of each
+     * resolution.
+     *
+     * @return the number of rollups that failed
+     */
+    private AsyncFuture<Long> rollupAll(final Map<Long, DateRange> ranges) {
+        final long start = ranges.values().stream().mapToLong(DateRange::start).min().getAsLong();
+        final long end = ranges.values().stream().mapToLong(DateRange::end).max().getAsLong();
+
+        final FindSeries.Request request =
+            new FindSeries.Request(TrueFilter.get(), new DateRange(start, end),
+                OptionalLimit.empty(), Features.DEFAULT);
+
+        final ResolvableFuture<Long> future = async.future();
+        final AtomicLong failed = new AtomicLong();
+
+        metadata.useDefaultGroup().findSeriesStream(request).observe(
+            new AsyncObserver<FindSeriesStream>() {
+                @Override
+                public AsyncFuture<Void> observe(final FindSeriesStream page) {
+                    return rollupAll(rollups(page.getSeries(), ranges)).directTransform(f -> {
+                        failed.addAndGet(f);
+                        return null;
+                    });
+                }
+
+                @Override
+                public void cancel() {
+                    future.cancel();
+                }
+
+                @Override
+                public void fail(final Throwable cause) {
+                    future.fail(cause);
+                }
+
+                @Override
+                public void end() {
+                    future.resolve(failed.get());
+                }
+            });
+
+        return future;
+    }
+
+    /**
+     * Perform the given rollups.
+     *
+     * @return the number of rollups that failed
+     */
+    private AsyncFuture<Long> rollupAll(final List<Callable<AsyncFuture<Void>>> rollups) {
+        if (rollups.isEmpty()) {
+            return async.resolved(0L);
+        }
+
+        return async.eventuallyCollect(rollups, new StreamCollector<Void, Long>() {
+            @Override
+            public void resolved(final Void result) {
+            }
+
+            @Override
+            public void failed(final Throwable cause) {
+                log.warn("Failed to write rollup", cause);
+            }
+
+            @Override
+            public void cancelled() {
+            }
+
+            @Override
+            public Long end(final int resolved, final int failed, final int cancelled) {
+                log.debug("Wrote rollups for {} series (failed: {}, cancelled: {})", resolved,
+                    failed, cancelled);
+                return (long) failed + cancelled;
+            }
+        }, config.getParallelism());
+    }
+
+    private List<Callable<AsyncFuture<Void>>> rollups(
+        final Collection<Series> series, final Map<Long, DateRange> ranges
+    ) {
+        final List<Callable<AsyncFuture<Void>>> rollups = new ArrayList<>();
+
+        for (final MetricBackend backend : backends.useDefaultGroup()) {
+            for (final Series s : series) {
+                ranges.forEach((resolution, range) -> rollups.add(
+                    () -> rollup(backend, s, range, resolution)));
+            }
+        }
+
+        return rollups;
+    }
+
+    private AsyncFuture<Void> writeWatermarks(final Map<Long, Watermark> next) {
+        final List<AsyncFuture<WriteMetric>> writes = new ArrayList<>();
+
+        next.forEach((resolution, watermark) -> {
+            final MetricCollection points = MetricCollection.points(ImmutableList.of(
+                new Point(WATERMARK_FROM, watermark.from),
+                new Point(WATERMARK_UNTIL, watermark.until)));
+
+            for (final MetricBackend backend : backends.useDefaultGroup()) {
+                writes.add(backend.write(
+                    new WriteMetric.Request(watermarkSeries(resolution), points)));
+            }
+        });
+
+        return async.collect(writes, WriteMetric.reduce()).lazyTransform(write -> {
+            if (!write.getErrors().isEmpty()) {
+                return async.failed(
+                    new RuntimeException("Failed to write watermarks: " + write.getErrors()));
+            }
+
+            watermarks.putAll(next);
+            return async.resolved();
+        });
+    }
+
+    private AsyncFuture<Optional<Watermark>> readWatermark(
+        final MetricBackend backend, final long resolution
+    ) {
+        final Queue<MetricReadResult> results = new ConcurrentLinkedQueue<>();
+
+        final FetchData.Request request =
+            new FetchData.Request(MetricType.POINT, watermarkSeries(resolution), WATERMARK_RANGE,
+                QueryOptions.defaults());
+
+        return backend
+            .fetch(request, FetchQuotaWatcher.NO_QUOTA, results::add, BlankSpan.INSTANCE)
+            .lazyTransform(fetched -> {
+                if (!fetched.getErrors().isEmpty()) {
+                    return async.failed(new RuntimeException(
+                        "Failed to read watermark: " + fetched.getErrors()));
+                }
+
+                final Map<Long, Long> bounds = new HashMap<>();
+
+                for (final MetricReadResult result : results) {
+                    if (result.getMetrics().getType() == MetricType.POINT) {
+                        for (final Point p : result.getMetrics().getDataAs(Point.class)) {
+                            bounds.put(p.getTimestamp(), (long) p.getValue());
+                        }
+                    }
+                }
+
+                if (!bounds.containsKey(WATERMARK_FROM) || !bounds.containsKey(WATERMARK_UNTIL)) {
+                    return async.resolved(Optional.empty());
+                }
+
+                return async.resolved(Optional.of(
+                    new Watermark(bounds.get(WATERMARK_FROM), bounds.get(WATERMARK_UNTIL))));
+            });
+    }
+
+    private AsyncFuture<Void> start() {
+        if (!config.getEnabled() || resolutions.isEmpty()) {
+            return async.resolved();
+        }
+
+        context.startedFuture().onResolved(ignore -> {
+            scheduler.periodically("metric-rollups", config.getIntervalMs(),
+                TimeUnit.MILLISECONDS, () -> rollup().get());
+        });
+
+        return async.resolved();
+    }
+
+    private AsyncFuture<Void> rollup(
+        final MetricBackend backend, final Series series, final DateRange range,
+        final long resolution
+    ) {
+        final Queue<MetricReadResult> results = new ConcurrentLinkedQueue<>();
+
+        final FetchData.Request request =
+            new FetchData.Request(MetricType.POINT, series, range, QueryOptions.defaults());
+
+        return backend
+            .fetch(request, FetchQuotaWatcher.NO_QUOTA, results::add, BlankSpan.INSTANCE)
+            .lazyTransform(fetched -> {
+                if (!fetched.getErrors().isEmpty()) {
+                    return async.failed(new RuntimeException(
+                        "Failed to fetch " + series + ": " + fetched.getErrors()));
+                }
+
+                /* points are rolled up separately for each resource identifier */
+                final Map<SortedMap<String, String>, List<Point>> points = new HashMap<>();
+
+                for (final MetricReadResult result : results) {
+                    if (result.getMetrics().getType() != MetricType.POINT) {
+                        continue;
+                    }
+
+                    points
+                        .computeIfAbsent(result.getResource(), r -> new ArrayList<>())
+                        .addAll(result.getMetrics().getDataAs(Point.class));
+                }
+
+                final List<AsyncFuture<WriteMetric>> writes = new ArrayList<>();
+                final Series rollup = rollupSeries(series, resolution);
+
+                points.forEach((resource, values) -> {
+                    final List<Spread> spreads = spreads(values, resolution);
+
+                    if (!spreads.isEmpty()) {
+                        writes.add(backend.write(new WriteMetric.Request(
+                            rollup.withResource(resource), MetricCollection.spreads(spreads))));
+                    }
+                });
+
+                return async.collect(writes, WriteMetric.reduce()).lazyTransform(write -> {
+                    if (!write.getErrors().isEmpty()) {
+                        return async.failed(new RuntimeException(
+                            "Failed to write rollups of " + series + ": " + write.getErrors()));
+                    }
+
+                    return async.resolved();
+                });
+            });
+    }
+
+    /**
+     * Get the series which the rollups of the given series are written to.
+     */
+    public static Series rollupSeries(final Series series, final long resolution) {
+        final Map<String, String> tags = new TreeMap<>(series.getTags());
+        tags.put(ROLLUP_TAG, Long.toString(resolution));
+        return Series.of(series.getKey(), tags, series.getResource());
+    }
+
+    /**
+     * Get the series which the watermark of the given resolution is written to. The watermark
+     * is written as two points, the start of the rollups at {@link #WATERMARK_FROM} and the end of
+     * the rolled up intervals at {@link #WATERMARK_UNTIL}.
+     */
+    public static Series watermarkSeries(final long resolution) {
+        return Series.of(WATERMARK_KEY, ImmutableMap.of(ROLLUP_TAG, Long.toString(resolution)));
+    }
+
+    /**
+     * Roll up the given points into one spread for each interval that contains any points.
+     */
+    static List<Spread> spreads(final List<Point> points, final long resolution) {
+        final SortedMap<Long, List<Point>> intervals = new TreeMap<>();
+
+        for (final Point p : points) {
+            if (!p.valid()) {
+                continue;
+            }
+
+            intervals.computeIfAbsent(ceil(p.getTimestamp(), resolution), t -> new ArrayList<>())
+                .add(p);
+        }
+
+        final List<Spread> spreads = new ArrayList<>(intervals.size());
+
+        for (final Map.Entry<Long, List<Point>> e : intervals.entrySet()) {
+            long count = 0;
+            double sum = 0D;
+            double sum2 = 0D;
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+
+            for (final Point p : e.getValue()) {
+                final double value = p.getValue();
+                count += 1;
+                sum += value;
+                sum2 += value * value;
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+
+            spreads.add(new Spread(e.getKey(), count, sum, sum2, min, max));
+        }
+
+        return spreads;
+    }
+
+    private static long floor(final long timestamp, final long resolution) {
+        return timestamp - Math.floorMod(timestamp, resolution);
+    }
+
+    private static long ceil(final long timestamp, final long resolution) {
+        final long floor = floor(timestamp, resolution);
+        return floor == timestamp ? floor : floor + resolution;
+    }
+
+    /**
+     * Part of a range which is read from the rollups of a single resolution, one spread for each
+     * interval of the resolution.
+     */
+    public static class Coverage {
+        private final long resolution;
+        private final DateRange range;
+
+        Coverage(final long resolution, final DateRange range) {
+            this.resolution = resolution;
+            this.range = range;
+        }
+
+        public long getResolution() {
+            return resolution;
+        }
+
+        public DateRange getRange() {
+            return range;
+        }
+    }
+
+    /**
+     * Rollups of all series are available for the intervals in {@code (from, until]}.
+     */
+    private static class Watermark {
+        private final long from;
+        private final long until;
+
+        Watermark(final long from, final long until) {
+            this.from = from;
+            this.until = until;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.heroic.metric;
+
+import static com.spotify.heroic.common.VarInts.readVarLong;
+import static com.spotify.heroic.common.VarInts.unZigZag;
+import static com.spotify.heroic.common.VarInts.writeVarLong;
+import static com.spotify.heroic.common.VarInts.zigZag;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeDeserializer;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.module.SimpleDeserializers;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.module.SimpleSerializers;
+import com.fasterxml.jackson.databind.type.CollectionType;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encodes lists of points as a single binary value, with the timestamps and values in separate
+ * columns.
+ * <p>
+ * Timestamps are delta encoded as zig-zag variable length integers, which for regularly sampled
+ * series typically takes a single byte per point. Values are stored as raw 64-bit doubles.
+ * <p>
+ * This is only suitable for binary formats, like Smile, where binary values are not escaped.
+ */
+public class PointColumnsSerialization {
+    public static Module module() {
+        final SimpleModule module = new SimpleModule("point-columns");
+        module.setSerializers(new PointListSerializers());
+        module.setDeserializers(new PointListDeserializers());
+        return module;
+    }
+
+    public static byte[] encode(final List<Point> points) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(10 + points.size() * 9);
+        final DataOutputStream out = new DataOutputStream(bytes);
+
+        try {
+            writeVarLong(out, points.size());
+
+            long last = 0;
+
+            for (final Point p : points) {
+                writeVarLong(out, zigZag(p.getTimestamp() - last));
+                last = p.getTimestamp();
+            }
+
+            for (final Point p : points) {
+                out.writeDouble(p.getValue());
+            }
+        } catch (final IOException e) {
+            throw new IllegalStateException("Writing to memory failed", e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    public static List<Point> decode(final byte[] bytes) throws IOException {
+        final ByteArrayInputStream buffer = new ByteArrayInputStream(bytes);
+        final DataInputStream in = new DataInputStream(buffer);
+
+        final long declared = readVarLong(in);
+
+        /* every point takes at least one byte of timestamp and eight bytes of value, which bounds
+         * the allocations below by the size of the input */
+        if (declared < 0 || declared > buffer.available() / 9) {
+            throw new IOException("Invalid point columns, bad size: " + declared);
+        }
+
+        final int size = (int) declared;
+        final long[] timestamps = new long[size];
+
+        long last = 0;
+
+        for (int i = 0; i < size; i++) {
+            last += unZigZag(readVarLong(in));
+            timestamps[i] = last;
+        }
+
+        final List<Point> points = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            points.add(new Point(timestamps[i], in.readDouble()));
+        }
+
+        return points;
+    }
+
+    public static class Serializer extends JsonSerializer<List<Point>> {
+        @Override
+        public void serialize(
+            final List<Point> value, final JsonGenerator g, final SerializerProvider provider
+        ) throws IOException {
+            g.writeBinary(encode(value));
+        }
+    }
+
+    public static class Deserializer extends JsonDeserializer<List<Point>> {
+        @Override
+        public List<Point> deserialize(final JsonParser p, final DeserializationContext c)
+            throws IOException {
+            final JsonToken token = p.getCurrentToken();
+
+            if (token != JsonToken.VALUE_EMBEDDED_OBJECT && token != JsonToken.VALUE_STRING) {
+                throw c.mappingException(
+                    String.format("Expected binary point columns, not %s", token));
+            }
+
+            return decode(p.getBinaryValue());
+        }
+    }
+
+    static class PointListSerializers extends SimpleSerializers {
+        private final Serializer serializer = new Serializer();
+
+        @Override
+        public JsonSerializer<?> findCollectionSerializer(
+            final SerializationConfig config, final CollectionType type,
+            final BeanDescription beanDesc, final TypeSerializer elementTypeSerializer,
+            final JsonSerializer<Object> elementValueSerializer
+        ) {
+            if (type.getContentType().hasRawClass(Point.class)) {
+                return serializer;
+            }
+
+            return null;
+        }
+    }
+
+    static class PointListDeserializers extends SimpleDeserializers {
+        private final Deserializer deserializer = new Deserializer();
+
+        @Override
+        public JsonDeserializer<?> findCollectionDeserializer(
+            final CollectionType type, final DeserializationConfig config,
+            final BeanDescription beanDesc, final TypeDeserializer elementTypeDeserializer,
+            final JsonDeserializer<?> elementDeserializer
+        ) throws JsonMappingException {
+            if (type.getContentType().hasRawClass(Point.class)) {
+                return deserializer;
+            }
+
+            return null;
+        }
+    }
+}
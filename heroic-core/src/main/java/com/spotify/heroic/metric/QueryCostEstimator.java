@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.heroic.metric;
+
+import com.spotify.heroic.aggregation.AggregationInstance;
+import com.spotify.heroic.common.DateRange;
+import com.spotify.heroic.common.Histogram;
+import java.util.Optional;
+import javax.inject.Inject;
+
+/**
+ * Estimates the cost of queries on this node before any data is fetched.
+ * <p>
+ * The number of points that a query reads is predicted from the number of series it matches, the
+ * length of its range and the density of the rows read by recent queries on this node. The part of
+ * the range that is read from rollups costs one point per rollup interval instead. The memory it
+ * needs is predicted by the estimate of its aggregation.
+ */
+@MetricScope
+public class QueryCostEstimator {
+    /**
+     * Row density assumed before any query has finished, one point every ten seconds.
+     */
+    static final double DEFAULT_POINTS_PER_SECOND = 0.1D;
+
+    /**
+     * Weight of the most recent query in the density history.
+     */
+    static final double DECAY = 0.1D;
+
+    private final Object lock = new Object();
+
+    /* all fields below are guarded by lock */
+    private double pointsPerSecond = DEFAULT_POINTS_PER_SECOND;
+    private boolean recorded = false;
+
+    @Inject
+    public QueryCostEstimator() {
+    }
+
+    /**
+     * Record the density of the raw rows read by a finished query.
+     *
+     * @param rowDensity histogram of the points per mega-second of each row read by the query, as
+     * reported in {@link FullQuery#dataDensity()}
+     */
+    public void record(final Histogram rowDensity) {
+        rowDensity.getMedian().ifPresent(median -> {
+            final double observed = median / 1_000_000D;
+
+            synchronized (lock) {
+                pointsPerSecond =
+                    recorded ? pointsPerSecond + DECAY * (observed - pointsPerSecond) : observed;
+                recorded = true;
+            }
+        });
+    }
+
+    public double pointsPerSecond() {
+        synchronized (lock) {
+            return pointsPerSecond;
+        }
+    }
+
+    /**
+     * Estimate the cost of a query.
+     *
+     * @param series number of series matched by the query
+     * @param range range of the query
+     * @param aggregation aggregation of the query
+     * @param rollups part of the range that is read from rollups, as planned by {@link
+     * MetricRollups#cover}
+     */
+    public QueryCost estimate(
+        final long series, final DateRange range, final AggregationInstance aggregation,
+        final Optional<MetricRollups.Coverage> rollups
+    ) {
+        final long rolledUp = rollups.map(c -> c.getRange().diff()).orElse(0L);
+        final long intervals = rollups.map(c -> c.getRange().diff() / c.getResolution()).orElse(0L);
+
+        final double seconds = (range.diff() - rolledUp) / 1000D;
+        final long points = (long) Math.ceil(series * (seconds * pointsPerSecond() + intervals));
+        return new QueryCost(series, points, aggregation.estimate(range));
+    }
+}
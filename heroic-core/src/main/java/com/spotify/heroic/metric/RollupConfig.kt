@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.heroic.metric
+
+/**
+ * Configuration for pre-aggregated rollups of the written series, see [MetricRollups].
+ */
+data class RollupConfig(
+    val enabled: Boolean = false,
+    /* whether this node runs the job which rolls up the series written through it */
+    val write: Boolean = true,
+    /* resolutions in milliseconds that rollups are written for */
+    val resolutions: List<Long> = listOf(300_000L, 3_600_000L),
+    /* how long in milliseconds after an interval has ended that it is rolled up */
+    val delayMs: Long = 300_000,
+    /* how often in milliseconds that completed intervals are rolled up */
+    val intervalMs: Long = 60_000,
+    /* time in milliseconds since the epoch from which rollups are first written, 0 for now */
+    val sinceMs: Long = 0,
+    /* maximum number of written series, and series with late points, tracked between runs */
+    val maxSeries: Long = 1_000_000,
+    /* how many series are rolled up in parallel */
+    val parallelism: Int = 20
+)
@@ -22,6 +22,7 @@
 package com.spotify.heroic.scheduler;
 
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -65,13 +66,15 @@ public class DefaultScheduler implements Scheduler {
     }
 
     @Override
-    public void schedule(long value, TimeUnit unit, final Task task) {
-        schedule(UNKNOWN, value, unit, task);
+    public ScheduledFuture<?> schedule(long value, TimeUnit unit, final Task task) {
+        return schedule(UNKNOWN, value, unit, task);
     }
 
     @Override
-    public void schedule(final String name, long value, TimeUnit unit, final Task task) {
-        scheduler.schedule(() -> {
+    public ScheduledFuture<?> schedule(
+        final String name, long value, TimeUnit unit, final Task task
+    ) {
+        return scheduler.schedule(() -> {
             try {
                 task.run();
             } catch (final Exception e) {
@@ -63,7 +63,7 @@ public class SuggestTagKeyCount implements ShellTask {
         return suggest
             .useOptionalGroup(params.getGroup())
             .tagKeyCount(new TagKeyCount.Request(filter, params.getRange(), params.getLimit(),
-                params.getExactLimit()))
+                params.getExactLimit(), params.getExact()))
             .directTransform(result -> {
                 int i = 0;
 
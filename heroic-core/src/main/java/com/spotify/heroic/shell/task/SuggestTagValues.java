@@ -64,7 +64,7 @@ public class SuggestTagValues implements ShellTask {
             .useOptionalGroup(params.getGroup())
             .tagValuesSuggest(
                 new TagValuesSuggest.Request(filter, params.getRange(), params.getLimit(),
-                    params.getGroupLimit(), params.getExclude()))
+                    params.getGroupLimit(), params.getExclude(), params.getExact()))
             .directTransform(result -> {
                 int i = 0;
 
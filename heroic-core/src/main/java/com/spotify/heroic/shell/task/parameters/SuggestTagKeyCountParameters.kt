@@ -39,6 +39,9 @@ internal class SuggestTagKeyCountParameters : QueryParamsBase() {
     @Option(name = "--exact-limit", aliases = ["--exact-limit"], usage = "Number of entries to perform an expensive exact count for")
     val exactLimit = OptionalLimit.empty()
 
+    @Option(name = "--exact", usage = "Count by searching the backends, instead of from tag sketches")
+    val exact = false
+
     @Argument
     override val query = ArrayList<String>()
 }
@@ -39,6 +39,9 @@ internal class SuggestTagValuesParameters : QueryParamsBase() {
     @Option(name = "--limit", aliases = ["--limit"], usage = "Limit the number of printed entries")
     override val limit: OptionalLimit = OptionalLimit.empty()
 
+    @Option(name = "--exact", usage = "Suggest by searching the backends, instead of from tag sketches")
+    val exact = false
+
     @Argument
     override val query = ArrayList<String>()
 }
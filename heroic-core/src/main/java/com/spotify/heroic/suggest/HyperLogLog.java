@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.heroic.suggest;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * HyperLogLog sketch, estimating the number of distinct values added to it.
+ * <p>
+ * The standard error of the estimate is about {@code 1.04 / sqrt(2^precision)}. Values are hashed
+ * to 64 bits, so only the small range correction from the original paper is needed.
+ */
+final class HyperLogLog {
+    private static final HashFunction HASH = Hashing.murmur3_128();
+
+    private final int precision;
+    private final byte[] registers;
+
+    HyperLogLog(final int precision) {
+        this(precision, new byte[checkPrecision(precision)]);
+    }
+
+    private HyperLogLog(final int precision, final byte[] registers) {
+        this.precision = precision;
+        this.registers = registers;
+    }
+
+    void add(final String value) {
+        add(HASH.hashString(value, StandardCharsets.UTF_8).asLong());
+    }
+
+    void add(final long hash) {
+        final int index = (int) (hash >>> (64 - precision));
+        final int rank = Math.min(Long.numberOfLeadingZeros(hash << precision), 64 - precision) + 1;
+
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    long estimate() {
+        final int m = registers.length;
+
+        double sum = 0D;
+        int zeros = 0;
+
+        for (final byte r : registers) {
+            sum += 1D / (1L << r);
+
+            if (r == 0) {
+                zeros++;
+            }
+        }
+
+        final double estimate = (0.7213D / (1D + 1.079D / m)) * m * m / sum;
+
+        if (estimate <= 2.5D * m && zeros > 0) {
+            /* linear counting is more accurate for small cardinalities */
+            return Math.round(m * Math.log((double) m / zeros));
+        }
+
+        return Math.round(estimate);
+    }
+
+    /**
+     * Build a sketch of the union of the values added to this and the given sketch.
+     */
+    HyperLogLog merge(final HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException(
+                "precision mismatch: " + precision + " != " + other.precision);
+        }
+
+        final byte[] merged = new byte[registers.length];
+
+        for (int i = 0; i < merged.length; i++) {
+            merged[i] = (byte) Math.max(registers[i], other.registers[i]);
+        }
+
+        return new HyperLogLog(precision, merged);
+    }
+
+    HyperLogLog copy() {
+        return new HyperLogLog(precision, registers.clone());
+    }
+
+    void write(final DataOutput out) throws IOException {
+        out.writeByte(precision);
+        out.write(registers);
+    }
+
+    static HyperLogLog read(final DataInput in) throws IOException {
+        final int precision = in.readUnsignedByte();
+        final byte[] registers = new byte[checkPrecision(precision)];
+        in.readFully(registers);
+        return new HyperLogLog(precision, registers);
+    }
+
+    private static int checkPrecision(final int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException(
+                "precision must be between 4 and 18: " + precision);
+        }
+
+        return 1 << precision;
+    }
+}
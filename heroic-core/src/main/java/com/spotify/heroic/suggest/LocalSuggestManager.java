@@ -32,13 +32,16 @@ import java.util.Optional;
 public class LocalSuggestManager implements SuggestManager {
     private final AsyncFramework async;
     private final GroupSet<SuggestBackend> groupSet;
+    private final TagSketches sketches;
 
     @Inject
     public LocalSuggestManager(
-        final AsyncFramework async, @Named("groupSet") final GroupSet<SuggestBackend> groupSet
+        final AsyncFramework async, @Named("groupSet") final GroupSet<SuggestBackend> groupSet,
+        final TagSketches sketches
     ) {
         this.async = async;
         this.groupSet = groupSet;
+        this.sketches = sketches;
     }
 
     @Override
@@ -48,6 +51,10 @@ public class LocalSuggestManager implements SuggestManager {
 
     @Override
     public SuggestBackend useOptionalGroup(final Optional<String> group) {
-        return new SuggestBackendGroup(async, groupSet.useOptionalGroup(group));
+        /* sketches track the default group */
+        final Optional<TagSketches> groupSketches =
+            group.isPresent() || !sketches.isEnabled() ? Optional.empty() : Optional.of(sketches);
+
+        return new SuggestBackendGroup(async, groupSet.useOptionalGroup(group), groupSketches);
     }
 }
@@ -22,25 +22,33 @@
 package com.spotify.heroic.suggest;
 
 import com.google.common.collect.ImmutableList;
+import com.spotify.heroic.common.DateRange;
 import com.spotify.heroic.common.Groups;
 import com.spotify.heroic.common.SelectedGroup;
 import com.spotify.heroic.common.Statistics;
+import com.spotify.heroic.filter.Filter;
 import eu.toolchain.async.AsyncFramework;
 import eu.toolchain.async.AsyncFuture;
 import io.opencensus.trace.Span;
 import io.opencensus.trace.Tracer;
 import io.opencensus.trace.Tracing;
 import java.util.List;
+import java.util.Optional;
 import java.util.function.Function;
 
 public class SuggestBackendGroup implements SuggestBackend {
     private final Tracer tracer = Tracing.getTracer();
     private final AsyncFramework async;
     private final SelectedGroup<SuggestBackend> backends;
+    private final Optional<TagSketches> sketches;
 
-    SuggestBackendGroup(AsyncFramework async, SelectedGroup<SuggestBackend> backends) {
+    SuggestBackendGroup(
+        AsyncFramework async, SelectedGroup<SuggestBackend> backends,
+        Optional<TagSketches> sketches
+    ) {
         this.async = async;
         this.backends = backends;
+        this.sketches = sketches;
     }
 
     @Override
@@ -50,6 +58,10 @@ public class SuggestBackendGroup implements SuggestBackend {
 
     @Override
     public AsyncFuture<TagValuesSuggest> tagValuesSuggest(final TagValuesSuggest.Request request) {
+        if (canAnswer(request.getFilter(), request.getExact(), request.getRange())) {
+            return async.resolved(sketches.get().tagValuesSuggest(request));
+        }
+
         return async.collect(run(b -> b.tagValuesSuggest(request)),
             TagValuesSuggest.reduce(request.getLimit(), request.getGroupLimit()));
     }
@@ -62,6 +74,10 @@ public class SuggestBackendGroup implements SuggestBackend {
 
     @Override
     public AsyncFuture<TagKeyCount> tagKeyCount(final TagKeyCount.Request request) {
+        if (canAnswer(request.getFilter(), request.getExact(), request.getRange())) {
+            return async.resolved(sketches.get().tagKeyCount(request));
+        }
+
         return async.collect(run(b -> b.tagKeyCount(request)),
             TagKeyCount.reduce(request.getLimit(), request.getExactLimit()));
     }
@@ -87,6 +103,7 @@ public class SuggestBackendGroup implements SuggestBackend {
     public AsyncFuture<WriteSuggest> write(
         final WriteSuggest.Request request, final Span parentSpan
     ) {
+        sketches.ifPresent(s -> s.update(request.getSeries()));
         return async.collect(run(b -> b.write(request, parentSpan)), WriteSuggest.reduce());
     }
 
@@ -119,6 +136,10 @@ public class SuggestBackendGroup implements SuggestBackend {
             .reduce(Statistics.empty(), Statistics::merge);
     }
 
+    private boolean canAnswer(final Filter filter, final boolean exact, final DateRange range) {
+        return sketches.isPresent() && sketches.get().canAnswer(filter, exact, range);
+    }
+
     private <T> List<T> run(final Function<SuggestBackend, T> op) {
         return ImmutableList.copyOf(backends.stream().map(op).iterator());
     }
@@ -22,6 +22,7 @@
 package com.spotify.heroic.suggest;
 
 import static com.spotify.heroic.common.Optionals.mergeOptionalList;
+import static com.spotify.heroic.common.Optionals.pickOptional;
 import static java.util.Optional.empty;
 import static java.util.Optional.of;
 
@@ -33,6 +34,7 @@ import com.spotify.heroic.common.GroupSet;
 import com.spotify.heroic.common.ModuleIdBuilder;
 import com.spotify.heroic.dagger.PrimaryComponent;
 import com.spotify.heroic.lifecycle.LifeCycle;
+import com.spotify.heroic.lifecycle.LifeCycleManager;
 import com.spotify.heroic.statistics.HeroicReporter;
 import com.spotify.heroic.statistics.SuggestBackendReporter;
 import dagger.Module;
@@ -41,19 +43,23 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
 import javax.inject.Named;
 
 @Module
 public class SuggestManagerModule {
     private final List<SuggestModule> backends;
     private final Optional<List<String>> defaultBackends;
+    private final TagSketchConfig sketches;
 
     public SuggestManagerModule(
         List<SuggestModule> backends,
-        Optional<List<String>> defaultBackends
+        Optional<List<String>> defaultBackends,
+        TagSketchConfig sketches
     ) {
         this.backends = backends;
         this.defaultBackends = defaultBackends;
+        this.sketches = sketches;
     }
 
     @Provides
@@ -103,8 +109,18 @@ public class SuggestManagerModule {
     @Provides
     @SuggestScope
     @Named("suggest")
-    public LifeCycle suggestLife(List<SuggestModule.Exposed> components) {
-        return LifeCycle.combined(components.stream().map(SuggestModule.Exposed::life));
+    public LifeCycle suggestLife(
+        List<SuggestModule.Exposed> components, LifeCycleManager manager, TagSketches sketches
+    ) {
+        return LifeCycle.combined(Stream.concat(
+            components.stream().map(SuggestModule.Exposed::life),
+            Stream.of(manager.build(sketches))));
+    }
+
+    @Provides
+    @SuggestScope
+    public TagSketchConfig sketches() {
+        return sketches;
     }
 
     public static Builder builder() {
@@ -114,6 +130,7 @@ public class SuggestManagerModule {
     public static class Builder {
         private Optional<List<SuggestModule>> backends = empty();
         private Optional<List<String>> defaultBackends = empty();
+        private Optional<TagSketchConfig> sketches = empty();
 
         private Builder() {
         }
@@ -121,10 +138,12 @@ public class SuggestManagerModule {
         @JsonCreator
         public Builder(
             @JsonProperty("backends") Optional<List<SuggestModule>> backends,
-            @JsonProperty("defaultBackends") Optional<List<String>> defaultBackends
+            @JsonProperty("defaultBackends") Optional<List<String>> defaultBackends,
+            @JsonProperty("sketches") Optional<TagSketchConfig> sketches
         ) {
             this.backends = backends;
             this.defaultBackends = defaultBackends;
+            this.sketches = sketches;
         }
 
         public Builder backends(List<SuggestModule> backends) {
@@ -137,11 +156,17 @@ public class SuggestManagerModule {
             return this;
         }
 
+        public Builder sketches(TagSketchConfig sketches) {
+            this.sketches = of(sketches);
+            return this;
+        }
+
         public Builder merge(Builder o) {
             // @formatter:off
             return new Builder(
                 mergeOptionalList(o.backends, backends),
-                mergeOptionalList(o.defaultBackends, defaultBackends)
+                mergeOptionalList(o.defaultBackends, defaultBackends),
+                pickOptional(sketches, o.sketches)
             );
             // @formatter:on
         }
@@ -150,7 +175,8 @@ public class SuggestManagerModule {
             // @formatter:off
             return new SuggestManagerModule(
                 backends.orElseGet(ImmutableList::of),
-                defaultBackends
+                defaultBackends,
+                sketches.orElseGet(TagSketchConfig::new)
             );
             // @formatter:on
         }
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.heroic.suggest
+
+/**
+ * Configuration for the tag sketches maintained from written series, see [TagSketches].
+ */
+data class TagSketchConfig(
+    val enabled: Boolean = false,
+    /* precision of the cardinality sketch of each tag key, uses 2^precision bytes per key */
+    val precision: Int = 12,
+    /* number of the most common values tracked for each tag key */
+    val topValues: Int = 100,
+    /* how long in milliseconds that each generation of sketches tracks writes, at least as long as
+     * the default range of metadata requests for sketches to answer them */
+    val generationMs: Long = 604_800_000,
+    /* how long in milliseconds that writes must be tracked before sketches answer requests */
+    val warmupMs: Long = 3_600_000,
+    /* maximum number of written series that are remembered, to only count each series once per
+     * generation, series which are forgotten are counted again */
+    val maxSeries: Long = 1_000_000,
+    /* file that sketches are persisted to and restored from, if any */
+    val path: String? = null,
+    /* how often in milliseconds that sketches are persisted */
+    val persistIntervalMs: Long = 300_000
+)
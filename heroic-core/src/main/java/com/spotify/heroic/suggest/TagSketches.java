@@ -0,0 +1,464 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.heroic.suggest;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.spotify.heroic.common.DateRange;
+import com.spotify.heroic.common.OptionalLimit;
+import com.spotify.heroic.common.Series;
+import com.spotify.heroic.filter.Filter;
+import com.spotify.heroic.filter.TrueFilter;
+import com.spotify.heroic.lifecycle.LifeCycleRegistry;
+import com.spotify.heroic.lifecycle.LifeCycles;
+import com.spotify.heroic.scheduler.Scheduler;
+import com.spotify.heroic.time.Clock;
+import eu.toolchain.async.AsyncFramework;
+import eu.toolchain.async.AsyncFuture;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sketches of the tags of the series written through this node, used to answer
+ * {@link SuggestBackend#tagKeyCount(TagKeyCount.Request)} and
+ * {@link SuggestBackend#tagValuesSuggest(TagValuesSuggest.Request)} without searching the
+ * backends.
+ * <p>
+ * Each tag key has a {@link HyperLogLog} sketch of the number of distinct values, and a
+ * {@link TopValues} summary of the values held by the most series. Each series is counted once
+ * per generation of sketches. A new generation is started periodically, and requests are answered
+ * from the current and the previous generation, so that values which are no longer written
+ * eventually disappear.
+ * <p>
+ * Written series are remembered in a set bounded by {@link TagSketchConfig#getMaxSeries()} to only
+ * count them once per generation. If more series than that are written in a generation, series
+ * which were evicted from the set are counted again when written. This inflates the number of
+ * series held by keys and values, which is used to order them, but not the estimated number of
+ * distinct values.
+ * <p>
+ * Sketches only answer unfiltered requests which did not ask for an exact answer, once writes
+ * have been tracked for long enough for the sketches to have seen the active series. The range of
+ * the request must also start after the previous generation started, since series which were
+ * only written before then have not been seen. Other requests are answered by searching the
+ * backends. Sketches cover all series written since the previous generation started, so they
+ * can include series which were not written in a shorter range.
+ * <p>
+ * Sketches are restored from and periodically persisted to a file, if one is configured.
+ */
+@SuggestScope
+public class TagSketches implements LifeCycles {
+    private static final Logger log = LoggerFactory.getLogger(TagSketches.class);
+
+    private static final int VERSION = 1;
+
+    private final AsyncFramework async;
+    private final Scheduler scheduler;
+    private final Clock clock;
+    private final TagSketchConfig config;
+
+    /* series which have already been counted in the current generation */
+    private final Cache<Series, Boolean> counted;
+
+    private volatile Generation current;
+    private volatile Optional<Generation> previous = Optional.empty();
+
+    @Inject
+    public TagSketches(
+        final AsyncFramework async, final Scheduler scheduler, final Clock clock,
+        final TagSketchConfig config
+    ) {
+        this.async = async;
+        this.scheduler = scheduler;
+        this.clock = clock;
+        this.config = config;
+        this.counted = CacheBuilder.newBuilder().maximumSize(config.getMaxSeries()).build();
+        this.current = new Generation(clock.currentTimeMillis());
+    }
+
+    @Override
+    public void register(final LifeCycleRegistry registry) {
+        registry.start(this::start);
+        registry.stop(this::stop);
+    }
+
+    public boolean isEnabled() {
+        return config.getEnabled();
+    }
+
+    /**
+     * If the given request can be answered from the sketches.
+     */
+    boolean canAnswer(final Filter filter, final boolean exact, final DateRange range) {
+        if (!config.getEnabled() || exact || !(filter instanceof TrueFilter)) {
+            return false;
+        }
+
+        final long since = previous.orElse(current).start;
+        return range.start() >= since && clock.currentTimeMillis() - since >= config.getWarmupMs();
+    }
+
+    /**
+     * Track the tags of a written series.
+     */
+    void update(final Series series) {
+        if (!config.getEnabled()) {
+            return;
+        }
+
+        final Generation generation = rotate();
+
+        if (counted.asMap().putIfAbsent(series, Boolean.TRUE) != null) {
+            return;
+        }
+
+        for (final Map.Entry<String, String> tag : series.getTags().entrySet()) {
+            generation
+                .keys
+                .computeIfAbsent(tag.getKey(),
+                    k -> new KeySketch(config.getPrecision(), config.getTopValues()))
+                .add(tag.getValue());
+        }
+    }
+
+    TagKeyCount tagKeyCount(final TagKeyCount.Request request) {
+        final OptionalLimit limit = request.getLimit();
+        final OptionalLimit exactLimit = request.getExactLimit();
+        final List<String> keys = keys(ImmutableList.of());
+
+        final List<TagKeyCount.Suggestion> suggestions = new ArrayList<>();
+
+        for (final String key : limit.limitList(keys)) {
+            final KeySketch sketch = sketch(key);
+            final TopValues top = sketch.top;
+
+            final Optional<Set<String>> exactValues = exactLimit
+                .asLong()
+                .filter(l -> top.isComplete() && top.size() <= l)
+                .map(l -> ImmutableSet.copyOf(top.values()));
+
+            suggestions.add(
+                new TagKeyCount.Suggestion(key, sketch.values.estimate(), exactValues));
+        }
+
+        return new TagKeyCount(suggestions, limit.isGreater(keys.size()));
+    }
+
+    TagValuesSuggest tagValuesSuggest(final TagValuesSuggest.Request request) {
+        final OptionalLimit limit = request.getLimit();
+        final OptionalLimit groupLimit = request.getGroupLimit();
+        final List<String> keys = keys(request.getExclude());
+
+        final List<TagValuesSuggest.Suggestion> suggestions = new ArrayList<>();
+
+        for (final String key : limit.limitList(keys)) {
+            final TopValues top = sketch(key).top;
+
+            final boolean limited = !top.isComplete() || groupLimit.isGreater(top.size());
+            suggestions.add(new TagValuesSuggest.Suggestion(key,
+                new TreeSet<>(groupLimit.limitList(top.values())), limited));
+        }
+
+        return new TagValuesSuggest(suggestions, limit.isGreater(keys.size()));
+    }
+
+    /**
+     * All tag keys across the current and previous generation, the keys held by the most series
+     * first. Only the series counts are read, so that only the sketches of keys that are returned
+     * have to be merged.
+     */
+    private List<String> keys(final List<String> exclude) {
+        final Map<String, Long> series = new HashMap<>();
+
+        current.keys.forEach((key, sketch) -> series.put(key, sketch.series()));
+        previous.ifPresent(p -> p.keys.forEach(
+            (key, sketch) -> series.merge(key, sketch.series(), Math::max)));
+
+        exclude.forEach(series::remove);
+
+        return series
+            .entrySet()
+            .stream()
+            .sorted(Comparator
+                .<Map.Entry<String, Long>>comparingLong(e -> -e.getValue())
+                .thenComparing(Map.Entry.comparingByKey()))
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * The sketch of a tag key across the current and previous generation.
+     */
+    private KeySketch sketch(final String key) {
+        final Optional<KeySketch> newer = Optional.ofNullable(current.keys.get(key));
+        final Optional<KeySketch> older = previous.map(p -> p.keys.get(key));
+
+        if (newer.isPresent() && older.isPresent()) {
+            return newer.get().copy().merge(older.get().copy());
+        }
+
+        return newer.orElseGet(older::get).copy();
+    }
+
+    /**
+     * Get the current generation, starting a new one if it has expired.
+     */
+    private Generation rotate() {
+        final Generation generation = current;
+
+        if (clock.currentTimeMillis() - generation.start < config.getGenerationMs()) {
+            return generation;
+        }
+
+        synchronized (this) {
+            if (current == generation) {
+                previous = Optional.of(generation);
+                current = new Generation(clock.currentTimeMillis());
+                counted.invalidateAll();
+            }
+
+            return current;
+        }
+    }
+
+    private AsyncFuture<Void> start() {
+        if (!config.getEnabled() || config.getPath() == null) {
+            return async.resolved();
+        }
+
+        final Path path = Paths.get(config.getPath());
+
+        try {
+            restore(path);
+        } catch (final Exception e) {
+            log.warn("Failed to restore tag sketches from {}, starting empty", path, e);
+        }
+
+        scheduler.periodically("tag-sketches", config.getPersistIntervalMs(),
+            TimeUnit.MILLISECONDS, () -> persist(path));
+
+        return async.resolved();
+    }
+
+    private AsyncFuture<Void> stop() {
+        if (!config.getEnabled() || config.getPath() == null) {
+            return async.resolved();
+        }
+
+        return async.call(() -> {
+            persist(Paths.get(config.getPath()));
+            return null;
+        });
+    }
+
+    void restore(final Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+
+        try (DataInputStream in = new DataInputStream(
+            new BufferedInputStream(Files.newInputStream(path)))) {
+            final int version = in.readInt();
+
+            if (version != VERSION) {
+                throw new IOException("Unsupported version: " + version);
+            }
+
+            final Optional<Generation> restoredPrevious =
+                in.readBoolean() ? Optional.of(Generation.read(in)) : Optional.empty();
+            final Generation restoredCurrent = Generation.read(in);
+
+            final long now = clock.currentTimeMillis();
+
+            /* generations which would already have been dropped are stale */
+            if (now - restoredCurrent.start >= 2 * config.getGenerationMs()) {
+                log.info("Ignoring stale tag sketches in {}", path);
+                return;
+            }
+
+            synchronized (this) {
+                previous = restoredPrevious.filter(
+                    p -> now - p.start < 2 * config.getGenerationMs());
+                current = restoredCurrent;
+                counted.invalidateAll();
+            }
+        }
+
+        log.info("Restored tag sketches from {}", path);
+    }
+
+    void persist(final Path path) throws IOException {
+        final Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+
+        final Optional<Generation> previous;
+        final Generation current;
+
+        synchronized (this) {
+            previous = this.previous;
+            current = this.current;
+        }
+
+        try (DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(VERSION);
+            out.writeBoolean(previous.isPresent());
+
+            if (previous.isPresent()) {
+                previous.get().write(out);
+            }
+
+            current.write(out);
+        }
+
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static class Generation {
+        private final long start;
+        private final ConcurrentMap<String, KeySketch> keys;
+
+        private Generation(final long start) {
+            this(start, new ConcurrentHashMap<>());
+        }
+
+        private Generation(final long start, final ConcurrentMap<String, KeySketch> keys) {
+            this.start = start;
+            this.keys = keys;
+        }
+
+        /**
+         * Copy the sketches of this generation, so that they can be written while being updated.
+         */
+        private Map<String, KeySketch> snapshot() {
+            final Map<String, KeySketch> snapshot = new HashMap<>();
+            keys.forEach((key, sketch) -> snapshot.put(key, sketch.copy()));
+            return snapshot;
+        }
+
+        private void write(final DataOutput out) throws IOException {
+            final Map<String, KeySketch> snapshot = snapshot();
+
+            out.writeLong(start);
+            out.writeInt(snapshot.size());
+
+            for (final Map.Entry<String, KeySketch> e : snapshot.entrySet()) {
+                out.writeUTF(e.getKey());
+                e.getValue().write(out);
+            }
+        }
+
+        private static Generation read(final DataInput in) throws IOException {
+            final long start = in.readLong();
+            final int size = in.readInt();
+
+            final ConcurrentMap<String, KeySketch> keys = new ConcurrentHashMap<>();
+
+            for (int i = 0; i < size; i++) {
+                keys.put(in.readUTF(), KeySketch.read(in));
+            }
+
+            return new Generation(start, keys);
+        }
+    }
+
+    /**
+     * Sketches of the values of a single tag key.
+     */
+    private static class KeySketch {
+        /* number of series with the tag key */
+        private long series;
+        private final HyperLogLog values;
+        private final TopValues top;
+
+        private KeySketch(final int precision, final int topValues) {
+            this(0L, new HyperLogLog(precision), new TopValues(topValues));
+        }
+
+        private KeySketch(final long series, final HyperLogLog values, final TopValues top) {
+            this.series = series;
+            this.values = values;
+            this.top = top;
+        }
+
+        private synchronized void add(final String value) {
+            series++;
+            values.add(value);
+            top.add(value);
+        }
+
+        private synchronized long series() {
+            return series;
+        }
+
+        private synchronized KeySketch copy() {
+            return new KeySketch(series, values.copy(), top.copy());
+        }
+
+        /**
+         * Merge the sketches of two generations. Series written in both generations are counted
+         * by both, so the larger series count is used to estimate the series of the union.
+         */
+        private KeySketch merge(final KeySketch other) {
+            return new KeySketch(Math.max(series, other.series), values.merge(other.values),
+                top.merge(other.top));
+        }
+
+        private synchronized void write(final DataOutput out) throws IOException {
+            out.writeLong(series);
+            values.write(out);
+            top.write(out);
+        }
+
+        private static KeySketch read(final DataInput in) throws IOException {
+            final long series = in.readLong();
+            final HyperLogLog values = HyperLogLog.read(in);
+            final TopValues top = TopValues.read(in);
+            return new KeySketch(series, values, top);
+        }
+    }
+}
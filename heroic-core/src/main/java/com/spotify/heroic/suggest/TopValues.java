@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.heroic.suggest;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Space-Saving summary of the most common values added to it, holding at most a fixed number of
+ * values.
+ * <p>
+ * When a new value is added to a full summary, the least common value is evicted and the new value
+ * inherits its count. Counts are therefore over-estimates, but any value that is more common than
+ * the evicted ones is guaranteed to be held. Until the first eviction, the summary holds every
+ * value added to it with an exact count.
+ */
+final class TopValues {
+    private static final Comparator<Map.Entry<String, Long>> MOST_COMMON =
+        Map.Entry.<String, Long>comparingByValue()
+            .reversed()
+            .thenComparing(Map.Entry.comparingByKey());
+
+    private final int capacity;
+    private final Map<String, Long> counts;
+    private boolean evicted;
+
+    TopValues(final int capacity) {
+        this(capacity, new HashMap<>(), false);
+    }
+
+    private TopValues(final int capacity, final Map<String, Long> counts, final boolean evicted) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+
+        this.capacity = capacity;
+        this.counts = counts;
+        this.evicted = evicted;
+    }
+
+    void add(final String value) {
+        final Long count = counts.get(value);
+
+        if (count != null) {
+            counts.put(value, count + 1);
+            return;
+        }
+
+        if (counts.size() < capacity) {
+            counts.put(value, 1L);
+            return;
+        }
+
+        final Map.Entry<String, Long> least =
+            counts.entrySet().stream().min(Map.Entry.comparingByValue()).get();
+
+        counts.remove(least.getKey());
+        counts.put(value, least.getValue() + 1);
+        evicted = true;
+    }
+
+    /**
+     * If every value added to this summary is held by it.
+     */
+    boolean isComplete() {
+        return !evicted;
+    }
+
+    int size() {
+        return counts.size();
+    }
+
+    /**
+     * The held values, most common first.
+     */
+    List<String> values() {
+        return counts
+            .entrySet()
+            .stream()
+            .sorted(MOST_COMMON)
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Build a summary of the values added to this and the given summary, summing the counts of
+     * values held by both.
+     */
+    TopValues merge(final TopValues other) {
+        final Map<String, Long> merged = new HashMap<>(counts);
+        other.counts.forEach((value, count) -> merged.merge(value, count, Long::sum));
+
+        if (merged.size() <= capacity) {
+            return new TopValues(capacity, merged, evicted || other.evicted);
+        }
+
+        final Map<String, Long> top = merged
+            .entrySet()
+            .stream()
+            .sorted(MOST_COMMON)
+            .limit(capacity)
+            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+
+        return new TopValues(capacity, new HashMap<>(top), true);
+    }
+
+    TopValues copy() {
+        return new TopValues(capacity, new HashMap<>(counts), evicted);
+    }
+
+    void write(final DataOutput out) throws IOException {
+        out.writeInt(capacity);
+        out.writeBoolean(evicted);
+        out.writeInt(counts.size());
+
+        for (final Map.Entry<String, Long> e : counts.entrySet()) {
+            out.writeUTF(e.getKey());
+            out.writeLong(e.getValue());
+        }
+    }
+
+    static TopValues read(final DataInput in) throws IOException {
+        final int capacity = in.readInt();
+        final boolean evicted = in.readBoolean();
+        final int size = in.readInt();
+
+        final Map<String, Long> counts = new HashMap<>();
+
+        for (int i = 0; i < size; i++) {
+            counts.put(in.readUTF(), in.readLong());
+        }
+
+        return new TopValues(capacity, counts, evicted);
+    }
+}
@@ -14,6 +14,7 @@ import com.spotify.heroic.common.OptionalLimit;
 import com.spotify.heroic.grammar.QueryParser;
 import com.spotify.heroic.querylogging.QueryLogger;
 import com.spotify.heroic.querylogging.QueryLoggerFactory;
+import com.spotify.heroic.scheduler.Scheduler;
 import com.spotify.heroic.statistics.QueryReporter;
 import com.spotify.heroic.time.Clock;
 import eu.toolchain.async.AsyncFramework;
@@ -31,6 +32,9 @@ public class CoreQueryManagerTest {
     @Mock
     private AsyncFramework async;
 
+    @Mock
+    private Scheduler scheduler;
+
     @Mock
     private ClusterManager cluster;
 
@@ -52,9 +56,10 @@ public class CoreQueryManagerTest {
         QueryLoggerFactory queryLoggerFactory = mock(QueryLoggerFactory.class);
         when(queryLoggerFactory.create(any())).thenReturn(queryLogger);
 
-        manager = new CoreQueryManager(Features.empty(), async, Clock.system(), cluster, parser,
-            queryCache, aggregations, OptionalLimit.empty(), smallQueryThreshold, queryReporter,
-            Optional.empty(), queryLoggerFactory);
+        manager = new CoreQueryManager(Features.empty(), async, Clock.system(), scheduler, cluster,
+            parser, queryCache, new QueryCoalescer(async, queryReporter), aggregations,
+            OptionalLimit.empty(), smallQueryThreshold, queryReporter, Optional.empty(),
+            queryLoggerFactory);
     }
 
     @Test
@@ -0,0 +1,124 @@
+package com.spotify.heroic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.spotify.heroic.aggregation.AggregationCombiner;
+import com.spotify.heroic.cluster.ClusterShard;
+import com.spotify.heroic.common.DateRange;
+import com.spotify.heroic.common.OptionalLimit;
+import com.spotify.heroic.metric.QueryResult;
+import com.spotify.heroic.metric.QueryResultCombiner;
+import com.spotify.heroic.metric.QueryResultPart;
+import com.spotify.heroic.metric.QueryTrace;
+import com.spotify.heroic.metric.ResultLimit;
+import com.spotify.heroic.metric.ResultLimits;
+import com.spotify.heroic.metric.ShardError;
+import com.spotify.heroic.scheduler.Scheduler;
+import com.spotify.heroic.scheduler.Task;
+import com.spotify.heroic.statistics.QueryReporter;
+import eu.toolchain.async.AsyncFramework;
+import eu.toolchain.async.AsyncFuture;
+import eu.toolchain.async.ResolvableFuture;
+import eu.toolchain.async.TinyAsync;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class LatencyBudgetTest {
+    private final QueryTrace.NamedWatch watch = QueryTrace.watch(QueryTrace.identifier("test"));
+
+    @Mock
+    private Scheduler scheduler;
+
+    @Mock
+    private QueryReporter reporter;
+
+    private ExecutorService executor;
+    private AsyncFramework async;
+    private LatencyBudget budget;
+
+    @Before
+    public void setup() {
+        executor = Executors.newSingleThreadExecutor();
+        async = TinyAsync.builder().executor(executor).build();
+
+        final QueryResultCombiner combined = new QueryResultCombiner(
+            QueryTrace.identifier("query"), new DateRange(0L, 100L), AggregationCombiner.DEFAULT,
+            OptionalLimit.empty());
+
+        budget = new LatencyBudget(async, scheduler, reporter, combined, 100L);
+    }
+
+    @After
+    public void teardown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void testWithinBudget() throws Exception {
+        final ResolvableFuture<QueryResultPart> a = async.future();
+        final ResolvableFuture<QueryResultPart> b = async.future();
+
+        budget.add(mock(ClusterShard.class), watch, a);
+        budget.add(mock(ClusterShard.class), watch, b);
+        a.resolve(part(10L));
+
+        final AsyncFuture<QueryResult> future = budget.start();
+        b.resolve(part(20L));
+
+        final QueryResult result = future.get();
+        assertEquals(30L, result.getPreAggregationSampleSize());
+        assertEquals(ImmutableList.of(), result.getErrors());
+        assertEquals(ResultLimits.of(), result.getLimits());
+        verify(reporter, never()).reportLatencyBudgetExceeded();
+    }
+
+    @Test
+    public void testBudgetExceeded() throws Exception {
+        final ResolvableFuture<QueryResultPart> a = async.future();
+        final ResolvableFuture<QueryResultPart> b = async.future();
+
+        budget.add(mock(ClusterShard.class), watch, a);
+        budget.add(mock(ClusterShard.class), watch, b);
+        a.resolve(part(10L));
+
+        final AsyncFuture<QueryResult> future = budget.start();
+
+        final ArgumentCaptor<Task> expire = ArgumentCaptor.forClass(Task.class);
+        verify(scheduler).schedule(eq("latency-budget"), eq(100L), eq(TimeUnit.MILLISECONDS),
+            expire.capture());
+        expire.getValue().run();
+
+        final QueryResult result = future.get();
+        assertEquals(10L, result.getPreAggregationSampleSize());
+        assertEquals(ImmutableList.of(new ShardError(ImmutableList.of(), ImmutableMap.of(),
+            "Shard did not respond within the latency budget of 100ms")), result.getErrors());
+        assertEquals(ResultLimits.of(ResultLimit.LATENCY_BUDGET), result.getLimits());
+        assertTrue(b.isCancelled());
+        verify(reporter).reportLatencyBudgetExceeded();
+
+        /* late parts are ignored */
+        b.resolve(part(20L));
+        assertEquals(10L, future.get().getPreAggregationSampleSize());
+    }
+
+    private QueryResultPart part(final long sampleSize) {
+        return new QueryResultPart(ImmutableList.of(), ImmutableList.of(), QueryTrace.PASSIVE,
+            ResultLimits.of(), sampleSize);
+    }
+}
@@ -0,0 +1,103 @@
+package com.spotify.heroic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.spotify.heroic.metric.QueryResult;
+import com.spotify.heroic.statistics.QueryReporter;
+import eu.toolchain.async.AsyncFramework;
+import eu.toolchain.async.AsyncFuture;
+import eu.toolchain.async.ResolvableFuture;
+import eu.toolchain.async.TinyAsync;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class QueryCoalescerTest {
+    @Mock
+    private QueryReporter reporter;
+
+    private ExecutorService executor;
+    private AsyncFramework async;
+    private QueryCoalescer coalescer;
+
+    private ResolvableFuture<QueryResult> shared;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Before
+    public void setup() {
+        executor = Executors.newSingleThreadExecutor();
+        async = TinyAsync.builder().executor(executor).build();
+        coalescer = new QueryCoalescer(async, reporter);
+        shared = async.future();
+    }
+
+    @After
+    public void teardown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void testCoalesceInFlight() throws Exception {
+        final AsyncFuture<QueryResult> a = coalescer.load("key", loader());
+        final AsyncFuture<QueryResult> b = coalescer.load("key", loader());
+        final AsyncFuture<QueryResult> other = coalescer.load("other", loader());
+
+        assertEquals(2, loads.get());
+        verify(reporter, times(1)).reportQueryCoalesced();
+
+        final QueryResult result = mock(QueryResult.class);
+        shared.resolve(result);
+
+        assertSame(result, a.get());
+        assertSame(result, b.get());
+        assertSame(result, other.get());
+        assertEquals(0, coalescer.size());
+
+        /* a completed query is not shared */
+        coalescer.load("key", loader());
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void testCancelOnlyWhenAbandoned() {
+        final AsyncFuture<QueryResult> a = coalescer.load("key", loader());
+        final AsyncFuture<QueryResult> b = coalescer.load("key", loader());
+
+        a.cancel();
+        assertFalse(shared.isDone());
+        assertFalse(b.isDone());
+
+        b.cancel();
+        assertTrue(shared.isCancelled());
+        assertEquals(0, coalescer.size());
+    }
+
+    @Test(expected = ExecutionException.class)
+    public void testLoaderFailure() throws Exception {
+        coalescer.load("key", () -> {
+            throw new IllegalStateException("boom");
+        }).get();
+    }
+
+    private Supplier<AsyncFuture<QueryResult>> loader() {
+        return () -> {
+            loads.incrementAndGet();
+            return shared;
+        };
+    }
+}
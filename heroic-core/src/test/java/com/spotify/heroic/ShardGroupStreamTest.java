@@ -0,0 +1,125 @@
+package com.spotify.heroic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.spotify.heroic.aggregation.AggregationCombiner;
+import com.spotify.heroic.cluster.ClusterNode;
+import com.spotify.heroic.cluster.ClusterShard;
+import com.spotify.heroic.common.DateRange;
+import com.spotify.heroic.common.OptionalLimit;
+import com.spotify.heroic.common.Series;
+import com.spotify.heroic.metric.FullQuery;
+import com.spotify.heroic.metric.MetricCollection;
+import com.spotify.heroic.metric.Point;
+import com.spotify.heroic.metric.QueryResultCombiner;
+import com.spotify.heroic.metric.QueryTrace;
+import com.spotify.heroic.metric.ResultGroup;
+import com.spotify.heroic.metric.ResultLimits;
+import eu.toolchain.async.AsyncFramework;
+import eu.toolchain.async.AsyncFuture;
+import eu.toolchain.async.ResolvableFuture;
+import eu.toolchain.async.TinyAsync;
+import io.opencensus.trace.BlankSpan;
+import java.util.function.Consumer;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ShardGroupStreamTest {
+    private static final ResultGroup GROUP = new ResultGroup(ImmutableMap.of("key", "a"),
+        ImmutableSet.of(Series.of("a", ImmutableMap.of())),
+        MetricCollection.points(ImmutableList.of(new Point(1, 1D), new Point(2, 2D))), 0L);
+
+    private final AsyncFramework async = TinyAsync.builder().build();
+
+    private QueryResultCombiner combined;
+    private ShardGroupStream stream;
+
+    @Before
+    public void setup() {
+        final ClusterShard shard = mock(ClusterShard.class);
+        doReturn(ImmutableMap.of("site", "a")).when(shard).getShard();
+
+        combined = new QueryResultCombiner(QueryTrace.identifier("query"), new DateRange(0L, 100L),
+            AggregationCombiner.DEFAULT, OptionalLimit.empty());
+        stream = new ShardGroupStream(shard, combined);
+    }
+
+    @Test
+    public void testCombineAsReceived() throws Exception {
+        final Request request = new Request();
+        final AsyncFuture<FullQuery> result = request.start();
+
+        /* groups are combined before the shard has responded */
+        request.groups.accept(GROUP);
+        assertEquals(1, combined.result().getGroups().size());
+
+        request.future.resolve(FullQuery.empty(QueryTrace.PASSIVE, ResultLimits.of()));
+        assertEquals(2L, stream.part(result.get()).getPreAggregationSampleSize());
+    }
+
+    @Test
+    public void testEmptyGroups() {
+        final ResultGroup empty = new ResultGroup(ImmutableMap.of("key", "b"),
+            ImmutableSet.of(), MetricCollection.points(ImmutableList.of()), 0L);
+
+        final Request request = new Request();
+        request.start();
+
+        /* empty groups are only combined together with a group which is not */
+        request.groups.accept(empty);
+        assertEquals(0, combined.result().getGroups().size());
+
+        request.groups.accept(GROUP);
+        assertEquals(2, combined.result().getGroups().size());
+    }
+
+    @Test
+    public void testOtherRequestFails() throws Exception {
+        final Request first = new Request();
+        final Request hedged = new Request();
+        final AsyncFuture<FullQuery> firstResult = first.start();
+        final AsyncFuture<FullQuery> hedgedResult = hedged.start();
+
+        first.groups.accept(GROUP);
+
+        try {
+            hedged.groups.accept(GROUP);
+        } catch (final IllegalStateException e) {
+            /* fails the request that passed on the group */
+        }
+
+        hedged.future.resolve(FullQuery.empty(QueryTrace.PASSIVE, ResultLimits.of()));
+        assertTrue(hedgedResult.isFailed());
+
+        first.future.resolve(FullQuery.empty(QueryTrace.PASSIVE, ResultLimits.of()));
+        assertTrue(firstResult.isResolved());
+        assertEquals(1, combined.result().getGroups().size());
+    }
+
+    /**
+     * A request for the shard, which passes on groups through the consumer it was given.
+     */
+    private class Request {
+        private final ResolvableFuture<FullQuery> future = async.future();
+        private Consumer<ResultGroup> groups;
+
+        AsyncFuture<FullQuery> start() {
+            final ClusterNode.Group group = mock(ClusterNode.Group.class);
+
+            doAnswer(invocation -> {
+                groups = invocation.getArgument(2);
+                return future;
+            }).when(group).query(any(), any(), any());
+
+            return stream.query(group, mock(FullQuery.Request.class), BlankSpan.INSTANCE);
+        }
+    }
+}
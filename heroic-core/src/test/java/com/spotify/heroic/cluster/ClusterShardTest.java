@@ -0,0 +1,173 @@
+package com.spotify.heroic.cluster;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.spotify.heroic.scheduler.Scheduler;
+import com.spotify.heroic.scheduler.Task;
+import com.spotify.heroic.statistics.QueryReporter;
+import eu.toolchain.async.AsyncFuture;
+import eu.toolchain.async.ResolvableFuture;
+import eu.toolchain.async.TinyAsync;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ClusterShardTest {
+    private static final Map<String, String> SHARD = ImmutableMap.of("shard", "a");
+
+    private final TinyAsync async = TinyAsync
+        .builder()
+        .executor(MoreExecutors.newDirectExecutorService())
+        .scheduler(Executors.newSingleThreadScheduledExecutor())
+        .build();
+
+    @Mock
+    private QueryReporter reporter;
+    @Mock
+    private ClusterManager cluster;
+    @Mock
+    private Scheduler scheduler;
+    @Mock
+    private ClusterNode.Group group;
+
+    private final AtomicLong clock = new AtomicLong();
+    private final NodeLatencyTracker latencies = new NodeLatencyTracker(clock::get);
+    private final List<ClusterNode> nodes = new ArrayList<>();
+    private final List<ResolvableFuture<String>> requests = new ArrayList<>();
+
+    private ClusterShard shard;
+
+    @Before
+    public void setup() {
+        shard = new ClusterShard(async, SHARD, reporter, cluster, latencies,
+            new HedgingConfig(true, 0.5D, 10L), scheduler);
+
+        nodes.add(mock(ClusterNode.class));
+        nodes.add(mock(ClusterNode.class));
+
+        doAnswer(invocation -> {
+            final Predicate<ClusterNode> exclude = invocation.getArgument(1);
+            return nodes.stream().anyMatch(exclude.negate());
+        }).when(cluster).hasNextButNotWithId(eq(SHARD), any());
+
+        doAnswer(invocation -> {
+            final Predicate<ClusterNode> exclude = invocation.getArgument(1);
+            final Consumer<ClusterNode> use = invocation.getArgument(2);
+            final Function<ClusterNode.Group, Object> fn = invocation.getArgument(3);
+
+            final Optional<ClusterNode> node = nodes.stream().filter(exclude.negate()).findFirst();
+            node.ifPresent(use);
+            return node.map(n -> new ClusterManager.NodeResult<>(fn.apply(group), n));
+        }).when(cluster).withNodeInShardButNotWithId(eq(SHARD), any(), any(), any());
+
+        /* enough history for the endpoint to have a percentile */
+        for (int i = 0; i < NodeLatencyTracker.MIN_SAMPLES; i++) {
+            latencies.start(nodes.get(0), SHARD, Optional.of("query")).finish(true);
+        }
+    }
+
+    @Test
+    public void testHedgeWins() throws Exception {
+        final AsyncFuture<String> result = apply();
+        assertEquals(1, requests.size());
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        scheduledHedge().run();
+        assertEquals(2, requests.size());
+        verify(reporter).reportHedgeFired();
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+        requests.get(1).resolve("hedge");
+
+        assertEquals("hedge", result.get());
+        assertTrue(requests.get(0).isCancelled());
+        verify(reporter).reportHedgeWon();
+
+        /* the cancelled loser is recorded as well, with its elapsed time, which shows up once the
+         * percentiles of the window are refreshed */
+        for (int i = 0; i < NodeLatencyTracker.REFRESH_INTERVAL; i++) {
+            latencies.start(nodes.get(0), SHARD, Optional.of("query")).finish(true);
+        }
+
+        assertEquals(Optional.of(1010L), latencies.percentile(SHARD, "query", 1D));
+    }
+
+    @Test
+    public void testFirstWins() throws Exception {
+        final AsyncFuture<String> result = apply();
+
+        requests.get(0).resolve("first");
+        scheduledHedge().run();
+
+        assertEquals("first", result.get());
+        assertEquals(1, requests.size());
+        verify(reporter, never()).reportHedgeFired();
+    }
+
+    @Test
+    public void testHedgeFailed() throws Exception {
+        final AsyncFuture<String> result = apply();
+
+        scheduledHedge().run();
+        requests.get(1).fail(new RuntimeException("failed"));
+        assertFalse(result.isDone());
+
+        requests.get(0).resolve("first");
+
+        assertEquals("first", result.get());
+        verify(reporter, never()).reportHedgeWon();
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        shard = new ClusterShard(async, SHARD, reporter, cluster, latencies, new HedgingConfig(),
+            scheduler);
+
+        final AsyncFuture<String> result = apply();
+        requests.get(0).resolve("first");
+
+        assertEquals("first", result.get());
+        verify(scheduler, never()).schedule(anyString(), anyLong(), any(), any());
+    }
+
+    private AsyncFuture<String> apply() {
+        return shard.applyHedged("query", g -> {
+            final ResolvableFuture<String> request = async.future();
+            requests.add(request);
+            return request;
+        }, (result, traces) -> result);
+    }
+
+    private Task scheduledHedge() {
+        final ArgumentCaptor<Task> task = ArgumentCaptor.forClass(Task.class);
+        verify(scheduler).schedule(eq("hedge"), anyLong(), eq(TimeUnit.MILLISECONDS),
+            task.capture());
+        return task.getValue();
+    }
+}
@@ -64,7 +64,8 @@ public class CoreClusterManagerTest {
         final boolean useLocal = true;
 
         manager = spy(new CoreClusterManager(async, discovery, localMetadata, protocols, scheduler,
-            useLocal, options, local, context, ImmutableSet.of(), reporter, usageTracking));
+            useLocal, options, local, context, ImmutableSet.of(), reporter, usageTracking,
+            new NodeLatencyTracker(), new HedgingConfig()));
     }
 
     @Test
@@ -0,0 +1,97 @@
+package com.spotify.heroic.cluster;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.spotify.heroic.common.ServiceInfo;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NodeRegistryTest {
+    private static final Map<String, String> SHARD_A = ImmutableMap.of("shard", "a");
+    private static final Map<String, String> SHARD_B = ImmutableMap.of("shard", "b");
+    private static final Map<String, String> SHARD_C = ImmutableMap.of("shard", "c");
+    private static final ServiceInfo SERVICE = new ServiceInfo("heroic", "0.0.0", "heroic", "");
+
+    private ClusterNode a1;
+    private ClusterNode a2;
+    private ClusterNode b1;
+    private NodeRegistry registry;
+
+    @Before
+    public void setup() {
+        a1 = node(SHARD_A, true);
+        a2 = node(SHARD_A, true);
+        b1 = node(SHARD_B, false);
+        registry = new NodeRegistry(ImmutableList.of(a1, a2, b1), 4);
+    }
+
+    @Test
+    public void testRoutingTable() {
+        assertEquals(ImmutableSet.of(SHARD_A, SHARD_B), registry.getShards());
+        assertEquals(ImmutableList.of(a1, a2), registry.getNodesInShard(SHARD_A));
+        assertEquals(ImmutableList.of(), registry.getNodesInShard(ImmutableMap.of()));
+        assertEquals(3, registry.getOnlineNodes());
+        assertEquals(1, registry.getOfflineNodes());
+    }
+
+    @Test
+    public void testPick() {
+        assertEquals(Optional.of(a2), registry.getNodeInShardButNotWithId(SHARD_A, a1::equals));
+        assertEquals(Optional.empty(),
+            registry.getNodeInShardButNotWithId(SHARD_A, n -> true));
+        /* not alive */
+        assertEquals(Optional.empty(), registry.getNodeInShardButNotWithId(SHARD_B, n -> false));
+        assertEquals(Optional.empty(),
+            registry.getNodeInShardButNotWithId(ImmutableMap.of(), n -> false));
+    }
+
+    @Test
+    public void testPickLowestScore() {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Optional.of(a2),
+                registry.getNodeInShardButNotWithId(SHARD_A, n -> false, n -> n == a1 ? 2D : 1D));
+        }
+    }
+
+    @Test
+    public void testPickUniformly() {
+        /* a dead node must not make the node after it more likely to be picked */
+        final ClusterNode c1 = node(SHARD_C, true);
+        final ClusterNode c2 = node(SHARD_C, false);
+        final ClusterNode c3 = node(SHARD_C, true);
+        final ClusterNode c4 = node(SHARD_C, true);
+        final ClusterNode c5 = node(SHARD_C, true);
+        final NodeRegistry registry = new NodeRegistry(ImmutableList.of(c1, c2, c3, c4, c5), 5);
+
+        final Map<ClusterNode, Integer> picks = new HashMap<>();
+
+        for (int i = 0; i < 40000; i++) {
+            registry
+                .getNodeInShardButNotWithId(SHARD_C, n -> false)
+                .ifPresent(n -> picks.merge(n, 1, Integer::sum));
+        }
+
+        assertEquals(ImmutableSet.of(c1, c3, c4, c5), picks.keySet());
+
+        for (final int count : picks.values()) {
+            assertEquals(10000D, count, 1000D);
+        }
+    }
+
+    private ClusterNode node(final Map<String, String> shard, final boolean alive) {
+        final ClusterNode node = mock(ClusterNode.class);
+        doReturn(new NodeMetadata(0, UUID.randomUUID(), shard, SERVICE)).when(node)
+            .metadata();
+        doReturn(alive).when(node).isAlive();
+        return node;
+    }
+}
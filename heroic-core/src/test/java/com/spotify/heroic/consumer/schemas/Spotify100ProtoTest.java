@@ -28,6 +28,7 @@ import static org.mockito.Mockito.when;
 import com.google.common.collect.ImmutableList;
 import com.spotify.heroic.common.Series;
 import com.spotify.heroic.consumer.ConsumerSchemaValidationException;
+import com.spotify.heroic.consumer.SeriesCache;
 import com.spotify.heroic.ingestion.Ingestion;
 import com.spotify.heroic.ingestion.IngestionGroup;
 import com.spotify.heroic.ingestion.Request;
@@ -76,7 +77,8 @@ public class Spotify100ProtoTest {
   public void setup() {
     when(clock.currentTimeMillis()).thenReturn(1542830485000L);
     when(ingestion.write(any(Request.class))).thenReturn(resolved);
-    consumer = new Spotify100Proto.Consumer(clock, ingestion, reporter, async);
+    consumer = new Spotify100Proto.Consumer(clock, ingestion, reporter, async,
+      new SeriesCache(reporter));
   }
 
   @Test
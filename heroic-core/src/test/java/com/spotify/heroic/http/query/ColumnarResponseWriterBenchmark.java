@@ -0,0 +1,117 @@
+package com.spotify.heroic.http.query;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.spotify.heroic.common.DateRange;
+import com.spotify.heroic.common.Series;
+import com.spotify.heroic.common.Statistics;
+import com.spotify.heroic.metric.MetricCollection;
+import com.spotify.heroic.metric.Point;
+import com.spotify.heroic.metric.QueryMetricsResponse;
+import com.spotify.heroic.metric.QueryTrace;
+import com.spotify.heroic.metric.ResultLimits;
+import com.spotify.heroic.metric.ShardedResultGroup;
+import com.spotify.heroic.test.FakeModuleLoader;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.DoubleSupplier;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Compares the size and encoding time of the JSON and columnar query responses, for 100 groups of
+ * one day of points at a minute resolution.
+ * <p>
+ * Not run with the tests, remove the {@code @Ignore} to run it.
+ */
+@Ignore
+public class ColumnarResponseWriterBenchmark {
+    private static final int GROUPS = 100;
+    private static final int POINTS = 1440;
+    private static final int WARMUP = 30;
+    private static final int ITERATIONS = 50;
+
+    private final ObjectMapper mapper = FakeModuleLoader.builder().build().json();
+    private final ColumnarResponseWriter writer = new ColumnarResponseWriter(mapper);
+
+    @Test
+    public void testGauge() throws Exception {
+        final int[] i = {0};
+        run("gauge", () -> Math.round(5000 + 1000 * Math.sin(i[0]++ / 50.0)) / 100.0);
+    }
+
+    @Test
+    public void testCounter() throws Exception {
+        final Random random = new Random(0);
+        final double[] value = {100};
+        run("counter", () -> value[0] += random.nextInt(5));
+    }
+
+    @Test
+    public void testNoise() throws Exception {
+        final Random random = new Random(0);
+        run("noise", () -> random.nextDouble() * 1000);
+    }
+
+    private void run(final String name, final DoubleSupplier values) throws Exception {
+        final QueryMetricsResponse response = response(values);
+
+        int json = 0;
+        int columnar = 0;
+
+        for (int i = 0; i < WARMUP; i++) {
+            json = mapper.writeValueAsBytes(response).length;
+            columnar = columnar(response).size();
+        }
+
+        final long start = System.nanoTime();
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            mapper.writeValueAsBytes(response);
+        }
+
+        final long middle = System.nanoTime();
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            columnar(response);
+        }
+
+        final long end = System.nanoTime();
+
+        System.out.printf("%s: json %d bytes in %d us, columnar %d bytes in %d us%n", name, json,
+            (middle - start) / ITERATIONS / 1000, columnar, (end - middle) / ITERATIONS / 1000);
+    }
+
+    private ByteArrayOutputStream columnar(final QueryMetricsResponse response) throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(response, out);
+        return out;
+    }
+
+    private static QueryMetricsResponse response(final DoubleSupplier values) {
+        final List<ShardedResultGroup> groups = new ArrayList<>();
+
+        for (int g = 0; g < GROUPS; g++) {
+            final List<Point> points = new ArrayList<>();
+
+            for (int i = 0; i < POINTS; i++) {
+                points.add(new Point(1600000000000L + i * 60000L, values.getAsDouble()));
+            }
+
+            groups.add(new ShardedResultGroup(ImmutableMap.of("site", "a"),
+                ImmutableMap.of("host", "h" + g),
+                ImmutableSet.of(Series.of("foo", ImmutableMap.of("host", "h" + g))),
+                MetricCollection.points(points), 60000));
+        }
+
+        return new QueryMetricsResponse(UUID.randomUUID(), new DateRange(0, 1), groups,
+            Statistics.empty(), ImmutableList.of(), QueryTrace.PASSIVE, ResultLimits.of(),
+            Optional.empty(), Optional.empty());
+    }
+}
@@ -0,0 +1,125 @@
+package com.spotify.heroic.http.query;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.spotify.heroic.common.DateRange;
+import com.spotify.heroic.common.Series;
+import com.spotify.heroic.common.Statistics;
+import com.spotify.heroic.common.VarInts;
+import com.spotify.heroic.metric.MetricCollection;
+import com.spotify.heroic.metric.Point;
+import com.spotify.heroic.metric.QueryMetricsResponse;
+import com.spotify.heroic.metric.QueryTrace;
+import com.spotify.heroic.metric.ResultLimits;
+import com.spotify.heroic.metric.ShardedResultGroup;
+import com.spotify.heroic.test.FakeModuleLoader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import org.junit.Test;
+
+public class ColumnarResponseWriterTest {
+    private final ObjectMapper mapper = FakeModuleLoader.builder().build().json();
+    private final ColumnarResponseWriter writer = new ColumnarResponseWriter(mapper);
+
+    @Test
+    public void testPointColumnsRoundTrip() throws Exception {
+        final Random random = new Random(0);
+        final List<Point> points = new ArrayList<>();
+        long timestamp = 1000;
+
+        for (int i = 0; i < 1000; i++) {
+            timestamp += i % 10 == 0 ? random.nextInt(1000) : 60000;
+            points.add(new Point(timestamp, i % 7 == 0 ? 42.0 : random.nextGaussian()));
+        }
+
+        points.add(new Point(Long.MAX_VALUE, Double.NaN));
+        points.add(new Point(Long.MIN_VALUE, Double.NEGATIVE_INFINITY));
+        points.add(new Point(0, -0.0));
+
+        assertEquals(points, roundTrip(points));
+        assertEquals(ImmutableList.of(), roundTrip(ImmutableList.of()));
+        assertEquals(ImmutableList.of(new Point(10, 1.5)),
+            roundTrip(ImmutableList.of(new Point(10, 1.5))));
+    }
+
+    @Test(expected = EOFException.class)
+    public void testPointColumnsCorruptSize() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final DataOutputStream data = new DataOutputStream(out);
+        VarInts.writeVarLong(data, Integer.MAX_VALUE);
+        data.writeLong(1000L);
+
+        PointColumns.decode(new DataInputStream(new ByteArrayInputStream(out.toByteArray())));
+    }
+
+    @Test(expected = IOException.class)
+    public void testPointColumnsNegativeSize() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        VarInts.writeVarLong(new DataOutputStream(out), -1L);
+
+        PointColumns.decode(new DataInputStream(new ByteArrayInputStream(out.toByteArray())));
+    }
+
+    @Test
+    public void testWrite() throws Exception {
+        final List<Point> points = new ArrayList<>();
+
+        for (int i = 0; i < 1000; i++) {
+            points.add(new Point(i * 60000L, i % 100));
+        }
+
+        final ShardedResultGroup group = new ShardedResultGroup(ImmutableMap.of(),
+            ImmutableMap.of(), ImmutableSet.of(Series.of("foo", ImmutableMap.of("a", "b"))),
+            MetricCollection.points(points), 60000);
+
+        final QueryMetricsResponse response = new QueryMetricsResponse(UUID.randomUUID(),
+            new DateRange(0, 60000000), ImmutableList.of(group), Statistics.empty(),
+            ImmutableList.of(), QueryTrace.PASSIVE, ResultLimits.of(), Optional.empty(),
+            Optional.empty());
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(response, out);
+        final byte[] bytes = out.toByteArray();
+
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        final byte[] magic = new byte[4];
+        in.readFully(magic);
+        assertArrayEquals(ColumnarResponseWriter.MAGIC, magic);
+        assertEquals(ColumnarResponseWriter.VERSION, in.readByte());
+
+        final byte[] header = new byte[in.readInt()];
+        in.readFully(header);
+
+        final JsonNode result = mapper.readTree(header).get("result");
+        assertEquals(1, result.size());
+        assertEquals("points", result.get(0).get("type").asText());
+        assertEquals(0, result.get(0).get("values").size());
+
+        assertEquals(points, PointColumns.decode(in));
+        assertEquals(-1, in.read());
+
+        assertTrue(bytes.length * 4 < mapper.writeValueAsBytes(response).length);
+    }
+
+    private List<Point> roundTrip(final List<Point> points) throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PointColumns.encode(points, new DataOutputStream(out));
+        return PointColumns.decode(new DataInputStream(new ByteArrayInputStream(out.toByteArray())));
+    }
+}
@@ -0,0 +1,191 @@
+package com.spotify.heroic.http.query;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.spotify.heroic.common.DateRange;
+import com.spotify.heroic.common.Statistics;
+import com.spotify.heroic.metric.QueryMetricsResponse;
+import com.spotify.heroic.metric.QueryTrace;
+import com.spotify.heroic.metric.ResultLimits;
+import com.spotify.heroic.test.FakeModuleLoader;
+import eu.toolchain.async.AsyncFramework;
+import eu.toolchain.async.ResolvableFuture;
+import eu.toolchain.async.TinyAsync;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.glassfish.jersey.server.ChunkedOutput;
+import org.junit.Before;
+import org.junit.Test;
+
+public class QueryBatchStreamTest {
+    private final ObjectMapper mapper = FakeModuleLoader.builder().build().json();
+    private final AsyncFramework async = TinyAsync.builder().build();
+
+    private RecordingOutput output;
+    private QueryBatchStream stream;
+
+    @Before
+    public void setup() {
+        output = new RecordingOutput();
+        stream = new QueryBatchStream(output);
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        stream.start();
+
+        assertTrue(output.isClosed());
+        assertEquals(mapper.readTree("{\"results\":{}}"), output.document());
+    }
+
+    @Test
+    public void testStreamInCompletionOrder() throws Exception {
+        final ResolvableFuture<QueryMetricsResponse> a = async.future();
+        final ResolvableFuture<QueryMetricsResponse> b = async.future();
+
+        stream.add("a", UUID.randomUUID(), a);
+        stream.add("b\"", UUID.randomUUID(), b);
+        stream.start();
+
+        b.resolve(response());
+        assertEquals(1, output.chunks.size());
+        assertFalse(output.isClosed());
+
+        a.resolve(response());
+        assertTrue(output.isClosed());
+
+        final JsonNode results = output.document().get("results");
+        assertEquals(ImmutableList.of("b\"", "a"), ImmutableList.copyOf(results.fieldNames()));
+        assertEquals(0, results.get("a").get("errors").size());
+    }
+
+    @Test
+    public void testFailedQuery() throws Exception {
+        final UUID queryId = UUID.randomUUID();
+        final ResolvableFuture<QueryMetricsResponse> a = async.future();
+
+        stream.add("a", queryId, a);
+        stream.start();
+        a.fail(new RuntimeException("boom"));
+
+        assertTrue(output.isClosed());
+
+        final JsonNode result = output.document().get("results").get("a");
+        assertEquals(queryId.toString(), result.get("queryId").asText());
+        assertEquals(1, result.get("errors").size());
+    }
+
+    @Test
+    public void testCancelOnWriteFailure() {
+        final ResolvableFuture<QueryMetricsResponse> a = async.future();
+        final ResolvableFuture<QueryMetricsResponse> b = async.future();
+
+        stream.add("a", UUID.randomUUID(), a);
+        stream.add("b", UUID.randomUUID(), b);
+        stream.start();
+
+        output.fail = true;
+        a.resolve(response());
+
+        assertTrue(b.isCancelled());
+        assertTrue(output.chunks.isEmpty());
+    }
+
+    @Test
+    public void testExpire() throws Exception {
+        final ResolvableFuture<QueryMetricsResponse> a = async.future();
+        final ResolvableFuture<QueryMetricsResponse> b = async.future();
+        final ResolvableFuture<QueryMetricsResponse> c = async.future();
+
+        stream.add("a", UUID.randomUUID(), a);
+        stream.add("b", UUID.randomUUID(), b);
+        stream.add("c", UUID.randomUUID(), c);
+        stream.start();
+
+        a.resolve(response());
+        stream.expire();
+
+        assertTrue(output.isClosed());
+        assertTrue(b.isCancelled());
+        assertTrue(c.isCancelled());
+
+        final JsonNode results = output.document().get("results");
+        assertEquals(ImmutableList.of("a", "b", "c"), ImmutableList.copyOf(results.fieldNames()));
+        assertEquals(0, results.get("a").get("errors").size());
+        assertEquals(1, results.get("b").get("errors").size());
+        assertEquals(1, results.get("c").get("errors").size());
+    }
+
+    @Test
+    public void testOnClose() {
+        final ResolvableFuture<QueryMetricsResponse> a = async.future();
+        final AtomicInteger closed = new AtomicInteger();
+
+        stream.add("a", UUID.randomUUID(), a);
+        stream.start();
+        stream.onClose(closed::incrementAndGet);
+
+        assertEquals(0, closed.get());
+        a.resolve(response());
+        assertEquals(1, closed.get());
+
+        /* callbacks registered after the output was closed are run immediately */
+        stream.onClose(closed::incrementAndGet);
+        assertEquals(2, closed.get());
+    }
+
+    private QueryMetricsResponse response() {
+        return new QueryMetricsResponse(UUID.randomUUID(), new DateRange(0, 1000),
+            ImmutableList.of(), Statistics.empty(), ImmutableList.of(), QueryTrace.PASSIVE,
+            ResultLimits.of(), Optional.empty(), Optional.empty());
+    }
+
+    private class RecordingOutput extends ChunkedOutput<QueryBatchChunk> {
+        private final List<QueryBatchChunk> chunks = new ArrayList<>();
+        private boolean closed = false;
+        private boolean fail = false;
+
+        RecordingOutput() {
+            super(QueryBatchChunk.class);
+        }
+
+        @Override
+        public void write(final QueryBatchChunk chunk) throws IOException {
+            if (fail) {
+                throw new IOException("connection closed");
+            }
+
+            chunks.add(chunk);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        @Override
+        public boolean isClosed() {
+            return closed;
+        }
+
+        JsonNode document() throws IOException {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            for (final QueryBatchChunk chunk : chunks) {
+                mapper.writeValue(out, chunk);
+            }
+
+            return mapper.readTree(out.toByteArray());
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.spotify.heroic.http.write;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.spotify.heroic.common.JavaxRestFramework;
+import com.spotify.heroic.common.Series;
+import com.spotify.heroic.ingestion.Ingestion;
+import com.spotify.heroic.ingestion.IngestionGroup;
+import com.spotify.heroic.ingestion.IngestionManager;
+import com.spotify.heroic.ingestion.Request;
+import com.spotify.heroic.metric.MetricCollection;
+import com.spotify.heroic.metric.Point;
+import com.spotify.heroic.statistics.noop.NoopHeroicReporter;
+import com.spotify.proto.Spotify100;
+import eu.toolchain.async.AsyncFramework;
+import eu.toolchain.async.AsyncFuture;
+import eu.toolchain.async.TinyAsync;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.container.AsyncResponse;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.xerial.snappy.SnappyFramedOutputStream;
+
+@RunWith(MockitoJUnitRunner.class)
+public class WriteResourceTest {
+    @Mock
+    private IngestionManager ingestion;
+    @Mock
+    private IngestionGroup group;
+    @Mock
+    private JavaxRestFramework httpAsync;
+    @Mock
+    private AsyncResponse response;
+
+    private AsyncFramework async;
+    private WriteResource resource;
+
+    @Before
+    public void setup() {
+        async = TinyAsync.builder().executor(MoreExecutors.newDirectExecutorService()).build();
+        resource = new WriteResource(async, ingestion, httpAsync, NoopHeroicReporter.get());
+        doReturn(group).when(ingestion).useGroup(any());
+    }
+
+    private static Spotify100.Metric metric(final String key, final long time) {
+        return Spotify100.Metric
+            .newBuilder()
+            .setKey(key)
+            .setTime(time)
+            .setValue(42D)
+            .putTags("host", "a")
+            .build();
+    }
+
+    private static byte[] batch(final Spotify100.Metric... metrics) {
+        final Spotify100.Batch.Builder batch = Spotify100.Batch.newBuilder();
+
+        for (final Spotify100.Metric m : metrics) {
+            batch.addMetric(m);
+        }
+
+        return batch.build().toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private WriteBatchResponse bound() throws Exception {
+        final ArgumentCaptor<AsyncFuture> future = ArgumentCaptor.forClass(AsyncFuture.class);
+        verify(httpAsync).bind(eq(response), future.capture());
+        return (WriteBatchResponse) future.getValue().get();
+    }
+
+    @Test
+    public void testBatch() throws Exception {
+        final Series foo = Series.of("foo", ImmutableMap.of("host", "a"));
+
+        doReturn(async.resolved(Ingestion.EMPTY)).when(group).write(any(Request.class));
+        doReturn(async.failed(new RuntimeException("rejected")))
+            .when(group)
+            .write(new Request(Series.of("bar", ImmutableMap.of("host", "a")),
+                MetricCollection.points(ImmutableList.of(new Point(1L, 42D)))));
+
+        final byte[] body =
+            batch(metric("foo", 2L), metric("foo", 1L), metric("bar", 1L), metric("baz", 0L));
+
+        resource.batch(response, null, null, new ByteArrayInputStream(body));
+
+        assertEquals(new WriteBatchResponse(2, 2), bound());
+
+        final ArgumentCaptor<Request> requests = ArgumentCaptor.forClass(Request.class);
+        verify(group, times(2)).write(requests.capture());
+
+        final List<Request> all = requests.getAllValues();
+        final Request fooRequest =
+            all.stream().filter(r -> r.getSeries().equals(foo)).findFirst().get();
+        assertEquals(ImmutableList.of(new Point(1L, 42D), new Point(2L, 42D)),
+            fooRequest.getData().getDataAs(Point.class));
+    }
+
+    @Test
+    public void testSnappyBatch() throws Exception {
+        doReturn(async.resolved(Ingestion.EMPTY)).when(group).write(any(Request.class));
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (SnappyFramedOutputStream snappy = new SnappyFramedOutputStream(out)) {
+            snappy.write(batch(metric("foo", 1L), metric("bar", 1L)));
+        }
+
+        resource.batch(response, null, WriteResource.SNAPPY_ENCODING,
+            new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(new WriteBatchResponse(2, 0), bound());
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void testInvalidBatch() throws Exception {
+        resource.batch(response, null, null,
+            new ByteArrayInputStream(new byte[]{0x0a, 0x7f, 0x01}));
+    }
+
+    @Test
+    public void testPartiallyInvalidBatch() throws Exception {
+        doReturn(async.resolved(Ingestion.EMPTY)).when(group).write(any(Request.class));
+
+        final Spotify100.Metric[] metrics = new Spotify100.Metric[WriteResource.BATCH_SIZE + 1];
+
+        for (int i = 0; i < metrics.length; i++) {
+            metrics[i] = metric("foo" + i, 1L);
+        }
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(batch(metrics));
+        /* a truncated metric after the ones which were already written */
+        out.write(new byte[]{0x0a, 0x7f, 0x01});
+
+        resource.batch(response, null, null, new ByteArrayInputStream(out.toByteArray()));
+
+        final WriteBatchResponse result = bound();
+        assertEquals(metrics.length, result.getAccepted());
+        assertEquals(0, result.getRejected());
+        assertFalse(result.getErrors().isEmpty());
+        verify(group, times(metrics.length)).write(any(Request.class));
+    }
+}
@@ -0,0 +1,126 @@
+package com.spotify.heroic.ingestion;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import com.spotify.heroic.statistics.IngestionManagerReporter;
+import eu.toolchain.async.AsyncFramework;
+import eu.toolchain.async.AsyncFuture;
+import eu.toolchain.async.ResolvableFuture;
+import eu.toolchain.async.TinyAsync;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AdaptiveWriteLimiterTest {
+    @Mock
+    private IngestionManagerReporter reporter;
+
+    private AsyncFramework async;
+    private AdaptiveWriteLimiter limiter;
+    private List<ResolvableFuture<Integer>> writes;
+
+    @Before
+    public void setup() {
+        async = TinyAsync.builder().executor(MoreExecutors.newDirectExecutorService()).build();
+        limiter = new AdaptiveWriteLimiter(async, reporter, 2, 4, 2, 60000, 0.5);
+        writes = new ArrayList<>();
+    }
+
+    private AsyncFuture<Integer> submit() {
+        return limiter.submit(() -> {
+            final ResolvableFuture<Integer> write = async.future();
+            writes.add(write);
+            return write;
+        });
+    }
+
+    @Test
+    public void testDeferAndReject() throws Exception {
+        final List<AsyncFuture<Integer>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 6; i++) {
+            futures.add(submit());
+        }
+
+        assertEquals(4, writes.size());
+        assertEquals(4, limiter.getInFlight());
+        assertEquals(2, limiter.getPending());
+
+        final AsyncFuture<Integer> rejected = submit();
+        assertTrue(rejected.isFailed());
+        assertTrue(rejected.cause() instanceof IngestionRejectedException);
+        verify(reporter).reportWriteRejected();
+
+        writes.get(0).resolve(0);
+
+        assertEquals(5, writes.size());
+        assertEquals(1, limiter.getPending());
+        assertEquals(4, limiter.getInFlight());
+
+        writes.get(4).resolve(4);
+        assertEquals(Integer.valueOf(4), futures.get(4).get());
+    }
+
+    @Test
+    public void testBackoffOnFailure() throws Exception {
+        submit();
+        submit();
+
+        writes.get(0).fail(new RuntimeException("overloaded"));
+        assertEquals(2, limiter.getLimit());
+        verify(reporter).reportWriteLimit(2);
+
+        writes.get(1).fail(new RuntimeException("overloaded"));
+        assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    public void testIncreaseOnSuccess() throws Exception {
+        submit();
+        writes.get(0).fail(new RuntimeException("overloaded"));
+        assertEquals(2, limiter.getLimit());
+
+        submit();
+        submit();
+        writes.get(1).resolve(1);
+        assertEquals(3, limiter.getLimit());
+
+        // not enough concurrency to warrant an increase
+        writes.get(2).resolve(2);
+        assertEquals(3, limiter.getLimit());
+        verify(reporter, times(1)).reportWriteLimit(3);
+    }
+
+    @Test
+    public void testSynchronousWrites() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            final int value = i;
+            final AsyncFuture<Integer> f = limiter.submit(() -> async.resolved(value));
+            assertEquals(Integer.valueOf(value), f.get());
+        }
+
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(0, limiter.getPending());
+    }
+
+    @Test(expected = ExecutionException.class)
+    public void testThrowingWrite() throws Exception {
+        final AsyncFuture<Integer> f = limiter.submit(() -> {
+            throw new IllegalStateException("broken");
+        });
+
+        assertFalse(limiter.getInFlight() > 0);
+        f.get();
+    }
+}
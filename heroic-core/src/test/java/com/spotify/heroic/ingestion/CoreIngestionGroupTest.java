@@ -3,12 +3,11 @@ package com.spotify.heroic.ingestion;
 import static java.util.Optional.empty;
 import static java.util.Optional.of;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
-import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
-import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
@@ -17,7 +16,7 @@ import static org.mockito.Mockito.verify;
 import com.google.common.collect.ImmutableList;
 import com.spotify.heroic.common.DateRange;
 import com.spotify.heroic.common.Series;
-import com.spotify.heroic.filter.Filter;
+import com.spotify.heroic.filter.CompiledFilter;
 import com.spotify.heroic.metadata.MetadataBackend;
 import com.spotify.heroic.metric.MetricBackend;
 import com.spotify.heroic.statistics.IngestionManagerReporter;
@@ -26,9 +25,9 @@ import eu.toolchain.async.AsyncFramework;
 import eu.toolchain.async.AsyncFuture;
 import eu.toolchain.async.FutureDone;
 import eu.toolchain.async.FutureFinished;
+import eu.toolchain.async.TinyAsync;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Supplier;
 import org.junit.Before;
@@ -42,13 +41,13 @@ public class CoreIngestionGroupTest {
     @Mock
     private AsyncFramework async;
     @Mock
-    private Supplier<Filter> filterSupplier;
+    private Supplier<CompiledFilter> filterSupplier;
     @Mock
     private Supplier<DateRange> rangeSupplier;
     @Mock
-    private Filter filter;
+    private CompiledFilter filter;
     @Mock
-    private Semaphore writePermits;
+    private AdaptiveWriteLimiter writeLimiter;
     @Mock
     private IngestionManagerReporter reporter;
     @Mock
@@ -92,7 +91,7 @@ public class CoreIngestionGroupTest {
     ) {
         // @formatter:off
         final CoreIngestionGroup group = new CoreIngestionGroup(
-            async, filterSupplier, writePermits, reporter, ingested,
+            async, filterSupplier, writeLimiter, reporter, ingested,
             metric, metadata, suggest
         );
         // @formatter:on
@@ -119,18 +118,16 @@ public class CoreIngestionGroupTest {
 
         doReturn(filter).when(filterSupplier).get();
         doReturn(true).when(filter).apply(series);
-        doNothing().when(writePermits).acquire();
-        doNothing().when(writePermits).release();
+        doAnswer(invocation -> ((Supplier<?>) invocation.getArguments()[0]).get())
+            .when(writeLimiter)
+            .submit(any());
         doReturn(expected).when(group).doWrite(request);
 
         assertEquals(expected, group.syncWrite(request));
 
         verify(async, never()).resolved(any(Ingestion.class));
         verify(async, never()).failed(any(Throwable.class));
-        verify(writePermits).acquire();
-        verify(writePermits).release();
-        verify(reporter).incrementConcurrentWrites();
-        verify(reporter).decrementConcurrentWrites();
+        verify(writeLimiter).submit(any());
         verify(group).doWrite(request);
         verify(expected).onFinished(any(FutureFinished.class));
     }
@@ -147,36 +144,34 @@ public class CoreIngestionGroupTest {
 
         verify(async).resolved(any(Ingestion.class));
         verify(async, never()).failed(any(Throwable.class));
-        verify(writePermits, never()).acquire();
-        verify(writePermits, never()).release();
-        verify(reporter, never()).incrementConcurrentWrites();
-        verify(reporter, never()).decrementConcurrentWrites();
+        verify(writeLimiter, never()).submit(any());
         verify(reporter).reportDroppedByFilter();
         verify(group, never()).doWrite(request);
         verify(other, never()).onFinished(any(FutureFinished.class));
     }
 
     @Test
-    public void testSyncWriteAcquireThrows() throws Exception {
-        final CoreIngestionGroup group = setupIngestionGroup(empty(), empty(), empty());
+    public void testSyncWriteRejected() throws Exception {
+        final AsyncFramework tiny = TinyAsync.builder().build();
+
+        /* a single permit which is held, and no room for pending writes */
+        final AdaptiveWriteLimiter limiter =
+            new AdaptiveWriteLimiter(tiny, reporter, 1, 1, 0, 1000, 0.9);
+        limiter.submit(tiny::future);
 
-        final InterruptedException e = new InterruptedException();
+        final CoreIngestionGroup group = spy(new CoreIngestionGroup(
+            async, filterSupplier, limiter, reporter, ingested, empty(), empty(), empty()));
 
         doReturn(filter).when(filterSupplier).get();
-        doReturn(expected).when(async).failed(any(Throwable.class));
         doReturn(true).when(filter).apply(series);
-        doThrow(e).when(writePermits).acquire();
 
-        assertEquals(expected, group.syncWrite(request));
+        final AsyncFuture<Ingestion> result = group.syncWrite(request);
 
-        verify(async, never()).resolved(any(Ingestion.class));
-        verify(async).failed(any(Throwable.class));
-        verify(writePermits).acquire();
-        verify(writePermits, never()).release();
-        verify(reporter, never()).incrementConcurrentWrites();
-        verify(reporter, never()).decrementConcurrentWrites();
+        assertTrue(result.isFailed());
+        assertTrue(result.cause() instanceof IngestionRejectedException);
+
+        verify(reporter).reportWriteRejected();
         verify(group, never()).doWrite(request);
-        verify(other, never()).onFinished(any(FutureFinished.class));
     }
 
     @Test
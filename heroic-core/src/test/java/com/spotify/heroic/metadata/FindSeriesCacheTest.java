@@ -0,0 +1,150 @@
+package com.spotify.heroic.metadata;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.spotify.heroic.async.AsyncObservable;
+import com.spotify.heroic.async.AsyncObserver;
+import com.spotify.heroic.common.DateRange;
+import com.spotify.heroic.common.Features;
+import com.spotify.heroic.common.OptionalLimit;
+import com.spotify.heroic.common.Series;
+import com.spotify.heroic.filter.MatchKeyFilter;
+import com.spotify.heroic.statistics.MetadataBackendReporter;
+import eu.toolchain.async.AsyncFramework;
+import eu.toolchain.async.AsyncFuture;
+import eu.toolchain.async.ResolvableFuture;
+import eu.toolchain.async.TinyAsync;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FindSeriesCacheTest {
+    private final AsyncFramework async = TinyAsync.builder().build();
+
+    private final Series foo = Series.of("foo", ImmutableMap.of("a", "1"));
+    private final Series bar = Series.of("bar", ImmutableMap.of("a", "1"));
+
+    @Mock
+    private MetadataBackendReporter reporter;
+
+    private FindSeriesCache cache;
+    private AtomicInteger loads;
+
+    @Before
+    public void setup() {
+        cache = new FindSeriesCache(async,
+            new FindSeriesCacheConfig(true, 30_000, 60_000, 1_000, true), reporter);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    public void testSharedWithinRangeBucket() throws Exception {
+        assertEquals(ImmutableSet.of(foo), load("foo", 60_000, 120_000).get().getSeries());
+        assertEquals(ImmutableSet.of(foo), load("foo", 60_010, 120_010).get().getSeries());
+        assertEquals(1, loads.get());
+
+        load("foo", 180_000, 240_000).get();
+        load("bar", 60_000, 120_000).get();
+        assertEquals(3, loads.get());
+
+        verify(reporter).reportFindSeriesCacheHit();
+        verify(reporter, times(3)).reportFindSeriesCacheMiss();
+    }
+
+    @Test
+    public void testInvalidatedByMatchingWrite() throws Exception {
+        load("foo", 0, 60_000).get();
+        load("bar", 0, 60_000).get();
+
+        cache.created(foo);
+        assertEquals(1, cache.size());
+
+        load("foo", 0, 60_000).get();
+        load("bar", 0, 60_000).get();
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void testWriteDuringLoad() throws Exception {
+        final ResolvableFuture<FindSeries> pending = async.future();
+        final AsyncFuture<FindSeries> first = cache.load(Optional.empty(), request("foo", 0, 1),
+            () -> pending);
+
+        cache.created(foo);
+        pending.resolve(new FindSeries(ImmutableSet.of(), false));
+        first.get();
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testStream() throws Exception {
+        final AsyncObservable<FindSeriesStream> stream = observer -> {
+            loads.incrementAndGet();
+            observer.observe(new FindSeriesStream(ImmutableSet.of(foo)));
+            observer.observe(new FindSeriesStream(ImmutableSet.of(bar)));
+            observer.end();
+        };
+
+        assertEquals(ImmutableSet.of(foo, bar), collect(cache.stream(Optional.empty(),
+            request("foo", 0, 60_000), () -> stream)));
+        assertEquals(ImmutableSet.of(foo, bar), collect(cache.stream(Optional.empty(),
+            request("foo", 0, 60_000), () -> stream)));
+        assertEquals(1, loads.get());
+
+        /* streamed results are not shared with regular lookups */
+        load("foo", 0, 60_000).get();
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        cache = new FindSeriesCache(async, new FindSeriesCacheConfig(), reporter);
+
+        load("foo", 0, 60_000).get();
+        load("foo", 0, 60_000).get();
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.size());
+    }
+
+    private AsyncFuture<FindSeries> load(final String key, final long start, final long end) {
+        final Series series = "foo".equals(key) ? foo : bar;
+
+        final Supplier<AsyncFuture<FindSeries>> loader = () -> {
+            loads.incrementAndGet();
+            return async.resolved(new FindSeries(ImmutableSet.of(series), false));
+        };
+
+        return cache.load(Optional.empty(), request(key, start, end), loader);
+    }
+
+    private Set<Series> collect(final AsyncObservable<FindSeriesStream> stream) throws Exception {
+        final Set<Series> series = new HashSet<>();
+        final ResolvableFuture<Void> done = async.future();
+
+        stream.observe(AsyncObserver.bind(done, page -> {
+            series.addAll(page.getSeries());
+            return async.resolved();
+        }));
+
+        done.get();
+        return series;
+    }
+
+    private FindSeries.Request request(final String key, final long start, final long end) {
+        return new FindSeries.Request(MatchKeyFilter.create(key), new DateRange(start, end),
+            OptionalLimit.empty(), Features.DEFAULT);
+    }
+}
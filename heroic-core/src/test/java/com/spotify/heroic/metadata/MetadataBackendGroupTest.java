@@ -0,0 +1,61 @@
+package com.spotify.heroic.metadata;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.spotify.heroic.common.DateRange;
+import com.spotify.heroic.common.SelectedGroup;
+import com.spotify.heroic.common.Series;
+import eu.toolchain.async.AsyncFramework;
+import eu.toolchain.async.TinyAsync;
+import java.util.Optional;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MetadataBackendGroupTest {
+    private final AsyncFramework async = TinyAsync.builder().build();
+
+    private final Series series = Series.of("foo", ImmutableMap.of("a", "1"));
+    private final WriteMetadata.Request request =
+        new WriteMetadata.Request(series, new DateRange(0, 1));
+
+    @Mock
+    private MetadataBackend backend;
+    @Mock
+    private FindSeriesCache seriesCache;
+
+    private MetadataBackendGroup group;
+
+    @Before
+    public void setup() {
+        group = new MetadataBackendGroup(new SelectedGroup<>(ImmutableSet.of(backend)), async,
+            Optional.empty(), seriesCache);
+    }
+
+    @Test
+    public void testCreatedSeriesInvalidatesCache() throws Exception {
+        doReturn(async.resolved(new WriteMetadata(1L))).when(backend).write(request);
+
+        group.write(request).get();
+
+        verify(seriesCache).created(series);
+    }
+
+    @Test
+    public void testExistingSeriesKeepsCache() throws Exception {
+        /* the write was dropped by the write cache of the backend, or conflicted */
+        doReturn(async.resolved(new WriteMetadata())).when(backend).write(request);
+
+        group.write(request).get();
+
+        verify(seriesCache, never()).created(any());
+    }
+}
@@ -0,0 +1,104 @@
+package com.spotify.heroic.metric;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import eu.toolchain.async.AsyncFramework;
+import eu.toolchain.async.AsyncFuture;
+import eu.toolchain.async.ResolvableFuture;
+import eu.toolchain.async.StreamCollector;
+import eu.toolchain.async.TinyAsync;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FetchPipelineTest {
+    private final AsyncFramework async = TinyAsync.builder().build();
+
+    private final AtomicInteger sum = new AtomicInteger();
+    private final List<ResolvableFuture<Integer>> started = new ArrayList<>();
+
+    private FetchPipeline<Integer, String> pipeline;
+
+    @Before
+    public void setup() {
+        pipeline = new FetchPipeline<>(async, new StreamCollector<Integer, String>() {
+            @Override
+            public void resolved(final Integer result) {
+                sum.addAndGet(result);
+            }
+
+            @Override
+            public void failed(final Throwable cause) {
+            }
+
+            @Override
+            public void cancelled() {
+            }
+
+            @Override
+            public String end(final int resolved, final int failed, final int cancelled) {
+                return sum.get() + ":" + resolved + ":" + failed + ":" + cancelled;
+            }
+        }, 2);
+    }
+
+    @Test
+    public void testBoundedParallelism() throws Exception {
+        pipeline.add(this::operation);
+        pipeline.add(this::operation);
+        pipeline.add(this::operation);
+        assertEquals(2, started.size());
+
+        started.get(0).resolve(1);
+        assertEquals(3, started.size());
+
+        pipeline.close();
+        started.get(1).resolve(2);
+        started.get(2).fail(new RuntimeException("failed"));
+
+        assertEquals("3:2:1:0", pipeline.future().get());
+    }
+
+    @Test
+    public void testAddedAfterStart() throws Exception {
+        pipeline.add(() -> async.resolved(1));
+        pipeline.add(() -> async.resolved(2));
+        pipeline.add(() -> async.resolved(3));
+        pipeline.close();
+        pipeline.add(() -> async.resolved(4));
+
+        assertEquals("6:3:0:0", pipeline.future().get());
+    }
+
+    @Test
+    public void testResolveCancelsRunning() throws Exception {
+        pipeline.add(this::operation);
+        pipeline.add(this::operation);
+        pipeline.add(this::operation);
+
+        pipeline.resolve("limited");
+
+        assertEquals("limited", pipeline.future().get());
+        assertTrue(started.stream().allMatch(AsyncFuture::isCancelled));
+        assertEquals(2, started.size());
+    }
+
+    @Test
+    public void testManyImmediateOperations() throws Exception {
+        for (int i = 0; i < 100000; i++) {
+            pipeline.add(() -> async.resolved(1));
+        }
+
+        pipeline.close();
+        assertEquals("100000:100000:0:0", pipeline.future().get());
+    }
+
+    private AsyncFuture<Integer> operation() {
+        final ResolvableFuture<Integer> future = async.future();
+        started.add(future);
+        return future;
+    }
+}
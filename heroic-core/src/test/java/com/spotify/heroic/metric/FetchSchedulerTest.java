@@ -0,0 +1,128 @@
+package com.spotify.heroic.metric;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.spotify.heroic.common.OptionalLimit;
+import eu.toolchain.async.AsyncFramework;
+import eu.toolchain.async.AsyncFuture;
+import eu.toolchain.async.ResolvableFuture;
+import eu.toolchain.async.TinyAsync;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FetchSchedulerTest {
+    private final AsyncFramework async = TinyAsync.builder().build();
+
+    private final List<String> started = new ArrayList<>();
+    private final Map<String, ResolvableFuture<Integer>> running = new HashMap<>();
+
+    private FetchScheduler scheduler;
+
+    @Before
+    public void setup() {
+        scheduler = new FetchScheduler(async, OptionalLimit.of(1));
+    }
+
+    @Test
+    public void testFairBetweenClients() throws Exception {
+        final FetchScheduler.Lane a = scheduler.lane("a", 10);
+        final FetchScheduler.Lane b = scheduler.lane("b", 10);
+
+        a.submit(fetch("a1"));
+        a.submit(fetch("a2"));
+        a.submit(fetch("a3"));
+        b.submit(fetch("b1"));
+
+        finish("a1");
+        finish("b1");
+        finish("a2");
+
+        assertEquals(ImmutableList.of("a1", "b1", "a2", "a3"), started);
+    }
+
+    @Test
+    public void testQueriesOfClientShareFlow() throws Exception {
+        final FetchScheduler.Lane a1 = scheduler.lane("a", 10);
+        final FetchScheduler.Lane a2 = scheduler.lane("a", 10);
+        final FetchScheduler.Lane b = scheduler.lane("b", 10);
+
+        a1.submit(fetch("a1"));
+        a1.submit(fetch("a1-2"));
+        a2.submit(fetch("a2"));
+        b.submit(fetch("b1"));
+        b.submit(fetch("b2"));
+
+        finish("a1");
+        finish("a2");
+        finish("b1");
+        finish("b2");
+
+        /* the queries of client a advance twice as fast through virtual time */
+        assertEquals(ImmutableList.of("a1", "a2", "b1", "b2", "a1-2"), started);
+    }
+
+    @Test
+    public void testSmallerQueriesFirst() throws Exception {
+        scheduler.lane("x", 10).submit(fetch("x"));
+        scheduler.lane("large", 1000).submit(fetch("large"));
+        scheduler.lane("unknown", -1).submit(fetch("unknown"));
+        scheduler.lane("small", 10).submit(fetch("small"));
+
+        finish("x");
+        finish("small");
+        finish("large");
+
+        assertEquals(ImmutableList.of("x", "small", "large", "unknown"), started);
+    }
+
+    @Test
+    public void testCancelQueued() throws Exception {
+        final FetchScheduler.Lane a = scheduler.lane("a", 10);
+
+        final AsyncFuture<Integer> first = a.submit(fetch("a1"));
+        final AsyncFuture<Integer> second = a.submit(fetch("a2"));
+
+        second.cancel();
+        finish("a1");
+
+        assertEquals(1, (int) first.get());
+        assertEquals(ImmutableList.of("a1"), started);
+        assertEquals(0, scheduler.queued());
+        assertTrue(a.queueWait(TimeUnit.NANOSECONDS) >= 0);
+    }
+
+    @Test
+    public void testUnbounded() throws Exception {
+        scheduler = new FetchScheduler(async, OptionalLimit.empty());
+        final FetchScheduler.Lane a = scheduler.lane("a", 10);
+
+        a.submit(fetch("a1"));
+        a.submit(fetch("a2"));
+
+        assertFalse(scheduler.isBounded());
+        assertEquals(ImmutableList.of("a1", "a2"), started);
+        assertEquals(0L, a.queueWait(TimeUnit.NANOSECONDS));
+    }
+
+    private Callable<AsyncFuture<Integer>> fetch(final String id) {
+        return () -> {
+            final ResolvableFuture<Integer> future = async.future();
+            started.add(id);
+            running.put(id, future);
+            return future;
+        };
+    }
+
+    private void finish(final String id) {
+        running.get(id).resolve(1);
+    }
+}
@@ -45,6 +45,9 @@ public class LocalMetricManagerTest {
     @Mock
     private MetricBackend metricBackend;
 
+    @Mock
+    private MetricRollups rollups;
+
     @Mock
     private AsyncFuture<FetchData> fetchDataFuture;
 
@@ -67,8 +70,9 @@ public class LocalMetricManagerTest {
         when(queryLoggerFactory.create(any())).thenReturn(queryLogger);
 
         manager = new LocalMetricManager(groupLimit, seriesLimit, aggregationLimit, dataLimit,
-            concurrentQueriesBackoff, fetchParallelism, failOnLimits, async, groupSet, metadata,
-            reporter, queryLoggerFactory);
+            OptionalLimit.empty(), concurrentQueriesBackoff, fetchParallelism, failOnLimits,
+            async, groupSet, metadata, new FetchScheduler(async, OptionalLimit.empty()),
+            rollups, new QueryCostEstimator(), reporter, queryLoggerFactory);
     }
 
     @Test
@@ -0,0 +1,318 @@
+package com.spotify.heroic.metric;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.spotify.heroic.HeroicContext;
+import com.spotify.heroic.QueryOptions;
+import com.spotify.heroic.aggregation.AggregationInstance;
+import com.spotify.heroic.aggregation.BucketStrategy;
+import com.spotify.heroic.async.AsyncObservable;
+import com.spotify.heroic.common.DateRange;
+import com.spotify.heroic.common.GroupSet;
+import com.spotify.heroic.common.Groups;
+import com.spotify.heroic.common.Series;
+import com.spotify.heroic.metadata.FindSeriesStream;
+import com.spotify.heroic.metadata.MetadataBackend;
+import com.spotify.heroic.metadata.MetadataManager;
+import com.spotify.heroic.scheduler.Scheduler;
+import com.spotify.heroic.time.Clock;
+import eu.toolchain.async.AsyncFramework;
+import eu.toolchain.async.TinyAsync;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MetricRollupsTest {
+    private static final Series SERIES = Series.of("foo", ImmutableMap.of("a", "b"));
+    private static final QueryOptions OPTIONS = QueryOptions.defaults();
+
+    private final AsyncFramework async = TinyAsync.builder().build();
+
+    private Clock clock;
+    private MetricBackend backend;
+    private MetadataBackend metadataGroup;
+    private MetadataManager metadata;
+    private AggregationInstance aggregation;
+    private MetricRollups rollups;
+
+    /* points of SERIES, and everything written to the backend */
+    private List<Point> points;
+    private Map<Series, List<Metric>> written;
+    private List<FetchData.Request> fetched;
+
+    @Before
+    public void setup() {
+        clock = mock(Clock.class);
+        doReturn(1000L).when(clock).currentTimeMillis();
+
+        points = ImmutableList.of(new Point(850, 1D), new Point(900, 2D), new Point(945, 3D));
+        written = new ConcurrentHashMap<>();
+        fetched = Collections.synchronizedList(new ArrayList<>());
+
+        backend = mock(MetricBackend.class);
+        doReturn(new Groups("foo")).when(backend).groups();
+
+        doAnswer(invocation -> {
+            final FetchData.Request request = invocation.getArgument(0);
+            final DateRange range = request.getRange();
+            final Consumer<MetricReadResult> consumer = invocation.getArgument(2);
+
+            fetched.add(request);
+
+            final List<Point> data = request.getSeries().equals(SERIES) ? points
+                : written.getOrDefault(request.getSeries(), ImmutableList.of()).stream()
+                    .map(Point.class::cast).collect(Collectors.toList());
+
+            consumer.accept(new MetricReadResult(MetricCollection.points(data
+                .stream()
+                .filter(p -> p.getTimestamp() > range.start() && p.getTimestamp() <= range.end())
+                .collect(Collectors.toList()))));
+            return async.resolved(new FetchData.Result(QueryTrace.PASSIVE));
+        }).when(backend).fetch(any(), any(), any(), any());
+
+        doAnswer(invocation -> {
+            final WriteMetric.Request request = invocation.getArgument(0);
+            written.put(request.getSeries(), new ArrayList<>(request.getData().data()));
+            return async.resolved(new WriteMetric());
+        }).when(backend).write(any());
+
+        final AsyncObservable<FindSeriesStream> series = observer -> observer
+            .observe(new FindSeriesStream(ImmutableSet.of(SERIES)))
+            .onResolved(ignore -> observer.end());
+
+        metadataGroup = mock(MetadataBackend.class);
+        doReturn(series).when(metadataGroup).findSeriesStream(any());
+
+        metadata = mock(MetadataManager.class);
+        doReturn(metadataGroup).when(metadata).useDefaultGroup();
+
+        aggregation = mock(AggregationInstance.class);
+        doReturn(true).when(aggregation).acceptsRollups(100L);
+
+        rollups = rollups(0L);
+    }
+
+    @Test
+    public void testSpreads() {
+        final List<Point> points = ImmutableList.of(new Point(5, 1D), new Point(10, 3D),
+            new Point(11, 2D), new Point(12, Double.NaN));
+
+        assertEquals(
+            ImmutableList.of(new Spread(10, 2, 4D, 10D, 1D, 3D), new Spread(20, 1, 2D, 4D, 2D, 2D)),
+            MetricRollups.spreads(points, 10));
+    }
+
+    @Test
+    public void testPlanCoarsestRollup() throws Exception {
+        watermark(100, 0, 900);
+        watermark(10, 0, 950);
+
+        assertEquals(ImmutableList.of(spreads(100, 0, 900), points(900, 950)),
+            rollups.plan(points(0, 950), aggregation, BucketStrategy.END));
+    }
+
+    @Test
+    public void testPlanBeforeRollups() throws Exception {
+        watermark(100, 200, 900);
+
+        assertEquals(ImmutableList.of(points(0, 200), spreads(100, 200, 900), points(900, 950)),
+            rollups.plan(points(0, 950), aggregation, BucketStrategy.END));
+    }
+
+    @Test
+    public void testPlanUpToWatermark() throws Exception {
+        /* the job has not rolled up the intervals after 500 yet */
+        watermark(100, 0, 500);
+
+        assertEquals(ImmutableList.of(spreads(100, 0, 500), points(500, 950)),
+            rollups.plan(points(0, 950), aggregation, BucketStrategy.END));
+    }
+
+    @Test
+    public void testPlanFinerRollup() throws Exception {
+        watermark(100, 0, 900);
+        watermark(10, 0, 950);
+
+        assertEquals(ImmutableList.of(spreads(10, 50, 950)),
+            rollups.plan(points(50, 950), acceptsAll(), BucketStrategy.END));
+    }
+
+    @Test
+    public void testPlanWithoutRollups() throws Exception {
+        final FetchData.Request request = points(0, 950);
+
+        /* nothing has been rolled up */
+        assertEquals(ImmutableList.of(request),
+            rollups.plan(request, aggregation, BucketStrategy.END));
+
+        watermark(100, 0, 900);
+
+        assertEquals(ImmutableList.of(request),
+            rollups.plan(request, aggregation, BucketStrategy.START));
+        assertEquals(ImmutableList.of(request),
+            rollups.plan(request, mock(AggregationInstance.class), BucketStrategy.END));
+        assertEquals(ImmutableList.of(points(0, 50)),
+            rollups.plan(points(0, 50), aggregation, BucketStrategy.END));
+    }
+
+    @Test
+    public void testRollup() throws Exception {
+        rollups.rollup().get();
+
+        assertEquals(ImmutableSet.of(new DateRange(800, 900), new DateRange(940, 950)),
+            seriesFetches());
+
+        verify(backend).write(new WriteMetric.Request(MetricRollups.rollupSeries(SERIES, 100),
+            MetricCollection.spreads(ImmutableList.of(new Spread(900, 2, 3D, 5D, 1D, 2D)))));
+        verify(backend).write(new WriteMetric.Request(MetricRollups.rollupSeries(SERIES, 10),
+            MetricCollection.spreads(ImmutableList.of(new Spread(950, 1, 3D, 9D, 3D, 3D)))));
+        verify(backend).write(new WriteMetric.Request(MetricRollups.watermarkSeries(100),
+            MetricCollection.points(ImmutableList.of(new Point(1, 800D), new Point(2, 900D)))));
+
+        /* the watermark is read back from the backend by a new instance */
+        final MetricRollups other = rollups(0L);
+        other.loadWatermarks().get();
+
+        assertEquals(ImmutableList.of(points(0, 800), spreads(100, 800, 900), points(900, 950)),
+            other.plan(points(0, 950), aggregation, BucketStrategy.END));
+
+        /* the same intervals are not rolled up again */
+        fetched.clear();
+        rollups.rollup().get();
+        assertEquals(ImmutableSet.of(), seriesFetches());
+    }
+
+    @Test
+    public void testRollupFromWatermark() throws Exception {
+        rollups.rollup().get();
+
+        /* a later run continues from the watermark, however long ago it was */
+        doReturn(1400L).when(clock).currentTimeMillis();
+        fetched.clear();
+        rollups(0L).rollup().get();
+
+        assertEquals(ImmutableSet.of(new DateRange(900, 1300), new DateRange(950, 1350)),
+            seriesFetches());
+    }
+
+    @Test
+    public void testRollupFailure() throws Exception {
+        doReturn(async.failed(new RuntimeException("write failed")))
+            .when(backend)
+            .write(any());
+
+        rollups.rollup().get();
+
+        verify(backend, never()).write(new WriteMetric.Request(
+            MetricRollups.watermarkSeries(100),
+            MetricCollection.points(ImmutableList.of(new Point(1, 800D), new Point(2, 900D)))));
+        assertEquals(ImmutableList.of(points(0, 950)),
+            rollups.plan(points(0, 950), aggregation, BucketStrategy.END));
+    }
+
+    @Test
+    public void testRollupLatePoints() throws Exception {
+        rollups.rollup().get();
+
+        /* a point is written after its interval was rolled up */
+        rollups.track(new WriteMetric.Request(SERIES,
+            MetricCollection.points(ImmutableList.of(new Point(860, 4D)))));
+
+        fetched.clear();
+        rollups.rollup().get();
+
+        assertEquals(ImmutableSet.of(new DateRange(800, 900), new DateRange(940, 950)),
+            seriesFetches());
+
+        /* points written in time are not rolled up again */
+        rollups.track(new WriteMetric.Request(SERIES,
+            MetricCollection.points(ImmutableList.of(new Point(990, 4D)))));
+
+        fetched.clear();
+        rollups.rollup().get();
+        assertEquals(ImmutableSet.of(), seriesFetches());
+    }
+
+    @Test
+    public void testRollupWrittenSeries() throws Exception {
+        rollups.rollup().get();
+
+        /* later runs only roll up the series written since the last run */
+        final Series other = Series.of("bar", ImmutableMap.of("a", "b"));
+        rollups.track(new WriteMetric.Request(other,
+            MetricCollection.points(ImmutableList.of(new Point(990, 4D)))));
+
+        doReturn(1100L).when(clock).currentTimeMillis();
+        fetched.clear();
+        rollups.rollup().get();
+
+        assertEquals(ImmutableSet.of(), seriesFetches());
+        assertEquals(ImmutableSet.of(new DateRange(900, 1000), new DateRange(950, 1050)),
+            fetches(other));
+        verify(metadataGroup).findSeriesStream(any());
+    }
+
+    private void watermark(final long resolution, final long from, final long until)
+        throws Exception {
+        written.put(MetricRollups.watermarkSeries(resolution),
+            ImmutableList.<Metric>of(new Point(1, from), new Point(2, until)));
+        rollups.loadWatermarks().get();
+    }
+
+    private Set<DateRange> seriesFetches() {
+        return fetches(SERIES);
+    }
+
+    private Set<DateRange> fetches(final Series series) {
+        return fetched
+            .stream()
+            .filter(f -> f.getSeries().equals(series))
+            .map(FetchData.Request::getRange)
+            .collect(Collectors.toSet());
+    }
+
+    private MetricRollups rollups(final long since) {
+        final RollupConfig config =
+            new RollupConfig(true, true, ImmutableList.of(10L, 100L), 50L, 0L, since, 1000L, 10);
+        final GroupSet<MetricBackend> backends =
+            GroupSet.build(Collections.singletonList(backend), Optional.empty());
+
+        return new MetricRollups(async, mock(Scheduler.class), clock, mock(HeroicContext.class),
+            metadata, backends, config);
+    }
+
+    private AggregationInstance acceptsAll() {
+        final AggregationInstance aggregation = mock(AggregationInstance.class);
+        doReturn(true).when(aggregation).acceptsRollups(10L);
+        return aggregation;
+    }
+
+    private static FetchData.Request points(final long start, final long end) {
+        return new FetchData.Request(MetricType.POINT, SERIES, new DateRange(start, end),
+            OPTIONS);
+    }
+
+    private static FetchData.Request spreads(
+        final long resolution, final long start, final long end
+    ) {
+        return new FetchData.Request(MetricType.SPREAD,
+            MetricRollups.rollupSeries(SERIES, resolution), new DateRange(start, end), OPTIONS);
+    }
+}
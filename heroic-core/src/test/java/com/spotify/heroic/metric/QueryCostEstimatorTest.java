@@ -0,0 +1,68 @@
+package com.spotify.heroic.metric;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import com.spotify.heroic.aggregation.AggregationInstance;
+import com.spotify.heroic.common.DateRange;
+import com.spotify.heroic.common.Histogram;
+import java.util.Optional;
+import org.junit.Before;
+import org.junit.Test;
+
+public class QueryCostEstimatorTest {
+    private static final DateRange RANGE = new DateRange(0, 100_000);
+
+    private AggregationInstance aggregation;
+    private QueryCostEstimator estimator;
+
+    @Before
+    public void setup() {
+        aggregation = mock(AggregationInstance.class);
+        doReturn(42L).when(aggregation).estimate(RANGE);
+        estimator = new QueryCostEstimator();
+    }
+
+    @Test
+    public void testDefaultDensity() {
+        assertEquals(new QueryCost(3, 30, 42),
+            estimator.estimate(3, RANGE, aggregation, Optional.empty()));
+    }
+
+    @Test
+    public void testRecordDensity() {
+        /* one point per second, expressed per mega-second */
+        estimator.record(density(1_000_000L));
+        assertEquals(1D, estimator.pointsPerSecond(), 0D);
+        assertEquals(new QueryCost(3, 300, 42),
+            estimator.estimate(3, RANGE, aggregation, Optional.empty()));
+
+        estimator.record(density(11_000_000L));
+        assertEquals(2D, estimator.pointsPerSecond(), 1e-9D);
+    }
+
+    @Test
+    public void testRollups() {
+        estimator.record(density(1_000_000L));
+
+        /* 40 raw seconds at one point per second and six rollup intervals, for each series */
+        final MetricRollups.Coverage rollups =
+            new MetricRollups.Coverage(10_000, new DateRange(0, 60_000));
+        assertEquals(new QueryCost(3, 138, 42),
+            estimator.estimate(3, RANGE, aggregation, Optional.of(rollups)));
+    }
+
+    @Test
+    public void testIgnoreEmptyDensity() {
+        estimator.record(Histogram.empty());
+        assertEquals(QueryCostEstimator.DEFAULT_POINTS_PER_SECOND, estimator.pointsPerSecond(),
+            0D);
+    }
+
+    private static Histogram density(final long value) {
+        final Histogram.Builder builder = new Histogram.Builder();
+        builder.add(value);
+        return builder.build();
+    }
+}
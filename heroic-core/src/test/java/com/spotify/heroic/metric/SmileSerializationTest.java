@@ -0,0 +1,69 @@
+package com.spotify.heroic.metric;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.spotify.heroic.HeroicMappers;
+import com.spotify.heroic.common.Series;
+import com.spotify.heroic.common.Statistics;
+import com.spotify.heroic.test.FakeModuleLoader;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import org.junit.Test;
+
+public class SmileSerializationTest {
+    private final ObjectMapper json = FakeModuleLoader.builder().build().json();
+    private final ObjectMapper smile =
+        HeroicMappers.smile(new FakeModuleLoader.FakeQueryParser());
+
+    @Test
+    public void testPointColumns() throws Exception {
+        final List<Point> points = ImmutableList.of(new Point(1000L, 1.5D),
+            new Point(1010L, Double.NaN), new Point(990L, Double.NEGATIVE_INFINITY),
+            new Point(Long.MAX_VALUE, -0D), new Point(Long.MIN_VALUE, 42D));
+
+        assertEquals(points,
+            PointColumnsSerialization.decode(PointColumnsSerialization.encode(points)));
+        assertEquals(ImmutableList.of(), PointColumnsSerialization.decode(
+            PointColumnsSerialization.encode(ImmutableList.of())));
+    }
+
+    @Test(expected = IOException.class)
+    public void testPointColumnsBadSize() throws Exception {
+        /* claims 2^28 points, but is only a few bytes long */
+        PointColumnsSerialization.decode(new byte[]{(byte) 0x80, (byte) 0x80, (byte) 0x80,
+            (byte) 0x80, 0x01, 0x00, 0x00});
+    }
+
+    @Test
+    public void testFullQuery() throws Exception {
+        final Series a = Series.of("foo", ImmutableMap.of("host", "a", "role", "database"));
+        final Series b = Series.of("foo", ImmutableMap.of("host", "b", "role", "database"));
+
+        final ImmutableList.Builder<Point> points = ImmutableList.builder();
+
+        for (int i = 0; i < 1000; i++) {
+            points.add(new Point(1000L * i, Math.sin(i)));
+        }
+
+        final List<ResultGroup> groups = ImmutableList.of(
+            new ResultGroup(ImmutableMap.of("role", "database"), ImmutableSet.of(a, b),
+                MetricCollection.points(points.build()), 1000L),
+            new ResultGroup(ImmutableMap.of("host", "a"), ImmutableSet.of(a),
+                MetricCollection.spreads(ImmutableList.of(new Spread(0L, 2L, 1D, 0.5D, 0D, 1D))),
+                0L));
+
+        final FullQuery expected =
+            FullQuery.create(QueryTrace.of(QueryTrace.identifier("test"), 0L), ImmutableList.of(),
+                groups, Statistics.empty(), ResultLimits.of(), Optional.empty());
+
+        final byte[] binary = smile.writeValueAsBytes(expected);
+        assertEquals(expected, smile.readValue(binary, FullQuery.class));
+        assertTrue(binary.length < json.writeValueAsBytes(expected).length / 2);
+    }
+}
@@ -0,0 +1,238 @@
+package com.spotify.heroic.suggest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.spotify.heroic.common.DateRange;
+import com.spotify.heroic.common.OptionalLimit;
+import com.spotify.heroic.common.Series;
+import com.spotify.heroic.filter.MatchTagFilter;
+import com.spotify.heroic.filter.TrueFilter;
+import com.spotify.heroic.http.metadata.MetadataResource;
+import com.spotify.heroic.scheduler.Scheduler;
+import eu.toolchain.async.TinyAsync;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TagSketchesTest {
+    private static final long WARMUP = 1000L;
+    private static final long GENERATION = 10000L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Mock
+    private Scheduler scheduler;
+
+    private final AtomicLong now = new AtomicLong(100000L);
+    private final TagSketchConfig config =
+        new TagSketchConfig(true, 12, 3, GENERATION, WARMUP, 1000, null, 1000);
+
+    private TagSketches sketches;
+
+    @Before
+    public void setup() {
+        sketches = newSketches();
+    }
+
+    @Test
+    public void testHyperLogLog() {
+        final HyperLogLog small = new HyperLogLog(12);
+        final HyperLogLog large = new HyperLogLog(12);
+
+        for (int i = 0; i < 10; i++) {
+            small.add("value-" + i);
+            small.add("value-" + i);
+        }
+
+        for (int i = 0; i < 100000; i++) {
+            large.add("value-" + i);
+        }
+
+        assertEquals(10, small.estimate());
+        assertEquals(100000D, large.estimate(), 5000D);
+        assertEquals(large.estimate(), large.merge(small).estimate());
+    }
+
+    @Test
+    public void testTopValues() {
+        final TopValues top = new TopValues(2);
+
+        top.add("a");
+        top.add("b");
+        top.add("a");
+        assertTrue(top.isComplete());
+        assertEquals(ImmutableList.of("a", "b"), top.values());
+
+        top.add("c");
+        top.add("a");
+        assertFalse(top.isComplete());
+        assertEquals(ImmutableList.of("a", "c"), top.values());
+    }
+
+    @Test
+    public void testCanAnswer() {
+        final DateRange range = new DateRange(now.get(), now.get() + WARMUP);
+        assertFalse(sketches.canAnswer(TrueFilter.get(), false, range));
+
+        now.addAndGet(WARMUP);
+        assertTrue(sketches.canAnswer(TrueFilter.get(), false, range));
+        assertFalse(sketches.canAnswer(TrueFilter.get(), true, range));
+        assertFalse(sketches.canAnswer(MatchTagFilter.create("role", "db"), false, range));
+
+        /* series which were only written before the sketches started have not been seen */
+        assertFalse(sketches.canAnswer(TrueFilter.get(), false,
+            new DateRange(range.start() - 1, range.end())));
+    }
+
+    @Test
+    public void testDefaultRange() {
+        now.set(1600000000000L);
+
+        final TagSketchConfig defaults = new TagSketchConfig();
+        final TagSketches sketches = new TagSketches(TinyAsync.builder().build(), scheduler,
+            now::get, new TagSketchConfig(true, defaults.getPrecision(), defaults.getTopValues(),
+            defaults.getGenerationMs(), defaults.getWarmupMs(), defaults.getMaxSeries(), null,
+            defaults.getPersistIntervalMs()));
+
+        sketches.update(Series.of("foo", ImmutableMap.of("role", "db")));
+        now.addAndGet(defaults.getWarmupMs());
+        assertFalse(sketches.canAnswer(TrueFilter.get(), false, defaultRange()));
+
+        /* once a generation has been completed, the default range is covered */
+        now.addAndGet(defaults.getGenerationMs());
+        sketches.update(Series.of("foo", ImmutableMap.of("role", "db")));
+        assertTrue(sketches.canAnswer(TrueFilter.get(), false, defaultRange()));
+
+        now.addAndGet(defaults.getGenerationMs() - 1);
+        assertTrue(sketches.canAnswer(TrueFilter.get(), false, defaultRange()));
+    }
+
+    @Test
+    public void testTagKeyCount() {
+        write("role", "db", "site", "a");
+        write("role", "db", "site", "b");
+        write("role", "web", "site", "a");
+        write("role", "web", "site", "a");
+        write("host", "h1");
+
+        final TagKeyCount result = sketches.tagKeyCount(
+            new TagKeyCount.Request(TrueFilter.get(), new DateRange(0, 0), OptionalLimit.of(2),
+                OptionalLimit.of(10)));
+
+        assertTrue(result.getLimited());
+        assertEquals(ImmutableList.of(
+            new TagKeyCount.Suggestion("role", 2, Optional.of(ImmutableSet.of("db", "web"))),
+            new TagKeyCount.Suggestion("site", 2, Optional.of(ImmutableSet.of("a", "b")))),
+            result.getSuggestions());
+    }
+
+    @Test
+    public void testTagValuesSuggest() {
+        write("role", "db", "site", "a");
+        write("role", "db", "site", "b");
+        write("role", "web", "site", "c");
+        write("role", "lb", "site", "d");
+        write("role", "db", "host", "h1");
+
+        final TagValuesSuggest result = sketches.tagValuesSuggest(
+            new TagValuesSuggest.Request(TrueFilter.get(), new DateRange(0, 0),
+                OptionalLimit.empty(), OptionalLimit.of(1), ImmutableList.of("host")));
+
+        assertFalse(result.getLimited());
+        assertEquals(2, result.getSuggestions().size());
+        assertEquals("role", result.getSuggestions().get(0).getKey());
+        assertEquals(ImmutableSet.of("db"), result.getSuggestions().get(0).getValues());
+        assertTrue(result.getSuggestions().get(0).getLimited());
+        assertEquals("site", result.getSuggestions().get(1).getKey());
+        assertTrue(result.getSuggestions().get(1).getLimited());
+    }
+
+    @Test
+    public void testGenerations() {
+        write("role", "db");
+        now.addAndGet(GENERATION);
+        write("role", "web");
+
+        assertEquals(ImmutableSet.of("db", "web"), values("role"));
+
+        now.addAndGet(GENERATION);
+        write("role", "web");
+
+        assertEquals(ImmutableSet.of("web"), values("role"));
+    }
+
+    @Test
+    public void testPersist() throws Exception {
+        final Path path = folder.getRoot().toPath().resolve("sketches");
+
+        write("role", "db");
+        now.addAndGet(GENERATION);
+        write("role", "web");
+        sketches.persist(path);
+
+        final TagSketches restored = newSketches();
+        restored.restore(path);
+
+        assertTrue(restored.canAnswer(TrueFilter.get(), false, new DateRange(now.get(), now.get())));
+        assertEquals(values("role"), restored
+            .tagKeyCount(new TagKeyCount.Request(TrueFilter.get(), new DateRange(0, 0),
+                OptionalLimit.empty(), OptionalLimit.of(10)))
+            .getSuggestions()
+            .get(0)
+            .getExactValues()
+            .get());
+
+        now.addAndGet(2 * GENERATION);
+
+        final TagSketches stale = newSketches();
+        stale.restore(path);
+        assertFalse(stale.canAnswer(TrueFilter.get(), false, new DateRange(now.get(), now.get())));
+    }
+
+    private DateRange defaultRange() {
+        return new DateRange(now.get() - MetadataResource.DEFAULT_RANGE_MS, now.get());
+    }
+
+    private TagSketches newSketches() {
+        return new TagSketches(TinyAsync.builder().build(), scheduler, now::get, config);
+    }
+
+    private void write(final String... tags) {
+        final ImmutableMap.Builder<String, String> builder = ImmutableMap.builder();
+
+        for (int i = 0; i < tags.length; i += 2) {
+            builder.put(tags[i], tags[i + 1]);
+        }
+
+        final Series series = Series.of("foo", builder.build());
+        sketches.update(series);
+        sketches.update(series);
+    }
+
+    private Set<String> values(final String key) {
+        return sketches
+            .tagKeyCount(new TagKeyCount.Request(TrueFilter.get(), new DateRange(0, 0),
+                OptionalLimit.empty(), OptionalLimit.of(10)))
+            .getSuggestions()
+            .stream()
+            .filter(s -> s.getKey().equals(key))
+            .findFirst()
+            .flatMap(TagKeyCount.Suggestion::getExactValues)
+            .get();
+    }
+}
@@ -164,6 +164,18 @@ public abstract class AbstractClusterQueryIT extends AbstractLocalClusterIT {
         assertEquals(ImmutableSet.of(points().p(10, 2D).p(20, 4D).p(30, 2D).build()), m);
     }
 
+    @Test
+    public void latencyBudgetQueryTest() throws Exception {
+        final QueryResult result = query("sum(10ms)", builder -> {
+            builder.options(Optional.of(QueryOptions.builder().latencyBudget(10000L).build()));
+        });
+
+        assertEquals(0, result.getErrors().size());
+        assertEquals(ResultLimits.of(), result.getLimits());
+        assertEquals(ImmutableSet.of(points().p(10, 2D).p(20, 4D).p(30, 2D).build()),
+            getResults(result));
+    }
+
     @Test
     public void distributedQueryTest() throws Exception {
         final QueryResult result = query("sum(10ms) by shared");
@@ -359,6 +371,28 @@ public abstract class AbstractClusterQueryIT extends AbstractLocalClusterIT {
         assertEquals(ImmutableSet.of(points().p(10, 2D).p(20, 1D).p(30, 1D).p(40, 0D).build()), m);
     }
 
+    @Test
+    public void distributedStdDevTest() throws Exception {
+        final QueryResult result = query("stddev(20ms)");
+
+        final Set<MetricCollection> m = getResults(result);
+        final List<Long> cadences = getCadences(result);
+
+        assertEquals(ImmutableList.of(20L), cadences);
+        assertEquals(ImmutableSet.of(points().p(20, Math.sqrt(2D)).p(40, 0D).build()), m);
+    }
+
+    @Test
+    public void distributedQuantileTest() throws Exception {
+        final QueryResult result = query("quantile(20ms, q=0.5)");
+
+        final Set<MetricCollection> m = getResults(result);
+        final List<Long> cadences = getCadences(result);
+
+        assertEquals(ImmutableList.of(20L), cadences);
+        assertEquals(ImmutableSet.of(points().p(20, 1D).p(40, 2D).build()), m);
+    }
+
     @Test
     public void dataLimit() throws Exception {
         final QueryResult result = query("*", builder -> {
@@ -10,6 +10,7 @@ import com.spotify.heroic.cluster.NodeMetadataFactory;
 import com.spotify.heroic.cluster.RpcProtocolModule;
 import com.spotify.heroic.cluster.discovery.simple.StaticListDiscoveryModule;
 import com.spotify.heroic.dagger.CoreComponent;
+import com.spotify.heroic.metric.MetricManagerModule;
 import com.spotify.heroic.profile.MemoryProfile;
 import com.spotify.heroic.querylogging.QueryLogger;
 import com.spotify.heroic.querylogging.QueryLoggerFactory;
@@ -67,6 +68,13 @@ public abstract class AbstractLocalClusterIT {
         return "jvm";
     }
 
+    /**
+     * Override to copy requests and responses between nodes using the jvm protocol.
+     */
+    protected boolean jvmCopy() {
+        return false;
+    }
+
     /**
      * Override to configure more than one instance.
      * <p>
@@ -209,8 +217,12 @@ public abstract class AbstractLocalClusterIT {
 
         switch (uri.getScheme()) {
             case "jvm":
-                protocol =
-                    JvmRpcProtocolModule.builder().context(context).bindName(uri.getHost()).build();
+                protocol = JvmRpcProtocolModule
+                    .builder()
+                    .context(context)
+                    .bindName(uri.getHost())
+                    .copy(jvmCopy())
+                    .build();
                 discovery = new StaticListDiscoveryModule(uris);
                 break;
             case "grpc":
@@ -231,6 +243,10 @@ public abstract class AbstractLocalClusterIT {
                 .builder()
                 .cluster(buildClusterConfig(uri, protocol, discovery, index)))
             .configFragment(HeroicConfig.builder().queryLogging(mockQueryLoggingModule))
+            // bound fetches so that they go through the fetch scheduler
+            .configFragment(HeroicConfig
+                .builder()
+                .metrics(MetricManagerModule.builder().fetchConcurrency(2)))
             .profile(new MemoryProfile())
             .modules(HeroicModules.ALL_MODULES)
             .build()
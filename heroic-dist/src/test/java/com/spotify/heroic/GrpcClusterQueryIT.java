@@ -5,13 +5,4 @@ public class GrpcClusterQueryIT extends AbstractClusterQueryIT {
     protected String protocol() {
         return "grpc";
     }
-
-    @Override
-    protected void setupSupport() {
-        super.setupSupport();
-
-        // TODO: over GRPC something goes wrong with the distributed cardinality support, or it's an
-        // error.
-        cardinalitySupport = false;
-    }
 }
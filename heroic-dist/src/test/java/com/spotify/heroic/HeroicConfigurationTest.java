@@ -38,10 +38,12 @@ public class HeroicConfigurationTest {
             "com.spotify.heroic.consumer.kafka.KafkaConsumer",
             "com.spotify.heroic.http.HttpServer",
             "com.spotify.heroic.metadata.elasticsearch.MetadataBackendKV",
+            "com.spotify.heroic.metric.MetricRollups",
             "com.spotify.heroic.metric.bigtable.BigtableBackend",
             "com.spotify.heroic.metric.datastax.DatastaxBackend",
             "com.spotify.heroic.rpc.grpc.GrpcRpcProtocolServer",
             "com.spotify.heroic.shell.ShellServer",
+            "com.spotify.heroic.suggest.TagSketches",
             "com.spotify.heroic.suggest.elasticsearch.SuggestBackendKV"
         );
 
@@ -55,6 +57,7 @@ public class HeroicConfigurationTest {
             "com.spotify.heroic.metric.datastax.DatastaxBackend",
             "com.spotify.heroic.rpc.grpc.GrpcRpcProtocolServer",
             "com.spotify.heroic.shell.ShellServer",
+            "com.spotify.heroic.suggest.TagSketches",
             "com.spotify.heroic.suggest.elasticsearch.SuggestBackendKV"
         );
 
@@ -0,0 +1,13 @@
+package com.spotify.heroic;
+
+public class JvmCopyClusterQueryIT extends AbstractClusterQueryIT {
+    @Override
+    protected String protocol() {
+        return "jvm";
+    }
+
+    @Override
+    protected boolean jvmCopy() {
+        return true;
+    }
+}
@@ -205,13 +205,22 @@ public abstract class AbstractElasticsearchMetadataBackend
         }
     }
 
+    /**
+     * Streams the pages of a search, either by scrolling or by searching after the last hit of
+     * the previous page.
+     * <p>
+     * Responses with failed shards fail the stream, instead of silently leaving out results.
+     */
     public static class SearchTransformStream<T> implements LazyTransform<SearchResponse, Void> {
         private final OptionalLimit limit;
         private final Function<Set<T>, AsyncFuture<Void>> seriesFunction;
         private final Function<SearchHit, T> converter;
-        private final Function<String, Supplier<AsyncFuture<SearchResponse>>> searchFactory;
+        private final BiFunction<String, SearchHit, Supplier<AsyncFuture<SearchResponse>>>
+            searchFactory;
+        private final boolean scrolling;
 
         int size = 0;
+        private volatile String lastScrollId = null;
 
         @java.beans.ConstructorProperties({ "limit", "seriesFunction", "converter",
                                             "scrollFactory" })
@@ -220,18 +229,50 @@ public abstract class AbstractElasticsearchMetadataBackend
             final Function<Set<T>, AsyncFuture<Void>> seriesFunction,
             final Function<SearchHit, T> converter,
             final Function<String, Supplier<AsyncFuture<SearchResponse>>> searchFactory
+        ) {
+            this(limit, seriesFunction, converter,
+                (scrollId, ignored) -> searchFactory.apply(scrollId), true);
+        }
+
+        public SearchTransformStream(
+            final OptionalLimit limit,
+            final Function<Set<T>, AsyncFuture<Void>> seriesFunction,
+            final Function<SearchHit, T> converter,
+            final BiFunction<String, SearchHit, Supplier<AsyncFuture<SearchResponse>>>
+                searchFactory,
+            final boolean scrolling
         ) {
             this.limit = limit;
             this.seriesFunction = seriesFunction;
             this.converter = converter;
             this.searchFactory = searchFactory;
+            this.scrolling = scrolling;
+        }
+
+        /**
+         * The scroll id of the last response, which should be cleared once the stream is done.
+         */
+        public String getLastScrollId() {
+            return lastScrollId;
         }
 
         @Override
         public AsyncFuture<Void> transform(final SearchResponse response) {
+            final String scrollId = response.getScrollId();
+
+            if (scrollId != null) {
+                lastScrollId = scrollId;
+            }
+
+            if (response.getFailedShards() > 0) {
+                throw new IllegalStateException(
+                    "Search failed on " + response.getFailedShards() + " shard(s)");
+            }
+
             final SearchHit[] hits = response.getHits().getHits();
 
             final Set<T> batch = new HashSet<>();
+            SearchHit lastHit = null;
 
             for (final SearchHit hit : hits) {
                 if (limit.isGreaterOrEqual(size)) {
@@ -240,22 +281,22 @@ public abstract class AbstractElasticsearchMetadataBackend
 
                 batch.add(converter.apply(hit));
                 size += 1;
+                lastHit = hit;
             }
 
             if (hits.length == 0 || limit.isGreaterOrEqual(size)) {
                 return seriesFunction.apply(batch);
             }
 
-            final String scrollId = response.getScrollId();
-            if (scrollId == null) {
+            if (scrolling && scrollId == null) {
                 return seriesFunction.apply(batch);
             }
 
-            // Fetch the next page in the scrolling search. The result will be handled by a new call
-            // to this method.
-            return seriesFunction
-                .apply(batch)
-                .lazyTransform(v -> searchFactory.apply(scrollId).get().lazyTransform(this));
+            // Fetch the next page in the search. The result will be handled by a new call to this
+            // method.
+            final Supplier<AsyncFuture<SearchResponse>> next =
+                searchFactory.apply(scrollId, lastHit);
+            return seriesFunction.apply(batch).lazyTransform(v -> next.get().lazyTransform(this));
         }
     }
 
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.heroic.elasticsearch
+
+/**
+ * Configuration for batching index requests into bulk requests, see [BulkWriter].
+ */
+data class BulkConfig(
+    /* maximum number of index requests in a single bulk request */
+    val maxActions: Int = 1000,
+    /* maximum size in bytes of the sources in a single bulk request */
+    val maxBytes: Long = 5L * 1024 * 1024,
+    /* maximum number of bulk requests in flight at the same time */
+    val maxConcurrentBulks: Int = 4
+)
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.heroic.elasticsearch;
+
+import org.elasticsearch.action.bulk.BulkItemResponse;
+
+/**
+ * A single index request of a bulk request failed.
+ */
+public class BulkItemException extends RuntimeException {
+    private final BulkItemResponse.Failure failure;
+
+    public BulkItemException(final BulkItemResponse.Failure failure) {
+        super(failure.getMessage(), failure.getCause());
+        this.failure = failure;
+    }
+
+    public BulkItemResponse.Failure getFailure() {
+        return failure;
+    }
+}
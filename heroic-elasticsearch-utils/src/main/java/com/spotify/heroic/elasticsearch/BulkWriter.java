@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.heroic.elasticsearch;
+
+import eu.toolchain.async.AsyncFramework;
+import eu.toolchain.async.AsyncFuture;
+import eu.toolchain.async.ResolvableFuture;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
+
+/**
+ * Batches index requests from concurrent writers into bulk requests.
+ * <p>
+ * A bulk request is sent as soon as an index request is queued while fewer than the configured
+ * number of bulk requests are in flight. Otherwise index requests are queued, and sent together
+ * once an in-flight bulk request completes. Writes are therefore batched in proportion to how
+ * far behind Elasticsearch is, without delaying them when it keeps up.
+ * <p>
+ * The future of each index request completes with the outcome of its own item in the bulk
+ * response. Since futures only complete once Elasticsearch has responded, the limit on concurrent
+ * writes in ingestion also bounds the number of queued requests.
+ */
+public class BulkWriter {
+    private final AsyncFramework async;
+    private final BulkConfig config;
+
+    private final Object lock = new Object();
+
+    /* guarded by lock */
+    private final ArrayDeque<Pending> queue = new ArrayDeque<>();
+    private int inFlight = 0;
+
+    public BulkWriter(final AsyncFramework async, final BulkConfig config) {
+        this.async = async;
+        this.config = config;
+    }
+
+    /**
+     * Index a document as part of a bulk request.
+     *
+     * @param c connection to send the request with
+     * @param request index request to send
+     * @return a future which is failed with a {@link BulkItemException} if the item failed
+     */
+    public AsyncFuture<BulkItemResponse> index(final Connection<?> c, final IndexRequest request) {
+        final ResolvableFuture<BulkItemResponse> future = async.future();
+
+        synchronized (lock) {
+            queue.add(new Pending(c, request, future));
+        }
+
+        flush();
+        return future;
+    }
+
+    /**
+     * Number of index requests which have not been sent yet.
+     */
+    public int queued() {
+        synchronized (lock) {
+            return queue.size();
+        }
+    }
+
+    private void flush() {
+        while (true) {
+            final List<Pending> batch;
+
+            synchronized (lock) {
+                if (queue.isEmpty() || inFlight >= config.getMaxConcurrentBulks()) {
+                    return;
+                }
+
+                batch = nextBatch();
+                inFlight++;
+            }
+
+            send(batch);
+        }
+    }
+
+    /**
+     * Take the next batch off the queue, all of which are for the same connection.
+     */
+    private List<Pending> nextBatch() {
+        final List<Pending> batch = new ArrayList<>();
+        final Connection<?> c = queue.peek().connection;
+        long bytes = 0;
+
+        while (!queue.isEmpty() && batch.size() < config.getMaxActions() &&
+            bytes < config.getMaxBytes() && queue.peek().connection == c) {
+            final Pending p = queue.poll();
+            bytes += p.request.source().length();
+            batch.add(p);
+        }
+
+        return batch;
+    }
+
+    private void send(final List<Pending> batch) {
+        final BulkRequest bulk = new BulkRequest();
+        batch.forEach(p -> bulk.add(p.request));
+
+        final ActionListener<BulkResponse> listener = new ActionListener<>() {
+            @Override
+            public void onResponse(final BulkResponse response) {
+                final BulkItemResponse[] items = response.getItems();
+
+                for (int i = 0; i < batch.size(); i++) {
+                    final BulkItemResponse item = items[i];
+
+                    if (item.isFailed()) {
+                        batch.get(i).future.fail(new BulkItemException(item.getFailure()));
+                    } else {
+                        batch.get(i).future.resolve(item);
+                    }
+                }
+
+                done();
+            }
+
+            @Override
+            public void onFailure(final Exception e) {
+                batch.forEach(p -> p.future.fail(e));
+                done();
+            }
+        };
+
+        try {
+            batch.get(0).connection.execute(bulk, listener);
+        } catch (final Exception e) {
+            listener.onFailure(e);
+        }
+    }
+
+    private void done() {
+        synchronized (lock) {
+            inFlight--;
+        }
+
+        flush();
+    }
+
+    private static class Pending {
+        private final Connection<?> connection;
+        private final IndexRequest request;
+        private final ResolvableFuture<BulkItemResponse> future;
+
+        Pending(
+            final Connection<?> connection, final IndexRequest request,
+            final ResolvableFuture<BulkItemResponse> future
+        ) {
+            this.connection = connection;
+            this.request = request;
+            this.future = future;
+        }
+    }
+}
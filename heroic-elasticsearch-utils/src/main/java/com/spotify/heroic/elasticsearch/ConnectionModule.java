@@ -39,22 +39,25 @@ public class ConnectionModule {
     private final IndexMapping index;
     private final String templateName;
     private final ClientWrapper clientWrapper;
+    private final BulkConfig bulk;
 
     @JsonCreator
     public ConnectionModule(
         @JsonProperty("index") IndexMapping index,
         @JsonProperty("templateName") String templateName,
-        @JsonProperty("client") ClientWrapper clientWrapper
+        @JsonProperty("client") ClientWrapper clientWrapper,
+        @JsonProperty("bulk") BulkConfig bulk
     ) {
         this.index = ofNullable(index).orElseGet(RotatingIndexMapping.builder()::build);
         // templateName defaults to the value from the backend config, and doesn't have to also
         // be set under these connection params
         this.templateName = templateName;
         this.clientWrapper = ofNullable(clientWrapper).orElseGet(RestClientWrapper::new);
+        this.bulk = ofNullable(bulk).orElseGet(BulkConfig::new);
     }
 
     public static ConnectionModule buildDefault() {
-        return new ConnectionModule(null, null, null);
+        return new ConnectionModule(null, null, null, null);
     }
 
     @Provides
@@ -62,6 +65,11 @@ public class ConnectionModule {
         return new Provider(async);
     }
 
+    @Provides
+    BulkWriter bulkWriter(final AsyncFramework async) {
+        return new BulkWriter(async, bulk);
+    }
+
     public class Provider {
         private final AsyncFramework async;
 
@@ -97,6 +105,7 @@ public class ConnectionModule {
         private IndexMapping index;
         private String templateName;
         private ClientWrapper clientWrapper;
+        private BulkConfig bulk;
 
         public Builder index(IndexMapping index) {
             this.index = index;
@@ -113,8 +122,13 @@ public class ConnectionModule {
             return this;
         }
 
+        public Builder bulk(BulkConfig bulk) {
+            this.bulk = bulk;
+            return this;
+        }
+
         public ConnectionModule build() {
-            return new ConnectionModule(index, templateName, clientWrapper);
+            return new ConnectionModule(index, templateName, clientWrapper, bulk);
         }
     }
 }
@@ -23,6 +23,7 @@ package com.spotify.heroic.elasticsearch.index
 
 import com.fasterxml.jackson.annotation.JsonSubTypes
 import com.fasterxml.jackson.annotation.JsonTypeInfo
+import com.spotify.heroic.common.DateRange
 import org.elasticsearch.action.delete.DeleteRequest
 import org.elasticsearch.action.search.SearchRequest
 
@@ -38,15 +39,30 @@ interface IndexMapping {
     @Throws(NoIndexSelectedException::class)
     fun readIndices(type: String): Array<String>
 
+    /**
+     * Indices which might contain documents for series with data in the given range.
+     */
+    @Throws(NoIndexSelectedException::class)
+    fun readIndices(type: String, range: DateRange): Array<String>
+
     @Throws(NoIndexSelectedException::class)
     fun writeIndices(type: String): Array<String>
 
     @Throws(NoIndexSelectedException::class)
     fun search(type: String): SearchRequest
 
+    /**
+     * Create a search request over the indices selected by [readIndices] for the given range.
+     */
+    @Throws(NoIndexSelectedException::class)
+    fun search(type: String, range: DateRange): SearchRequest
+
     @Throws(NoIndexSelectedException::class)
     fun count(type: String): SearchRequest
 
+    @Throws(NoIndexSelectedException::class)
+    fun count(type: String, range: DateRange): SearchRequest
+
     /**
      * Create a delete request.
      *
@@ -22,6 +22,7 @@
 package com.spotify.heroic.elasticsearch.index
 
 import com.fasterxml.jackson.annotation.JsonProperty
+import com.spotify.heroic.common.DateRange
 import com.spotify.heroic.common.Duration
 import org.elasticsearch.action.delete.DeleteRequest
 import org.elasticsearch.action.search.SearchRequest
@@ -72,6 +73,28 @@ data class RotatingIndexMapping(
         return readIndices(System.currentTimeMillis(), type)
     }
 
+    /**
+     * Series are written to the index of the interval in which they are ingested, which is never
+     * before the data itself. Indices for intervals that ended before the start of the range can
+     * therefore not contain anything relevant, and are skipped.
+     *
+     * Indices after the end of the range are kept since data might be backfilled, and the current
+     * index is always kept.
+     */
+    @Throws(NoIndexSelectedException::class)
+    fun readIndices(now: Long, type: String, range: DateRange): Array<String> {
+        val curr = now - (now % interval)
+
+        return readIndices(now, type)
+            .filterIndexed { i, _ -> i == 0 || curr - interval * (i - 1) > range.start }
+            .toTypedArray()
+    }
+
+    @Throws(NoIndexSelectedException::class)
+    override fun readIndices(type: String, range: DateRange): Array<String> {
+        return readIndices(System.currentTimeMillis(), type, range)
+    }
+
     fun writeIndices(now: Long, type: String): Array<String> {
         return indices(maxWriteIndices, now, type)
     }
@@ -85,11 +108,21 @@ data class RotatingIndexMapping(
         return SearchRequest(*readIndices(type)).indicesOptions(OPTIONS)
     }
 
+    @Throws(NoIndexSelectedException::class)
+    override fun search(type: String, range: DateRange): SearchRequest {
+        return SearchRequest(*readIndices(type, range)).indicesOptions(OPTIONS)
+    }
+
     @Throws(NoIndexSelectedException::class)
     override fun count(type: String): SearchRequest {
         return search(type).source(SearchSourceBuilder().size(0))
     }
 
+    @Throws(NoIndexSelectedException::class)
+    override fun count(type: String, range: DateRange): SearchRequest {
+        return search(type, range).source(SearchSourceBuilder().size(0))
+    }
+
     @Throws(NoIndexSelectedException::class)
     override fun delete(type: String, id: String): List<DeleteRequest> {
         return readIndices(type).map { DeleteRequest(it, id) }
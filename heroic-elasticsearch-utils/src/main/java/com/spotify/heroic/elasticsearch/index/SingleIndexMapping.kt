@@ -21,6 +21,7 @@
 
 package com.spotify.heroic.elasticsearch.index
 
+import com.spotify.heroic.common.DateRange
 import org.elasticsearch.action.delete.DeleteRequest
 import org.elasticsearch.action.search.SearchRequest
 import org.elasticsearch.search.builder.SearchSourceBuilder
@@ -38,6 +39,8 @@ data class SingleIndexMapping(
         return arrayOf(getFullIndexName(type))
     }
 
+    override fun readIndices(type: String, range: DateRange) = readIndices(type)
+
     override fun writeIndices(type: String): Array<String> {
         return arrayOf(getFullIndexName(type))
     }
@@ -46,10 +49,14 @@ data class SingleIndexMapping(
         return SearchRequest(getFullIndexName(type))
     }
 
+    override fun search(type: String, range: DateRange) = search(type)
+
     override fun count(type: String): SearchRequest {
         return search(type).source(SearchSourceBuilder().size(0))
     }
 
+    override fun count(type: String, range: DateRange) = count(type)
+
     override fun delete(type: String, id: String): List<DeleteRequest> {
         return listOf(DeleteRequest(getFullIndexName(type), id))
     }
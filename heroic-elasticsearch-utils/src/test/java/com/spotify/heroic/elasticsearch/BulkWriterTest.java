@@ -0,0 +1,136 @@
+package com.spotify.heroic.elasticsearch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import eu.toolchain.async.AsyncFramework;
+import eu.toolchain.async.AsyncFuture;
+import eu.toolchain.async.TinyAsync;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BulkWriterTest {
+    @Mock
+    private Connection<?> connection;
+
+    private ExecutorService executor;
+    private AsyncFramework async;
+
+    private final List<BulkRequest> requests = new ArrayList<>();
+    private final List<ActionListener<BulkResponse>> listeners = new ArrayList<>();
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        executor = Executors.newSingleThreadExecutor();
+        async = TinyAsync.builder().executor(executor).build();
+
+        doAnswer(invocation -> {
+            requests.add(invocation.getArgument(0));
+            listeners.add(invocation.getArgument(1));
+            return null;
+        }).when(connection).execute(any(BulkRequest.class), any(ActionListener.class));
+    }
+
+    @After
+    public void teardown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void testBatchWhileInFlight() throws Exception {
+        final BulkWriter writer = new BulkWriter(async, new BulkConfig(1000, 1024L, 1));
+
+        final AsyncFuture<BulkItemResponse> a = writer.index(connection, request("a"));
+        final AsyncFuture<BulkItemResponse> b = writer.index(connection, request("b"));
+        final AsyncFuture<BulkItemResponse> c = writer.index(connection, request("c"));
+
+        assertEquals(1, requests.size());
+        assertEquals(1, requests.get(0).numberOfActions());
+        assertEquals(2, writer.queued());
+
+        final BulkItemResponse ok = item(false);
+        listeners.get(0).onResponse(response(ok));
+        assertSame(ok, a.get());
+
+        assertEquals(2, requests.size());
+        assertEquals(2, requests.get(1).numberOfActions());
+        assertEquals(0, writer.queued());
+
+        final BulkItemResponse failed = item(true);
+        listeners.get(1).onResponse(response(ok, failed));
+        assertSame(ok, b.get());
+
+        try {
+            c.get();
+            fail("expected the failed item to fail its future");
+        } catch (final ExecutionException e) {
+            assertTrue(e.getCause() instanceof BulkItemException);
+            assertSame(failed.getFailure(), ((BulkItemException) e.getCause()).getFailure());
+        }
+    }
+
+    @Test
+    public void testBatchLimits() {
+        final BulkWriter writer = new BulkWriter(async, new BulkConfig(2, 1024L, 1));
+
+        for (int i = 0; i < 4; i++) {
+            writer.index(connection, request("doc" + i));
+        }
+
+        listeners.get(0).onResponse(response(item(false)));
+        assertEquals(2, requests.get(1).numberOfActions());
+        assertEquals(1, writer.queued());
+    }
+
+    @Test(expected = ExecutionException.class)
+    public void testBulkFailure() throws Exception {
+        final BulkWriter writer = new BulkWriter(async, new BulkConfig());
+
+        final AsyncFuture<BulkItemResponse> a = writer.index(connection, request("a"));
+        listeners.get(0).onFailure(new RuntimeException("unavailable"));
+
+        a.get();
+    }
+
+    private IndexRequest request(final String id) {
+        return new IndexRequest("index").id(id).source("field", id);
+    }
+
+    private BulkItemResponse item(final boolean failed) {
+        final BulkItemResponse item = mock(BulkItemResponse.class);
+        when(item.isFailed()).thenReturn(failed);
+
+        if (failed) {
+            when(item.getFailure()).thenReturn(
+                new BulkItemResponse.Failure("index", "_doc", "id", new RuntimeException("fail")));
+        }
+
+        return item;
+    }
+
+    private BulkResponse response(final BulkItemResponse... items) {
+        return new BulkResponse(items, 0L);
+    }
+}
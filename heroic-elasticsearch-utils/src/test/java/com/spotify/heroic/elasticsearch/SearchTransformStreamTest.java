@@ -18,6 +18,7 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import org.elasticsearch.action.search.SearchResponse;
@@ -244,4 +245,33 @@ public class SearchTransformStreamTest {
             allSearchResults);
         verify(scroller, times(4)).get();
     }
+
+    @Test
+    public void searchAfterLastHit() throws Exception {
+        setSearchHitPages(searchHits1, searchHits2, emptySearchHits);
+
+        final BiFunction<String, SearchHit, Supplier<AsyncFuture<SearchResponse>>> searchAfter =
+            mock(BiFunction.class);
+        doReturn(scroller).when(searchAfter).apply(any(), any());
+
+        final SearchTransformStream<SearchHit> transform = new SearchTransformStream<>(
+            OptionalLimit.empty(), seriesFunction, Function.identity(), searchAfter, false);
+
+        scroller.get().lazyTransform(transform);
+
+        assertEquals(createExpectedResult(null, searchHits1, searchHits2), allSearchResults);
+        verify(searchAfter).apply(scrollID, searchHits1[searchHits1.length - 1]);
+        verify(searchAfter).apply(scrollID, searchHits2[searchHits2.length - 1]);
+        assertEquals(scrollID, transform.getLastScrollId());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void failedShards() throws Exception {
+        doReturn(1).when(searchResponse).getFailedShards();
+
+        final SearchTransformStream<SearchHit> scrollTransform =
+            createScrollTransform(10, seriesFunction, scrollerFactory);
+
+        scrollTransform.transform(searchResponse);
+    }
 }
@@ -2,6 +2,7 @@ package com.spotify.heroic.elasticsearch.index;
 
 import static org.junit.Assert.assertArrayEquals;
 
+import com.spotify.heroic.common.DateRange;
 import com.spotify.heroic.common.Duration;
 import java.util.HashMap;
 import java.util.concurrent.TimeUnit;
@@ -28,6 +29,25 @@ public class RotatingIndexMappingTest {
         assertArrayEquals(new String[]{"index-typeA-8000", "index-typeA-7000"}, indices);
     }
 
+    @Test
+    public void testReadIndexRange() throws NoIndexSelectedException {
+        final RotatingIndexMapping rotating =
+            new RotatingIndexMapping(interval, 3, maxWriteIndices, pattern, new HashMap<>());
+
+        assertArrayEquals(new String[]{"index-typeA-8000", "index-typeA-7000", "index-typeA-6000"},
+            rotating.readIndices(8500, "typeA", new DateRange(0, 8500)));
+        assertArrayEquals(new String[]{"index-typeA-8000", "index-typeA-7000"},
+            rotating.readIndices(8500, "typeA", new DateRange(7000, 7500)));
+        assertArrayEquals(new String[]{"index-typeA-8000"},
+            rotating.readIndices(8500, "typeA", new DateRange(8000, 8500)));
+    }
+
+    @Test
+    public void testReadIndexFutureRange() throws NoIndexSelectedException {
+        assertArrayEquals(new String[]{"index-typeA-8000"},
+            rotating.readIndices(8500, "typeA", new DateRange(20000, 30000)));
+    }
+
     @Test
     public void testEmptyReadIndex() throws NoIndexSelectedException {
         final String[] indices = rotating.readIndices(0, "typeA");
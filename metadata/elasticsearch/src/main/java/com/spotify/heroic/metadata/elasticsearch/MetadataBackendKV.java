@@ -39,6 +39,7 @@ import com.spotify.heroic.common.Series;
 import com.spotify.heroic.common.Statistics;
 import com.spotify.heroic.elasticsearch.AbstractElasticsearchMetadataBackend;
 import com.spotify.heroic.elasticsearch.BackendType;
+import com.spotify.heroic.elasticsearch.BulkWriter;
 import com.spotify.heroic.elasticsearch.Connection;
 import com.spotify.heroic.elasticsearch.RateLimitedCache;
 import com.spotify.heroic.elasticsearch.SearchTransformResult;
@@ -98,12 +99,10 @@ import java.util.stream.Collectors;
 import javax.inject.Inject;
 import javax.inject.Named;
 import org.apache.commons.lang3.tuple.Pair;
-import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.DocWriteRequest.OpType;
 import org.elasticsearch.action.delete.DeleteRequest;
 import org.elasticsearch.action.delete.DeleteResponse;
 import org.elasticsearch.action.index.IndexRequest;
-import org.elasticsearch.action.index.IndexResponse;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.common.unit.TimeValue;
@@ -140,6 +139,7 @@ public class MetadataBackendKV extends AbstractElasticsearchMetadataBackend
     private final AsyncFramework async;
     private final Managed<Connection> connection;
     private final RateLimitedCache<Pair<String, HashCode>> writeCache;
+    private final BulkWriter bulk;
     private final boolean configure;
     private final int deleteParallelism;
     private final int scrollSize;
@@ -151,6 +151,7 @@ public class MetadataBackendKV extends AbstractElasticsearchMetadataBackend
         AsyncFramework async,
         Managed<Connection> connection,
         RateLimitedCache<Pair<String, HashCode>> writeCache,
+        BulkWriter bulk,
         @Named("configure") boolean configure,
         @Named("deleteParallelism") int deleteParallelism,
         @Named("scrollSize") int scrollSize
@@ -161,6 +162,7 @@ public class MetadataBackendKV extends AbstractElasticsearchMetadataBackend
         this.async = async;
         this.connection = connection;
         this.writeCache = writeCache;
+        this.bulk = bulk;
         this.configure = configure;
         this.deleteParallelism = deleteParallelism;
         this.scrollSize = scrollSize;
@@ -259,23 +261,8 @@ public class MetadataBackendKV extends AbstractElasticsearchMetadataBackend
                     final Span writeSpan =
                         tracer.spanBuilder(indexSpanName + ".writeIndex").startSpan();
 
-                    final ResolvableFuture<IndexResponse> result = async.future();
-                    final ActionListener<IndexResponse> listener =
-                        new ActionListener<>() {
-                            @Override
-                            public void onResponse(IndexResponse indexResponse) {
-                                result.resolve(indexResponse);
-                            }
-
-                            @Override
-                            public void onFailure(Exception e) {
-                                result.fail(e);
-                            }
-                        };
-
-                    c.execute(indexRequest, listener);
-
-                    final AsyncFuture<WriteMetadata> writeMetadataAsyncFuture = result
+                    final AsyncFuture<WriteMetadata> writeMetadataAsyncFuture = bulk
+                        .index(c, indexRequest)
                         .directTransform(response -> timer.end())
                         .catchFailed(handleVersionConflict(WriteMetadata::new,
                             reporter::reportWriteDroppedByDuplicate))
@@ -306,7 +293,7 @@ public class MetadataBackendKV extends AbstractElasticsearchMetadataBackend
 
             final QueryBuilder f = filter(filter.getFilter());
 
-            SearchRequest request = c.getIndex().count(METADATA_TYPE);
+            SearchRequest request = c.getIndex().count(METADATA_TYPE, filter.getRange());
             SearchSourceBuilder sourceBuilder = request.source();
             limit.asInteger().ifPresent(sourceBuilder::terminateAfter);
             sourceBuilder.query(new BoolQueryBuilder().must(f));
@@ -395,7 +382,8 @@ public class MetadataBackendKV extends AbstractElasticsearchMetadataBackend
     public AsyncFuture<FindKeys> findKeys(final FindKeys.Request request) {
         return doto(c -> {
             final QueryBuilder f = filter(request.getFilter());
-            SearchRequest searchRequest = c.getIndex().search(METADATA_TYPE);
+            SearchRequest searchRequest =
+                c.getIndex().search(METADATA_TYPE, request.getRange());
             searchRequest.source().query(new BoolQueryBuilder().must(f));
 
             {
@@ -452,8 +440,10 @@ public class MetadataBackendKV extends AbstractElasticsearchMetadataBackend
         OptionalLimit limit = seriesRequest.getLimit();
 
         return doto(c -> {
-            SearchRequest request =
-                c.getIndex().search(METADATA_TYPE).allowPartialSearchResults(false);
+            SearchRequest request = c
+                .getIndex()
+                .search(METADATA_TYPE, seriesRequest.getRange())
+                .allowPartialSearchResults(false);
 
             request.source()
                 .size(limit.asMaxInteger(scrollSize))
@@ -522,28 +512,47 @@ public class MetadataBackendKV extends AbstractElasticsearchMetadataBackend
         OptionalLimit limit = findRequest.getLimit();
 
         return observer -> connection.doto(c -> {
-            SearchRequest request = c.getIndex().search(METADATA_TYPE).scroll(SCROLL_TIME);
+            SearchRequest request = c
+                .getIndex()
+                .search(METADATA_TYPE, findRequest.getRange())
+                .allowPartialSearchResults(false);
+
             request.source()
                 .size(limit.asMaxInteger(scrollSize))
-                .query(new BoolQueryBuilder().must(filter));
+                .query(new BoolQueryBuilder().must(filter))
+                .sort(new FieldSortBuilder("hash"));
 
             modifier.accept(request);
 
-            final SearchTransformStream<T> scrollTransform =
-                new SearchTransformStream<>(limit, set -> observer.observe(collector.apply(set)),
-                    converter, scrollId -> {
-                    // Function<> that returns a Supplier
-                    return () -> {
+            final Function<Set<T>, AsyncFuture<Void>> emit =
+                set -> observer.observe(collector.apply(set));
+            final SearchTransformStream<T> transform;
+
+            if (findRequest.getFeatures().hasFeature(Feature.METADATA_LIVE_CURSOR)) {
+                transform = new SearchTransformStream<>(limit, emit, converter,
+                    (ignored, lastHit) -> () -> {
+                        final ResolvableFuture<SearchResponse> future = async.future();
+                        request.source().searchAfter(lastHit.getSortValues());
+                        c.execute(request, bind(future));
+                        return future;
+                    }, false);
+            } else {
+                request.scroll(SCROLL_TIME);
+                transform = new SearchTransformStream<>(limit, emit, converter,
+                    (scrollId, ignored) -> () -> {
                         final ResolvableFuture<SearchResponse> future = async.future();
                         c.searchScroll(scrollId, SCROLL_TIME, bind(future));
                         return future;
-                    };
-                });
+                    }, true);
+            }
 
             final ResolvableFuture<SearchResponse> future = async.future();
             c.execute(request, bind(future));
 
-            return future.lazyTransform(scrollTransform);
+            return future
+                .lazyTransform(transform)
+                .onFinished(() -> ofNullable(transform.getLastScrollId())
+                    .ifPresent(c::clearSearchScroll));
         }).onDone(observer.onDone());
     }
 
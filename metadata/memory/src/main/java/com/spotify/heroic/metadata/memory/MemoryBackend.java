@@ -26,7 +26,9 @@ import com.google.common.collect.ImmutableSet;
 import com.spotify.heroic.async.AsyncObservable;
 import com.spotify.heroic.common.Groups;
 import com.spotify.heroic.common.OptionalLimit;
+import com.spotify.heroic.common.RequestTimer;
 import com.spotify.heroic.common.Series;
+import com.spotify.heroic.filter.CompiledFilter;
 import com.spotify.heroic.filter.Filter;
 import com.spotify.heroic.metadata.CountSeries;
 import com.spotify.heroic.metadata.DeleteSeries;
@@ -82,8 +84,13 @@ public class MemoryBackend implements MetadataBackend {
 
     @Override
     public AsyncFuture<WriteMetadata> write(final WriteMetadata.Request request) {
-        this.storage.add(request.getSeries());
-        return async.resolved(new WriteMetadata());
+        final RequestTimer<WriteMetadata> timer = WriteMetadata.timer();
+
+        if (!storage.add(request.getSeries())) {
+            return async.resolved(new WriteMetadata());
+        }
+
+        return async.resolved(timer.end());
     }
 
     @Override
@@ -189,7 +196,8 @@ public class MemoryBackend implements MetadataBackend {
     }
 
     private Stream<Series> lookupFilter(final Filter filter) {
-        return storage.stream().filter(filter::apply);
+        final CompiledFilter compiled = CompiledFilter.compile(filter);
+        return storage.stream().filter(compiled::apply);
     }
 
     private Stream<Series> lookup(final Filter filter, final OptionalLimit limit) {
@@ -50,6 +50,7 @@ import com.spotify.heroic.metric.MetricType;
 import com.spotify.heroic.metric.Point;
 import com.spotify.heroic.metric.QueryError;
 import com.spotify.heroic.metric.QueryTrace;
+import com.spotify.heroic.metric.Spread;
 import com.spotify.heroic.metric.WriteMetric;
 import com.spotify.heroic.metric.bigtable.api.BigtableDataClient;
 import com.spotify.heroic.metric.bigtable.api.BigtableTableAdminClient;
@@ -107,6 +108,7 @@ public class BigtableBackend extends AbstractMetricBackend implements LifeCycles
 
     public static final String POINTS = "points";
     public static final String EVENTS = "events";
+    public static final String SPREADS = "spreads";
     public static final long PERIOD = 0x100_000_000L;
 
     private final AsyncFramework async;
@@ -185,6 +187,13 @@ public class BigtableBackend extends AbstractMetricBackend implements LifeCycles
 
             waitUntilColumnFamily(admin, table, EVENTS).get();
 
+            table.getColumnFamily(SPREADS).orElseGet(() -> {
+                log.info("Creating missing column family: " + SPREADS);
+                return admin.createColumnFamily(table, SPREADS);
+            });
+
+            waitUntilColumnFamily(admin, table, SPREADS).get();
+
             return null;
         });
     }
@@ -259,6 +268,12 @@ public class BigtableBackend extends AbstractMetricBackend implements LifeCycles
         });
     }
 
+    private List<PreparedQuery> spreadsRanges(final FetchData.Request request)
+        throws IOException {
+        return ranges(request.getSeries(), request.getRange(), SPREADS,
+            BigtableBackend::deserializeSpread);
+    }
+
     @Override
     public AsyncFuture<FetchData.Result> fetch(
         final FetchData.Request request,
@@ -277,6 +292,9 @@ public class BigtableBackend extends AbstractMetricBackend implements LifeCycles
                 case POINT:
                     return fetchBatch(
                         watcher, type, pointsRanges(request), c, consumer, parentSpan);
+                case SPREAD:
+                    return fetchBatch(
+                        watcher, type, spreadsRanges(request), c, consumer, parentSpan);
                 default:
                     return async.resolved(new FetchData.Result(QueryTrace.of(FETCH),
                         new QueryError("unsupported source: " + request.getType())));
@@ -320,6 +338,9 @@ public class BigtableBackend extends AbstractMetricBackend implements LifeCycles
             case POINT:
                 return writeBatch(POINTS, series, client, g.getDataAs(Point.class),
                     d -> serializeValue(d.getValue()), parentSpan);
+            case SPREAD:
+                return writeBatch(SPREADS, series, client, g.getDataAs(Spread.class),
+                    BigtableBackend::serializeSpread, parentSpan);
             default:
                 return async.resolved(new WriteMetric(
                     new QueryError("Unsupported metric type: " + g.getType())));
@@ -570,6 +591,23 @@ public class BigtableBackend extends AbstractMetricBackend implements LifeCycles
         return Double.longBitsToDouble(ByteBuffer.wrap(value.toByteArray()).getLong());
     }
 
+    static ByteString serializeSpread(Spread spread) {
+        final ByteBuffer buffer = ByteBuffer
+            .allocate(Long.BYTES + 4 * Double.BYTES)
+            .putLong(spread.getCount())
+            .putDouble(spread.getSum())
+            .putDouble(spread.getSum2())
+            .putDouble(spread.getMin())
+            .putDouble(spread.getMax());
+        return ByteString.copyFrom(buffer.array());
+    }
+
+    static Spread deserializeSpread(long timestamp, ByteString value) {
+        final ByteBuffer buffer = ByteBuffer.wrap(value.toByteArray());
+        return new Spread(timestamp, buffer.getLong(), buffer.getDouble(), buffer.getDouble(),
+            buffer.getDouble(), buffer.getDouble());
+    }
+
     /**
      * Offset serialization is sensitive to byte ordering. <p> We require that for two timestamps a,
      * and b, the following invariants hold true. <p>
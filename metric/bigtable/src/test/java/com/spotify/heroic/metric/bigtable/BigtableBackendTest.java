@@ -2,6 +2,7 @@ package com.spotify.heroic.metric.bigtable;
 
 import com.google.protobuf.ByteString;
 import com.google.protobuf.ByteString.ByteIterator;
+import com.spotify.heroic.metric.Spread;
 import eu.toolchain.serializer.HexUtils;
 import org.junit.Test;
 
@@ -20,6 +21,13 @@ public class BigtableBackendTest {
         checkSmaller(0x1000000L, 0xffffffffL);
     }
 
+    @Test
+    public void testSpreadSerialization() {
+        final Spread spread = new Spread(42L, 3L, 6D, 14D, 1D, 3D);
+        final ByteString bytes = BigtableBackend.serializeSpread(spread);
+        assertEquals(spread, BigtableBackend.deserializeSpread(42L, bytes));
+    }
+
     private void checkSmaller(final long s, final long l) {
         assertEquals(BigtableBackend.offset(s), s);
         assertEquals(BigtableBackend.offset(l), l);
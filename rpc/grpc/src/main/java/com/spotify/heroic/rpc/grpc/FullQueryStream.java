@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.heroic.rpc.grpc;
+
+import com.google.common.collect.ImmutableList;
+import com.spotify.heroic.common.Statistics;
+import com.spotify.heroic.metric.FullQuery;
+import com.spotify.heroic.metric.QueryTrace;
+import com.spotify.heroic.metric.ResultGroup;
+import com.spotify.heroic.metric.ResultLimits;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public class FullQueryStream implements GrpcRpcStream<FullQuery> {
+    /**
+     * The number of samples after which a part is emitted. A part always contains at least one
+     * group, so a single large group is never split.
+     */
+    public static final int DEFAULT_PART_SIZE = 10000;
+
+    private final int partSize;
+
+    public FullQueryStream() {
+        this(DEFAULT_PART_SIZE);
+    }
+
+    public FullQueryStream(final int partSize) {
+        this.partSize = partSize;
+    }
+
+    /**
+     * Collect result groups into parts as they are produced, and pass on every part as soon as it
+     * is full.
+     */
+    public Parts parts(final Consumer<FullQuery> out) {
+        return new Parts(out);
+    }
+
+    @Override
+    public Combiner<FullQuery> combiner() {
+        final ImmutableList.Builder<ResultGroup> groups = ImmutableList.builder();
+        final Combiner<FullQuery> parts = combiner(groups::add);
+
+        return new Combiner<FullQuery>() {
+            @Override
+            public void add(final FullQuery part) {
+                parts.add(part);
+            }
+
+            @Override
+            public FullQuery result() {
+                final FullQuery last = parts.result();
+
+                if (last == null) {
+                    return null;
+                }
+
+                return FullQuery.create(last.trace(), last.errors(), groups.build(),
+                    last.statistics(), last.limits(), last.dataDensity());
+            }
+        };
+    }
+
+    /**
+     * Build a combiner which passes the groups of every part to the given consumer as the part
+     * arrives, instead of collecting them. The result holds everything but the groups.
+     */
+    public Combiner<FullQuery> combiner(final Consumer<ResultGroup> groups) {
+        return new Combiner<FullQuery>() {
+            private FullQuery last = null;
+
+            @Override
+            public void add(final FullQuery part) {
+                part.groups().forEach(groups);
+                last = part;
+            }
+
+            @Override
+            public FullQuery result() {
+                if (last == null) {
+                    return null;
+                }
+
+                return FullQuery.create(last.trace(), last.errors(), ImmutableList.of(),
+                    last.statistics(), last.limits(), last.dataDensity());
+            }
+        };
+    }
+
+    public class Parts {
+        private final Consumer<FullQuery> out;
+
+        private ImmutableList.Builder<ResultGroup> part = ImmutableList.builder();
+        private int size = 0;
+
+        private Parts(final Consumer<FullQuery> out) {
+            this.out = out;
+        }
+
+        public synchronized void add(final ResultGroup group) {
+            part.add(group);
+            size += group.getGroup().size();
+
+            if (size < partSize) {
+                return;
+            }
+
+            final FullQuery full = FullQuery.create(QueryTrace.PASSIVE, ImmutableList.of(),
+                part.build(), Statistics.empty(), ResultLimits.of(), Optional.empty());
+
+            part = ImmutableList.builder();
+            size = 0;
+            out.accept(full);
+        }
+
+        /**
+         * Build the last part, which carries the remaining groups together with the trace,
+         * errors, statistics and limits of the given result.
+         */
+        public synchronized FullQuery last(final FullQuery result) {
+            part.addAll(result.groups());
+            return FullQuery.create(result.trace(), result.errors(), part.build(),
+                result.statistics(), result.limits(), result.dataDensity());
+        }
+    }
+}
@@ -23,6 +23,7 @@ package com.spotify.heroic.rpc.grpc;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import io.grpc.MethodDescriptor;
+import java.util.Optional;
 
 public interface GrpcDescriptor<Q, R> {
     TypeReference<Q> queryType();
@@ -30,4 +31,9 @@ public interface GrpcDescriptor<Q, R> {
     TypeReference<R> responseType();
 
     MethodDescriptor<byte[], byte[]> descriptor();
+
+    /**
+     * How to stream responses, if the endpoint supports it.
+     */
+    Optional<GrpcRpcStream<R>> stream();
 }
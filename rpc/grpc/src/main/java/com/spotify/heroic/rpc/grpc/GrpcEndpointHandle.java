@@ -22,7 +22,18 @@
 package com.spotify.heroic.rpc.grpc;
 
 import eu.toolchain.async.AsyncFuture;
+import java.util.function.Consumer;
 
 public interface GrpcEndpointHandle<Q, R> extends GrpcDescriptor<Q, R> {
     AsyncFuture<R> handle(final Q request) throws Exception;
+
+    /**
+     * Handle a request for which the client accepts a streamed response.
+     * <p>
+     * Parts are passed to the given consumer as they are produced, and the returned future
+     * resolves to the last part.
+     */
+    default AsyncFuture<R> handle(final Q request, final Consumer<R> parts) throws Exception {
+        return handle(request);
+    }
 }
@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.heroic.rpc.grpc;
+
+import com.google.common.collect.ImmutableList;
+import com.spotify.heroic.statistics.RpcReporter;
+import eu.toolchain.async.AsyncFramework;
+import eu.toolchain.async.AsyncFuture;
+import eu.toolchain.async.Managed;
+import eu.toolchain.async.ManagedAction;
+import eu.toolchain.async.ManagedSetup;
+import io.grpc.ManagedChannel;
+import io.grpc.netty.NettyChannelBuilder;
+import io.netty.channel.nio.NioEventLoopGroup;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+/**
+ * Channels to other nodes, shared by address.
+ * <p>
+ * A cluster refresh reconnects a node when its metadata changes, and only closes the old node once
+ * the new one is registered. Since both nodes lease the same channels, the new node reuses the
+ * established connections instead of setting up new ones.
+ * <p>
+ * Each address has a configurable number of channels, and requests are spread over them to avoid
+ * hitting the limit of concurrent streams on a single HTTP/2 connection.
+ */
+@GrpcRpcScope
+public class GrpcRpcChannelPool {
+    private final AsyncFramework async;
+    private final NioEventLoopGroup workerGroup;
+    private final int maxFrameSize;
+    private final int channelsPerNode;
+    private final RpcReporter reporter;
+
+    private final Object lock = new Object();
+    private final Map<InetSocketAddress, Entry> entries = new HashMap<>();
+
+    @Inject
+    public GrpcRpcChannelPool(
+        AsyncFramework async,
+        @Named("worker") NioEventLoopGroup workerGroup,
+        @Named("maxFrameSize") int maxFrameSize,
+        @Named("channelsPerNode") int channelsPerNode,
+        RpcReporter reporter
+    ) {
+        this.async = async;
+        this.workerGroup = workerGroup;
+        this.maxFrameSize = maxFrameSize;
+        this.channelsPerNode = channelsPerNode;
+        this.reporter = reporter;
+    }
+
+    /**
+     * Lease the channels to the given address, opening them unless they are already leased.
+     */
+    public AsyncFuture<Lease> acquire(final InetSocketAddress address) {
+        final Entry entry;
+        final boolean reused;
+
+        synchronized (lock) {
+            final Entry existing = entries.get(address);
+            reused = existing != null;
+
+            if (reused) {
+                existing.references += 1;
+                entry = existing;
+            } else {
+                entry = new Entry(address);
+                entries.put(address, entry);
+            }
+        }
+
+        if (reused) {
+            reporter.reportChannelReused();
+        } else {
+            reporter.reportChannelOpened();
+        }
+
+        return entry.started.directTransform(v -> new Lease(entry));
+    }
+
+    /**
+     * Number of addresses that currently have open channels.
+     */
+    public int size() {
+        synchronized (lock) {
+            return entries.size();
+        }
+    }
+
+    private AsyncFuture<Void> release(final Entry entry) {
+        synchronized (lock) {
+            entry.references -= 1;
+
+            if (entry.references > 0) {
+                return async.resolved();
+            }
+
+            entries.remove(entry.address);
+        }
+
+        reporter.reportChannelClosed();
+        entry.node.close();
+        return entry.channels.stop();
+    }
+
+    private ManagedChannel buildChannel(final InetSocketAddress address) {
+        return NettyChannelBuilder
+            .forAddress(address.getHostName(), address.getPort())
+            .usePlaintext()
+            .executor(workerGroup)
+            .eventLoopGroup(workerGroup)
+            .maxInboundMessageSize(maxFrameSize)
+            .build();
+    }
+
+    private class Entry {
+        private final InetSocketAddress address;
+        private final Managed<List<ManagedChannel>> channels;
+        private final AsyncFuture<Void> started;
+        private final RpcReporter.NodeReporter node;
+        private final AtomicInteger next = new AtomicInteger();
+
+        /* guarded by lock */
+        private int references = 1;
+
+        Entry(final InetSocketAddress address) {
+            this.address = address;
+            this.channels = async.managed(new ManagedSetup<List<ManagedChannel>>() {
+                @Override
+                public AsyncFuture<List<ManagedChannel>> construct() {
+                    final ImmutableList.Builder<ManagedChannel> channels = ImmutableList.builder();
+
+                    for (int i = 0; i < channelsPerNode; i++) {
+                        channels.add(buildChannel(address));
+                    }
+
+                    return async.resolved(channels.build());
+                }
+
+                @Override
+                public AsyncFuture<Void> destruct(final List<ManagedChannel> value) {
+                    return async.call(() -> {
+                        for (final ManagedChannel channel : value) {
+                            channel.shutdown();
+                        }
+
+                        for (final ManagedChannel channel : value) {
+                            channel.awaitTermination(10, TimeUnit.SECONDS);
+                        }
+
+                        return null;
+                    });
+                }
+            });
+            this.started = channels.start();
+            this.node = reporter.newNode(address.getHostString() + ":" + address.getPort());
+        }
+    }
+
+    public class Lease {
+        private final Entry entry;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Lease(final Entry entry) {
+            this.entry = entry;
+        }
+
+        /**
+         * Perform the action with the next channel, in a round-robin fashion.
+         */
+        public <R> AsyncFuture<R> doto(final ManagedAction<ManagedChannel, R> action) {
+            return entry.channels.doto(channels -> {
+                final int index = Math.floorMod(entry.next.getAndIncrement(), channels.size());
+                return action.action(channels.get(index));
+            });
+        }
+
+        /**
+         * Perform the action with every channel.
+         */
+        public <R> AsyncFuture<Collection<R>> dotoAll(
+            final ManagedAction<ManagedChannel, R> action
+        ) {
+            return entry.channels.doto(channels -> {
+                final List<AsyncFuture<R>> futures = new ArrayList<>(channels.size());
+
+                for (final ManagedChannel channel : channels) {
+                    futures.add(action.action(channel));
+                }
+
+                return async.collect(futures);
+            });
+        }
+
+        public RpcReporter.NodeReporter reporter() {
+            return entry.node;
+        }
+
+        /**
+         * Release the lease, closing the channels if no other lease uses them.
+         */
+        public AsyncFuture<Void> release() {
+            if (!released.compareAndSet(false, true)) {
+                return async.resolved();
+            }
+
+            return GrpcRpcChannelPool.this.release(entry);
+        }
+    }
+}
@@ -24,11 +24,9 @@ package com.spotify.heroic.rpc.grpc;
 import static io.opencensus.trace.AttributeValue.stringAttributeValue;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.spotify.heroic.metrics.Meter;
 import eu.toolchain.async.AsyncFramework;
 import eu.toolchain.async.AsyncFuture;
-import eu.toolchain.async.Managed;
 import eu.toolchain.async.ResolvableFuture;
 import io.grpc.CallOptions;
 import io.grpc.ClientCall;
@@ -38,14 +36,14 @@ import io.grpc.Status;
 import io.opencensus.common.Scope;
 import io.opencensus.trace.Span;
 import io.opencensus.trace.Tracer;
-import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
 
 public class GrpcRpcClient {
     private final AsyncFramework async;
     private final InetSocketAddress address;
-    private final ObjectMapper mapper;
-    private final Managed<ManagedChannel> channel;
+    private final GrpcRpcCodec codec;
+    private final GrpcRpcChannelPool.Lease channels;
     private final Meter errors = new Meter();
 
     private static final GrpcRpcEmptyBody EMPTY = new GrpcRpcEmptyBody();
@@ -56,17 +54,31 @@ public class GrpcRpcClient {
     public GrpcRpcClient(
         final AsyncFramework async,
         final InetSocketAddress address,
-        final ObjectMapper mapper,
-        final Managed<ManagedChannel> channel
+        final GrpcRpcCodec codec,
+        final GrpcRpcChannelPool.Lease channels
     ) {
         this.async = async;
         this.address = address;
-        this.mapper = mapper;
-        this.channel = channel;
+        this.codec = codec;
+        this.channels = channels;
     }
 
     public AsyncFuture<Void> close() {
-        return channel.stop();
+        return channels.release();
+    }
+
+    /**
+     * Ping the node over every channel, so that the connections are set up before the node
+     * receives any requests.
+     */
+    public AsyncFuture<Void> warmup() {
+        final CallOptions options = CallOptions.DEFAULT.withDeadlineAfter(5, TimeUnit.SECONDS);
+        final Span rootSpan = tracer.getCurrentSpan();
+
+        return channels
+            .dotoAll(channel -> call(channel, GrpcRpcProtocol.PING, EMPTY, options, false,
+                rootSpan, GrpcRpcStream.single()))
+            .directTransform(v -> null);
     }
 
     public <R> AsyncFuture<R> request(
@@ -78,75 +90,122 @@ public class GrpcRpcClient {
     public <Q, R> AsyncFuture<R> request(
         final GrpcDescriptor<Q, R> endpoint, final Q entity, final CallOptions options
     ) {
+        return request(endpoint, entity, options, false);
+    }
+
+    /**
+     * Perform a request.
+     *
+     * @param binary Use the binary encoding for the request, the remote node must support it.
+     */
+    public <Q, R> AsyncFuture<R> request(
+        final GrpcDescriptor<Q, R> endpoint, final Q entity, final CallOptions options,
+        final boolean binary
+    ) {
+        return request(endpoint, entity, options, binary,
+            endpoint.stream().map(GrpcRpcStream::combiner).orElseGet(GrpcRpcStream::single));
+    }
 
+    /**
+     * Perform a request, adding every part of the response to the given combiner as it arrives.
+     *
+     * @param binary Use the binary encoding for the request, the remote node must support it.
+     */
+    public <Q, R> AsyncFuture<R> request(
+        final GrpcDescriptor<Q, R> endpoint, final Q entity, final CallOptions options,
+        final boolean binary, final GrpcRpcStream.Combiner<R> combiner
+    ) {
         final Span rootSpan = tracer.getCurrentSpan();
         rootSpan.putAttribute("peer.address", stringAttributeValue(getUri()));
 
-        return channel.doto(channel -> {
-            final byte[] body;
+        return channels.doto(
+            channel -> call(channel, endpoint, entity, options, binary, rootSpan, combiner));
+    }
 
-            try {
-                body = mapper.writeValueAsBytes(entity);
-            } catch (JsonProcessingException e) {
-                return async.failed(e);
-            }
+    private <Q, R> AsyncFuture<R> call(
+        final ManagedChannel channel, final GrpcDescriptor<Q, R> endpoint, final Q entity,
+        final CallOptions options, final boolean binary, final Span rootSpan,
+        final GrpcRpcStream.Combiner<R> combiner
+    ) {
+        final byte[] body;
 
-            final ClientCall<byte[], byte[]> call = channel.newCall(endpoint.descriptor(), options);
+        try {
+            body = codec.encode(entity, binary);
+        } catch (JsonProcessingException e) {
+            return async.failed(e);
+        }
 
-            final Metadata metadata = new Metadata();
+        final ClientCall<byte[], byte[]> call = channel.newCall(endpoint.descriptor(), options);
 
-            final ResolvableFuture<R> future = async.future();
+        final Metadata metadata = new Metadata();
+        endpoint.stream().ifPresent(s -> metadata.put(GrpcRpcStream.ACCEPT_HEADER, "true"));
 
-            call.start(new ClientCall.Listener<byte[]>() {
-                @Override
-                public void onMessage(final byte[] message) {
-                    final R response;
+        final ResolvableFuture<R> future = async.future();
 
-                    try {
-                        response = mapper.readValue(message, endpoint.responseType());
-                    } catch (IOException e) {
-                        future.fail(e);
-                        return;
-                    }
+        channels.reporter().reportStreamStarted();
+        future.onFinished(channels.reporter()::reportStreamFinished);
 
-                    future.resolve(response);
-                }
+        call.start(new ClientCall.Listener<byte[]>() {
+            private boolean received = false;
 
-                @Override
-                public void onClose(final Status status, final Metadata trailers) {
-                    if (status.isOk()) {
-                        if (!future.isDone()) {
-                            future.fail(new RuntimeException("Request finished without response"));
-                        }
-                    } else {
-                        future.fail(new RuntimeException(
-                            "Request finished with status code (" + status + ")"));
-                    }
+            @Override
+            public void onMessage(final byte[] message) {
+                try {
+                    // parts are combined as they arrive, instead of being held until the end.
+                    combiner.add(codec.decode(message, endpoint.responseType()));
+                } catch (final Exception e) {
+                    future.fail(e);
+                    call.cancel("Failed to decode response", e);
+                    return;
                 }
 
-                @Override
-                public void onHeaders(final Metadata headers) {
+                received = true;
+
+                // only ask for the next part once this one has been decoded.
+                call.request(1);
+            }
+
+            @Override
+            public void onClose(final Status status, final Metadata trailers) {
+                if (!status.isOk()) {
+                    future.fail(new RuntimeException(
+                        "Request finished with status code (" + status + ")"));
+                    return;
                 }
 
-                @Override
-                public void onReady() {
+                if (!received) {
+                    future.fail(new RuntimeException("Request finished without response"));
+                    return;
                 }
-            }, metadata);
 
-            final Scope scope = tracer.withSpan(rootSpan);
+                future.resolve(combiner.result());
+            }
 
-            call.sendMessage(body);
-            call.setMessageCompression(true);
-            call.request(1);
-            call.halfClose();
+            @Override
+            public void onHeaders(final Metadata headers) {
+            }
 
-            // Don't mark all api nodes as unhealthy if only suggest is failing.
-            return future.onFailed(e -> {
-                if (!endpoint.descriptor().getFullMethodName().contains("heroic/suggest:")) {
-                    errors.mark();
-                }
-            }).onFinished(scope::close);
-        });
+            @Override
+            public void onReady() {
+            }
+        }, metadata);
+
+        // e.g. the request lost a race against a hedged request.
+        future.onCancelled(() -> call.cancel("Request cancelled", null));
+
+        final Scope scope = tracer.withSpan(rootSpan);
+
+        call.sendMessage(body);
+        call.setMessageCompression(true);
+        call.request(1);
+        call.halfClose();
+
+        // Don't mark all api nodes as unhealthy if only suggest is failing.
+        return future.onFailed(e -> {
+            if (!endpoint.descriptor().getFullMethodName().contains("heroic/suggest:")) {
+                errors.mark();
+            }
+        }).onFinished(scope::close);
     }
 
     public boolean isAlive() {
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.heroic.rpc.grpc;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+
+/**
+ * Encodes and decodes the bodies of gRPC requests and responses.
+ * <p>
+ * Bodies are either JSON, or binary (Smile). Since all binary bodies start with the Smile header,
+ * which is never valid JSON, the format of a body can be detected when decoding it. Servers
+ * respond in the same format as the request, and clients only send binary requests to nodes which
+ * have advertised support for it in their metadata.
+ */
+public class GrpcRpcCodec {
+    private static final byte[] SMILE_HEADER = {':', ')', '\n'};
+
+    private final ObjectMapper json;
+    private final ObjectMapper binary;
+
+    public GrpcRpcCodec(final ObjectMapper json, final ObjectMapper binary) {
+        this.json = json;
+        this.binary = binary;
+    }
+
+    public byte[] encode(final Object value, final boolean binary)
+        throws JsonProcessingException {
+        return (binary ? this.binary : json).writeValueAsBytes(value);
+    }
+
+    public <T> T decode(final byte[] body, final TypeReference<T> type) throws IOException {
+        return (isBinary(body) ? binary : json).readValue(body, type);
+    }
+
+    /**
+     * Check if the given body is binary encoded.
+     */
+    public static boolean isBinary(final byte[] body) {
+        if (body.length < SMILE_HEADER.length) {
+            return false;
+        }
+
+        for (int i = 0; i < SMILE_HEADER.length; i++) {
+            if (body[i] != SMILE_HEADER[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
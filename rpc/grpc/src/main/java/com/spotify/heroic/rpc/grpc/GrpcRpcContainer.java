@@ -25,6 +25,8 @@ import eu.toolchain.async.AsyncFuture;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 public class GrpcRpcContainer {
@@ -46,6 +48,38 @@ public class GrpcRpcContainer {
         });
     }
 
+    /**
+     * Register an endpoint which produces its response in parts, see
+     * {@link GrpcEndpointHandle#handle(Object, Consumer)}.
+     * <p>
+     * Clients which do not accept streamed responses get the parts combined into one.
+     */
+    public <Q, R> void registerStream(
+        final GrpcDescriptor<Q, R> spec, BiFunction<Q, Consumer<R>, AsyncFuture<R>> handle
+    ) {
+        final GrpcRpcStream<R> stream = spec
+            .stream()
+            .orElseThrow(() -> new IllegalArgumentException("Endpoint does not stream: " + spec));
+
+        register(new GrpcRpcEndpointHandleBase<Q, R>(spec) {
+            @Override
+            public AsyncFuture<R> handle(final Q request) throws Exception {
+                final GrpcRpcStream.Combiner<R> combiner = stream.combiner();
+
+                return handle.apply(request, combiner::add).directTransform(last -> {
+                    combiner.add(last);
+                    return combiner.result();
+                });
+            }
+
+            @Override
+            public AsyncFuture<R> handle(final Q request, final Consumer<R> parts)
+                throws Exception {
+                return handle.apply(request, parts);
+            }
+        });
+    }
+
     public List<GrpcEndpointHandle<?, ?>> getEndpoints() {
         return endpoints;
     }
@@ -23,6 +23,7 @@ package com.spotify.heroic.rpc.grpc;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import io.grpc.MethodDescriptor;
+import java.util.Optional;
 
 public abstract class GrpcRpcEndpointHandleBase<Q, R> implements GrpcEndpointHandle<Q, R> {
     private final GrpcDescriptor<Q, R> spec;
@@ -46,4 +47,9 @@ public abstract class GrpcRpcEndpointHandleBase<Q, R> implements GrpcEndpointHan
     public MethodDescriptor<byte[], byte[]> descriptor() {
         return spec.descriptor();
     }
+
+    @Override
+    public Optional<GrpcRpcStream<R>> stream() {
+        return spec.stream();
+    }
 }
@@ -23,19 +23,23 @@ package com.spotify.heroic.rpc.grpc;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import io.grpc.MethodDescriptor;
+import java.util.Optional;
 
 public class GrpcRpcEndpointSpec<Q, R> implements GrpcDescriptor<Q, R> {
     private final TypeReference<Q> queryType;
     private final TypeReference<R> responseType;
     private final MethodDescriptor<byte[], byte[]> descriptor;
+    private final Optional<GrpcRpcStream<R>> stream;
 
-    @java.beans.ConstructorProperties({ "queryType", "responseType", "descriptor" })
+    @java.beans.ConstructorProperties({ "queryType", "responseType", "descriptor", "stream" })
     public GrpcRpcEndpointSpec(final TypeReference<Q> queryType,
                                final TypeReference<R> responseType,
-                               final MethodDescriptor<byte[], byte[]> descriptor) {
+                               final MethodDescriptor<byte[], byte[]> descriptor,
+                               final Optional<GrpcRpcStream<R>> stream) {
         this.queryType = queryType;
         this.responseType = responseType;
         this.descriptor = descriptor;
+        this.stream = stream;
     }
 
     @Override
@@ -52,4 +56,9 @@ public class GrpcRpcEndpointSpec<Q, R> implements GrpcDescriptor<Q, R> {
     public MethodDescriptor<byte[], byte[]> descriptor() {
         return descriptor;
     }
+
+    @Override
+    public Optional<GrpcRpcStream<R>> stream() {
+        return stream;
+    }
 }
@@ -36,7 +36,9 @@ import com.spotify.heroic.metadata.FindSeries;
 import com.spotify.heroic.metadata.FindTags;
 import com.spotify.heroic.metadata.WriteMetadata;
 import com.spotify.heroic.metric.FullQuery;
+import com.spotify.heroic.metric.ResultGroup;
 import com.spotify.heroic.metric.WriteMetric;
+import com.spotify.heroic.statistics.RpcReporter;
 import com.spotify.heroic.suggest.KeySuggest;
 import com.spotify.heroic.suggest.TagKeyCount;
 import com.spotify.heroic.suggest.TagSuggest;
@@ -44,14 +46,9 @@ import com.spotify.heroic.suggest.TagValueSuggest;
 import com.spotify.heroic.suggest.TagValuesSuggest;
 import eu.toolchain.async.AsyncFramework;
 import eu.toolchain.async.AsyncFuture;
-import eu.toolchain.async.Managed;
-import eu.toolchain.async.ManagedSetup;
 import eu.toolchain.async.ResolvableFuture;
 import io.grpc.CallOptions;
-import io.grpc.ManagedChannel;
 import io.grpc.MethodDescriptor;
-import io.grpc.netty.NettyChannelBuilder;
-import io.netty.channel.nio.NioEventLoopGroup;
 import io.opencensus.common.Scope;
 import io.opencensus.trace.Span;
 import io.opencensus.trace.Tracer;
@@ -64,21 +61,24 @@ import java.net.InetSocketAddress;
 import java.net.URI;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import javax.inject.Inject;
 import javax.inject.Named;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 @GrpcRpcScope
 public class GrpcRpcProtocol implements RpcProtocol {
+    private static final Logger log = LoggerFactory.getLogger(GrpcRpcProtocol.class);
     private static final Tracer tracer = Tracing.getTracer();
     private final AsyncFramework async;
-    private final ObjectMapper mapper;
+    private final GrpcRpcCodec codec;
     private final ResolvableFuture<InetSocketAddress> bindFuture;
 
     private final int defaultPort;
-    private final int maxFrameSize;
-    private final NioEventLoopGroup workerGroup;
-
-    private final Object lock = new Object();
+    private final boolean warmup;
+    private final GrpcRpcChannelPool channels;
+    private final RpcReporter reporter;
 
     @Override
     public String toString() {
@@ -89,17 +89,20 @@ public class GrpcRpcProtocol implements RpcProtocol {
     public GrpcRpcProtocol(
         AsyncFramework async,
         @Named("application/json+internal") ObjectMapper mapper,
+        @Named("application/x-jackson-smile+internal") ObjectMapper binaryMapper,
         @Named("bindFuture") ResolvableFuture<InetSocketAddress> bindFuture,
         @Named("defaultPort") int defaultPort,
-        @Named("maxFrameSize") int maxFrameSize,
-        @Named("worker") NioEventLoopGroup workerGroup
+        @Named("warmup") boolean warmup,
+        GrpcRpcChannelPool channels,
+        RpcReporter reporter
     ) {
         this.async = async;
-        this.mapper = mapper;
+        this.codec = new GrpcRpcCodec(mapper, binaryMapper);
         this.bindFuture = bindFuture;
         this.defaultPort = defaultPort;
-        this.maxFrameSize = maxFrameSize;
-        this.workerGroup = workerGroup;
+        this.warmup = warmup;
+        this.channels = channels;
+        this.reporter = reporter;
     }
 
     @Override
@@ -107,44 +110,39 @@ public class GrpcRpcProtocol implements RpcProtocol {
         final InetSocketAddress address =
             new InetSocketAddress(uri.getHost(), uri.getPort() == -1 ? defaultPort : uri.getPort());
 
-        final Managed<ManagedChannel> channel = async.managed(new ManagedSetup<ManagedChannel>() {
-            @Override
-            public AsyncFuture<ManagedChannel> construct() throws Exception {
-                final ManagedChannel channel = NettyChannelBuilder
-                    .forAddress(address.getHostName(), address.getPort())
-                    .usePlaintext()
-                    .executor(workerGroup)
-                    .eventLoopGroup(workerGroup)
-                    .maxInboundMessageSize(maxFrameSize)
-                    .build();
-
-                return async.resolved(channel);
-            }
+        return channels.acquire(address).lazyTransform(lease -> {
+            final GrpcRpcClient client = new GrpcRpcClient(async, address, codec, lease);
 
-            @Override
-            public AsyncFuture<Void> destruct(final ManagedChannel value) throws Exception {
-                return async.call(() -> {
-                    value.shutdown();
-                    value.awaitTermination(10, TimeUnit.SECONDS);
-                    return null;
-                });
-            }
+            final AsyncFuture<ClusterNode> setup = client
+                .request(METADATA, CallOptions.DEFAULT.withDeadlineAfter(5, TimeUnit.SECONDS))
+                .lazyTransform(m -> warmup(client).<ClusterNode>directTransform(
+                    v -> new GrpcRpcClusterNode(client, m)));
+
+            /* release channels on errors */
+            return setup
+                .lazyCatchFailed(
+                    e -> lease.release().lazyTransform(v -> async.<ClusterNode>failed(e)))
+                .lazyCatchCancelled(
+                    ignore -> lease.release().lazyTransform(v -> async.<ClusterNode>cancelled()));
         });
+    }
 
-        final AsyncFuture<ClusterNode> setup = channel.start().lazyTransform(n -> {
-            final GrpcRpcClient client = new GrpcRpcClient(async, address, mapper, channel);
+    /**
+     * Warm up the connections to a node before it is registered, so that its first requests
+     * don't pay for connection setup.
+     * <p>
+     * This is best-effort, the node is still registered if it fails.
+     */
+    private AsyncFuture<Void> warmup(final GrpcRpcClient client) {
+        if (!warmup) {
+            return async.resolved();
+        }
 
-            return client.request(
-                METADATA,
-                CallOptions.DEFAULT.withDeadlineAfter(5, TimeUnit.SECONDS)
-            ).<ClusterNode>directTransform(m -> new GrpcRpcClusterNode(client, m));
+        return client.warmup().catchFailed(e -> {
+            log.warn("{}: Failed to warm up connections", client, e);
+            reporter.reportWarmupFailed();
+            return null;
         });
-
-        /* close managed channel on errors */
-        return setup
-            .lazyCatchFailed(e -> channel.stop().lazyTransform(v -> async.<ClusterNode>failed(e)))
-            .lazyCatchCancelled(
-                ignore -> channel.stop().lazyTransform(v -> async.<ClusterNode>cancelled()));
     }
 
     @Override
@@ -162,10 +160,12 @@ public class GrpcRpcProtocol implements RpcProtocol {
     public class GrpcRpcClusterNode implements ClusterNode {
         private final GrpcRpcClient client;
         private final NodeMetadata metadata;
+        private final boolean binary;
 
         public GrpcRpcClusterNode(GrpcRpcClient client, NodeMetadata metadata) {
             this.client = client;
             this.metadata = metadata;
+            this.binary = metadata.supportsCodec(NodeMetadata.CODEC_SMILE);
         }
 
         @Override
@@ -226,6 +226,17 @@ public class GrpcRpcProtocol implements RpcProtocol {
                 }
             }
 
+            @Override
+            public AsyncFuture<FullQuery> query(
+                final FullQuery.Request request, final Span span,
+                final Consumer<ResultGroup> groups
+            ) {
+                try (Scope ignored = tracer.withSpan(span)) {
+                    return client.request(METRICS_FULL_QUERY, new GroupedQuery<>(group, request),
+                        CallOptions.DEFAULT, binary, FULL_QUERY_STREAM.combiner(groups));
+                }
+            }
+
             @Override
             public AsyncFuture<WriteMetric> writeMetric(final WriteMetric.Request request) {
                 return request(METRICS_WRITE, request);
@@ -292,7 +303,7 @@ public class GrpcRpcProtocol implements RpcProtocol {
                 GrpcDescriptor<GroupedQuery<T>, R> endpoint, T body
             ) {
                 final GroupedQuery<T> grouped = new GroupedQuery<>(group, body);
-                return client.request(endpoint, grouped, CallOptions.DEFAULT);
+                return client.request(endpoint, grouped, CallOptions.DEFAULT, binary);
             }
         }
     }
@@ -319,12 +330,19 @@ public class GrpcRpcProtocol implements RpcProtocol {
     private static <Q, R> GrpcDescriptor<Q, R> descriptor(
         final String endpointName, final TypeReference<Q> requestType,
         final TypeReference<R> responseType
+    ) {
+        return descriptor(endpointName, requestType, responseType, Optional.empty());
+    }
+
+    private static <Q, R> GrpcDescriptor<Q, R> descriptor(
+        final String endpointName, final TypeReference<Q> requestType,
+        final TypeReference<R> responseType, final Optional<GrpcRpcStream<R>> stream
     ) {
         final MethodDescriptor<byte[], byte[]> descriptor =
             MethodDescriptor.create(MethodDescriptor.MethodType.SERVER_STREAMING,
                 generateFullMethodName(SERVICE, endpointName), BYTE_MARSHALLER, BYTE_MARSHALLER);
 
-        return new GrpcRpcEndpointSpec<>(requestType, responseType, descriptor);
+        return new GrpcRpcEndpointSpec<>(requestType, responseType, descriptor, stream);
     }
 
     public static final GrpcDescriptor<GrpcRpcEmptyBody, NodeMetadata> METADATA =
@@ -338,11 +356,13 @@ public class GrpcRpcProtocol implements RpcProtocol {
         }, new TypeReference<GrpcRpcEmptyBody>() {
         });
 
+    private static final FullQueryStream FULL_QUERY_STREAM = new FullQueryStream();
+
     public static final GrpcDescriptor<GroupedQuery<FullQuery.Request>, FullQuery>
         METRICS_FULL_QUERY =
         descriptor("metrics:fullQuery", new TypeReference<GroupedQuery<FullQuery.Request>>() {
         }, new TypeReference<FullQuery>() {
-        });
+        }, Optional.of(FULL_QUERY_STREAM));
 
     public static final GrpcDescriptor<GroupedQuery<WriteMetric.Request>, WriteMetric>
         METRICS_WRITE =
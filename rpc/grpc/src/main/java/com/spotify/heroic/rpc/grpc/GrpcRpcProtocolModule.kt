@@ -26,6 +26,8 @@ import com.spotify.heroic.cluster.RpcProtocolComponent
 import com.spotify.heroic.cluster.RpcProtocolModule
 import com.spotify.heroic.lifecycle.LifeCycle
 import com.spotify.heroic.lifecycle.LifeCycleManager
+import com.spotify.heroic.statistics.HeroicReporter
+import com.spotify.heroic.statistics.RpcReporter
 import dagger.Component
 import dagger.Module
 import dagger.Provides
@@ -37,14 +39,22 @@ import javax.inject.Named
 private const val DEFAULT_HOST = "0.0.0.0"
 private const val DEFAULT_PORT  = 9698
 private const val DEFAULT_MAX_FRAME_SIZE = 10_000_000
+private const val DEFAULT_CHANNELS_PER_NODE = 1
+private const val DEFAULT_WARMUP = true
 
 data class GrpcRpcProtocolModule(
     @JsonProperty("host") val host: String?,
     @JsonProperty("port") val port: Int?,
-    @JsonProperty("maxFrameSize") val maxFrameSize: Int = DEFAULT_MAX_FRAME_SIZE
+    @JsonProperty("maxFrameSize") val maxFrameSize: Int = DEFAULT_MAX_FRAME_SIZE,
+    @JsonProperty("channelsPerNode") val channelsPerNode: Int = DEFAULT_CHANNELS_PER_NODE,
+    @JsonProperty("warmup") val warmup: Boolean = DEFAULT_WARMUP
 ): RpcProtocolModule {
     val address: InetSocketAddress = InetSocketAddress(host ?: DEFAULT_HOST, port ?: DEFAULT_PORT)
 
+    init {
+        require(channelsPerNode >= 1) { "channelsPerNode must be at least 1: $channelsPerNode" }
+    }
+
     override fun module(dependencies: RpcProtocolModule.Dependencies): RpcProtocolComponent {
         return DaggerGrpcRpcProtocolModule_C
             .builder()
@@ -84,6 +94,20 @@ data class GrpcRpcProtocolModule(
         @Named("maxFrameSize")
         fun maxFrameSize() = maxFrameSize
 
+        @Provides
+        @GrpcRpcScope
+        @Named("channelsPerNode")
+        fun channelsPerNode() = channelsPerNode
+
+        @Provides
+        @GrpcRpcScope
+        @Named("warmup")
+        fun warmup() = warmup
+
+        @Provides
+        @GrpcRpcScope
+        fun rpcReporter(reporter: HeroicReporter): RpcReporter = reporter.newRpcReporter("grpc")
+
         @Provides
         @GrpcRpcScope
         @Named("boss")
@@ -111,11 +135,15 @@ data class GrpcRpcProtocolModule(
 data class Builder(
     var host: String = DEFAULT_HOST,
     var port: Int = DEFAULT_PORT,
-    var maxFrameSize: Int = DEFAULT_MAX_FRAME_SIZE
+    var maxFrameSize: Int = DEFAULT_MAX_FRAME_SIZE,
+    var channelsPerNode: Int = DEFAULT_CHANNELS_PER_NODE,
+    var warmup: Boolean = DEFAULT_WARMUP
 ) {
     fun host(host: String) = apply { this.host = host }
     fun port(port: Int) = apply { this.port = port }
     fun maxFrameSize(maxFrameSize: Int) = apply { this.maxFrameSize = maxFrameSize }
+    fun channelsPerNode(channelsPerNode: Int) = apply { this.channelsPerNode = channelsPerNode }
+    fun warmup(warmup: Boolean) = apply { this.warmup = warmup }
 
-    fun build() = GrpcRpcProtocolModule(host, port, maxFrameSize)
+    fun build() = GrpcRpcProtocolModule(host, port, maxFrameSize, channelsPerNode, warmup)
 }
\ No newline at end of file
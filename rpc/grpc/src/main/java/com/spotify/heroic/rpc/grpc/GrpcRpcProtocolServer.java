@@ -21,7 +21,7 @@
 
 package com.spotify.heroic.rpc.grpc;
 
-import static io.grpc.stub.ServerCalls.asyncUnaryCall;
+import static io.grpc.stub.ServerCalls.asyncServerStreamingCall;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.spotify.heroic.cluster.NodeMetadataProvider;
@@ -30,7 +30,6 @@ import com.spotify.heroic.lifecycle.LifeCycles;
 import com.spotify.heroic.metadata.MetadataBackend;
 import com.spotify.heroic.metadata.MetadataManager;
 import com.spotify.heroic.metric.MetricBackend;
-import com.spotify.heroic.metric.MetricBackendGroup;
 import com.spotify.heroic.metric.MetricManager;
 import com.spotify.heroic.suggest.SuggestBackend;
 import com.spotify.heroic.suggest.SuggestManager;
@@ -46,13 +45,16 @@ import io.grpc.Status;
 import io.grpc.StatusException;
 import io.grpc.internal.ServerImpl;
 import io.grpc.netty.NettyServerBuilder;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.netty.channel.Channel;
 import io.netty.channel.nio.NioEventLoopGroup;
 import java.io.IOException;
 import java.lang.reflect.Field;
 import java.net.InetSocketAddress;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicReference;
 import javax.inject.Inject;
@@ -62,6 +64,13 @@ import org.slf4j.LoggerFactory;
 
 public class GrpcRpcProtocolServer implements LifeCycles {
     public static final GrpcRpcEmptyBody EMPTY = new GrpcRpcEmptyBody();
+
+    /* how many parts of a streamed response are held while the client is not ready */
+    private static final int MAX_QUEUED_PARTS = 2;
+
+    /* how often a blocked producer checks whether the client has become ready */
+    private static final long QUEUED_POLL_MS = 100;
+
     private static final Logger log = LoggerFactory.getLogger(GrpcRpcProtocolServer.class);
 
     private final AsyncFramework async;
@@ -69,7 +78,7 @@ public class GrpcRpcProtocolServer implements LifeCycles {
     private final MetadataManager metadata;
     private final SuggestManager suggest;
     private final NodeMetadataProvider metadataProvider;
-    private final ObjectMapper mapper;
+    private final GrpcRpcCodec codec;
     private final ResolvableFuture<InetSocketAddress> bindFuture;
     private final InetSocketAddress address;
     private final int maxFrameSize;
@@ -77,6 +86,7 @@ public class GrpcRpcProtocolServer implements LifeCycles {
     private final NioEventLoopGroup workerGroup;
     private final TracingConfig tracingConfig;
     private final GrpcRpcContainer container;
+    private final FullQueryStream fullQueryStream = new FullQueryStream();
 
     private final AtomicReference<Server> server = new AtomicReference<>();
 
@@ -88,6 +98,7 @@ public class GrpcRpcProtocolServer implements LifeCycles {
         SuggestManager suggest,
         NodeMetadataProvider metadataProvider,
         @Named("application/json+internal") ObjectMapper mapper,
+        @Named("application/x-jackson-smile+internal") ObjectMapper binaryMapper,
         @Named("bindFuture") ResolvableFuture<InetSocketAddress> bindFuture,
         @Named("grpcBindAddress") InetSocketAddress address,
         @Named("maxFrameSize") int maxFrameSize,
@@ -100,7 +111,7 @@ public class GrpcRpcProtocolServer implements LifeCycles {
         this.metadata = metadata;
         this.suggest = suggest;
         this.metadataProvider = metadataProvider;
-        this.mapper = mapper;
+        this.codec = new GrpcRpcCodec(mapper, binaryMapper);
         this.bindFuture = bindFuture;
         this.address = address;
         this.maxFrameSize = maxFrameSize;
@@ -119,8 +130,13 @@ public class GrpcRpcProtocolServer implements LifeCycles {
 
         container.register(GrpcRpcProtocol.PING, empty -> async.resolved(EMPTY));
 
-        container.register(GrpcRpcProtocol.METRICS_FULL_QUERY,
-            g -> g.apply(metrics, MetricBackendGroup::query));
+        container.registerStream(GrpcRpcProtocol.METRICS_FULL_QUERY, (g, out) -> {
+            // groups are sent as they are produced, rather than once the result is complete.
+            final FullQueryStream.Parts parts = fullQueryStream.parts(out);
+            return g
+                .apply(metrics, (group, request) -> group.query(request, parts::add))
+                .directTransform(parts::last);
+        });
 
         container.register(GrpcRpcProtocol.METRICS_WRITE,
             g -> g.apply(metrics, MetricBackend::write));
@@ -172,6 +188,7 @@ public class GrpcRpcProtocolServer implements LifeCycles {
             .forAddress(address)
             .addService(bindService())
             .intercept(new GrpcOpenCensusInterceptor(this.tracingConfig))
+            .intercept(new GrpcRpcStreamInterceptor())
             .maxInboundMessageSize(maxFrameSize)
             .bossEventLoopGroup(bossGroup)
             .workerEventLoopGroup(workerGroup)
@@ -228,43 +245,155 @@ public class GrpcRpcProtocolServer implements LifeCycles {
     private ServerCallHandler<byte[], byte[]> serverCallHandlerFor(
         final GrpcEndpointHandle<Object, Object> spec
     ) {
-        return asyncUnaryCall((request, observer) -> {
+        return asyncServerStreamingCall((request, responseObserver) -> {
             final UUID id = UUID.randomUUID();
+            final ServerCallStreamObserver<byte[]> observer =
+                (ServerCallStreamObserver<byte[]>) responseObserver;
 
             log.trace("{}: Received request: {}", id, request);
+
+            // respond in the same format as the request.
+            final boolean binary = GrpcRpcCodec.isBinary(request);
+            final ResponseWriter writer = new ResponseWriter(id, observer, binary);
+
             final AsyncFuture<Object> future;
 
             try {
-                final Object obj = mapper.readValue(request, spec.queryType());
-                future = spec.handle(obj);
+                final Object obj = codec.decode(request, spec.queryType());
+
+                if (GrpcRpcStream.ACCEPTED.get()) {
+                    future = spec.handle(obj, writer::add);
+                } else {
+                    future = spec.handle(obj);
+                }
             } catch (final Exception e) {
                 log.error("{}: Failed to handle request (sent {})", id, Status.INTERNAL, e);
-                observer.onError(new StatusException(Status.INTERNAL));
+                writer.fail(new StatusException(Status.INTERNAL));
                 return;
             }
 
+            // handlers can only be installed before this method returns.
+            observer.setOnReadyHandler(writer::drain);
+            observer.setOnCancelHandler(() -> {
+                writer.cancel();
+                future.cancel();
+            });
+
             future.onDone(new FutureDone<Object>() {
                 @Override
                 public void failed(final Throwable cause) throws Exception {
                     log.error("{}: Request failed", id, cause);
-                    observer.onError(cause);
+                    writer.fail(cause);
                 }
 
                 @Override
                 public void resolved(final Object result) throws Exception {
-                    final byte[] body = mapper.writeValueAsBytes(result);
-                    observer.onNext(body);
-                    observer.onCompleted();
+                    writer.last(result);
                 }
 
                 @Override
                 public void cancelled() throws Exception {
-                    observer.onError(new RuntimeException("Request cancelled"));
+                    writer.fail(new RuntimeException("Request cancelled"));
                 }
             });
         });
     }
 
+    /**
+     * Writes the parts of a response as they are produced, while the client is ready to receive
+     * them.
+     * <p>
+     * Parts are only serialized as they are written, so at most one serialized part is held in
+     * memory at a time. Adding a part blocks the producer while {@link #MAX_QUEUED_PARTS} parts
+     * are waiting for the client.
+     */
+    private class ResponseWriter {
+        private final UUID id;
+        private final ServerCallStreamObserver<byte[]> observer;
+        private final boolean binary;
+
+        private final Queue<Object> parts = new ArrayDeque<>();
+        private boolean last = false;
+        private boolean done = false;
+
+        ResponseWriter(
+            final UUID id, final ServerCallStreamObserver<byte[]> observer, final boolean binary
+        ) {
+            this.id = id;
+            this.observer = observer;
+            this.binary = binary;
+        }
+
+        synchronized void add(final Object part) {
+            parts.add(part);
+            drain();
+
+            /* the on ready handler might run on the thread that produces the parts, so the
+             * readiness of the call is also polled while waiting */
+            while (!done && parts.size() >= MAX_QUEUED_PARTS) {
+                try {
+                    wait(QUEUED_POLL_MS);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    fail(new StatusException(Status.CANCELLED));
+                    return;
+                }
+
+                drain();
+            }
+        }
+
+        synchronized void last(final Object part) {
+            parts.add(part);
+            last = true;
+            drain();
+        }
+
+        synchronized void fail(final Throwable cause) {
+            if (done) {
+                return;
+            }
+
+            done = true;
+            parts.clear();
+            notifyAll();
+            observer.onError(cause);
+        }
+
+        synchronized void cancel() {
+            done = true;
+            parts.clear();
+            notifyAll();
+        }
+
+        synchronized void drain() {
+            if (done) {
+                return;
+            }
+
+            try {
+                while (!parts.isEmpty()) {
+                    if (!observer.isReady()) {
+                        // resumed by the on ready handler.
+                        return;
+                    }
+
+                    observer.onNext(codec.encode(parts.poll(), binary));
+                    notifyAll();
+                }
+            } catch (final Exception e) {
+                log.error("{}: Failed to write response", id, e);
+                fail(new StatusException(Status.INTERNAL));
+                return;
+            }
+
+            if (last) {
+                done = true;
+                observer.onCompleted();
+            }
+        }
+    }
+
     private AsyncFuture<Void> stop() {
         final List<AsyncFuture<Void>> callbacks = new ArrayList<>();
 
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.heroic.rpc.grpc;
+
+import io.grpc.Context;
+import io.grpc.Metadata;
+
+public interface GrpcRpcStream<R> {
+    Metadata.Key<String> ACCEPT_HEADER =
+        Metadata.Key.of("heroic-accept-stream", Metadata.ASCII_STRING_MARSHALLER);
+
+    /**
+     * Set on the context of server calls for which the client accepts streamed responses.
+     */
+    Context.Key<Boolean> ACCEPTED = Context.keyWithDefault("heroic-accept-stream", false);
+
+    /**
+     * Build a combiner for the parts of a single streamed response.
+     */
+    Combiner<R> combiner();
+
+    /**
+     * Combines the parts of a streamed response as they are received, so that they don't have to
+     * be held until the response is complete.
+     */
+    interface Combiner<R> {
+        /**
+         * Add the next part, in the order that they were sent.
+         */
+        void add(R part);
+
+        /**
+         * Build the response, after the last part has been added.
+         */
+        R result();
+    }
+
+    /**
+     * A combiner for responses which are not streamed, and consist of a single part.
+     */
+    static <R> Combiner<R> single() {
+        return new Combiner<R>() {
+            private R response = null;
+
+            @Override
+            public void add(final R part) {
+                if (response != null) {
+                    throw new IllegalStateException("Expected a single response");
+                }
+
+                response = part;
+            }
+
+            @Override
+            public R result() {
+                return response;
+            }
+        };
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.heroic.rpc.grpc;
+
+import io.grpc.Context;
+import io.grpc.Contexts;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+
+/**
+ * A {@link ServerInterceptor} that makes the {@link GrpcRpcStream#ACCEPT_HEADER} header
+ * available to handlers through {@link GrpcRpcStream#ACCEPTED}.
+ */
+public class GrpcRpcStreamInterceptor implements ServerInterceptor {
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(
+        final ServerCall<ReqT, RespT> call, final Metadata headers,
+        final ServerCallHandler<ReqT, RespT> next
+    ) {
+        if (!headers.containsKey(GrpcRpcStream.ACCEPT_HEADER)) {
+            return next.startCall(call, headers);
+        }
+
+        final Context context = Context.current().withValue(GrpcRpcStream.ACCEPTED, true);
+        return Contexts.interceptCall(context, call, headers, next);
+    }
+}
@@ -0,0 +1,111 @@
+package com.spotify.heroic.rpc.grpc;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.spotify.heroic.common.Series;
+import com.spotify.heroic.common.Statistics;
+import com.spotify.heroic.metric.FullQuery;
+import com.spotify.heroic.metric.MetricCollection;
+import com.spotify.heroic.metric.Point;
+import com.spotify.heroic.metric.QueryError;
+import com.spotify.heroic.metric.QueryTrace;
+import com.spotify.heroic.metric.ResultGroup;
+import com.spotify.heroic.metric.ResultLimits;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.Test;
+
+public class FullQueryStreamTest {
+    private final FullQueryStream stream = new FullQueryStream(2);
+
+    private final QueryTrace trace = QueryTrace.of(QueryTrace.identifier("test"), 42L);
+
+    @Test
+    public void testPartsAndCombine() {
+        final FullQuery query = query(group("a", 1), group("b", 1), group("c", 3), group("d", 1));
+
+        final List<FullQuery> parts = new ArrayList<>();
+        final FullQueryStream.Parts writer = stream.parts(parts::add);
+
+        for (final ResultGroup group : query.groups()) {
+            writer.add(group);
+        }
+
+        parts.add(writer.last(withoutGroups(query)));
+
+        assertEquals(3, parts.size());
+        assertEquals(2, parts.get(0).groups().size());
+        assertEquals(1, parts.get(1).groups().size());
+        assertEquals(1, parts.get(2).groups().size());
+        assertEquals(QueryTrace.PASSIVE, parts.get(0).trace());
+        assertEquals(ImmutableList.of(), parts.get(0).errors());
+        assertEquals(trace, parts.get(2).trace());
+
+        assertEquals(query, combine(parts));
+    }
+
+    @Test
+    public void testEmpty() {
+        final FullQuery query = query();
+
+        final List<FullQuery> parts = new ArrayList<>();
+        parts.add(stream.parts(parts::add).last(query));
+
+        assertEquals(ImmutableList.of(query), parts);
+        assertEquals(query, combine(parts));
+    }
+
+    @Test
+    public void testCombineGroupsAsReceived() {
+        final FullQuery query = query(group("a", 1), group("b", 3));
+
+        final List<ResultGroup> groups = new ArrayList<>();
+        final GrpcRpcStream.Combiner<FullQuery> combiner = stream.combiner(groups::add);
+
+        combiner.add(query(group("a", 1)));
+        assertEquals(ImmutableList.of(group("a", 1)), groups);
+
+        combiner.add(query(group("b", 3)));
+        assertEquals(query.groups(), groups);
+        assertEquals(withoutGroups(query), combiner.result());
+    }
+
+    @Test
+    public void testCombineSingle() {
+        final FullQuery query = query(group("a", 1), group("b", 3));
+        assertEquals(query, combine(ImmutableList.of(query)));
+    }
+
+    private FullQuery combine(final List<FullQuery> parts) {
+        final GrpcRpcStream.Combiner<FullQuery> combiner = stream.combiner();
+        parts.forEach(combiner::add);
+        return combiner.result();
+    }
+
+    private FullQuery withoutGroups(final FullQuery query) {
+        return FullQuery.create(query.trace(), query.errors(), ImmutableList.of(),
+            query.statistics(), query.limits(), query.dataDensity());
+    }
+
+    private FullQuery query(final ResultGroup... groups) {
+        return FullQuery.create(trace, ImmutableList.of(new QueryError("error")),
+            ImmutableList.copyOf(groups), new Statistics("samples", 10L), ResultLimits.of(),
+            Optional.empty());
+    }
+
+    private ResultGroup group(final String key, final int size) {
+        final ImmutableList.Builder<Point> points = ImmutableList.builder();
+
+        for (int i = 0; i < size; i++) {
+            points.add(new Point(i, i));
+        }
+
+        return new ResultGroup(ImmutableMap.of("key", key),
+            ImmutableSet.of(Series.of(key, ImmutableMap.of())),
+            MetricCollection.points(points.build()), 0L);
+    }
+}
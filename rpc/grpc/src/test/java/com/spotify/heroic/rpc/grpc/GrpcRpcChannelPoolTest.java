@@ -0,0 +1,105 @@
+package com.spotify.heroic.rpc.grpc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.spotify.heroic.statistics.RpcReporter;
+import eu.toolchain.async.AsyncFramework;
+import eu.toolchain.async.TinyAsync;
+import io.grpc.ManagedChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class GrpcRpcChannelPoolTest {
+    private static final InetSocketAddress ADDRESS =
+        InetSocketAddress.createUnresolved("localhost", 9698);
+
+    @Mock
+    private RpcReporter reporter;
+
+    @Mock
+    private RpcReporter.NodeReporter nodeReporter;
+
+    private ExecutorService executor;
+    private NioEventLoopGroup workerGroup;
+    private AsyncFramework async;
+
+    @Before
+    public void setup() {
+        executor = Executors.newSingleThreadExecutor();
+        workerGroup = new NioEventLoopGroup(1);
+        async = TinyAsync.builder().executor(executor).build();
+        doReturn(nodeReporter).when(reporter).newNode(anyString());
+    }
+
+    @After
+    public void teardown() {
+        workerGroup.shutdownGracefully();
+        executor.shutdown();
+    }
+
+    @Test
+    public void testSharedByAddress() throws Exception {
+        final GrpcRpcChannelPool pool = pool(1);
+
+        final GrpcRpcChannelPool.Lease a = pool.acquire(ADDRESS).get();
+        final GrpcRpcChannelPool.Lease b = pool.acquire(ADDRESS).get();
+
+        assertEquals(1, pool.size());
+        assertSame(channel(a), channel(b));
+        verify(reporter).reportChannelOpened();
+        verify(reporter).reportChannelReused();
+
+        a.release().get();
+        /* releasing twice must not close the channels of the other lease */
+        a.release().get();
+        assertEquals(1, pool.size());
+
+        b.release().get();
+        assertEquals(0, pool.size());
+        verify(reporter, times(1)).reportChannelClosed();
+        verify(nodeReporter).close();
+    }
+
+    @Test
+    public void testChannelsPerNode() throws Exception {
+        final GrpcRpcChannelPool pool = pool(2);
+        final GrpcRpcChannelPool.Lease lease = pool.acquire(ADDRESS).get();
+
+        final ManagedChannel first = channel(lease);
+        final ManagedChannel second = channel(lease);
+
+        assertNotSame(first, second);
+        assertSame(first, channel(lease));
+        assertEquals(2, lease.dotoAll(async::resolved).get().size());
+
+        lease.release().get();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoChannelsPerNode() {
+        new Builder().channelsPerNode(0).build();
+    }
+
+    private GrpcRpcChannelPool pool(final int channelsPerNode) {
+        return new GrpcRpcChannelPool(async, workerGroup, 1024, channelsPerNode, reporter);
+    }
+
+    private ManagedChannel channel(final GrpcRpcChannelPool.Lease lease) throws Exception {
+        return lease.doto(async::resolved).get();
+    }
+}
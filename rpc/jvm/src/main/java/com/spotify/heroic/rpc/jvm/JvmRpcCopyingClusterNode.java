@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.heroic.rpc.jvm;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spotify.heroic.cluster.ClusterNode;
+import com.spotify.heroic.cluster.NodeMetadata;
+import com.spotify.heroic.metadata.CountSeries;
+import com.spotify.heroic.metadata.DeleteSeries;
+import com.spotify.heroic.metadata.FindKeys;
+import com.spotify.heroic.metadata.FindSeries;
+import com.spotify.heroic.metadata.FindTags;
+import com.spotify.heroic.metadata.WriteMetadata;
+import com.spotify.heroic.metric.FullQuery;
+import com.spotify.heroic.metric.WriteMetric;
+import com.spotify.heroic.suggest.KeySuggest;
+import com.spotify.heroic.suggest.TagKeyCount;
+import com.spotify.heroic.suggest.TagSuggest;
+import com.spotify.heroic.suggest.TagValueSuggest;
+import com.spotify.heroic.suggest.TagValuesSuggest;
+import eu.toolchain.async.AsyncFramework;
+import eu.toolchain.async.AsyncFuture;
+import io.opencensus.trace.Span;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * A node in the same JVM, which copies every request and response through the internal object
+ * mapper.
+ * <p>
+ * Nodes normally share request and response objects directly, this isolates them from each other
+ * the same way that a network protocol would, and catches anything which does not survive
+ * serialization.
+ */
+class JvmRpcCopyingClusterNode implements ClusterNode {
+    private final AsyncFramework async;
+    private final ObjectMapper mapper;
+    private final ClusterNode node;
+
+    JvmRpcCopyingClusterNode(
+        final AsyncFramework async, final ObjectMapper mapper, final ClusterNode node
+    ) {
+        this.async = async;
+        this.mapper = mapper;
+        this.node = node;
+    }
+
+    @Override
+    public NodeMetadata metadata() {
+        return node.metadata();
+    }
+
+    @Override
+    public AsyncFuture<NodeMetadata> fetchMetadata() {
+        return node.fetchMetadata();
+    }
+
+    @Override
+    public AsyncFuture<Void> close() {
+        return node.close();
+    }
+
+    @Override
+    public boolean isAlive() {
+        return node.isAlive();
+    }
+
+    @Override
+    public ClusterNode.Group useOptionalGroup(final Optional<String> group) {
+        return new Group(node.useOptionalGroup(group));
+    }
+
+    public String toString() {
+        return "JvmRpcCopyingClusterNode(node=" + node + ")";
+    }
+
+    private class Group implements ClusterNode.Group {
+        private final ClusterNode.Group group;
+
+        Group(final ClusterNode.Group group) {
+            this.group = group;
+        }
+
+        @Override
+        public ClusterNode node() {
+            return JvmRpcCopyingClusterNode.this;
+        }
+
+        @Override
+        public AsyncFuture<Void> ping() {
+            return group.ping();
+        }
+
+        @Override
+        public AsyncFuture<FullQuery> query(final FullQuery.Request request, final Span span) {
+            return copy(request, FullQuery.Request.class, FullQuery.class,
+                r -> group.query(r, span));
+        }
+
+        @Override
+        public AsyncFuture<FindTags> findTags(final FindTags.Request request) {
+            return copy(request, FindTags.Request.class, FindTags.class, group::findTags);
+        }
+
+        @Override
+        public AsyncFuture<FindKeys> findKeys(final FindKeys.Request request) {
+            return copy(request, FindKeys.Request.class, FindKeys.class, group::findKeys);
+        }
+
+        @Override
+        public AsyncFuture<FindSeries> findSeries(final FindSeries.Request request) {
+            return copy(request, FindSeries.Request.class, FindSeries.class, group::findSeries);
+        }
+
+        @Override
+        public AsyncFuture<DeleteSeries> deleteSeries(final DeleteSeries.Request request) {
+            return copy(request, DeleteSeries.Request.class, DeleteSeries.class,
+                group::deleteSeries);
+        }
+
+        @Override
+        public AsyncFuture<CountSeries> countSeries(final CountSeries.Request request) {
+            return copy(request, CountSeries.Request.class, CountSeries.class,
+                group::countSeries);
+        }
+
+        @Override
+        public AsyncFuture<TagKeyCount> tagKeyCount(final TagKeyCount.Request request) {
+            return copy(request, TagKeyCount.Request.class, TagKeyCount.class,
+                group::tagKeyCount);
+        }
+
+        @Override
+        public AsyncFuture<TagSuggest> tagSuggest(final TagSuggest.Request request) {
+            return copy(request, TagSuggest.Request.class, TagSuggest.class, group::tagSuggest);
+        }
+
+        @Override
+        public AsyncFuture<KeySuggest> keySuggest(final KeySuggest.Request request) {
+            return copy(request, KeySuggest.Request.class, KeySuggest.class, group::keySuggest);
+        }
+
+        @Override
+        public AsyncFuture<TagValuesSuggest> tagValuesSuggest(
+            final TagValuesSuggest.Request request
+        ) {
+            return copy(request, TagValuesSuggest.Request.class, TagValuesSuggest.class,
+                group::tagValuesSuggest);
+        }
+
+        @Override
+        public AsyncFuture<TagValueSuggest> tagValueSuggest(
+            final TagValueSuggest.Request request
+        ) {
+            return copy(request, TagValueSuggest.Request.class, TagValueSuggest.class,
+                group::tagValueSuggest);
+        }
+
+        @Override
+        public AsyncFuture<WriteMetadata> writeSeries(final WriteMetadata.Request request) {
+            return copy(request, WriteMetadata.Request.class, WriteMetadata.class,
+                group::writeSeries);
+        }
+
+        @Override
+        public AsyncFuture<WriteMetric> writeMetric(final WriteMetric.Request request) {
+            return copy(request, WriteMetric.Request.class, WriteMetric.class,
+                group::writeMetric);
+        }
+
+        public String toString() {
+            return "JvmRpcCopyingClusterNode.Group(group=" + group + ")";
+        }
+    }
+
+    private <Q, R> AsyncFuture<R> copy(
+        final Q request, final Class<Q> requestType, final Class<R> responseType,
+        final Function<Q, AsyncFuture<R>> function
+    ) {
+        final Q copied;
+
+        try {
+            copied = mapper.readValue(mapper.writeValueAsBytes(request), requestType);
+        } catch (final Exception e) {
+            return async.failed(e);
+        }
+
+        return function
+            .apply(copied)
+            .directTransform(
+                response -> mapper.readValue(mapper.writeValueAsBytes(response), responseType));
+    }
+}
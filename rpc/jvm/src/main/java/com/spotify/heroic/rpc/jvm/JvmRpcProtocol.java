@@ -36,22 +36,26 @@ public class JvmRpcProtocol implements RpcProtocol {
     private final ObjectMapper mapper;
     private final String bindName;
     private final JvmRpcContext context;
+    private final boolean copy;
 
     @Inject
     public JvmRpcProtocol(
         AsyncFramework async, @Named("application/json+internal") ObjectMapper mapper,
-        @Named("bindName") String bindName, JvmRpcContext context
+        @Named("bindName") String bindName, JvmRpcContext context, @Named("copy") boolean copy
     ) {
         this.async = async;
         this.mapper = mapper;
         this.bindName = bindName;
         this.context = context;
+        this.copy = copy;
     }
 
     @Override
     public AsyncFuture<ClusterNode> connect(final URI uri) {
+        // nodes share request and response objects directly, unless asked to copy them
         return context
             .resolve(uri.getHost())
+            .map(node -> copy ? new JvmRpcCopyingClusterNode(async, mapper, node) : node)
             .map(async::resolved)
             .orElseGet(() -> async.failed(new RuntimeException("Connection refused to: " + uri)));
     }
@@ -33,7 +33,8 @@ import javax.inject.Named
 
 data class JvmRpcProtocolModule(
     @JsonProperty("bindName") val bindName: String? = "heroic-jvm",
-    val context: JvmRpcContext? = JvmRpcContext.globalContext()
+    val context: JvmRpcContext? = JvmRpcContext.globalContext(),
+    @JsonProperty("copy") val copy: Boolean? = false
 ) : RpcProtocolModule {
 
     override fun module(dependencies: RpcProtocolModule.Dependencies): RpcProtocolComponent {
@@ -66,6 +67,11 @@ data class JvmRpcProtocolModule(
         @Named("bindName")
         fun bindName() = bindName!!
 
+        @Provides
+        @JvmRpcScope
+        @Named("copy")
+        fun copy() = copy ?: false
+
         @Provides
         @JvmRpcScope
         fun server(manager: LifeCycleManager, server: JvmRpcProtocolServer): LifeCycle {
@@ -85,9 +91,11 @@ data class JvmRpcProtocolModule(
 
 data class Builder(
     var bindName: String? = null,
-    var context: JvmRpcContext? = null
+    var context: JvmRpcContext? = null,
+    var copy: Boolean? = null
 ) {
     fun bindName(bindName: String) = apply { this.bindName = bindName }
     fun context(context: JvmRpcContext) = apply { this.context = context }
-    fun build() = JvmRpcProtocolModule(bindName, context)
+    fun copy(copy: Boolean) = apply { this.copy = copy }
+    fun build() = JvmRpcProtocolModule(bindName, context, copy)
 }
\ No newline at end of file
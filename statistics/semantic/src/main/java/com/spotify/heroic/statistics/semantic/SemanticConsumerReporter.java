@@ -38,10 +38,14 @@ public class SemanticConsumerReporter implements ConsumerReporter {
     private final Counter metricsIn;
     private final Counter messageError;
     private final Counter messageRetry;
+    private final Counter messageDrop;
     private final Counter consumerSchemaError;
     private final SemanticRatioGauge consumerThreadsLiveRatio;
     private final Histogram messageSize;
     private final Histogram messageDrift;
+    private final Histogram messageBacklog;
+    private final Counter seriesCacheHit;
+    private final Counter seriesCacheMiss;
     private final SemanticFutureReporter consumer;
 
     private final SemanticHeroicTimerGauge consumerCommitWholeOperationTimer;
@@ -55,6 +59,7 @@ public class SemanticConsumerReporter implements ConsumerReporter {
         metricsIn = registry.counter(base.tagged("what", "metrics-in", "unit", Units.COUNT));
         messageError = registry.counter(base.tagged("what", "message-error", "unit", Units.COUNT));
         messageRetry = registry.counter(base.tagged("what", "message-retry", "unit", Units.COUNT));
+        messageDrop = registry.counter(base.tagged("what", "message-drop", "unit", Units.DROP));
         consumerSchemaError =
             registry.counter(base.tagged("what", "consumer-schema-error", "unit", Units.COUNT));
         consumerThreadsLiveRatio = new SemanticRatioGauge();
@@ -64,6 +69,13 @@ public class SemanticConsumerReporter implements ConsumerReporter {
         messageSize = registry.histogram(base.tagged("what", "message-size", "unit", Units.BYTE));
         messageDrift =
             registry.histogram(base.tagged("what", "message-drift", "unit", Units.MILLISECOND));
+        messageBacklog =
+            registry.histogram(base.tagged("what", "message-backlog", "unit", Units.MESSAGE));
+
+        seriesCacheHit =
+            registry.counter(base.tagged("what", "series-cache-hit", "unit", Units.COUNT));
+        seriesCacheMiss =
+            registry.counter(base.tagged("what", "series-cache-miss", "unit", Units.COUNT));
 
         consumer = new SemanticFutureReporter(registry,
             base.tagged("what", "consumer", "unit", Units.WRITE));
@@ -80,9 +92,11 @@ public class SemanticConsumerReporter implements ConsumerReporter {
     }
 
     @java.beans.ConstructorProperties({ "base", "messageIn", "metricsIn", "messageError",
-                                        "messageRetry", "consumerSchemaError",
+                                        "messageRetry", "messageDrop", "consumerSchemaError",
                                         "consumerThreadsLiveRatio", "messageSize",
-                                        "messageDrift", "consumer",
+                                        "messageDrift", "messageBacklog", "seriesCacheHit",
+                                        "seriesCacheMiss",
+                                        "consumer",
                                         "consumerCommitWholeOperationTimer",
                                         "consumerCommitPhase1Timer", "consumerCommitPhase2Timer" })
     public SemanticConsumerReporter(
@@ -91,10 +105,14 @@ public class SemanticConsumerReporter implements ConsumerReporter {
         final Counter metricsIn,
         final Counter messageError,
         final Counter messageRetry,
+        final Counter messageDrop,
         final Counter consumerSchemaError,
         final SemanticRatioGauge consumerThreadsLiveRatio,
         final Histogram messageSize,
         final Histogram messageDrift,
+        final Histogram messageBacklog,
+        final Counter seriesCacheHit,
+        final Counter seriesCacheMiss,
         final SemanticFutureReporter consumer,
         final SemanticHeroicTimerGauge consumerCommitWholeOperationTimer,
         final SemanticHeroicTimerGauge consumerCommitPhase1Timer,
@@ -105,10 +123,14 @@ public class SemanticConsumerReporter implements ConsumerReporter {
         this.metricsIn = metricsIn;
         this.messageError = messageError;
         this.messageRetry = messageRetry;
+        this.messageDrop = messageDrop;
         this.consumerSchemaError = consumerSchemaError;
         this.consumerThreadsLiveRatio = consumerThreadsLiveRatio;
         this.messageSize = messageSize;
         this.messageDrift = messageDrift;
+        this.messageBacklog = messageBacklog;
+        this.seriesCacheHit = seriesCacheHit;
+        this.seriesCacheMiss = seriesCacheMiss;
         this.consumer = consumer;
         this.consumerCommitWholeOperationTimer = consumerCommitWholeOperationTimer;
         this.consumerCommitPhase1Timer = consumerCommitPhase1Timer;
@@ -136,6 +158,16 @@ public class SemanticConsumerReporter implements ConsumerReporter {
         messageRetry.inc();
     }
 
+    @Override
+    public void reportMessageDrop() {
+        messageDrop.inc();
+    }
+
+    @Override
+    public void reportMessageBacklog(final int size) {
+        messageBacklog.update(size);
+    }
+
     @Override
     public void reportConsumerSchemaError() {
         consumerSchemaError.inc();
@@ -161,6 +193,16 @@ public class SemanticConsumerReporter implements ConsumerReporter {
         messageDrift.update(ms);
     }
 
+    @Override
+    public void reportSeriesCacheHit() {
+        seriesCacheHit.inc();
+    }
+
+    @Override
+    public void reportSeriesCacheMiss() {
+        seriesCacheMiss.inc();
+    }
+
     @Override
     public FutureReporter.Context reportConsumption() {
         return consumer.setup();
@@ -31,6 +31,7 @@ import com.spotify.heroic.statistics.MemcachedReporter;
 import com.spotify.heroic.statistics.MetadataBackendReporter;
 import com.spotify.heroic.statistics.MetricBackendReporter;
 import com.spotify.heroic.statistics.QueryReporter;
+import com.spotify.heroic.statistics.RpcReporter;
 import com.spotify.heroic.statistics.SuggestBackendReporter;
 import com.spotify.metrics.core.MetricId;
 import com.spotify.metrics.core.SemanticMetricRegistry;
@@ -93,6 +94,11 @@ public class SemanticHeroicReporter implements HeroicReporter {
         return new SemanticMemcachedReporter(registry, consumerType);
     }
 
+    @Override
+    public RpcReporter newRpcReporter(final String protocol) {
+        return new SemanticRpcReporter(registry, protocol);
+    }
+
     @Override
     public QueryReporter newQueryReporter() {
         return new SemanticQueryReporter(registry);
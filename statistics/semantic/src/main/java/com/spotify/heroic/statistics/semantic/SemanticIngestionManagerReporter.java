@@ -22,15 +22,20 @@
 package com.spotify.heroic.statistics.semantic;
 
 import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
 import com.spotify.heroic.statistics.IngestionManagerReporter;
 import com.spotify.metrics.core.MetricId;
 import com.spotify.metrics.core.SemanticMetricRegistry;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class SemanticIngestionManagerReporter implements IngestionManagerReporter {
     private static final String COMPONENT = "ingestion-manager";
 
     private final Counter concurrentWritesCounter;
     private final Counter droppedByFilter;
+    private final Counter pendingWrites;
+    private final Counter rejectedWrites;
+    private final AtomicInteger writeLimit = new AtomicInteger();
 
     public SemanticIngestionManagerReporter(SemanticMetricRegistry registry) {
         final MetricId id = MetricId.build().tagged("component", COMPONENT);
@@ -38,6 +43,12 @@ public class SemanticIngestionManagerReporter implements IngestionManagerReporte
             registry.counter(id.tagged("what", "concurrent-writes", "unit", Units.WRITE));
         this.droppedByFilter =
             registry.counter(id.tagged("what", "dropped-by-filter", "unit", Units.COUNT));
+        this.pendingWrites =
+            registry.counter(id.tagged("what", "pending-writes", "unit", Units.WRITE));
+        this.rejectedWrites =
+            registry.counter(id.tagged("what", "rejected-writes", "unit", Units.WRITE));
+        registry.register(id.tagged("what", "concurrent-writes-limit", "unit", Units.WRITE),
+            (Gauge<Integer>) writeLimit::get);
     }
 
     @Override
@@ -55,6 +66,26 @@ public class SemanticIngestionManagerReporter implements IngestionManagerReporte
         concurrentWritesCounter.dec();
     }
 
+    @Override
+    public void incrementPendingWrites() {
+        pendingWrites.inc();
+    }
+
+    @Override
+    public void decrementPendingWrites() {
+        pendingWrites.dec();
+    }
+
+    @Override
+    public void reportWriteRejected() {
+        rejectedWrites.inc();
+    }
+
+    @Override
+    public void reportWriteLimit(final int limit) {
+        writeLimit.set(limit);
+    }
+
     public String toString() {
         return "SemanticIngestionManagerReporter()";
     }
@@ -58,6 +58,8 @@ public class SemanticMetadataBackendReporter implements MetadataBackendReporter
     private final Counter writesDroppedByCacheHit;
     private final Counter writesDroppedByDuplicate;
     private final Counter failedShards;
+    private final Counter findSeriesCacheHit;
+    private final Counter findSeriesCacheMiss;
 
 
     public SemanticMetadataBackendReporter(SemanticMetricRegistry registry) {
@@ -90,6 +92,11 @@ public class SemanticMetadataBackendReporter implements MetadataBackendReporter
         // only relevant to es backend.
         failedShards = registry.counter(
             base.tagged("what", "failed-es-shards", "unit", Units.COUNT));
+
+        findSeriesCacheHit = registry.counter(
+            base.tagged("what", "find-series-cache-hit", "unit", Units.COUNT));
+        findSeriesCacheMiss = registry.counter(
+            base.tagged("what", "find-series-cache-miss", "unit", Units.COUNT));
     }
 
     @Override
@@ -120,6 +127,16 @@ public class SemanticMetadataBackendReporter implements MetadataBackendReporter
         writesDroppedByDuplicate.inc();
     }
 
+    @Override
+    public void reportFindSeriesCacheHit() {
+        findSeriesCacheHit.inc();
+    }
+
+    @Override
+    public void reportFindSeriesCacheMiss() {
+        findSeriesCacheMiss.inc();
+    }
+
     public String toString() {
         return "SemanticMetadataBackendReporter()";
     }
@@ -36,6 +36,10 @@ public class SemanticQueryReporter implements QueryReporter {
     private final Histogram queryReadRate;
     private final Counter rpcError;
     private final Counter rpcCancellation;
+    private final Counter hedgeFired;
+    private final Counter hedgeWon;
+    private final Counter queryCoalesced;
+    private final Counter latencyBudgetExceeded;
 
     public SemanticQueryReporter(final SemanticMetricRegistry registry) {
         final MetricId base = MetricId.build().tagged("component", COMPONENT);
@@ -50,6 +54,13 @@ public class SemanticQueryReporter implements QueryReporter {
         rpcError = registry.counter(base.tagged("what", "cluster-rpc-error", "unit", Units.COUNT));
         rpcCancellation =
             registry.counter(base.tagged("what", "cluster-rpc-cancellation", "unit", Units.COUNT));
+        hedgeFired =
+            registry.counter(base.tagged("what", "cluster-hedge-fired", "unit", Units.COUNT));
+        hedgeWon = registry.counter(base.tagged("what", "cluster-hedge-won", "unit", Units.COUNT));
+        queryCoalesced =
+            registry.counter(base.tagged("what", "query-coalesced", "unit", Units.COUNT));
+        latencyBudgetExceeded = registry.counter(
+            base.tagged("what", "latency-budget-exceeded", "unit", Units.COUNT));
     }
 
     @Override
@@ -82,6 +93,26 @@ public class SemanticQueryReporter implements QueryReporter {
         rpcCancellation.inc();
     }
 
+    @Override
+    public void reportHedgeFired() {
+        hedgeFired.inc();
+    }
+
+    @Override
+    public void reportHedgeWon() {
+        hedgeWon.inc();
+    }
+
+    @Override
+    public void reportQueryCoalesced() {
+        queryCoalesced.inc();
+    }
+
+    @Override
+    public void reportLatencyBudgetExceeded() {
+        latencyBudgetExceeded.inc();
+    }
+
     public String toString() {
         return "SemanticQueryReporter()";
     }
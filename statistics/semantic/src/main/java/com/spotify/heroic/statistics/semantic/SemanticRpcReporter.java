@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2015 Spotify AB.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.spotify.heroic.statistics.semantic;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
+import com.spotify.heroic.statistics.RpcReporter;
+import com.spotify.metrics.core.MetricId;
+import com.spotify.metrics.core.SemanticMetricRegistry;
+
+public class SemanticRpcReporter implements RpcReporter {
+    private static final String COMPONENT = "rpc";
+
+    private final SemanticMetricRegistry registry;
+    private final MetricId base;
+
+    private final Counter channelOpened;
+    private final Counter channelReused;
+    private final Counter channelClosed;
+    private final Counter warmupFailed;
+
+    public SemanticRpcReporter(final SemanticMetricRegistry registry, final String protocol) {
+        this.registry = registry;
+        this.base = MetricId.build().tagged("component", COMPONENT, "protocol", protocol);
+
+        final MetricId channel = base.tagged("what", "channel", "unit", Units.COUNT);
+
+        channelOpened = registry.counter(channel.tagged("action", "opened"));
+        channelReused = registry.counter(channel.tagged("action", "reused"));
+        channelClosed = registry.counter(channel.tagged("action", "closed"));
+        warmupFailed =
+            registry.counter(base.tagged("what", "warmup-failed", "unit", Units.COUNT));
+    }
+
+    @Override
+    public void reportChannelOpened() {
+        channelOpened.inc();
+    }
+
+    @Override
+    public void reportChannelReused() {
+        channelReused.inc();
+    }
+
+    @Override
+    public void reportChannelClosed() {
+        channelClosed.inc();
+    }
+
+    @Override
+    public void reportWarmupFailed() {
+        warmupFailed.inc();
+    }
+
+    @Override
+    public NodeReporter newNode(final String node) {
+        return new SemanticNodeReporter(base.tagged("node", node));
+    }
+
+    public String toString() {
+        return "SemanticRpcReporter()";
+    }
+
+    private class SemanticNodeReporter implements NodeReporter {
+        private final MetricId activeStreamsId;
+        private final MetricId streamsId;
+
+        private final Counter activeStreams;
+        private final Meter streams;
+
+        SemanticNodeReporter(final MetricId node) {
+            this.activeStreamsId = node.tagged("what", "active-streams", "unit", Units.COUNT);
+            this.streamsId = node.tagged("what", "streams", "unit", Units.COUNT);
+
+            this.activeStreams = registry.counter(activeStreamsId);
+            this.streams = registry.meter(streamsId);
+        }
+
+        @Override
+        public void reportStreamStarted() {
+            activeStreams.inc();
+            streams.mark();
+        }
+
+        @Override
+        public void reportStreamFinished() {
+            activeStreams.dec();
+        }
+
+        @Override
+        public void close() {
+            registry.remove(activeStreamsId);
+            registry.remove(streamsId);
+        }
+    }
+}
@@ -38,6 +38,8 @@ import com.spotify.heroic.common.Series;
 import com.spotify.heroic.common.Statistics;
 import com.spotify.heroic.elasticsearch.AbstractElasticsearchBackend;
 import com.spotify.heroic.elasticsearch.BackendType;
+import com.spotify.heroic.elasticsearch.BulkItemException;
+import com.spotify.heroic.elasticsearch.BulkWriter;
 import com.spotify.heroic.elasticsearch.Connection;
 import com.spotify.heroic.elasticsearch.RateLimitedCache;
 import com.spotify.heroic.elasticsearch.index.NoIndexSelectedException;
@@ -54,7 +56,6 @@ import com.spotify.heroic.filter.TrueFilter;
 import com.spotify.heroic.lifecycle.LifeCycleRegistry;
 import com.spotify.heroic.lifecycle.LifeCycles;
 import com.spotify.heroic.metric.NodeError;
-import com.spotify.heroic.metric.RequestError;
 import com.spotify.heroic.statistics.FutureReporter;
 import com.spotify.heroic.statistics.SuggestBackendReporter;
 import com.spotify.heroic.suggest.KeySuggest;
@@ -85,6 +86,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Supplier;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -93,9 +95,6 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import org.apache.commons.lang3.tuple.Pair;
 import org.elasticsearch.action.DocWriteRequest;
-import org.elasticsearch.action.bulk.BulkItemResponse;
-import org.elasticsearch.action.bulk.BulkRequest;
-import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchResponse;
@@ -157,6 +156,7 @@ public class SuggestBackendKV extends AbstractElasticsearchBackend
      * Integer is the hashCode of the series.
      */
     private final RateLimitedCache<Pair<String, HashCode>> writeCache;
+    private final BulkWriter bulk;
 
     private final Groups groups;
     private final boolean configure;
@@ -167,12 +167,14 @@ public class SuggestBackendKV extends AbstractElasticsearchBackend
         final Managed<Connection> connection,
         final SuggestBackendReporter reporter,
         final RateLimitedCache<Pair<String, HashCode>> writeCache,
+        final BulkWriter bulk,
         final Groups groups,
         @Named("configure") boolean configure) {
         super(async);
         this.connection = connection;
         this.reporter = reporter;
         this.writeCache = writeCache;
+        this.bulk = bulk;
         this.groups = groups;
         this.configure = configure;
     }
@@ -214,7 +216,7 @@ public class SuggestBackendKV extends AbstractElasticsearchBackend
 
                 final QueryBuilder query = bool.hasClauses() ? bool : matchAllQuery();
 
-                SearchRequest searchRequest = c.getIndex().search(TAG_TYPE);
+                SearchRequest searchRequest = c.getIndex().search(TAG_TYPE, request.getRange());
                 searchRequest.source().size(0).query(query).timeout(TIMEOUT);
 
                 final OptionalLimit limit = request.getLimit();
@@ -298,7 +300,7 @@ public class SuggestBackendKV extends AbstractElasticsearchBackend
                     query = new BoolQueryBuilder().must(query).filter(filter(request.getFilter()));
                 }
 
-                SearchRequest searchRequest = c.getIndex().search(TAG_TYPE);
+                SearchRequest searchRequest = c.getIndex().search(TAG_TYPE, request.getRange());
                 searchRequest.source().size(0).query(query);
 
                 final OptionalLimit limit = request.getLimit();
@@ -345,7 +347,7 @@ public class SuggestBackendKV extends AbstractElasticsearchBackend
             (final Connection c) -> {
                 final QueryBuilder root = new BoolQueryBuilder().must(filter(request.getFilter()));
 
-                SearchRequest searchRequest = c.getIndex().search(TAG_TYPE);
+                SearchRequest searchRequest = c.getIndex().search(TAG_TYPE, request.getRange());
                 searchRequest.source().size(0).query(root);
 
                 final OptionalLimit limit = request.getLimit();
@@ -457,7 +459,7 @@ public class SuggestBackendKV extends AbstractElasticsearchBackend
                     query = new BoolQueryBuilder().must(query).filter(filter(request.getFilter()));
                 }
 
-                SearchRequest searchRequest = c.getIndex().search(TAG_TYPE);
+                SearchRequest searchRequest = c.getIndex().search(TAG_TYPE, request.getRange());
                 searchRequest.source().size(0).query(query).timeout(TIMEOUT);
 
                 // aggregation
@@ -533,7 +535,7 @@ public class SuggestBackendKV extends AbstractElasticsearchBackend
                     query = new BoolQueryBuilder().must(query).filter(filter(request.getFilter()));
                 }
 
-                SearchRequest searchRequest = c.getIndex().search(SERIES_TYPE);
+                SearchRequest searchRequest = c.getIndex().search(SERIES_TYPE, request.getRange());
                 searchRequest.source().size(0).query(query);
 
                 // aggregation
@@ -608,11 +610,11 @@ public class SuggestBackendKV extends AbstractElasticsearchBackend
                     return async.failed(e);
                 }
 
-                final ResolvableFuture<BulkResponse> future = async.future();
                 final FutureReporter.Context writeContext = reporter.setupWriteReporter();
                 final RequestTimer<WriteSuggest> timer = WriteSuggest.timer();
+                final AtomicBoolean addFailureAnnotation = new AtomicBoolean(true);
 
-                final BulkRequest bulkRequest = new BulkRequest();
+                final List<AsyncFuture<WriteSuggest>> writes = new ArrayList<>();
                 for (final String index : seriesIndex) {
                     final Span indexSpan = tracer.spanBuilder(rootSpanName + ".index").startSpan();
                     final Scope indexScope = tracer.withSpan(indexSpan);
@@ -638,7 +640,7 @@ public class SuggestBackendKV extends AbstractElasticsearchBackend
                         .id(seriesId)
                         .source(series)
                         .opType(DocWriteRequest.OpType.CREATE);
-                    bulkRequest.add(seriesIndexRequest);
+                    writes.add(index(c, seriesIndexRequest, rootSpan, addFailureAnnotation));
 
                     for (final String tagIndex : tagsIndexes) {
                         for (final Map.Entry<String, String> e : s.getTags().entrySet()) {
@@ -656,50 +658,52 @@ public class SuggestBackendKV extends AbstractElasticsearchBackend
                                     .id(suggestId)
                                     .source(suggest)
                                     .opType(DocWriteRequest.OpType.CREATE);
-                            bulkRequest.add(tagIndexRequest);
+                            writes.add(
+                                index(c, tagIndexRequest, rootSpan, addFailureAnnotation));
                         }
                     }
                     indexScope.close();
                 }
 
                 // nothing to write because the series is in the write cache.
-                if (bulkRequest.numberOfActions() == 0) {
+                if (writes.isEmpty()) {
                     return async.resolved(new WriteSuggest());
                 }
 
-                c.execute(bulkRequest, bind(future));
-
-                return future
-                    .directTransform(
-                        response -> {
-                            boolean addFailureAnnotation = true;
-                            final List<RequestError> errors = new ArrayList<>();
-                            for (final BulkItemResponse r : response.getItems()) {
-                                if (r.isFailed()) {
-                                    errors.add(NodeError.internalError(r.getFailureMessage()));
-
-                                    if (r.getFailure().getCause()
-                                        instanceof VersionConflictEngineException ||
-                                        r.getFailure().getMessage()
-                                        .contains("version_conflict_engine_exception")) {
-                                        reporter.reportWriteDroppedByDuplicate();
-                                    } else if (addFailureAnnotation) {
-                                        rootSpan.addAnnotation(r.getFailureMessage());
-                                        addFailureAnnotation = false;
-                                    }
-                                }
-                            }
-                            timer.end();
-                            return new WriteSuggest(
-                                errors,
-                                ImmutableList.of(response.getTook().getMillis()),
-                                ImmutableList.of());
-                        })
+                return async
+                    .collect(writes, WriteSuggest.reduce())
+                    .directTransform(result -> new WriteSuggest(result.getErrors(),
+                        timer.end().getTimes(), ImmutableList.of()))
                     .onDone(writeContext)
                     .onFinished(rootSpan::end);
             });
     }
 
+    /**
+     * Index a document through the shared bulk writer, reporting failures of the individual
+     * document as errors of the write.
+     */
+    private AsyncFuture<WriteSuggest> index(
+        final Connection c, final IndexRequest request, final Span rootSpan,
+        final AtomicBoolean addFailureAnnotation
+    ) {
+        return bulk.index(c, request).directTransform(r -> new WriteSuggest()).catchFailed(e -> {
+            if (!(e instanceof BulkItemException)) {
+                throw new RuntimeException(e);
+            }
+
+            if (e.getCause() instanceof VersionConflictEngineException ||
+                e.getMessage().contains("version_conflict_engine_exception")) {
+                reporter.reportWriteDroppedByDuplicate();
+            } else if (addFailureAnnotation.compareAndSet(true, false)) {
+                rootSpan.addAnnotation(e.getMessage());
+            }
+
+            return new WriteSuggest(ImmutableList.of(NodeError.internalError(e.getMessage())),
+                ImmutableList.of(), ImmutableList.of());
+        });
+    }
+
     @Override
     public Statistics getStatistics() {
         return new Statistics(WRITE_CACHE_SIZE, writeCache.size());
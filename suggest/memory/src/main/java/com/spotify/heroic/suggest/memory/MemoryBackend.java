@@ -28,6 +28,7 @@ import com.spotify.heroic.common.Grouped;
 import com.spotify.heroic.common.Groups;
 import com.spotify.heroic.common.OptionalLimit;
 import com.spotify.heroic.common.Series;
+import com.spotify.heroic.filter.CompiledFilter;
 import com.spotify.heroic.filter.Filter;
 import com.spotify.heroic.suggest.KeySuggest;
 import com.spotify.heroic.suggest.SuggestBackend;
@@ -311,25 +312,28 @@ public class MemoryBackend implements SuggestBackend, Grouped {
     }
 
     private Stream<KeyDocument> lookupKeys(final Filter filter) {
+        final CompiledFilter compiled = CompiledFilter.compile(filter);
         final Lock l = lock.readLock();
         l.lock();
         return keyIndex.values().stream()
-            .filter(e -> filter.apply(e.getSeries()))
+            .filter(e -> compiled.apply(e.getSeries()))
             .onClose(l::unlock);
     }
 
     private Stream<TagDocument> lookupTags(final Filter filter) {
+        final CompiledFilter compiled = CompiledFilter.compile(filter);
         final Lock l = lock.readLock();
         l.lock();
         return tagIndex.values().stream()
-            .filter(e -> filter.apply(e.getSeries()))
+            .filter(e -> compiled.apply(e.getSeries()))
             .onClose(l::unlock);
     }
 
     private Stream<Series> lookupSeries(final Filter filter) {
+        final CompiledFilter compiled = CompiledFilter.compile(filter);
         final Lock l = lock.readLock();
         l.lock();
-        return series.stream().filter(filter::apply).onClose(l::unlock);
+        return series.stream().filter(compiled::apply).onClose(l::unlock);
     }
 
     public String toString() {